@@ -0,0 +1,77 @@
+package de.chloedev.config.jmh;
+
+import de.chloedev.config.jmh.Corpus.Content;
+import de.chloedev.config.jmh.Corpus.Shape;
+import de.chloedev.config.jmh.Corpus.Size;
+import de.chloedev.config.jmh.Corpus.Style;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.io.JsonConfiguration;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Lookups and writes at existing leaves, visited in a fixed pseudo-random order. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigBenchmark {
+  @Param public Size size;
+  @Param public Shape shape;
+  @Param public Content content;
+
+  private JsonConfiguration config;
+  private String[] paths;
+  private int next;
+  private final JsonElement value = JsonPrimitive.of(42);
+
+  @Setup
+  public void setup() {
+    Corpus corpus = Corpus.generate(size, shape, content, Style.MINIFIED);
+    config = JsonConfiguration.fromString(corpus.text());
+    paths = corpus.paths().toArray(new String[0]);
+    SplittableRandom random = new SplittableRandom(paths.length);
+    for (int i = paths.length - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      String tmp = paths[i];
+      paths[i] = paths[j];
+      paths[j] = tmp;
+    }
+  }
+
+  private String nextPath() {
+    String path = paths[next];
+    next = next + 1 == paths.length ? 0 : next + 1;
+    return path;
+  }
+
+  @Benchmark
+  public JsonElement get() {
+    return config.get(nextPath());
+  }
+
+  @Benchmark
+  public void set() {
+    config.set(nextPath(), value);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public Set<String> getKeys() {
+    return config.getKeys("", true);
+  }
+}
@@ -0,0 +1,120 @@
+package de.chloedev.config.jmh;
+
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates the benchmark documents. A corpus depends only on its parameters, so every run and
+ * every release benchmarks exactly the same input.
+ */
+public final class Corpus {
+  private static final long SEED = 0x5EED_C0FF_EEL;
+
+  /** The approximate size of the minified document. */
+  public enum Size {
+    SMALL(1 << 10),
+    MEDIUM(100 << 10),
+    HUGE(10 << 20);
+
+    final int bytes;
+
+    Size(int bytes) {
+      this.bytes = bytes;
+    }
+  }
+
+  public enum Shape {
+    /** Every value directly below the root. */
+    FLAT,
+    /** Every value nested eight objects deep. */
+    DEEP
+  }
+
+  public enum Content {
+    STRINGS,
+    NUMBERS
+  }
+
+  public enum Style {
+    MINIFIED,
+    PRETTY
+  }
+
+  private final JsonObject root;
+  private final List<String> paths;
+  private final String text;
+
+  private Corpus(JsonObject root, List<String> paths, String text) {
+    this.root = root;
+    this.paths = paths;
+    this.text = text;
+  }
+
+  public static Corpus generate(Size size, Shape shape, Content content, Style style) {
+    SplittableRandom random = new SplittableRandom(SEED);
+    JsonObject root = new JsonObject();
+    List<String> paths = new ArrayList<>();
+    int depth = shape == Shape.DEEP ? 8 : 1;
+    // what a leaf costs once written, measured; flat keys carry their section's name
+    int leafBytes = (content == Content.STRINGS ? 30 : 25) + (shape == Shape.FLAT ? 12 : 0);
+    int leaves = Math.max(8, size.bytes / leafBytes);
+    int perSection = 64;
+    for (int i = 0; i < leaves; i++) {
+      StringBuilder path = new StringBuilder();
+      int section = i / perSection;
+      for (int d = 0; d < depth - 1; d++) {
+        // deep documents branch four ways per level, then run into a section of leaves
+        int branch = d == depth - 2 ? section : (section >> (2 * (depth - 2 - d))) & 3;
+        path.append("level").append(d).append('_').append(branch).append('/');
+      }
+      path.append(depth == 1 ? "section" + section + "_" : "").append("key").append(i);
+      String p = path.toString();
+      root.put(p, value(random, content, i));
+      paths.add(p);
+    }
+    String text = root.toString(style == Style.PRETTY ? 2 : 0);
+    return new Corpus(root, List.copyOf(paths), text);
+  }
+
+  private static JsonElement value(SplittableRandom random, Content content, int i) {
+    if (content == Content.NUMBERS) {
+      return switch (i % 3) {
+        case 0 -> JsonPrimitive.of(random.nextLong(1_000_000_000L));
+        case 1 -> JsonPrimitive.of(random.nextInt(10_000) / 100.0);
+        default -> {
+          JsonArray arr = new JsonArray();
+          arr.add(JsonPrimitive.of(random.nextInt(100)));
+          arr.add(JsonPrimitive.of(random.nextDouble()));
+          yield arr;
+        }
+      };
+    }
+    StringBuilder sb = new StringBuilder(24);
+    int len = 8 + random.nextInt(16);
+    for (int k = 0; k < len; k++) {
+      // mostly ASCII with the occasional escape and multi-byte character
+      int r = random.nextInt(64);
+      sb.append(r == 0 ? '"' : r == 1 ? 'é' : (char) ('a' + r % 26));
+    }
+    return JsonPrimitive.of(sb.toString());
+  }
+
+  /** The document as a tree. Benchmarks that change it must work on a copy. */
+  public JsonObject root() {
+    return root;
+  }
+
+  /** The path of every leaf, in document order. */
+  public List<String> paths() {
+    return paths;
+  }
+
+  public String text() {
+    return text;
+  }
+}
@@ -0,0 +1,45 @@
+package de.chloedev.config.jmh;
+
+import de.chloedev.config.jmh.Corpus.Content;
+import de.chloedev.config.jmh.Corpus.Shape;
+import de.chloedev.config.jmh.Corpus.Size;
+import de.chloedev.config.jmh.Corpus.Style;
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.element.JsonElement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+  @Param public Size size;
+  @Param public Shape shape;
+  @Param public Content content;
+  @Param public Style style;
+
+  private String text;
+
+  @Setup
+  public void setup() {
+    text = Corpus.generate(size, shape, content, style).text();
+  }
+
+  @Benchmark
+  public JsonElement parse() {
+    return JsonParser.parse(text);
+  }
+}
@@ -0,0 +1,63 @@
+package de.chloedev.config.jmh;
+
+import de.chloedev.config.jmh.Corpus.Content;
+import de.chloedev.config.jmh.Corpus.Shape;
+import de.chloedev.config.jmh.Corpus.Size;
+import de.chloedev.config.jmh.Corpus.Style;
+import de.chloedev.config.json.io.JsonConfiguration;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializeBenchmark {
+  @Param public Size size;
+  @Param public Shape shape;
+  @Param public Content content;
+
+  @Param({"0", "2"})
+  public int indent;
+
+  private JsonConfiguration config;
+  private File file;
+
+  @Setup
+  public void setup() throws IOException {
+    Corpus corpus = Corpus.generate(size, shape, content, Style.MINIFIED);
+    config = JsonConfiguration.fromString(corpus.text());
+    file = Files.createTempFile("config-bench", ".json").toFile();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file.toPath());
+  }
+
+  @Benchmark
+  public String toStringIndented() {
+    return config.toString(indent);
+  }
+
+  @Benchmark
+  public boolean writeToFile() {
+    return config.writeToFile(file, indent);
+  }
+}
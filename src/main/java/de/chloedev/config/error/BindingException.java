@@ -0,0 +1,38 @@
+package de.chloedev.config.error;
+
+import java.io.Serial;
+
+/** Thrown when a JSON value cannot be bound to a Java type, or a type cannot be bound at all. */
+public class BindingException extends RuntimeException {
+  @Serial private static final long serialVersionUID = 6186359403826416017L;
+
+  private final String path;
+  private final String reason;
+
+  public BindingException(String message) {
+    this("", message, null);
+  }
+
+  public BindingException(String message, Throwable cause) {
+    this("", message, cause);
+  }
+
+  private BindingException(String path, String reason, Throwable cause) {
+    super(path.isEmpty() ? reason : reason + " at '" + path + "'", cause);
+    this.path = path;
+    this.reason = reason;
+  }
+
+  /** The path of the value that could not be bound, relative to the bound value; may be empty. */
+  public String getPath() {
+    return path;
+  }
+
+  /** Returns this exception for a value that is the member or element {@code segment}. */
+  public BindingException under(String segment) {
+    BindingException e =
+        new BindingException(path.isEmpty() ? segment : segment + "/" + path, reason, getCause());
+    e.setStackTrace(getStackTrace());
+    return e;
+  }
+}
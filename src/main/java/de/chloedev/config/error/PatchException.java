@@ -0,0 +1,24 @@
+package de.chloedev.config.error;
+
+import java.io.Serial;
+
+/** Thrown when a patch cannot be applied, for example because a {@code test} operation failed. */
+public class PatchException extends RuntimeException {
+  @Serial private static final long serialVersionUID = -3071412690725262841L;
+
+  public PatchException() {
+    super();
+  }
+
+  public PatchException(String message) {
+    super(message);
+  }
+
+  public PatchException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+  public PatchException(Throwable cause) {
+    super(cause);
+  }
+}
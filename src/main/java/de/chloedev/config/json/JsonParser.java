@@ -4,200 +4,124 @@ import de.chloedev.config.json.element.JsonArray;
 import de.chloedev.config.json.element.JsonElement;
 import de.chloedev.config.json.element.JsonObject;
 import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.stream.JsonReader;
+import de.chloedev.config.json.stream.JsonToken;
+import de.chloedev.config.json.stream.NameTable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 
+/** Builds {@link JsonElement} trees from the tokens of a {@link JsonReader}. */
 public class JsonParser {
-    private final String json;
-    private final int len;
-    private int pos = 0;
-    private JsonParser(String json) {
-        this.json = json;
-        this.len = json.length();
+    private JsonParser() {
     }
 
     public static JsonElement parse(String json) {
-        JsonParser p = new JsonParser(json);
-        JsonElement root = p.parseValue();
-        p.skipWhitespace();
-        if (p.pos != p.len) {
-            throw p.error("Unexpected trailing data");
+        try {
+            return parse(JsonReader.of(json));
+        } catch (IOException ex) {
+            // reading from a String never fails
+            throw new UncheckedIOException(ex);
         }
-        return root;
     }
 
-    private JsonElement parseValue() {
-        skipWhitespace();
-        if (pos >= len) {
-            throw error("Unexpected end of input");
-        }
-        char c = json.charAt(pos);
-        return switch (c) {
-            case '{' -> parseObject();
-            case '[' -> parseArray();
-            case '"' -> parseString();
-            case 't' -> parseLiteral("true", new JsonPrimitive(true));
-            case 'f' -> parseLiteral("false", new JsonPrimitive(false));
-            case 'n' -> parseLiteral("null", new JsonPrimitive((Object) null));
-            default -> parseNumber();
-        };
+    public static JsonElement parse(Reader reader) throws IOException {
+        return parse(JsonReader.of(reader));
     }
 
-    private JsonObject parseObject() {
-        expect('{');
-        JsonObject obj = new JsonObject();
-        skipWhitespace();
-        if (peek() == '}') {
-            pos++;
-            return obj;
-        }
-        while (true) {
-            skipWhitespace();
-            JsonPrimitive keyPrim = parseString();
-            String key = keyPrim.getAsString();
-            skipWhitespace();
-            expect(':');
-            JsonElement val = parseValue();
-            obj.put(key, val);
-            skipWhitespace();
-            char next = peek();
-            if (next == ',') {
-                pos++;
-                continue;
-            } else if (next == '}') {
-                pos++;
-                break;
-            } else {
-                throw error("Expected ',' or '}' in object");
-            }
-        }
-        return obj;
+    /** Parses UTF-8 encoded JSON from the given stream. */
+    public static JsonElement parse(InputStream in) throws IOException {
+        return parse(JsonReader.of(in));
     }
 
-    private JsonArray parseArray() {
-        expect('[');
-        JsonArray arr = new JsonArray();
-        skipWhitespace();
-        if (peek() == ']') {
-            pos++;
-            return arr;
+    /**
+     * Parses exactly one document from the reader; anything but whitespace after it is an error.
+     * Unless the reader already has a {@link NameTable}, a table for this parse makes repeated
+     * keys share one instance.
+     */
+    public static JsonElement parse(JsonReader reader) throws IOException {
+        if (reader.getNameTable() != null) {
+            return parseDocument(reader);
         }
-        while (true) {
-            JsonElement elem = parseValue();
-            arr.add(elem);
-            skipWhitespace();
-            char next = peek();
-            if (next == ',') {
-                pos++;
-                continue;
-            } else if (next == ']') {
-                pos++;
-                break;
-            } else {
-                throw error("Expected ',' or ']' in array");
-            }
+        reader.setNameTable(new NameTable());
+        try {
+            return parseDocument(reader);
+        } finally {
+            reader.setNameTable(null);
         }
-        return arr;
     }
 
-    private JsonPrimitive parseString() {
-        expect('"');
-        StringBuilder sb = new StringBuilder();
-        while (pos < len) {
-            char c = json.charAt(pos++);
-            if (c == '"') break;
-            if (c == '\\') {
-                if (pos >= len) throw error("Unterminated escape");
-                char esc = json.charAt(pos++);
-                switch (esc) {
-                    case '"':
-                        sb.append('"');
-                        break;
-                    case '\\':
-                        sb.append('\\');
-                        break;
-                    case '/':
-                        sb.append('/');
-                        break;
-                    case 'b':
-                        sb.append('\b');
-                        break;
-                    case 'f':
-                        sb.append('\f');
-                        break;
-                    case 'n':
-                        sb.append('\n');
-                        break;
-                    case 'r':
-                        sb.append('\r');
-                        break;
-                    case 't':
-                        sb.append('\t');
-                        break;
-                    case 'u':
-                        if (pos + 4 > len) throw error("Invalid \\u escape");
-                        String hex = json.substring(pos, pos + 4);
-                        sb.append((char) Integer.parseInt(hex, 16));
-                        pos += 4;
-                        break;
-                    default:
-                        throw error("Invalid escape: \\" + esc);
-                }
-            } else {
-                sb.append(c);
-            }
+    private static JsonElement parseDocument(JsonReader reader) throws IOException {
+        JsonElement root = parseValue(reader);
+        if (reader.peek() != JsonToken.END_DOCUMENT) {
+            throw new IllegalArgumentException("Unexpected trailing data at position " + reader.position());
         }
-        return new JsonPrimitive(sb.toString());
+        return root;
     }
 
-    private JsonPrimitive parseNumber() {
-        int start = pos;
-        if (peek() == '-') pos++;
-        while (pos < len && Character.isDigit(peek())) pos++;
-        if (peek() == '.') {
-            while (pos < len && Character.isDigit(peek())) {
-                pos++;
+    /** Reads the next value from the reader, leaving it positioned after that value. */
+    public static JsonElement parseValue(JsonReader reader) throws IOException {
+        return switch (reader.peek()) {
+            case BEGIN_OBJECT -> parseObject(reader);
+            case BEGIN_ARRAY -> parseArray(reader);
+            case STRING -> JsonPrimitive.of(reader.nextString());
+            case NUMBER -> parseNumber(reader.nextNumberLiteral());
+            case BOOLEAN -> JsonPrimitive.of(reader.nextBoolean());
+            case NULL -> {
+                reader.nextNull();
+                yield new JsonPrimitive((Object) null);
             }
-        }
-        if (peek() == 'e' || peek() == 'E') {
-            pos++;
-            if (peek() == '+' || peek() == '-') pos++;
-            while (pos < len && Character.isDigit(peek())) pos++;
-        }
-        String numStr = json.substring(start, pos);
-        Number n;
-        if (numStr.contains(".") || numStr.contains("e") || numStr.contains("E")) {
-            n = Double.parseDouble(numStr);
-        } else {
-            n = Long.parseLong(numStr);
-        }
-        return new JsonPrimitive(n);
+            default -> throw new IllegalArgumentException("Unexpected " + reader.peek() + " at position " + reader.position());
+        };
     }
 
-    private JsonElement parseLiteral(String lit, JsonElement result) {
-        if (json.startsWith(lit, pos)) {
-            pos += lit.length();
-            return result;
+    private static JsonObject parseObject(JsonReader reader) throws IOException {
+        reader.beginObject();
+        JsonObject obj = new JsonObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            obj.putMember(key, parseValue(reader));
         }
-        throw error("Expected literal " + lit);
+        reader.endObject();
+        return obj;
     }
 
-    private void skipWhitespace() {
-        while (pos < len && Character.isWhitespace(json.charAt(pos))) {
-            pos++;
+    private static JsonArray parseArray(JsonReader reader) throws IOException {
+        reader.beginArray();
+        JsonArray arr = new JsonArray();
+        while (reader.hasNext()) {
+            arr.add(parseValue(reader));
         }
+        reader.endArray();
+        return arr;
     }
 
-    private char peek() {
-        return pos < len ? json.charAt(pos) : '\0';
-    }
-
-    private void expect(char ch) {
-        if (peek() != ch) {
-            throw error("Expected '" + ch + "'");
+    /**
+     * Turns a number literal into a primitive, the same way numbers in documents are parsed.
+     * Integers of up to 18 digits cannot overflow a long and are decoded right away; any other
+     * number keeps its literal and is decoded when it is first read.
+     *
+     * @throws IllegalArgumentException if the literal is not a valid JSON number
+     */
+    public static JsonPrimitive parseNumber(String numStr) {
+        int len = numStr.length();
+        boolean negative = len > 0 && numStr.charAt(0) == '-';
+        int i = negative ? 1 : 0;
+        if (len > i && len - i <= 18 && (numStr.charAt(i) != '0' || len - i == 1)) {
+            long value = 0;
+            for (; i < len; i++) {
+                char c = numStr.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                value = value * 10 + (c - '0');
+            }
+            // "-0" keeps its literal so that it is written back unchanged
+            if (i == len && !(negative && value == 0)) {
+                return JsonPrimitive.of(negative ? -value : value);
+            }
         }
-        pos++;
-    }
-
-    private IllegalArgumentException error(String msg) {
-        return new IllegalArgumentException(msg + " at position " + pos);
+        return JsonPrimitive.ofNumberLiteral(numStr);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,233 @@
+package de.chloedev.config.json;
+
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.stream.ByteScanner;
+import de.chloedev.config.json.stream.JsonReader;
+import de.chloedev.config.json.stream.NameTable;
+import java.io.IOException;
+import java.io.Serial;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parses large documents on several cores. A top-level array is split at its elements by a quick
+ * structural pass, the elements are parsed in parallel, and the results are put together in their
+ * original order. The tree is the same as {@link JsonParser#parse} builds; so are the errors,
+ * since invalid input is parsed again sequentially to report them.
+ *
+ * <p>Documents that are not arrays, and arrays too small to be worth splitting, are parsed
+ * sequentially.
+ */
+public final class ParallelJsonParser {
+  /** Below this size, splitting and scheduling costs more than it saves. */
+  private static final int MIN_PARALLEL_SIZE = 1 << 20;
+
+  private static final ByteScanner SCANNER = ByteScanner.get();
+
+  private ParallelJsonParser() {}
+
+  /** Parses UTF-8 encoded JSON, using the common pool. */
+  public static JsonElement parse(byte[] json) {
+    return parse(json, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Parses UTF-8 encoded JSON, using the given pool.
+   *
+   * @throws IllegalArgumentException if the input is not valid JSON
+   */
+  public static JsonElement parse(byte[] json, ForkJoinPool pool) {
+    int start = SCANNER.skipWhitespace(json, 0, json.length);
+    if (json.length < MIN_PARALLEL_SIZE
+        || pool.getParallelism() < 2
+        || start == json.length
+        || json[start] != '[') {
+      return sequential(json);
+    }
+    int[] bounds = split(json, start);
+    if (bounds == null) {
+      return sequential(json);
+    }
+    JsonElement[] elements = new JsonElement[bounds.length / 2];
+    try {
+      int grain = grain(elements, pool);
+      pool.invoke(new ParseTask(json, bounds, elements, 0, elements.length, grain));
+    } catch (RuntimeException e) {
+      return sequential(json); // reports the error the way the sequential parser does
+    }
+    JsonArray arr = new JsonArray();
+    for (JsonElement el : elements) {
+      if (el == null) {
+        return sequential(json); // an empty element, like in [1,,2]
+      }
+      arr.add(el);
+    }
+    return arr;
+  }
+
+  /** Parses UTF-8 encoded JSON Lines, using the common pool. */
+  public static JsonArray parseLines(byte[] lines) {
+    return parseLines(lines, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Parses UTF-8 encoded JSON Lines (one value per line) into an array of the values, in order.
+   * Blank lines are skipped. A line break cannot occur inside a JSON value, so the input is split
+   * at line breaks without looking at the values.
+   *
+   * @throws IllegalArgumentException if a line is not valid JSON; the message names the line
+   */
+  public static JsonArray parseLines(byte[] lines, ForkJoinPool pool) {
+    int[] bounds = new int[64];
+    int count = 0;
+    for (int from = 0; from <= lines.length; ) {
+      int eol = from;
+      while (eol < lines.length && lines[eol] != '\n') {
+        eol++;
+      }
+      if (count == bounds.length) {
+        bounds = Arrays.copyOf(bounds, count * 2);
+      }
+      bounds[count++] = from;
+      bounds[count++] = eol;
+      from = eol + 1;
+    }
+    bounds = Arrays.copyOf(bounds, count);
+    JsonElement[] values = new JsonElement[count / 2];
+    if (lines.length < MIN_PARALLEL_SIZE || pool.getParallelism() < 2) {
+      new ParseTask(lines, bounds, values, 0, values.length, values.length).compute();
+    } else {
+      pool.invoke(new ParseTask(lines, bounds, values, 0, values.length, grain(values, pool)));
+    }
+    JsonArray arr = new JsonArray();
+    for (JsonElement value : values) {
+      if (value != null) {
+        arr.add(value);
+      }
+    }
+    return arr;
+  }
+
+  private static int grain(JsonElement[] elements, ForkJoinPool pool) {
+    // a few tasks per worker, so that uneven elements still balance
+    return Math.max(1, elements.length / (pool.getParallelism() * 8));
+  }
+
+  private static JsonElement sequential(byte[] json) {
+    try {
+      return JsonParser.parse(JsonReader.of(json, 0, json.length));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e); // reading from an array never fails
+    }
+  }
+
+  /**
+   * Finds the elements of the array that opens at {@code open}, as pairs of start and end offsets.
+   * Only brackets, commas and strings are looked at; the elements are validated when they are
+   * parsed.
+   *
+   * @return the offsets, or null if the array is not closed by a bracket or is followed by anything
+   *     but whitespace
+   */
+  private static int[] split(byte[] b, int open) {
+    int end = b.length;
+    int[] bounds = new int[1024];
+    int count = 0;
+    int depth = 1;
+    int elementStart = open + 1;
+    int i = open + 1;
+    int close = -1;
+    while (i < end && close < 0) {
+      byte c = b[i];
+      if (c == '"') {
+        i = SCANNER.findQuoteOrBackslash(b, i + 1, end);
+        while (i < end && b[i] == '\\') {
+          i = i + 2 <= end ? SCANNER.findQuoteOrBackslash(b, i + 2, end) : end;
+        }
+        if (i >= end) {
+          return null;
+        }
+      } else if (c == '[' || c == '{') {
+        depth++;
+      } else if (c == ']' || c == '}') {
+        depth--;
+        if (depth == 0) {
+          close = i;
+        }
+      }
+      if ((c == ',' && depth == 1) || close >= 0) {
+        if (count == bounds.length) {
+          bounds = Arrays.copyOf(bounds, count * 2);
+        }
+        bounds[count++] = elementStart;
+        bounds[count++] = i;
+        elementStart = i + 1;
+      }
+      i++;
+    }
+    if (close < 0 || b[close] != ']' || SCANNER.skipWhitespace(b, close + 1, end) != end) {
+      return null;
+    }
+    if (count == 2 && SCANNER.skipWhitespace(b, bounds[0], bounds[1]) == bounds[1]) {
+      return new int[0]; // []
+    }
+    return Arrays.copyOf(bounds, count);
+  }
+
+  /**
+   * Parses the values at {@code bounds[2 * i]} to {@code bounds[2 * i + 1]} for {@code i} in
+   * {@code [from, to)}. Ranges that hold only whitespace are left null.
+   */
+  private static final class ParseTask extends RecursiveAction {
+    // ForkJoinTask is Serializable, but tasks never leave the pool they run in
+    @Serial private static final long serialVersionUID = 1L;
+
+    private final byte[] bytes;
+    private final int[] bounds;
+    private final JsonElement[] out;
+    private final int from;
+    private final int to;
+    private final int grain;
+
+    ParseTask(byte[] bytes, int[] bounds, JsonElement[] out, int from, int to, int grain) {
+      this.bytes = bytes;
+      this.bounds = bounds;
+      this.out = out;
+      this.from = from;
+      this.to = to;
+      this.grain = grain;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > grain) {
+        int mid = (from + to) >>> 1;
+        invokeAll(
+            new ParseTask(bytes, bounds, out, from, mid, grain),
+            new ParseTask(bytes, bounds, out, mid, to, grain));
+        return;
+      }
+      // one name table per task: sharing one would be safe, but its slots would bounce between
+      // cores, and keys repeat across the elements of a task anyway
+      NameTable names = new NameTable();
+      for (int i = from; i < to; i++) {
+        int start = bounds[2 * i];
+        int end = bounds[2 * i + 1];
+        if (SCANNER.skipWhitespace(bytes, start, end) == end) {
+          continue;
+        }
+        try {
+          out[i] = JsonParser.parse(JsonReader.of(bytes, start, end - start).setNameTable(names));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+          throw new IllegalArgumentException(
+              "Invalid JSON on line " + (i + 1) + ": " + e.getMessage(), e);
+        }
+      }
+    }
+  }
+}
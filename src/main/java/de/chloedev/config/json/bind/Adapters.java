@@ -0,0 +1,526 @@
+package de.chloedev.config.json.bind;
+
+import de.chloedev.config.error.BindingException;
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/** Finds the adapter for a type, building the plan for each class once. */
+final class Adapters {
+  private static final ClassValue<TypeAdapter> CLASSES =
+      new ClassValue<>() {
+        @Override
+        protected TypeAdapter computeValue(Class<?> type) {
+          return build(type);
+        }
+      };
+
+  /** Binds values of unknown type to plain Java values, and writes them by their runtime class. */
+  static final TypeAdapter OBJECT =
+      new TypeAdapter() {
+        @Override
+        public Object read(JsonElement el) {
+          if (Values.isAbsent(el)) {
+            return null;
+          } else if (el instanceof JsonObject obj) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (Map.Entry<String, JsonElement> e : obj.entrySet()) {
+              map.put(e.getKey(), read(e.getValue()));
+            }
+            return map;
+          } else if (el instanceof JsonArray arr) {
+            List<Object> list = new ArrayList<>(arr.size());
+            for (int i = 0; i < arr.size(); i++) {
+              list.add(read(arr.get(i)));
+            }
+            return list;
+          }
+          JsonPrimitive p = (JsonPrimitive) el;
+          return p.isString() ? p.getAsString() : p.isNumber() ? p.getAsNumber() : p.getAsBoolean();
+        }
+
+        @Override
+        public JsonElement write(Object value) {
+          return CLASSES.get(value.getClass()).write(value);
+        }
+      };
+
+  private static final Map<Class<?>, Function<JsonElement, Object>> READERS = readers();
+
+  private Adapters() {}
+
+  static TypeAdapter forClass(Class<?> type) {
+    return CLASSES.get(type);
+  }
+
+  /**
+   * Returns the adapter for a declared type, which may carry type arguments. Adapters for classes
+   * are resolved on first use, so types may refer to themselves.
+   */
+  static TypeAdapter forType(Type type) {
+    if (type instanceof Class<?> c) {
+      return c == Object.class ? OBJECT : new Lazy(c);
+    } else if (type instanceof ParameterizedType p) {
+      Class<?> raw = (Class<?>) p.getRawType();
+      Type[] args = p.getActualTypeArguments();
+      if (Map.class.isAssignableFrom(raw)) {
+        return new MapAdapter(mapFactory(raw), key(args[0]), forType(args[1]));
+      } else if (Iterable.class.isAssignableFrom(raw)) {
+        return new CollectionAdapter(collectionFactory(raw), forType(args[0]));
+      }
+      return forType(raw);
+    } else if (type instanceof GenericArrayType a) {
+      Type component = a.getGenericComponentType();
+      Class<?> raw = component instanceof Class<?> c ? c : Object.class;
+      if (component instanceof ParameterizedType p) {
+        raw = (Class<?>) p.getRawType();
+      }
+      return new ArrayAdapter(raw, forType(component));
+    } else if (type instanceof WildcardType w) {
+      return forType(w.getUpperBounds()[0]);
+    }
+    return OBJECT; // a type variable
+  }
+
+  private static TypeAdapter build(Class<?> type) {
+    if (type == Object.class) {
+      // OBJECT writes by the runtime class, and a bare Object has no fields to write
+      return of(OBJECT::read, v -> new JsonObject());
+    }
+    TypeAdapter scalar = scalar(type);
+    if (scalar != null) {
+      return scalar;
+    } else if (type.isArray()) {
+      return new ArrayAdapter(type.getComponentType(), forType(type.getComponentType()));
+    } else if (Map.class.isAssignableFrom(type)) {
+      return new MapAdapter(mapFactory(type), key -> key, OBJECT);
+    } else if (Iterable.class.isAssignableFrom(type)) {
+      return new CollectionAdapter(collectionFactory(type), OBJECT);
+    } else if (type.isRecord()) {
+      return new RecordAdapter(type);
+    } else if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+      throw new BindingException("Cannot bind to abstract type " + type.getName());
+    }
+    return new PojoAdapter(type);
+  }
+
+  private static TypeAdapter scalar(Class<?> type) {
+    if (type == int.class) {
+      return of(Values::toInt, Adapters::ofLong);
+    } else if (type == long.class) {
+      return of(Values::toLong, Adapters::ofLong);
+    } else if (type == double.class) {
+      return of(Values::toDouble, Adapters::ofDouble);
+    } else if (type == boolean.class) {
+      return of(Values::toBoolean, v -> JsonPrimitive.of((Boolean) v));
+    } else if (type == float.class) {
+      return of(Values::toFloat, Adapters::ofDouble);
+    } else if (type == short.class) {
+      return of(Values::toShort, Adapters::ofLong);
+    } else if (type == byte.class) {
+      return of(Values::toByte, Adapters::ofLong);
+    } else if (type == char.class) {
+      return of(Values::toChar, v -> Values.ofChar((Character) v));
+    } else if (type.isPrimitive() || type == Void.class) {
+      throw new BindingException("Cannot bind to " + type.getName());
+    } else if (type.isEnum()) {
+      return enumAdapter(type);
+    } else if (JsonElement.class.isAssignableFrom(type)) {
+      return elementAdapter(type);
+    }
+    Function<JsonElement, Object> read = READERS.get(type);
+    if (read == null) {
+      return null;
+    }
+    Function<Object, JsonElement> write =
+        Number.class.isAssignableFrom(type) ? Adapters::ofNumber : Adapters::ofOther;
+    return of(el -> Values.isAbsent(el) ? null : read.apply(el), write);
+  }
+
+  private static Map<Class<?>, Function<JsonElement, Object>> readers() {
+    Map<Class<?>, Function<JsonElement, Object>> m = new HashMap<>();
+    m.put(String.class, Values::toStr);
+    m.put(Integer.class, Values::toInt);
+    m.put(Long.class, Values::toLong);
+    m.put(Double.class, Values::toDouble);
+    m.put(Boolean.class, Values::toBoolean);
+    m.put(Float.class, Values::toFloat);
+    m.put(Short.class, Values::toShort);
+    m.put(Byte.class, Values::toByte);
+    m.put(Character.class, Values::toChar);
+    m.put(BigInteger.class, Values::toBigInteger);
+    m.put(BigDecimal.class, Values::toBigDecimal);
+    m.put(Number.class, Values::toNumber);
+    return m;
+  }
+
+  private static JsonElement ofLong(Object value) {
+    return JsonPrimitive.of(((Number) value).longValue());
+  }
+
+  private static JsonElement ofDouble(Object value) {
+    return JsonPrimitive.of(((Number) value).doubleValue());
+  }
+
+  private static JsonElement ofNumber(Object value) {
+    if (value instanceof Double || value instanceof Float) {
+      return ofDouble(value);
+    } else if (value instanceof BigInteger || value instanceof BigDecimal) {
+      return new JsonPrimitive((Number) value);
+    }
+    return ofLong(value);
+  }
+
+  private static JsonElement ofOther(Object value) {
+    if (value instanceof Boolean b) {
+      return JsonPrimitive.of(b);
+    } else if (value instanceof Character c) {
+      return Values.ofChar(c);
+    }
+    return JsonPrimitive.of((String) value);
+  }
+
+  private static TypeAdapter of(
+      Function<JsonElement, Object> read, Function<Object, JsonElement> write) {
+    return new TypeAdapter() {
+      @Override
+      public Object read(JsonElement el) {
+        return read.apply(el);
+      }
+
+      @Override
+      public JsonElement write(Object value) {
+        return write.apply(value);
+      }
+    };
+  }
+
+  private static TypeAdapter enumAdapter(Class<?> type) {
+    Map<String, Object> constants = new HashMap<>();
+    for (Object constant : type.getEnumConstants()) {
+      constants.put(((Enum<?>) constant).name(), constant);
+    }
+    return of(
+        el -> {
+          if (Values.isAbsent(el)) {
+            return null;
+          }
+          Object constant = constants.get(Values.toStr(el));
+          if (constant == null) {
+            throw new BindingException(
+                "No constant " + el + " in " + type.getSimpleName() + ", expected one of "
+                    + constants.keySet());
+          }
+          return constant;
+        },
+        v -> JsonPrimitive.of(((Enum<?>) v).name()));
+  }
+
+  private static TypeAdapter elementAdapter(Class<?> type) {
+    return of(
+        el -> {
+          if (el == null || type.isInstance(el)) {
+            return el;
+          }
+          throw Values.mismatch(type.getSimpleName(), el);
+        },
+        v -> (JsonElement) v);
+  }
+
+  /** Converts object keys to the key type of a map; only strings, enums and integers work. */
+  private static Function<String, Object> key(Type type) {
+    if (type == String.class || !(type instanceof Class<?>)) {
+      return key -> key;
+    }
+    Class<?> c = (Class<?>) type;
+    if (c == Integer.class || c == Long.class) {
+      return key -> {
+        try {
+          return c == Integer.class ? (Object) Integer.valueOf(key) : (Object) Long.valueOf(key);
+        } catch (NumberFormatException e) {
+          throw new BindingException("Expected an integer key but found '" + key + "'");
+        }
+      };
+    } else if (c.isEnum()) {
+      TypeAdapter constants = CLASSES.get(c);
+      return key -> constants.read(JsonPrimitive.of(key));
+    }
+    return key -> key;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Supplier<Collection<Object>> collectionFactory(Class<?> type) {
+    if (type.isAssignableFrom(ArrayList.class)) {
+      return ArrayList::new;
+    } else if (type.isAssignableFrom(LinkedHashSet.class)) {
+      return LinkedHashSet::new;
+    } else if (type == SortedSet.class || type == NavigableSet.class) {
+      return TreeSet::new;
+    }
+    MethodHandle ctor = constructor(type);
+    return () -> (Collection<Object>) newInstance(ctor, type);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Supplier<Map<Object, Object>> mapFactory(Class<?> type) {
+    if (type.isAssignableFrom(LinkedHashMap.class)) {
+      return LinkedHashMap::new;
+    } else if (type == SortedMap.class || type == NavigableMap.class) {
+      return TreeMap::new;
+    }
+    MethodHandle ctor = constructor(type);
+    return () -> (Map<Object, Object>) newInstance(ctor, type);
+  }
+
+  /** The public no-arg constructor of a class, or null; only needed when binding to the class. */
+  private static MethodHandle constructor(Class<?> type) {
+    try {
+      return MethodHandles.publicLookup()
+          .findConstructor(type, MethodType.methodType(void.class))
+          .asType(MethodType.methodType(Object.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  private static Object newInstance(MethodHandle ctor, Class<?> type) {
+    if (ctor == null) {
+      throw new BindingException("Cannot create an instance of " + type.getName());
+    }
+    try {
+      return (Object) ctor.invokeExact();
+    } catch (Throwable t) {
+      throw rethrow(t);
+    }
+  }
+
+  static RuntimeException rethrow(Throwable t) {
+    if (t instanceof RuntimeException e) {
+      return e;
+    } else if (t instanceof Error e) {
+      throw e;
+    }
+    return new BindingException("Constructor threw " + t, t);
+  }
+
+  /** Writes a value that may be null, as JSON null. */
+  static JsonElement writeNullable(TypeAdapter adapter, Object value) {
+    return value == null ? new JsonPrimitive((Object) null) : adapter.write(value);
+  }
+
+  /** Defers the lookup of a class's adapter, which may still be under construction. */
+  private static final class Lazy implements TypeAdapter {
+    private final Class<?> type;
+    private TypeAdapter adapter;
+
+    Lazy(Class<?> type) {
+      this.type = type;
+    }
+
+    private TypeAdapter adapter() {
+      TypeAdapter a = adapter;
+      if (a == null) {
+        a = CLASSES.get(type);
+        adapter = a; // racy but idempotent, ClassValue returns the same adapter to every thread
+      }
+      return a;
+    }
+
+    @Override
+    public Object read(JsonElement el) {
+      return adapter().read(el);
+    }
+
+    @Override
+    public JsonElement write(Object value) {
+      return adapter().write(value);
+    }
+  }
+
+  private static final class CollectionAdapter implements TypeAdapter {
+    private final Supplier<Collection<Object>> factory;
+    private final TypeAdapter element;
+
+    CollectionAdapter(Supplier<Collection<Object>> factory, TypeAdapter element) {
+      this.factory = factory;
+      this.element = element;
+    }
+
+    @Override
+    public Object read(JsonElement el) {
+      if (Values.isAbsent(el)) {
+        return null;
+      }
+      if (!(el instanceof JsonArray arr)) {
+        throw Values.mismatch("an array", el);
+      }
+      Collection<Object> result = factory.get();
+      for (int i = 0; i < arr.size(); i++) {
+        try {
+          result.add(element.read(arr.get(i)));
+        } catch (BindingException e) {
+          throw e.under(Integer.toString(i));
+        }
+      }
+      return result;
+    }
+
+    @Override
+    public JsonElement write(Object value) {
+      JsonArray arr = new JsonArray();
+      for (Object item : (Iterable<?>) value) {
+        arr.add(writeNullable(element, item));
+      }
+      return arr;
+    }
+  }
+
+  private static final class MapAdapter implements TypeAdapter {
+    private final Supplier<Map<Object, Object>> factory;
+    private final Function<String, Object> key;
+    private final TypeAdapter value;
+
+    MapAdapter(
+        Supplier<Map<Object, Object>> factory, Function<String, Object> key, TypeAdapter value) {
+      this.factory = factory;
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public Object read(JsonElement el) {
+      if (Values.isAbsent(el)) {
+        return null;
+      }
+      if (!(el instanceof JsonObject obj)) {
+        throw Values.mismatch("an object", el);
+      }
+      Map<Object, Object> result = factory.get();
+      for (Map.Entry<String, JsonElement> e : obj.entrySet()) {
+        try {
+          result.put(key.apply(e.getKey()), value.read(e.getValue()));
+        } catch (BindingException ex) {
+          throw ex.under(e.getKey());
+        }
+      }
+      return result;
+    }
+
+    @Override
+    public JsonElement write(Object map) {
+      JsonObject obj = new JsonObject();
+      for (Map.Entry<?, ?> e : ((Map<?, ?>) map).entrySet()) {
+        Object k = e.getKey();
+        String name = k instanceof Enum<?> constant ? constant.name() : String.valueOf(k);
+        obj.putMember(name, writeNullable(value, e.getValue()));
+      }
+      return obj;
+    }
+  }
+
+  private static final class ArrayAdapter implements TypeAdapter {
+    private final Class<?> component;
+    private final TypeAdapter element;
+
+    ArrayAdapter(Class<?> component, TypeAdapter element) {
+      this.component = component;
+      this.element = element;
+    }
+
+    @Override
+    public Object read(JsonElement el) {
+      if (Values.isAbsent(el)) {
+        return null;
+      }
+      if (!(el instanceof JsonArray arr)) {
+        throw Values.mismatch("an array", el);
+      }
+      int i = 0;
+      try {
+        // the common primitive arrays are filled without boxing
+        if (component == int.class) {
+          int[] result = new int[arr.size()];
+          for (; i < result.length; i++) {
+            result[i] = Values.toInt(arr.get(i));
+          }
+          return result;
+        } else if (component == long.class) {
+          long[] result = new long[arr.size()];
+          for (; i < result.length; i++) {
+            result[i] = Values.toLong(arr.get(i));
+          }
+          return result;
+        } else if (component == double.class) {
+          double[] result = new double[arr.size()];
+          for (; i < result.length; i++) {
+            result[i] = Values.toDouble(arr.get(i));
+          }
+          return result;
+        } else if (component == boolean.class) {
+          boolean[] result = new boolean[arr.size()];
+          for (; i < result.length; i++) {
+            result[i] = Values.toBoolean(arr.get(i));
+          }
+          return result;
+        }
+        Object result = Array.newInstance(component, arr.size());
+        for (; i < arr.size(); i++) {
+          Array.set(result, i, element.read(arr.get(i)));
+        }
+        return result;
+      } catch (BindingException e) {
+        throw e.under(Integer.toString(i));
+      }
+    }
+
+    @Override
+    public JsonElement write(Object value) {
+      JsonArray arr = new JsonArray();
+      if (value instanceof int[] ints) {
+        for (int v : ints) {
+          arr.add(JsonPrimitive.of(v));
+        }
+      } else if (value instanceof long[] longs) {
+        for (long v : longs) {
+          arr.add(JsonPrimitive.of(v));
+        }
+      } else if (value instanceof double[] doubles) {
+        for (double v : doubles) {
+          arr.add(JsonPrimitive.of(v));
+        }
+      } else {
+        for (int i = 0, n = Array.getLength(value); i < n; i++) {
+          arr.add(writeNullable(element, Array.get(value, i)));
+        }
+      }
+      return arr;
+    }
+  }
+}
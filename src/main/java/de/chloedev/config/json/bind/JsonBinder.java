@@ -0,0 +1,47 @@
+package de.chloedev.config.json.bind;
+
+import de.chloedev.config.error.BindingException;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonPrimitive;
+import java.lang.invoke.MethodType;
+
+/**
+ * Binds JSON values to Java objects and back.
+ *
+ * <p>Objects bind to records through their canonical constructor, and to other classes through
+ * their no-arg constructor and fields; members are matched to components and fields by name.
+ * Components and fields may be primitives, their wrappers, strings, {@code BigInteger}, {@code
+ * BigDecimal}, enums (by constant name), {@link JsonElement}s, arrays, lists, sets, maps with
+ * string, enum or integer keys, other records and classes, or {@code Object}, which binds to plain
+ * maps, lists, strings, numbers and booleans.
+ *
+ * <p>The plan for a class is built once, on first use, and kept for as long as the class is loaded.
+ * Binding then calls constructors, accessors and fields through method handles, without
+ * reflection, and without boxing primitive values.
+ */
+public final class JsonBinder {
+  private JsonBinder() {}
+
+  /**
+   * Binds a value to the given type.
+   *
+   * @return the bound object, or null if the value is null or JSON null and the type is not a
+   *     primitive
+   * @throws BindingException if the value does not match the type, or the type cannot be bound
+   */
+  public static <T> T bind(JsonElement value, Class<T> type) {
+    @SuppressWarnings("unchecked")
+    Class<T> boxed = (Class<T>) MethodType.methodType(type).wrap().returnType();
+    return boxed.cast(Adapters.forClass(type).read(value));
+  }
+
+  /**
+   * Converts an object to JSON, the reverse of {@link #bind}. Null fields and components are left
+   * out.
+   *
+   * @throws BindingException if the object's class cannot be bound
+   */
+  public static JsonElement toJson(Object value) {
+    return value == null ? new JsonPrimitive((Object) null) : Adapters.OBJECT.write(value);
+  }
+}
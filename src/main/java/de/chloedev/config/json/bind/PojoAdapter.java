@@ -0,0 +1,122 @@
+package de.chloedev.config.json.bind;
+
+import de.chloedev.config.error.BindingException;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binds objects to a class with a no-arg constructor by setting its fields, including private and
+ * inherited ones. Static and transient fields are skipped. Members that are missing leave their
+ * field at the value the constructor gave it, so fields can carry defaults.
+ */
+final class PojoAdapter implements TypeAdapter {
+  private final Class<?> type;
+  /** {@code () Object}. */
+  private final MethodHandle constructor;
+  private final String[] names;
+  /** {@code (Object, JsonElement) void}: converts a member and stores it in its field. */
+  private final MethodHandle[] setters;
+  /** {@code (Object) JsonElement}: converts a field, or returns null if it is null. */
+  private final MethodHandle[] getters;
+
+  PojoAdapter(Class<?> type) {
+    this.type = type;
+    List<Field> fields = new ArrayList<>();
+    for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+      for (Field f : c.getDeclaredFields()) {
+        int mod = f.getModifiers();
+        if (!Modifier.isStatic(mod) && !Modifier.isTransient(mod) && !f.isSynthetic()) {
+          fields.add(f);
+        }
+      }
+    }
+    this.names = new String[fields.size()];
+    this.setters = new MethodHandle[fields.size()];
+    this.getters = new MethodHandle[fields.size()];
+    try {
+      for (int i = 0; i < names.length; i++) {
+        Field f = fields.get(i);
+        if (Modifier.isFinal(f.getModifiers())) {
+          throw new BindingException(
+              "Cannot bind to " + type.getName() + ", field '" + f.getName() + "' is final");
+        }
+        MethodHandles.Lookup lookup = PropertyHandles.lookup(f.getDeclaringClass());
+        names[i] = f.getName();
+        setters[i] =
+            MethodHandles.filterArguments(
+                    lookup.unreflectSetter(f),
+                    1,
+                    PropertyHandles.reader(f.getType(), f.getGenericType()))
+                .asType(MethodType.methodType(void.class, Object.class, JsonElement.class));
+        getters[i] =
+            MethodHandles.filterReturnValue(
+                    lookup.unreflectGetter(f),
+                    PropertyHandles.writer(f.getType(), f.getGenericType()))
+                .asType(MethodType.methodType(JsonElement.class, Object.class));
+      }
+      this.constructor =
+          PropertyHandles.lookup(type)
+              .findConstructor(type, MethodType.methodType(void.class))
+              .asType(MethodType.methodType(Object.class));
+    } catch (NoSuchMethodException e) {
+      throw new BindingException(
+          "Cannot bind to " + type.getName() + ", it is neither a record nor has a no-arg "
+              + "constructor");
+    } catch (IllegalAccessException e) {
+      throw new BindingException("Cannot bind to " + type.getName(), e);
+    }
+  }
+
+  @Override
+  public Object read(JsonElement el) {
+    if (Values.isAbsent(el)) {
+      return null;
+    }
+    if (!(el instanceof JsonObject obj)) {
+      throw Values.mismatch("an object for " + type.getSimpleName(), el);
+    }
+    Object target;
+    try {
+      target = (Object) constructor.invokeExact();
+    } catch (Throwable t) {
+      throw Adapters.rethrow(t);
+    }
+    for (int i = 0; i < names.length; i++) {
+      JsonElement v = obj.getMember(names[i]);
+      if (v == null) {
+        continue;
+      }
+      try {
+        setters[i].invokeExact(target, v);
+      } catch (BindingException e) {
+        throw e.under(names[i]);
+      } catch (Throwable t) {
+        throw Adapters.rethrow(t);
+      }
+    }
+    return target;
+  }
+
+  @Override
+  public JsonElement write(Object value) {
+    JsonObject obj = new JsonObject();
+    try {
+      for (int i = 0; i < getters.length; i++) {
+        JsonElement v = (JsonElement) getters[i].invokeExact(value);
+        if (v != null) {
+          obj.putMember(names[i], v);
+        }
+      }
+    } catch (Throwable t) {
+      throw Adapters.rethrow(t);
+    }
+    return obj;
+  }
+}
@@ -0,0 +1,129 @@
+package de.chloedev.config.json.bind;
+
+import de.chloedev.config.error.BindingException;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Type;
+
+/**
+ * Builds the method handles that convert one property of a record or class. Primitive properties
+ * are converted by the methods of {@link Values} and {@link JsonPrimitive#of}, which the handles
+ * pass their values to directly; only properties of reference type go through a {@link
+ * TypeAdapter}.
+ */
+final class PropertyHandles {
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  static final MethodHandle GET_MEMBER;
+  private static final MethodHandle READ;
+  private static final MethodHandle WRITE;
+  private static final MethodHandle UNDER;
+
+  static {
+    try {
+      GET_MEMBER =
+          LOOKUP.findVirtual(
+              JsonObject.class,
+              "getMember",
+              MethodType.methodType(JsonElement.class, String.class));
+      READ =
+          LOOKUP.findVirtual(
+              TypeAdapter.class, "read", MethodType.methodType(Object.class, JsonElement.class));
+      WRITE =
+          LOOKUP.findStatic(
+              PropertyHandles.class,
+              "write",
+              MethodType.methodType(JsonElement.class, TypeAdapter.class, Object.class));
+      UNDER =
+          LOOKUP.findVirtual(
+              BindingException.class,
+              "under",
+              MethodType.methodType(BindingException.class, String.class));
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private PropertyHandles() {}
+
+  /** Returns a lookup that can access the private members of {@code type}. */
+  static MethodHandles.Lookup lookup(Class<?> type) {
+    try {
+      return MethodHandles.privateLookupIn(type, LOOKUP);
+    } catch (IllegalAccessException e) {
+      throw new BindingException(
+          "Cannot access " + type.getName() + ", its package is not open to this library", e);
+    }
+  }
+
+  /** A handle of type {@code (JsonElement) type} that converts a property's value. */
+  static MethodHandle reader(Class<?> type, Type genericType) {
+    if (type.isPrimitive()) {
+      // Values has a conversion named after every primitive type, toInt, toLong and so on
+      String name = type.getName();
+      return values(
+          "to" + Character.toUpperCase(name.charAt(0)) + name.substring(1),
+          MethodType.methodType(type, JsonElement.class));
+    }
+    return READ.bindTo(Adapters.forType(genericType))
+        .asType(MethodType.methodType(type, JsonElement.class));
+  }
+
+  /**
+   * A handle of type {@code (JsonElement) type} that converts a property's value and reports
+   * failures at the property's name.
+   */
+  static MethodHandle reader(String name, Class<?> type, Type genericType) {
+    MethodHandle rethrow =
+        MethodHandles.filterArguments(
+            MethodHandles.throwException(type, BindingException.class),
+            0,
+            MethodHandles.insertArguments(UNDER, 1, name));
+    return MethodHandles.catchException(
+        reader(type, genericType),
+        BindingException.class,
+        MethodHandles.dropArguments(rethrow, 1, JsonElement.class));
+  }
+
+  /** A handle of type {@code (type) JsonElement} that converts a property to JSON, or null. */
+  static MethodHandle writer(Class<?> type, Type genericType) {
+    MethodHandle of;
+    if (type == long.class || type == int.class || type == short.class || type == byte.class) {
+      of = primitive(long.class);
+    } else if (type == double.class || type == float.class) {
+      of = primitive(double.class);
+    } else if (type == boolean.class) {
+      of = primitive(boolean.class);
+    } else if (type == char.class) {
+      of = values("ofChar", MethodType.methodType(JsonElement.class, char.class));
+    } else {
+      of = WRITE.bindTo(Adapters.forType(genericType));
+    }
+    return of.asType(MethodType.methodType(JsonElement.class, type));
+  }
+
+  private static MethodHandle primitive(Class<?> type) {
+    try {
+      return LOOKUP.findStatic(
+          JsonPrimitive.class, "of", MethodType.methodType(JsonPrimitive.class, type));
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static MethodHandle values(String name, MethodType type) {
+    try {
+      return LOOKUP.findStatic(Values.class, name, type);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Converts a property of reference type; null properties are left out of the object. */
+  private static JsonElement write(TypeAdapter adapter, Object value) {
+    return value == null ? null : adapter.write(value);
+  }
+}
@@ -0,0 +1,93 @@
+package de.chloedev.config.json.bind;
+
+import de.chloedev.config.error.BindingException;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.RecordComponent;
+
+/**
+ * Binds objects to a record through its canonical constructor. The plan is a single method handle
+ * that looks up every member, converts it and passes it to the constructor, so primitive
+ * components are never boxed. Missing members bind as null, zero or false.
+ */
+final class RecordAdapter implements TypeAdapter {
+  private final Class<?> type;
+  /** {@code (JsonObject) Object}: constructs the record from an object. */
+  private final MethodHandle constructor;
+  private final String[] names;
+  /** {@code (Object) JsonElement} for each component, or null for a null component. */
+  private final MethodHandle[] writers;
+
+  RecordAdapter(Class<?> type) {
+    this.type = type;
+    MethodHandles.Lookup lookup = PropertyHandles.lookup(type);
+    RecordComponent[] components = type.getRecordComponents();
+    Class<?>[] types = new Class<?>[components.length];
+    MethodHandle[] readers = new MethodHandle[components.length];
+    this.names = new String[components.length];
+    this.writers = new MethodHandle[components.length];
+    try {
+      for (int i = 0; i < components.length; i++) {
+        RecordComponent c = components[i];
+        names[i] = c.getName();
+        types[i] = c.getType();
+        MethodHandle member =
+            MethodHandles.insertArguments(PropertyHandles.GET_MEMBER, 1, names[i]);
+        readers[i] =
+            MethodHandles.filterReturnValue(
+                member, PropertyHandles.reader(names[i], types[i], c.getGenericType()));
+        writers[i] =
+            MethodHandles.filterReturnValue(
+                    lookup.unreflect(c.getAccessor()),
+                    PropertyHandles.writer(types[i], c.getGenericType()))
+                .asType(MethodType.methodType(JsonElement.class, Object.class));
+      }
+      MethodHandle ctor = lookup.findConstructor(type, MethodType.methodType(void.class, types));
+      // (JsonObject, JsonObject, ...) -> R, then the same object is passed to every reader
+      MethodHandle plan =
+          components.length == 0
+              ? MethodHandles.dropArguments(ctor, 0, JsonObject.class)
+              : MethodHandles.permuteArguments(
+                  MethodHandles.filterArguments(ctor, 0, readers),
+                  MethodType.methodType(type, JsonObject.class),
+                  new int[components.length]);
+      this.constructor = plan.asType(MethodType.methodType(Object.class, JsonObject.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new BindingException("Cannot bind to record " + type.getName(), e);
+    }
+  }
+
+  @Override
+  public Object read(JsonElement el) {
+    if (Values.isAbsent(el)) {
+      return null;
+    }
+    if (!(el instanceof JsonObject obj)) {
+      throw Values.mismatch("an object for " + type.getSimpleName(), el);
+    }
+    try {
+      return (Object) constructor.invokeExact(obj);
+    } catch (Throwable t) {
+      throw Adapters.rethrow(t);
+    }
+  }
+
+  @Override
+  public JsonElement write(Object value) {
+    JsonObject obj = new JsonObject();
+    try {
+      for (int i = 0; i < writers.length; i++) {
+        JsonElement v = (JsonElement) writers[i].invokeExact(value);
+        if (v != null) {
+          obj.putMember(names[i], v);
+        }
+      }
+    } catch (Throwable t) {
+      throw Adapters.rethrow(t);
+    }
+    return obj;
+  }
+}
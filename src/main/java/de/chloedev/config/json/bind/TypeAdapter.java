@@ -0,0 +1,16 @@
+package de.chloedev.config.json.bind;
+
+import de.chloedev.config.json.element.JsonElement;
+
+/** Converts between JSON values and one Java type. */
+interface TypeAdapter {
+  /**
+   * Converts a JSON value to the type.
+   *
+   * @param el the value, or null if it is missing
+   */
+  Object read(JsonElement el);
+
+  /** Converts a non-null instance of the type to JSON. */
+  JsonElement write(Object value);
+}
@@ -0,0 +1,152 @@
+package de.chloedev.config.json.bind;
+
+import de.chloedev.config.error.BindingException;
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Conversions of JSON values to primitives. A missing value or JSON null converts to zero or false,
+ * like an unset field. The binding plans call these through method handles, so the values reach
+ * fields and constructors unboxed.
+ */
+final class Values {
+  private Values() {}
+
+  static boolean isAbsent(JsonElement el) {
+    return el == null || (el instanceof JsonPrimitive p && p.isNull());
+  }
+
+  static long toLong(JsonElement el) {
+    return isAbsent(el) ? 0 : integral(el, "long");
+  }
+
+  static int toInt(JsonElement el) {
+    long value = toLong(el, "int");
+    if ((int) value != value) {
+      throw new BindingException("Expected int but found " + el);
+    }
+    return (int) value;
+  }
+
+  static short toShort(JsonElement el) {
+    long value = toLong(el, "short");
+    if ((short) value != value) {
+      throw new BindingException("Expected short but found " + el);
+    }
+    return (short) value;
+  }
+
+  static byte toByte(JsonElement el) {
+    long value = toLong(el, "byte");
+    if ((byte) value != value) {
+      throw new BindingException("Expected byte but found " + el);
+    }
+    return (byte) value;
+  }
+
+  private static long toLong(JsonElement el, String type) {
+    return isAbsent(el) ? 0 : integral(el, type);
+  }
+
+  static double toDouble(JsonElement el) {
+    return isAbsent(el) ? 0 : number(el, "double").doubleValue();
+  }
+
+  static float toFloat(JsonElement el) {
+    return isAbsent(el) ? 0 : number(el, "float").floatValue();
+  }
+
+  static boolean toBoolean(JsonElement el) {
+    if (isAbsent(el)) {
+      return false;
+    }
+    if (el instanceof JsonPrimitive p && p.isBoolean()) {
+      return p.getAsBoolean();
+    }
+    throw mismatch("boolean", el);
+  }
+
+  static char toChar(JsonElement el) {
+    if (isAbsent(el)) {
+      return 0;
+    }
+    String s = toStr(el);
+    if (s.length() != 1) {
+      throw new BindingException("Expected a single character but found " + el);
+    }
+    return s.charAt(0);
+  }
+
+  static String toStr(JsonElement el) {
+    if (el instanceof JsonPrimitive p && p.isString()) {
+      return p.getAsString();
+    }
+    throw mismatch("string", el);
+  }
+
+  static BigInteger toBigInteger(JsonElement el) {
+    Number n = number(el, "integer");
+    if (n instanceof BigInteger big) {
+      return big;
+    }
+    try {
+      return new BigDecimal(n.toString()).toBigIntegerExact();
+    } catch (ArithmeticException | NumberFormatException e) {
+      throw mismatch("integer", el);
+    }
+  }
+
+  static BigDecimal toBigDecimal(JsonElement el) {
+    try {
+      return ((JsonPrimitive) el).getAsBigDecimal();
+    } catch (ClassCastException | IllegalStateException | NumberFormatException e) {
+      throw mismatch("number", el);
+    }
+  }
+
+  static Number toNumber(JsonElement el) {
+    return number(el, "number");
+  }
+
+  static JsonElement ofChar(char c) {
+    return JsonPrimitive.of(String.valueOf(c));
+  }
+
+  private static long integral(JsonElement el, String type) {
+    Number n = number(el, type);
+    if (n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte) {
+      return n.longValue();
+    }
+    try {
+      return new BigDecimal(n.toString()).longValueExact();
+    } catch (ArithmeticException | NumberFormatException e) {
+      throw mismatch(type, el);
+    }
+  }
+
+  private static Number number(JsonElement el, String type) {
+    if (el instanceof JsonPrimitive p && p.isNumber()) {
+      return p.getAsNumber();
+    }
+    throw mismatch(type, el);
+  }
+
+  static BindingException mismatch(String expected, JsonElement el) {
+    return new BindingException("Expected " + expected + " but found " + describe(el));
+  }
+
+  private static String describe(JsonElement el) {
+    if (el == null) {
+      return "nothing";
+    } else if (el instanceof JsonObject) {
+      return "an object";
+    } else if (el instanceof JsonArray) {
+      return "an array";
+    }
+    return el.toString();
+  }
+}
@@ -0,0 +1,50 @@
+package de.chloedev.config.json.element;
+
+/** A boolean, stored without boxing. Only the two instances in {@link JsonPrimitive} exist. */
+final class BooleanPrimitive extends JsonPrimitive {
+  private final boolean value;
+
+  BooleanPrimitive(boolean value) {
+    this.value = value;
+  }
+
+  @Override
+  public boolean isString() {
+    return false;
+  }
+
+  @Override
+  public boolean isNumber() {
+    return false;
+  }
+
+  @Override
+  public boolean isBoolean() {
+    return true;
+  }
+
+  @Override
+  public boolean isNull() {
+    return false;
+  }
+
+  @Override
+  public String getAsString() {
+    return toString();
+  }
+
+  @Override
+  public Number getAsNumber() {
+    throw new IllegalStateException("Not a number");
+  }
+
+  @Override
+  public Boolean getAsBoolean() {
+    return value ? Boolean.TRUE : Boolean.FALSE;
+  }
+
+  @Override
+  public String toString() {
+    return value ? "true" : "false";
+  }
+}
@@ -0,0 +1,65 @@
+package de.chloedev.config.json.element;
+
+/** A floating-point number, stored without boxing. */
+final class DoublePrimitive extends JsonPrimitive {
+  private final double value;
+
+  DoublePrimitive(double value) {
+    this.value = value;
+  }
+
+  @Override
+  public boolean isString() {
+    return false;
+  }
+
+  @Override
+  public boolean isNumber() {
+    return true;
+  }
+
+  @Override
+  public boolean isBoolean() {
+    return false;
+  }
+
+  @Override
+  public boolean isNull() {
+    return false;
+  }
+
+  @Override
+  public String getAsString() {
+    return Double.toString(value);
+  }
+
+  @Override
+  public Number getAsNumber() {
+    return value;
+  }
+
+  @Override
+  public long getAsLong() {
+    return (long) value;
+  }
+
+  @Override
+  public boolean fitsInLong() {
+    return fitsInLong(value);
+  }
+
+  @Override
+  public double getAsDouble() {
+    return value;
+  }
+
+  @Override
+  public Boolean getAsBoolean() {
+    throw new IllegalStateException("Not a boolean");
+  }
+
+  @Override
+  public String toString() {
+    return Double.isFinite(value) ? Double.toString(value) : "null";
+  }
+}
@@ -0,0 +1,27 @@
+package de.chloedev.config.json.element;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * The immutable elements of a frozen array: a read-only view of the exactly sized array that the
+ * frozen array keeps, so the elements are stored once. All mutators throw {@link
+ * UnsupportedOperationException}.
+ */
+final class FrozenElements extends AbstractList<JsonElement> implements RandomAccess {
+  private final JsonElement[] elements;
+
+  FrozenElements(JsonElement[] elements) {
+    this.elements = elements;
+  }
+
+  @Override
+  public JsonElement get(int index) {
+    return elements[index];
+  }
+
+  @Override
+  public int size() {
+    return elements.length;
+  }
+}
@@ -0,0 +1,49 @@
+package de.chloedev.config.json.element;
+
+/** A {@link JsonArray} that was created by {@link JsonArray#freeze()} and cannot be changed. */
+final class FrozenJsonArray extends JsonArray {
+  private final JsonElement[] elements;
+
+  /** Cached by {@link #contentHash()}; 0 until it is first computed. */
+  private int hash;
+
+  FrozenJsonArray(JsonElement[] elements) {
+    super(new FrozenElements(elements));
+    this.elements = elements;
+  }
+
+  @Override
+  public boolean isFrozen() {
+    return true;
+  }
+
+  @Override
+  public JsonArray freeze() {
+    return this;
+  }
+
+  @Override
+  public JsonArray withElement(int index, JsonElement element) {
+    JsonElement[] copy = elements.clone();
+    copy[index] = element.freeze();
+    return new FrozenJsonArray(copy);
+  }
+
+  @Override
+  public JsonArray withoutElement(int index) {
+    JsonElement[] copy = new JsonElement[elements.length - 1];
+    System.arraycopy(elements, 0, copy, 0, index);
+    System.arraycopy(elements, index + 1, copy, index, copy.length - index);
+    return new FrozenJsonArray(copy);
+  }
+
+  @Override
+  public int contentHash() {
+    int h = hash;
+    if (h == 0) {
+      h = super.contentHash();
+      hash = h;
+    }
+    return h;
+  }
+}
@@ -0,0 +1,49 @@
+package de.chloedev.config.json.element;
+
+/** A {@link JsonObject} that was created by {@link JsonObject#freeze()} and cannot be changed. */
+final class FrozenJsonObject extends JsonObject {
+  private final FrozenMembers members;
+
+  /** Cached by {@link #contentHash()}; 0 until it is first computed. */
+  private int hash;
+
+  FrozenJsonObject(String[] keys, JsonElement[] values) {
+    this(new FrozenMembers(keys, values));
+  }
+
+  private FrozenJsonObject(FrozenMembers members) {
+    super(members);
+    this.members = members;
+  }
+
+  @Override
+  public boolean isFrozen() {
+    return true;
+  }
+
+  @Override
+  public JsonObject freeze() {
+    return this;
+  }
+
+  @Override
+  public JsonObject withMember(String name, JsonElement value) {
+    return new FrozenJsonObject(members.with(name, value.freeze()));
+  }
+
+  @Override
+  public JsonObject withoutMember(String name) {
+    FrozenMembers without = members.without(name);
+    return without == members ? this : new FrozenJsonObject(without);
+  }
+
+  @Override
+  public int contentHash() {
+    int h = hash;
+    if (h == 0) {
+      h = super.contentHash();
+      hash = h;
+    }
+    return h;
+  }
+}
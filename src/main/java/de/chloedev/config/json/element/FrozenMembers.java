@@ -0,0 +1,148 @@
+package de.chloedev.config.json.element;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The immutable members of a frozen object: keys and values in two insertion-ordered arrays of
+ * exactly the right size. Objects with more than {@link #LINEAR_MAX} members also get an
+ * open-addressed index of positions; smaller ones are scanned, which is faster than hashing at
+ * that size. All mutators throw {@link UnsupportedOperationException}.
+ */
+final class FrozenMembers extends AbstractMap<String, JsonElement> {
+  private static final int LINEAR_MAX = 8;
+
+  private final String[] keys;
+  private final JsonElement[] values;
+  /** Positions plus one, so that 0 marks a free slot; null for small objects. */
+  private final int[] index;
+
+  FrozenMembers(String[] keys, JsonElement[] values) {
+    this.keys = keys;
+    this.values = values;
+    if (keys.length <= LINEAR_MAX) {
+      this.index = null;
+    } else {
+      int[] table = new int[Integer.highestOneBit(keys.length * 2 - 1) << 1];
+      int mask = table.length - 1;
+      for (int i = 0; i < keys.length; i++) {
+        int slot = spread(keys[i].hashCode()) & mask;
+        while (table[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        table[slot] = i + 1;
+      }
+      this.index = table;
+    }
+  }
+
+  private static int spread(int h) {
+    return h ^ (h >>> 16);
+  }
+
+  private int indexOf(Object key) {
+    if (!(key instanceof String)) {
+      return -1;
+    }
+    if (index == null) {
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i].equals(key)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+    int mask = index.length - 1;
+    for (int slot = spread(key.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+      int pos = index[slot] - 1;
+      if (pos < 0) {
+        return -1;
+      }
+      if (keys[pos].equals(key)) {
+        return pos;
+      }
+    }
+  }
+
+  /** Returns members with the given one set, sharing the values of all others. */
+  FrozenMembers with(String key, JsonElement value) {
+    int i = indexOf(key);
+    if (i >= 0) {
+      JsonElement[] v = values.clone();
+      v[i] = value;
+      return new FrozenMembers(keys, v);
+    }
+    String[] k = Arrays.copyOf(keys, keys.length + 1);
+    JsonElement[] v = Arrays.copyOf(values, values.length + 1);
+    k[keys.length] = key;
+    v[values.length] = value;
+    return new FrozenMembers(k, v);
+  }
+
+  /** Returns members without the given one, or these members if there is no such member. */
+  FrozenMembers without(String key) {
+    int i = indexOf(key);
+    if (i < 0) {
+      return this;
+    }
+    String[] k = new String[keys.length - 1];
+    JsonElement[] v = new JsonElement[values.length - 1];
+    System.arraycopy(keys, 0, k, 0, i);
+    System.arraycopy(keys, i + 1, k, i, k.length - i);
+    System.arraycopy(values, 0, v, 0, i);
+    System.arraycopy(values, i + 1, v, i, v.length - i);
+    return new FrozenMembers(k, v);
+  }
+
+  @Override
+  public JsonElement get(Object key) {
+    int i = indexOf(key);
+    return i < 0 ? null : values[i];
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public int size() {
+    return keys.length;
+  }
+
+  @Override
+  public Set<Map.Entry<String, JsonElement>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Map.Entry<String, JsonElement>> iterator() {
+        return new Iterator<>() {
+          private int next = 0;
+
+          @Override
+          public boolean hasNext() {
+            return next < keys.length;
+          }
+
+          @Override
+          public Map.Entry<String, JsonElement> next() {
+            if (next >= keys.length) {
+              throw new NoSuchElementException();
+            }
+            int i = next++;
+            return Map.entry(keys[i], values[i]);
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return keys.length;
+      }
+    };
+  }
+}
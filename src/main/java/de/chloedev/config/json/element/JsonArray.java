@@ -1,9 +1,10 @@
 package de.chloedev.config.json.element;
 
 import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.stream.JsonWriter;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 
 public class JsonArray extends JsonElement {
   private final List<JsonElement> elements;
@@ -12,6 +13,14 @@ public class JsonArray extends JsonElement {
     this.elements = new ArrayList<>();
   }
 
+  /**
+   * Creates an array backed by the given list, for subclasses that supply their own storage. The
+   * list must never hold null elements.
+   */
+  protected JsonArray(List<JsonElement> elements) {
+    this.elements = elements;
+  }
+
   public JsonArray(String jsonString) {
     this.elements = new ArrayList<>();
     JsonElement root = JsonParser.parse(jsonString);
@@ -84,49 +93,74 @@ public class JsonArray extends JsonElement {
   }
 
   @Override
-  public String toString() {
-    StringBuilder sb = new StringBuilder();
-    sb.append("[");
-    Iterator<JsonElement> iter = elements.iterator();
-    while (iter.hasNext()) {
-      sb.append(iter.next().toString());
-      if (iter.hasNext()) {
-        sb.append(",");
-      }
+  public JsonArray freeze() {
+    JsonElement[] frozen = new JsonElement[elements.size()];
+    for (int i = 0; i < frozen.length; i++) {
+      frozen[i] = elements.get(i).freeze();
     }
-    sb.append("]");
-    return sb.toString();
+    return new FrozenJsonArray(frozen);
   }
 
-  public String toString(int indentSize) {
-    return toString(indentSize, 0);
+  @Override
+  public JsonArray toPersistent() {
+    PersistentVector<JsonElement> v = PersistentVector.empty();
+    for (int i = 0, n = elements.size(); i < n; i++) {
+      v = v.append(elements.get(i).toPersistent());
+    }
+    return new PersistentJsonArray(v);
   }
 
-  @SuppressWarnings("DuplicatedCode")
-  protected String toString(int indentSize, int depth) {
-    if (indentSize == 0) {
-      return toString();
+  /**
+   * Returns a frozen copy of this array with the element at the given index replaced. Frozen
+   * elements are shared rather than copied, see {@link JsonObject#withMember}.
+   *
+   * @throws IndexOutOfBoundsException if there is no element at the index
+   */
+  public JsonArray withElement(int index, JsonElement element) {
+    Objects.checkIndex(index, size());
+    return freeze().withElement(index, element);
+  }
+
+  /**
+   * Returns a frozen copy of this array without the element at the given index.
+   *
+   * @throws IndexOutOfBoundsException if there is no element at the index
+   */
+  public JsonArray withoutElement(int index) {
+    Objects.checkIndex(index, size());
+    return freeze().withoutElement(index);
+  }
+
+  @Override
+  public boolean contentEquals(JsonElement other) {
+    if (this == other) {
+      return true;
     }
-    StringBuilder sb = new StringBuilder();
-    sb.append("[\n");
-    Iterator<JsonElement> iter = elements.iterator();
-    while (iter.hasNext()) {
-      JsonElement child = iter.next();
-      sb.append(" ".repeat(Math.max(0, (depth + 1) * indentSize)));
-      if (child instanceof JsonObject) {
-        sb.append(((JsonObject) child).toString(indentSize, depth + 1));
-      } else if (child instanceof JsonArray) {
-        sb.append(((JsonArray) child).toString(indentSize, depth + 1));
-      } else {
-        sb.append(child.toString());
-      }
-      if (iter.hasNext()) {
-        sb.append(",");
+    if (!(other instanceof JsonArray a) || a.size() != size()) {
+      return false;
+    }
+    if (isFrozen() && a.isFrozen() && contentHash() != a.contentHash()) {
+      return false;
+    }
+    for (int i = 0, n = elements.size(); i < n; i++) {
+      if (!elements.get(i).contentEquals(a.get(i))) {
+        return false;
       }
-      sb.append("\n");
     }
-    sb.append(" ".repeat(Math.max(0, depth * indentSize)));
-    sb.append("]");
-    return sb.toString();
+    return true;
+  }
+
+  @Override
+  public int contentHash() {
+    int h = 1;
+    for (int i = 0, n = elements.size(); i < n; i++) {
+      h = 31 * h + elements.get(i).contentHash();
+    }
+    return h;
+  }
+
+  @Override
+  public String toString() {
+    return JsonWriter.toString(this, 0);
   }
 }
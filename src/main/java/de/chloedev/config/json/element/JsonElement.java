@@ -1,5 +1,7 @@
 package de.chloedev.config.json.element;
 
+import de.chloedev.config.json.stream.JsonWriter;
+
 public abstract class JsonElement {
   protected static String escapeString(String s) {
     StringBuilder sb = new StringBuilder();
@@ -37,6 +39,50 @@ public abstract class JsonElement {
     return sb.toString();
   }
 
+  /**
+   * Returns a deeply immutable copy of this element, stored in a compact form meant for trees that
+   * are only read after loading. Mutators of the copy throw {@link UnsupportedOperationException};
+   * this element itself stays unchanged.
+   */
+  public abstract JsonElement freeze();
+
+  /**
+   * Returns an immutable copy of this element built from persistent data structures: objects are
+   * hash array mapped tries and arrays are radix-tree vectors. Unlike {@link #freeze()}, the copy
+   * is meant to be changed through {@link JsonObject#withMember} and {@link JsonArray#withElement},
+   * which copy O(log n) nodes per level and share everything else, so keeping many versions of a
+   * large tree around is cheap.
+   */
+  public abstract JsonElement toPersistent();
+
+  /**
+   * Returns whether this element holds the same JSON value as the given one: objects with the same
+   * members in any order, arrays with equal elements in the same order, and numbers with the same
+   * numeric value, so {@code 1} equals {@code 1.0}.
+   */
+  public abstract boolean contentEquals(JsonElement other);
+
+  /**
+   * Returns a hash of this element's value that is consistent with {@link #contentEquals}.
+   * Immutable objects and arrays compute it once and keep it.
+   */
+  public abstract int contentHash();
+
+  /** Returns whether this element can no longer be changed. */
+  public boolean isFrozen() {
+    return false;
+  }
+
   @Override
   public abstract String toString();
+
+  /**
+   * Serializes this element as JSON.
+   *
+   * @param indentSize the number of spaces to indent each nesting level with, or 0 for a single
+   *     line
+   */
+  public String toString(int indentSize) {
+    return indentSize == 0 ? toString() : JsonWriter.toString(this, indentSize);
+  }
 }
@@ -1,19 +1,30 @@
 package de.chloedev.config.json.element;
 
 import de.chloedev.config.json.JsonParser;
-import java.util.Iterator;
+import de.chloedev.config.json.path.ConfigPath;
+import de.chloedev.config.json.stream.JsonWriter;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
 @SuppressWarnings("DuplicatedCode")
 public class JsonObject extends JsonElement {
+  private static final ConfigPath EMPTY_KEY = ConfigPath.ofSegments("");
+
   private final Map<String, JsonElement> members;
 
   public JsonObject() {
     this.members = new LinkedHashMap<>();
   }
 
+  /**
+   * Creates an object backed by the given map, for subclasses that supply their own storage. The
+   * map must keep insertion order and never hold null values.
+   */
+  protected JsonObject(Map<String, JsonElement> members) {
+    this.members = members;
+  }
+
   public JsonObject(String jsonString) {
     this();
     JsonElement root = JsonParser.parse(jsonString);
@@ -24,10 +35,20 @@ public class JsonObject extends JsonElement {
   }
 
   public JsonObject put(String key, JsonElement value) {
-    String[] parts = key.split("/");
+    return put(path(key), value);
+  }
+
+  /**
+   * Puts the value at the given path, creating intermediate objects (and replacing non-objects)
+   * along the way.
+   */
+  public JsonObject put(ConfigPath path, JsonElement value) {
+    if (path.isRoot()) {
+      throw new IllegalArgumentException("Cannot put a value at the root of an object");
+    }
     JsonObject cursor = this;
-    for (int i = 0; i < parts.length - 1; i++) {
-      String part = parts[i];
+    for (int i = 0; i < path.size() - 1; i++) {
+      String part = path.segment(i);
       JsonElement child = cursor.members.get(part);
       if (!(child instanceof JsonObject)) {
         JsonObject next = new JsonObject();
@@ -37,7 +58,7 @@ public class JsonObject extends JsonElement {
         cursor = (JsonObject) child;
       }
     }
-    cursor.members.put(parts[parts.length - 1], value);
+    cursor.members.put(path.last(), value);
     return this;
   }
 
@@ -57,34 +78,66 @@ public class JsonObject extends JsonElement {
     return put(key, new JsonPrimitive((Object) null));
   }
 
+  /** Puts a member under exactly the given name; slashes in it are not treated as a path. */
+  public JsonObject putMember(String name, JsonElement value) {
+    members.put(name, value);
+    return this;
+  }
+
   public JsonElement get(String key) {
-    String[] parts = key.split("/");
+    return get(path(key));
+  }
+
+  public JsonElement get(ConfigPath path) {
+    if (path.isRoot()) {
+      return null;
+    }
     JsonObject cursor = this;
-    for (int i = 0; i < parts.length - 1; i++) {
-      JsonElement child = cursor.members.get(parts[i]);
+    for (int i = 0; i < path.size() - 1; i++) {
+      JsonElement child = cursor.members.get(path.segment(i));
       if (!(child instanceof JsonObject)) {
         return null;
       }
       cursor = (JsonObject) child;
     }
-    return cursor.members.get(parts[parts.length - 1]);
+    return cursor.members.get(path.last());
+  }
+
+  /** Returns the member with exactly the given name, or null if there is none. */
+  public JsonElement getMember(String name) {
+    return members.get(name);
   }
 
   public boolean has(String key) {
     return get(key) != null;
   }
 
+  public boolean has(ConfigPath path) {
+    return get(path) != null;
+  }
+
   public JsonElement remove(String key) {
-    String[] parts = key.split("/");
+    return remove(path(key));
+  }
+
+  public JsonElement remove(ConfigPath path) {
+    if (path.isRoot()) {
+      return null;
+    }
     JsonObject cursor = this;
-    for (int i = 0; i < parts.length - 1; i++) {
-      JsonElement child = cursor.members.get(parts[i]);
+    for (int i = 0; i < path.size() - 1; i++) {
+      JsonElement child = cursor.members.get(path.segment(i));
       if (!(child instanceof JsonObject)) {
         return null;
       }
       cursor = (JsonObject) child;
     }
-    return cursor.members.remove(parts[parts.length - 1]);
+    return cursor.members.remove(path.last());
+  }
+
+  /** Removes the member with exactly the given name and returns it, or null if there was none. */
+  public JsonElement removeMember(String name) {
+    return members.remove(name);
   }
 
   public int size() {
@@ -92,59 +145,81 @@ public class JsonObject extends JsonElement {
   }
 
   @Override
-  public String toString() {
-    StringBuilder sb = new StringBuilder();
-    sb.append("{");
-    Iterator<Map.Entry<String, JsonElement>> iter = members.entrySet().iterator();
-    while (iter.hasNext()) {
-      Map.Entry<String, JsonElement> e = iter.next();
-      sb.append("\"")
-          .append(escapeString(e.getKey()))
-          .append("\":")
-          .append(e.getValue().toString());
-      if (iter.hasNext()) {
-        sb.append(",");
-      }
+  public JsonObject freeze() {
+    String[] keys = new String[members.size()];
+    JsonElement[] values = new JsonElement[keys.length];
+    int i = 0;
+    for (Map.Entry<String, JsonElement> e : members.entrySet()) {
+      keys[i] = e.getKey();
+      values[i++] = e.getValue().freeze();
+    }
+    return new FrozenJsonObject(keys, values);
+  }
+
+  @Override
+  public JsonObject toPersistent() {
+    PersistentMembers m = PersistentMembers.EMPTY;
+    for (Map.Entry<String, JsonElement> e : members.entrySet()) {
+      m = m.with(e.getKey(), e.getValue().toPersistent());
     }
-    sb.append("}");
-    return sb.toString();
+    return new PersistentJsonObject(m);
   }
 
-  public String toString(int indentSize) {
-    return toString(indentSize, 0);
+  /**
+   * Returns a frozen copy of this object with the member of exactly the given name set to the given
+   * value. Frozen members are shared rather than copied, so replacing a value deep inside a frozen
+   * tree only copies the objects and arrays on the way to it.
+   */
+  public JsonObject withMember(String name, JsonElement value) {
+    return freeze().withMember(name, value);
   }
 
-  @SuppressWarnings("DuplicatedCode")
-  protected String toString(int indentSize, int depth) {
-    if (indentSize == 0) {
-      return toString();
+  /** Like {@link #withMember}, but returns a frozen copy without the given member. */
+  public JsonObject withoutMember(String name) {
+    return freeze().withoutMember(name);
+  }
+
+  @Override
+  public boolean contentEquals(JsonElement other) {
+    if (this == other) {
+      return true;
     }
-    StringBuilder sb = new StringBuilder();
-    sb.append("{\n");
-    Iterator<Map.Entry<String, JsonElement>> iter = members.entrySet().iterator();
-    while (iter.hasNext()) {
-      Map.Entry<String, JsonElement> e = iter.next();
-      sb.append(" ".repeat(Math.max(0, (depth + 1) * indentSize)));
-      sb.append("\"").append(escapeString(e.getKey())).append("\": ");
-      JsonElement child = e.getValue();
-      if (child instanceof JsonObject) {
-        sb.append(((JsonObject) child).toString(indentSize, depth + 1));
-      } else if (child instanceof JsonArray) {
-        sb.append(((JsonArray) child).toString(indentSize, depth + 1));
-      } else {
-        sb.append(child.toString());
-      }
-      if (iter.hasNext()) {
-        sb.append(",");
+    if (!(other instanceof JsonObject o) || o.size() != size()) {
+      return false;
+    }
+    if (isFrozen() && o.isFrozen() && contentHash() != o.contentHash()) {
+      return false;
+    }
+    for (Map.Entry<String, JsonElement> e : members.entrySet()) {
+      JsonElement value = o.getMember(e.getKey());
+      if (value == null || !e.getValue().contentEquals(value)) {
+        return false;
       }
-      sb.append("\n");
     }
-    sb.append(" ".repeat(Math.max(0, depth * indentSize)));
-    sb.append("}");
-    return sb.toString();
+    return true;
+  }
+
+  @Override
+  public int contentHash() {
+    // member order does not matter for equality, so it must not matter here either
+    int h = 0;
+    for (Map.Entry<String, JsonElement> e : members.entrySet()) {
+      h += e.getKey().hashCode() ^ e.getValue().contentHash();
+    }
+    return h;
+  }
+
+  @Override
+  public String toString() {
+    return JsonWriter.toString(this, 0);
   }
 
   public Set<Map.Entry<String, JsonElement>> entrySet() {
     return members.entrySet();
   }
+
+  // keys used to be split with String.split, which turns "" into a single empty key
+  private static ConfigPath path(String key) {
+    return key.isEmpty() ? EMPTY_KEY : ConfigPath.of(key);
+  }
 }
@@ -1,6 +1,13 @@
 package de.chloedev.config.json.element;
 
+import de.chloedev.config.json.stream.JsonReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
 public class JsonPrimitive extends JsonElement {
+  private static final JsonPrimitive TRUE = new BooleanPrimitive(true);
+  private static final JsonPrimitive FALSE = new BooleanPrimitive(false);
+
   private final Object value;
 
   public JsonPrimitive() {
@@ -30,6 +37,39 @@ public class JsonPrimitive extends JsonElement {
     }
   }
 
+  /** Returns a primitive that stores the value unboxed. */
+  public static JsonPrimitive of(long value) {
+    return new LongPrimitive(value);
+  }
+
+  /** Returns a primitive that stores the value unboxed. */
+  public static JsonPrimitive of(double value) {
+    return new DoublePrimitive(value);
+  }
+
+  /** Returns one of two shared instances; primitives are immutable. */
+  public static JsonPrimitive of(boolean value) {
+    return value ? TRUE : FALSE;
+  }
+
+  public static JsonPrimitive of(String value) {
+    return new JsonPrimitive(value);
+  }
+
+  /**
+   * Returns a number that keeps the given JSON literal. It is decoded on first access and written
+   * back exactly as given, so integers beyond the range of a long and decimals beyond the precision
+   * of a double survive a round-trip.
+   *
+   * @throws IllegalArgumentException if the literal is not a valid JSON number
+   */
+  public static JsonPrimitive ofNumberLiteral(String literal) {
+    if (!JsonReader.isValidNumber(literal)) {
+      throw new IllegalArgumentException("Invalid number '" + literal + "'");
+    }
+    return new NumberPrimitive(literal);
+  }
+
   public boolean isString() {
     return value instanceof String;
   }
@@ -60,6 +100,78 @@ public class JsonPrimitive extends JsonElement {
     throw new IllegalStateException("Not a number");
   }
 
+  /**
+   * Returns the number as a long, truncating it if it is not integral.
+   *
+   * @throws IllegalStateException if this is not a number
+   */
+  public long getAsLong() {
+    return getAsNumber().longValue();
+  }
+
+  /**
+   * Returns whether the number's integral part fits in a long, so that {@link #getAsLong()} returns
+   * it exactly instead of wrapping around. False if this is not a number.
+   */
+  public boolean fitsInLong() {
+    if (value instanceof BigInteger big) {
+      return big.bitLength() < 64;
+    } else if (value instanceof BigDecimal dec) {
+      return dec.toBigInteger().bitLength() < 64;
+    } else if (value instanceof Double || value instanceof Float) {
+      return fitsInLong(((Number) value).doubleValue());
+    }
+    return value instanceof Number;
+  }
+
+  static boolean fitsInLong(double d) {
+    return d >= -0x1p63 && d < 0x1p63;
+  }
+
+  /**
+   * Returns the number as a double.
+   *
+   * @throws IllegalStateException if this is not a number
+   */
+  public double getAsDouble() {
+    return getAsNumber().doubleValue();
+  }
+
+  /**
+   * Returns the number as a BigInteger, dropping any fractional part.
+   *
+   * @throws IllegalStateException if this is not a number
+   */
+  public BigInteger getAsBigInteger() {
+    Number n = getAsNumber();
+    if (n instanceof BigInteger big) {
+      return big;
+    } else if (n instanceof BigDecimal dec) {
+      return dec.toBigInteger();
+    } else if (n instanceof Double || n instanceof Float) {
+      return BigDecimal.valueOf(n.doubleValue()).toBigInteger();
+    }
+    return BigInteger.valueOf(n.longValue());
+  }
+
+  /**
+   * Returns the number as a BigDecimal. Numbers read from a document are converted exactly, from
+   * their literal.
+   *
+   * @throws IllegalStateException if this is not a number
+   */
+  public BigDecimal getAsBigDecimal() {
+    Number n = getAsNumber();
+    if (n instanceof BigDecimal dec) {
+      return dec;
+    } else if (n instanceof BigInteger big) {
+      return new BigDecimal(big);
+    } else if (n instanceof Double || n instanceof Float) {
+      return BigDecimal.valueOf(n.doubleValue());
+    }
+    return BigDecimal.valueOf(n.longValue());
+  }
+
   public Boolean getAsBoolean() {
     if (isBoolean()) {
       return (Boolean) value;
@@ -67,12 +179,75 @@ public class JsonPrimitive extends JsonElement {
     throw new IllegalStateException("Not a boolean");
   }
 
+  /** Primitives are immutable, so this returns the primitive itself. */
+  @Override
+  public JsonPrimitive freeze() {
+    return this;
+  }
+
+  @Override
+  public JsonPrimitive toPersistent() {
+    return this;
+  }
+
+  @Override
+  public boolean isFrozen() {
+    return true;
+  }
+
+  @Override
+  public boolean contentEquals(JsonElement other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof JsonPrimitive p)) {
+      return false;
+    }
+    if (isNull() || p.isNull()) {
+      return isNull() && p.isNull();
+    }
+    if (isNumber() && p.isNumber()) {
+      try {
+        return getAsBigDecimal().compareTo(p.getAsBigDecimal()) == 0;
+      } catch (NumberFormatException e) {
+        // NaN or infinite doubles
+        return Double.compare(getAsDouble(), p.getAsDouble()) == 0;
+      }
+    }
+    return isString() == p.isString()
+        && isBoolean() == p.isBoolean()
+        && getAsString().equals(p.getAsString());
+  }
+
+  @Override
+  public int contentHash() {
+    if (isNull()) {
+      return 0;
+    }
+    if (isNumber()) {
+      try {
+        // 1 and 1.0 are equal, so both must hash like 1
+        return getAsBigDecimal().stripTrailingZeros().hashCode();
+      } catch (NumberFormatException e) {
+        return Double.hashCode(getAsDouble());
+      }
+    }
+    return getAsString().hashCode() + (isString() ? 0 : 1);
+  }
+
+  /**
+   * Returns this value as JSON text. JSON has no infinite or NaN numbers, so they are written as
+   * {@code null}, as JavaScript does.
+   */
   @Override
   public String toString() {
     if (value == null) {
       return "null";
     } else if (isString()) {
       return "\"" + escapeString(getAsString()) + "\"";
+    } else if (value instanceof Double || value instanceof Float) {
+      double d = ((Number) value).doubleValue();
+      return Double.isFinite(d) ? value.toString() : "null";
     } else {
       return value.toString();
     }
@@ -0,0 +1,132 @@
+package de.chloedev.config.json.element;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * The members of an object that is still encoded in a document, such as a tape or a snapshot. A
+ * lookup by key builds only the looked-up value. Anything that needs all members, like iteration or
+ * a mutation, turns this level into a regular {@link LinkedHashMap}; the members themselves stay
+ * lazy. Like those of a regular object, the members may be read from several threads at once.
+ *
+ * <p>Subclasses locate members in their document by a position, an {@code int} of their choice.
+ */
+public abstract class LazyMembers extends AbstractMap<String, JsonElement> {
+  /** Values handed out by {@link #get} before materialization, so they keep their identity. */
+  private volatile Map<String, JsonElement> touched;
+  private volatile LinkedHashMap<String, JsonElement> members;
+
+  protected LazyMembers() {}
+
+  /** Returns the number of members in the document. */
+  protected abstract int count();
+
+  /** Returns the position of the value of {@code key} in the document, or -1 if it has none. */
+  protected abstract int find(String key);
+
+  /** Builds the element at the given position. */
+  protected abstract JsonElement element(int position);
+
+  /** Passes every key and the position of its value to the action, in document order. */
+  protected abstract void forEachMember(ObjIntConsumer<String> action);
+
+  private Map<String, JsonElement> members() {
+    Map<String, JsonElement> m = members;
+    return m != null ? m : materialize();
+  }
+
+  private synchronized Map<String, JsonElement> materialize() {
+    if (members == null) {
+      Map<String, JsonElement> t = touched;
+      LinkedHashMap<String, JsonElement> m = new LinkedHashMap<>((int) (count() / 0.75f) + 1);
+      forEachMember(
+          (key, position) -> {
+            JsonElement value = t == null ? null : t.get(key);
+            m.put(key, value != null ? value : element(position));
+          });
+      members = m;
+      touched = null;
+    }
+    return members;
+  }
+
+  @Override
+  public JsonElement get(Object key) {
+    Map<String, JsonElement> m = members;
+    if (m != null) {
+      return m.get(key);
+    }
+    if (!(key instanceof String k)) {
+      return null;
+    }
+    Map<String, JsonElement> t = touched;
+    JsonElement value = t == null ? null : t.get(k);
+    return value != null ? value : load(k);
+  }
+
+  private synchronized JsonElement load(String key) {
+    if (members != null) {
+      return members.get(key);
+    }
+    int position = find(key);
+    if (position < 0) {
+      return null;
+    }
+    if (touched == null) {
+      touched = new ConcurrentHashMap<>();
+    }
+    return touched.computeIfAbsent(key, k -> element(position));
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  @Override
+  public int size() {
+    Map<String, JsonElement> m = members;
+    return m != null ? m.size() : count();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public JsonElement put(String key, JsonElement value) {
+    return members().put(key, value);
+  }
+
+  @Override
+  public JsonElement remove(Object key) {
+    return members().remove(key);
+  }
+
+  @Override
+  public synchronized void clear() {
+    members = new LinkedHashMap<>();
+    touched = null;
+  }
+
+  @Override
+  public Set<String> keySet() {
+    return members().keySet();
+  }
+
+  @Override
+  public Collection<JsonElement> values() {
+    return members().values();
+  }
+
+  @Override
+  public Set<Entry<String, JsonElement>> entrySet() {
+    return members().entrySet();
+  }
+}
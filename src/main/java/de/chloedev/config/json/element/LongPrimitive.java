@@ -0,0 +1,65 @@
+package de.chloedev.config.json.element;
+
+/** A number that fits in a long, stored without boxing. */
+final class LongPrimitive extends JsonPrimitive {
+  private final long value;
+
+  LongPrimitive(long value) {
+    this.value = value;
+  }
+
+  @Override
+  public boolean isString() {
+    return false;
+  }
+
+  @Override
+  public boolean isNumber() {
+    return true;
+  }
+
+  @Override
+  public boolean isBoolean() {
+    return false;
+  }
+
+  @Override
+  public boolean isNull() {
+    return false;
+  }
+
+  @Override
+  public String getAsString() {
+    return Long.toString(value);
+  }
+
+  @Override
+  public Number getAsNumber() {
+    return value;
+  }
+
+  @Override
+  public long getAsLong() {
+    return value;
+  }
+
+  @Override
+  public boolean fitsInLong() {
+    return true;
+  }
+
+  @Override
+  public double getAsDouble() {
+    return value;
+  }
+
+  @Override
+  public Boolean getAsBoolean() {
+    throw new IllegalStateException("Not a boolean");
+  }
+
+  @Override
+  public String toString() {
+    return Long.toString(value);
+  }
+}
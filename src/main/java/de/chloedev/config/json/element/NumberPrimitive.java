@@ -0,0 +1,195 @@
+package de.chloedev.config.json.element;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * A number kept as its source literal. It is decoded on first access to the requested type and
+ * written back verbatim, so no precision is lost on a round-trip.
+ */
+final class NumberPrimitive extends JsonPrimitive {
+  private static final byte UNDECODED = 0;
+  private static final byte LONG = 1;
+  private static final byte DOUBLE = 2;
+  private static final byte BIG = 3;
+
+  private static final double[] POW10 = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+    1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  private final String literal;
+  private final boolean integral;
+  // the long value or the double's bits, depending on state; state is written last
+  private long bits;
+  private volatile byte state;
+
+  NumberPrimitive(String literal) {
+    this.literal = literal;
+    this.integral =
+        literal.indexOf('.') < 0 && literal.indexOf('e') < 0 && literal.indexOf('E') < 0;
+  }
+
+  private byte decode() {
+    byte s = state;
+    if (s != UNDECODED) {
+      return s;
+    }
+    if (integral) {
+      s = LONG;
+      try {
+        bits = Long.parseLong(literal);
+      } catch (NumberFormatException ex) {
+        s = BIG;
+      }
+    } else {
+      bits = Double.doubleToRawLongBits(parseDouble(literal));
+      s = DOUBLE;
+    }
+    state = s;
+    return s;
+  }
+
+  @Override
+  public boolean isString() {
+    return false;
+  }
+
+  @Override
+  public boolean isNumber() {
+    return true;
+  }
+
+  @Override
+  public boolean isBoolean() {
+    return false;
+  }
+
+  @Override
+  public boolean isNull() {
+    return false;
+  }
+
+  @Override
+  public String getAsString() {
+    return literal;
+  }
+
+  @Override
+  public Number getAsNumber() {
+    return switch (decode()) {
+      case LONG -> bits;
+      case DOUBLE -> Double.longBitsToDouble(bits);
+      default -> new BigInteger(literal);
+    };
+  }
+
+  @Override
+  public long getAsLong() {
+    return switch (decode()) {
+      case LONG -> bits;
+      case DOUBLE -> (long) Double.longBitsToDouble(bits);
+      default -> new BigInteger(literal).longValue();
+    };
+  }
+
+  @Override
+  public boolean fitsInLong() {
+    return switch (decode()) {
+      case LONG -> true;
+      case DOUBLE -> fitsInLong(Double.longBitsToDouble(bits));
+      default -> false;
+    };
+  }
+
+  @Override
+  public double getAsDouble() {
+    return switch (decode()) {
+      case LONG -> (double) bits;
+      case DOUBLE -> Double.longBitsToDouble(bits);
+      default -> Double.parseDouble(literal);
+    };
+  }
+
+  @Override
+  public BigInteger getAsBigInteger() {
+    if (!integral) {
+      return new BigDecimal(literal).toBigInteger();
+    }
+    return decode() == LONG ? BigInteger.valueOf(bits) : new BigInteger(literal);
+  }
+
+  @Override
+  public BigDecimal getAsBigDecimal() {
+    return new BigDecimal(literal);
+  }
+
+  @Override
+  public Boolean getAsBoolean() {
+    throw new IllegalStateException("Not a boolean");
+  }
+
+  @Override
+  public String toString() {
+    return literal;
+  }
+
+  /**
+   * Parses a valid JSON number. Up to 15 significant digits and a power of ten of at most 22 are
+   * both exact in a double, so a single multiplication or division gives the correctly rounded
+   * result; everything else is left to {@link Double#parseDouble}.
+   */
+  static double parseDouble(String s) {
+    int n = s.length();
+    boolean negative = s.charAt(0) == '-';
+    int i = negative ? 1 : 0;
+    long mantissa = 0;
+    int digits = 0;
+    int scale = 0;
+    boolean fraction = false;
+    for (; i < n; i++) {
+      char c = s.charAt(i);
+      if (c == '.') {
+        fraction = true;
+        continue;
+      }
+      if (c < '0' || c > '9') {
+        break;
+      }
+      mantissa = mantissa * 10 + (c - '0');
+      if (mantissa != 0 && ++digits > 15) {
+        return Double.parseDouble(s);
+      }
+      if (fraction) {
+        scale--;
+      }
+    }
+    if (i < n) {
+      // an exponent follows
+      i++;
+      boolean negativeExponent = s.charAt(i) == '-';
+      if (negativeExponent || s.charAt(i) == '+') {
+        i++;
+      }
+      if (n - i > 3) {
+        return Double.parseDouble(s);
+      }
+      int exponent = 0;
+      for (; i < n; i++) {
+        exponent = exponent * 10 + (s.charAt(i) - '0');
+      }
+      scale += negativeExponent ? -exponent : exponent;
+    }
+    double value;
+    if (mantissa == 0) {
+      value = 0;
+    } else if (scale >= 0 && scale < POW10.length) {
+      value = mantissa * POW10[scale];
+    } else if (scale < 0 && -scale < POW10.length) {
+      value = mantissa / POW10[-scale];
+    } else {
+      return Double.parseDouble(s);
+    }
+    return negative ? -value : value;
+  }
+}
@@ -0,0 +1,23 @@
+package de.chloedev.config.json.element;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/** The immutable elements of a persistent array, as a read-only list view of the vector. */
+final class PersistentElements extends AbstractList<JsonElement> implements RandomAccess {
+  private final PersistentVector<JsonElement> vector;
+
+  PersistentElements(PersistentVector<JsonElement> vector) {
+    this.vector = vector;
+  }
+
+  @Override
+  public JsonElement get(int index) {
+    return vector.get(index);
+  }
+
+  @Override
+  public int size() {
+    return vector.size();
+  }
+}
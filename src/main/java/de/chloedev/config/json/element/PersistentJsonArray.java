@@ -0,0 +1,54 @@
+package de.chloedev.config.json.element;
+
+/**
+ * A {@link JsonArray} created by {@link JsonArray#toPersistent()}. It cannot be changed, but
+ * {@link #withElement} and {@link #withoutElement} derive new versions from it that share all
+ * unchanged structure.
+ */
+final class PersistentJsonArray extends JsonArray {
+  private final PersistentVector<JsonElement> vector;
+
+  /** Cached by {@link #contentHash()}; 0 until it is first computed. */
+  private int hash;
+
+  PersistentJsonArray(PersistentVector<JsonElement> vector) {
+    super(new PersistentElements(vector));
+    this.vector = vector;
+  }
+
+  @Override
+  public boolean isFrozen() {
+    return true;
+  }
+
+  /** Persistent arrays are already immutable, so this returns the array itself. */
+  @Override
+  public JsonArray freeze() {
+    return this;
+  }
+
+  @Override
+  public JsonArray toPersistent() {
+    return this;
+  }
+
+  @Override
+  public JsonArray withElement(int index, JsonElement element) {
+    return new PersistentJsonArray(vector.set(index, element.toPersistent()));
+  }
+
+  @Override
+  public JsonArray withoutElement(int index) {
+    return new PersistentJsonArray(vector.remove(index));
+  }
+
+  @Override
+  public int contentHash() {
+    int h = hash;
+    if (h == 0) {
+      h = super.contentHash();
+      hash = h;
+    }
+    return h;
+  }
+}
@@ -0,0 +1,55 @@
+package de.chloedev.config.json.element;
+
+/**
+ * A {@link JsonObject} created by {@link JsonObject#toPersistent()}. It cannot be changed, but
+ * {@link #withMember} and {@link #withoutMember} derive new versions from it that share all
+ * unchanged structure.
+ */
+final class PersistentJsonObject extends JsonObject {
+  private final PersistentMembers members;
+
+  /** Cached by {@link #contentHash()}; 0 until it is first computed. */
+  private int hash;
+
+  PersistentJsonObject(PersistentMembers members) {
+    super(members);
+    this.members = members;
+  }
+
+  @Override
+  public boolean isFrozen() {
+    return true;
+  }
+
+  /** Persistent objects are already immutable, so this returns the object itself. */
+  @Override
+  public JsonObject freeze() {
+    return this;
+  }
+
+  @Override
+  public JsonObject toPersistent() {
+    return this;
+  }
+
+  @Override
+  public JsonObject withMember(String name, JsonElement value) {
+    return new PersistentJsonObject(members.with(name, value.toPersistent()));
+  }
+
+  @Override
+  public JsonObject withoutMember(String name) {
+    PersistentMembers without = members.without(name);
+    return without == members ? this : new PersistentJsonObject(without);
+  }
+
+  @Override
+  public int contentHash() {
+    int h = hash;
+    if (h == 0) {
+      h = super.contentHash();
+      hash = h;
+    }
+    return h;
+  }
+}
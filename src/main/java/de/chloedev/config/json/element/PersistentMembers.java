@@ -0,0 +1,316 @@
+package de.chloedev.config.json.element;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The immutable members of a persistent object.
+ *
+ * <p>Lookups go through a hash array mapped trie (HAMT): every level consumes five bits of the
+ * key's hash and stores only the slots that are used, so setting or removing a member copies one
+ * small array per level. Insertion order is kept by a {@link PersistentVector} of the members,
+ * indexed by the ordinal each member got when it was added. Removed members leave a hole in that
+ * vector, which is compacted once holes make up half of it.
+ */
+final class PersistentMembers extends AbstractMap<String, JsonElement> {
+  static final PersistentMembers EMPTY =
+      new PersistentMembers(new BitmapNode(0, new Object[0]), PersistentVector.empty(), 0);
+
+  private final BitmapNode root;
+  private final PersistentVector<Member> order;
+  private final int size;
+
+  private PersistentMembers(BitmapNode root, PersistentVector<Member> order, int size) {
+    this.root = root;
+    this.order = order;
+    this.size = size;
+  }
+
+  private static int hash(Object key) {
+    int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  @Override
+  public JsonElement get(Object key) {
+    Member m = key instanceof String ? find(root, key, hash(key)) : null;
+    return m == null ? null : m.value;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /** Returns members with the given one set; a replaced member keeps its position. */
+  PersistentMembers with(String key, JsonElement value) {
+    int hash = hash(key);
+    Member old = find(root, key, hash);
+    if (old != null) {
+      Member m = new Member(key, value, old.ordinal);
+      return new PersistentMembers(put(root, m, hash, 0), order.set(old.ordinal, m), size);
+    }
+    Member m = new Member(key, value, order.size());
+    return new PersistentMembers(put(root, m, hash, 0), order.append(m), size + 1);
+  }
+
+  /** Returns members without the given one, or these members if there is no such member. */
+  PersistentMembers without(String key) {
+    int hash = hash(key);
+    Member old = find(root, key, hash);
+    if (old == null) {
+      return this;
+    }
+    Object newRoot = remove(root, key, hash, 0);
+    PersistentMembers result =
+        new PersistentMembers(
+            newRoot == null ? EMPTY.root : (BitmapNode) newRoot,
+            order.set(old.ordinal, null),
+            size - 1);
+    int holes = result.order.size() - result.size;
+    return holes > 16 && holes > result.size ? result.compact() : result;
+  }
+
+  private PersistentMembers compact() {
+    PersistentMembers m = EMPTY;
+    for (Member e : entries()) {
+      m = m.with(e.key, e.value);
+    }
+    return m;
+  }
+
+  private Iterable<Member> entries() {
+    return () ->
+        new Iterator<>() {
+          private int next = advance(0);
+
+          private int advance(int i) {
+            while (i < order.size() && order.get(i) == null) {
+              i++;
+            }
+            return i;
+          }
+
+          @Override
+          public boolean hasNext() {
+            return next < order.size();
+          }
+
+          @Override
+          public Member next() {
+            if (next >= order.size()) {
+              throw new NoSuchElementException();
+            }
+            Member m = order.get(next);
+            next = advance(next + 1);
+            return m;
+          }
+        };
+  }
+
+  @Override
+  public Set<Map.Entry<String, JsonElement>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      @SuppressWarnings({"unchecked", "rawtypes"})
+      public Iterator<Map.Entry<String, JsonElement>> iterator() {
+        return (Iterator) entries().iterator();
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  private static Member find(Object node, Object key, int hash) {
+    for (int shift = 0; ; shift += 5) {
+      if (node instanceof BitmapNode b) {
+        int bit = 1 << ((hash >>> shift) & 31);
+        if ((b.bitmap & bit) == 0) {
+          return null;
+        }
+        node = b.slots[Integer.bitCount(b.bitmap & (bit - 1))];
+      } else if (node instanceof Member m) {
+        return m.key.equals(key) ? m : null;
+      } else {
+        for (Member m : ((CollisionNode) node).members) {
+          if (m.key.equals(key)) {
+            return m;
+          }
+        }
+        return null;
+      }
+    }
+  }
+
+  private static BitmapNode put(BitmapNode node, Member m, int hash, int shift) {
+    int bit = 1 << ((hash >>> shift) & 31);
+    int idx = Integer.bitCount(node.bitmap & (bit - 1));
+    if ((node.bitmap & bit) == 0) {
+      Object[] slots = new Object[node.slots.length + 1];
+      System.arraycopy(node.slots, 0, slots, 0, idx);
+      slots[idx] = m;
+      System.arraycopy(node.slots, idx, slots, idx + 1, node.slots.length - idx);
+      return new BitmapNode(node.bitmap | bit, slots);
+    }
+    Object slot = node.slots[idx];
+    Object replacement;
+    if (slot instanceof Member e) {
+      replacement = e.key.equals(m.key) ? m : merge(e, hash(e.key), m, hash, shift + 5);
+    } else if (slot instanceof BitmapNode sub) {
+      replacement = put(sub, m, hash, shift + 5);
+    } else {
+      CollisionNode c = (CollisionNode) slot;
+      replacement = c.hash == hash ? c.with(m) : merge(c, c.hash, m, hash, shift + 5);
+    }
+    Object[] slots = node.slots.clone();
+    slots[idx] = replacement;
+    return new BitmapNode(node.bitmap, slots);
+  }
+
+  /** Builds the nodes that hold {@code a}, a member or collision node, and {@code b}. */
+  private static Object merge(Object a, int hashA, Member b, int hashB, int shift) {
+    if (hashA == hashB) {
+      return new CollisionNode(hashA, new Member[] {(Member) a, b});
+    }
+    int bitA = 1 << ((hashA >>> shift) & 31);
+    int bitB = 1 << ((hashB >>> shift) & 31);
+    if (bitA == bitB) {
+      return new BitmapNode(bitA, new Object[] {merge(a, hashA, b, hashB, shift + 5)});
+    }
+    boolean aFirst = Integer.compareUnsigned(bitA, bitB) < 0;
+    Object[] slots = aFirst ? new Object[] {a, b} : new Object[] {b, a};
+    return new BitmapNode(bitA | bitB, slots);
+  }
+
+  /**
+   * Returns the node without the key: null if it became empty, or a lone member that the parent
+   * should store in place of the node.
+   */
+  private static Object remove(Object node, String key, int hash, int shift) {
+    if (node instanceof CollisionNode c) {
+      return c.without(key);
+    }
+    BitmapNode b = (BitmapNode) node;
+    int bit = 1 << ((hash >>> shift) & 31);
+    int idx = Integer.bitCount(b.bitmap & (bit - 1));
+    Object slot = b.slots[idx];
+    Object replacement = slot instanceof Member ? null : remove(slot, key, hash, shift + 5);
+    if (replacement == null) {
+      if (b.slots.length == 1) {
+        return null;
+      }
+      Object[] slots = new Object[b.slots.length - 1];
+      System.arraycopy(b.slots, 0, slots, 0, idx);
+      System.arraycopy(b.slots, idx + 1, slots, idx, slots.length - idx);
+      if (shift > 0 && slots.length == 1 && slots[0] instanceof Member lone) {
+        return lone;
+      }
+      return new BitmapNode(b.bitmap & ~bit, slots);
+    }
+    if (shift > 0 && b.slots.length == 1 && replacement instanceof Member) {
+      return replacement;
+    }
+    Object[] slots = b.slots.clone();
+    slots[idx] = replacement;
+    return new BitmapNode(b.bitmap, slots);
+  }
+
+  /** An immutable member; it also remembers its position in insertion order. */
+  private static final class Member implements Map.Entry<String, JsonElement> {
+    final String key;
+    final JsonElement value;
+    final int ordinal;
+
+    Member(String key, JsonElement value, int ordinal) {
+      this.key = key;
+      this.value = value;
+      this.ordinal = ordinal;
+    }
+
+    @Override
+    public String getKey() {
+      return key;
+    }
+
+    @Override
+    public JsonElement getValue() {
+      return value;
+    }
+
+    @Override
+    public JsonElement setValue(JsonElement value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Map.Entry<?, ?> e && key.equals(e.getKey()) && value.equals(e.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return key.hashCode() ^ value.hashCode();
+    }
+  }
+
+  private static final class BitmapNode {
+    final int bitmap;
+    final Object[] slots;
+
+    BitmapNode(int bitmap, Object[] slots) {
+      this.bitmap = bitmap;
+      this.slots = slots;
+    }
+  }
+
+  /** Members whose keys have the same full hash. */
+  private static final class CollisionNode {
+    final int hash;
+    final Member[] members;
+
+    CollisionNode(int hash, Member[] members) {
+      this.hash = hash;
+      this.members = members;
+    }
+
+    CollisionNode with(Member m) {
+      for (int i = 0; i < members.length; i++) {
+        if (members[i].key.equals(m.key)) {
+          Member[] copy = members.clone();
+          copy[i] = m;
+          return new CollisionNode(hash, copy);
+        }
+      }
+      Member[] copy = Arrays.copyOf(members, members.length + 1);
+      copy[members.length] = m;
+      return new CollisionNode(hash, copy);
+    }
+
+    Object without(String key) {
+      int i = 0;
+      while (!members[i].key.equals(key)) {
+        i++;
+      }
+      if (members.length == 2) {
+        return members[1 - i];
+      }
+      Member[] copy = new Member[members.length - 1];
+      System.arraycopy(members, 0, copy, 0, i);
+      System.arraycopy(members, i + 1, copy, i, copy.length - i);
+      return new CollisionNode(hash, copy);
+    }
+  }
+}
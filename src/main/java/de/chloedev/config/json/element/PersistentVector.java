@@ -0,0 +1,134 @@
+package de.chloedev.config.json.element;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * An immutable vector stored as a 32-way radix tree with a separate tail block. Reading, replacing
+ * and appending an element touch at most one node per level, so an update copies O(log32 n) small
+ * arrays and shares everything else with the previous version.
+ */
+final class PersistentVector<E> {
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+  private static final Object[] EMPTY_NODE = new Object[0];
+  private static final PersistentVector<?> EMPTY =
+      new PersistentVector<>(0, BITS, EMPTY_NODE, EMPTY_NODE);
+
+  private final int size;
+  /** The shift of the root node; each level below it consumes another {@link #BITS} bits. */
+  private final int shift;
+  private final Object[] root;
+  private final Object[] tail;
+
+  private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+    this.size = size;
+    this.shift = shift;
+    this.root = root;
+    this.tail = tail;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <E> PersistentVector<E> empty() {
+    return (PersistentVector<E>) EMPTY;
+  }
+
+  int size() {
+    return size;
+  }
+
+  private int tailOffset() {
+    return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+  }
+
+  private Object[] leafFor(int i) {
+    if (i >= tailOffset()) {
+      return tail;
+    }
+    Object[] node = root;
+    for (int level = shift; level > 0; level -= BITS) {
+      node = (Object[]) node[(i >>> level) & MASK];
+    }
+    return node;
+  }
+
+  @SuppressWarnings("unchecked")
+  E get(int i) {
+    Objects.checkIndex(i, size);
+    return (E) leafFor(i)[i & MASK];
+  }
+
+  /** Returns a vector with the element at {@code i} replaced. */
+  PersistentVector<E> set(int i, E e) {
+    Objects.checkIndex(i, size);
+    if (i >= tailOffset()) {
+      Object[] newTail = tail.clone();
+      newTail[i & MASK] = e;
+      return new PersistentVector<>(size, shift, root, newTail);
+    }
+    return new PersistentVector<>(size, shift, set(shift, root, i, e), tail);
+  }
+
+  private static Object[] set(int level, Object[] node, int i, Object e) {
+    Object[] copy = node.clone();
+    if (level == 0) {
+      copy[i & MASK] = e;
+    } else {
+      int sub = (i >>> level) & MASK;
+      copy[sub] = set(level - BITS, (Object[]) node[sub], i, e);
+    }
+    return copy;
+  }
+
+  /** Returns a vector with the element added at the end. */
+  PersistentVector<E> append(E e) {
+    if (size - tailOffset() < WIDTH) {
+      Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+      newTail[tail.length] = e;
+      return new PersistentVector<>(size + 1, shift, root, newTail);
+    }
+    // the tail is full: push it into the tree and start a new one
+    Object[] newRoot;
+    int newShift = shift;
+    if ((size >>> BITS) > (1 << shift)) {
+      newRoot = new Object[] {root, newPath(shift, tail)};
+      newShift += BITS;
+    } else {
+      newRoot = pushTail(shift, root, tail);
+    }
+    return new PersistentVector<>(size + 1, newShift, newRoot, new Object[] {e});
+  }
+
+  private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+    int sub = ((size - 1) >>> level) & MASK;
+    Object[] copy = Arrays.copyOf(parent, sub + 1);
+    if (level == BITS) {
+      copy[sub] = tailNode;
+    } else {
+      Object[] child = sub < parent.length ? (Object[]) parent[sub] : null;
+      copy[sub] =
+          child != null ? pushTail(level - BITS, child, tailNode) : newPath(level - BITS, tailNode);
+    }
+    return copy;
+  }
+
+  private static Object[] newPath(int level, Object[] node) {
+    return level == 0 ? node : new Object[] {newPath(level - BITS, node)};
+  }
+
+  /** Returns a vector without the element at {@code i}; anything but the last one costs O(n). */
+  PersistentVector<E> remove(int i) {
+    Objects.checkIndex(i, size);
+    if (i == size - 1 && size - tailOffset() > 1) {
+      return new PersistentVector<>(size - 1, shift, root, Arrays.copyOf(tail, tail.length - 1));
+    }
+    PersistentVector<E> v = empty();
+    for (int k = 0; k < size; k++) {
+      if (k != i) {
+        v = v.append(get(k));
+      }
+    }
+    return v;
+  }
+}
@@ -0,0 +1,37 @@
+package de.chloedev.config.json.event;
+
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.path.ConfigPath;
+
+/** A value that was set, replaced or removed at a path of a configuration. */
+public final class ChangeEvent {
+  private final ConfigPath path;
+  private final JsonElement oldValue;
+  private final JsonElement newValue;
+
+  public ChangeEvent(ConfigPath path, JsonElement oldValue, JsonElement newValue) {
+    this.path = path;
+    this.oldValue = oldValue;
+    this.newValue = newValue;
+  }
+
+  /** The path that was written; the root path for clear() and root replacement. */
+  public ConfigPath getPath() {
+    return path;
+  }
+
+  /** The value before the change, or null if there was none. */
+  public JsonElement getOldValue() {
+    return oldValue;
+  }
+
+  /** The value after the change, or null if it was removed. */
+  public JsonElement getNewValue() {
+    return newValue;
+  }
+
+  @Override
+  public String toString() {
+    return "ChangeEvent{" + path + ": " + oldValue + " -> " + newValue + "}";
+  }
+}
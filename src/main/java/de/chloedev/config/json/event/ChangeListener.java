@@ -0,0 +1,19 @@
+package de.chloedev.config.json.event;
+
+import java.util.List;
+
+/** Receives the changes made to a configuration at, above or below the prefix it listens on. */
+@FunctionalInterface
+public interface ChangeListener {
+  void onChange(ChangeEvent event);
+
+  /**
+   * Receives the changes of one write or batch at once, in the order they were made. Calls {@link
+   * #onChange} for each of them unless overridden.
+   */
+  default void onChanges(List<ChangeEvent> events) {
+    for (ChangeEvent event : events) {
+      onChange(event);
+    }
+  }
+}
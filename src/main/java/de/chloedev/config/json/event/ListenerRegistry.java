@@ -0,0 +1,138 @@
+package de.chloedev.config.json.event;
+
+import de.chloedev.config.json.path.ConfigPath;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Change listeners, organized as a trie of path segments.
+ *
+ * <p>A change at {@code db/pool/size} is delivered to the listeners on the root, {@code db}, {@code
+ * db/pool} and {@code db/pool/size}, found by walking down the trie one segment at a time, and to
+ * the listeners below {@code db/pool/size}, whose values were replaced along with it. Listeners on
+ * unrelated paths are never visited.
+ *
+ * <p>The changes of one write or batch are delivered as one task on the configured executor, which
+ * runs them on the writing thread by default. Each listener gets them in a single {@link
+ * ChangeListener#onChanges} call. Registration is thread-safe.
+ */
+public final class ListenerRegistry {
+  private final Node root = new Node();
+  private final AtomicInteger count = new AtomicInteger();
+  private volatile Executor executor = Runnable::run;
+
+  public void add(ConfigPath prefix, ChangeListener listener) {
+    Objects.requireNonNull(listener, "listener");
+    Node node = root;
+    for (int i = 0; i < prefix.size(); i++) {
+      node = node.children.computeIfAbsent(prefix.segment(i), k -> new Node());
+    }
+    node.listeners.add(listener);
+    count.incrementAndGet();
+  }
+
+  /** Removes one registration of the listener on exactly the given prefix. */
+  public boolean remove(ConfigPath prefix, ChangeListener listener) {
+    Node node = root;
+    for (int i = 0; i < prefix.size() && node != null; i++) {
+      node = node.children.get(prefix.segment(i));
+    }
+    if (node != null && node.listeners.remove(listener)) {
+      count.decrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  /** Returns whether no listener is registered, so that writers can skip building events. */
+  public boolean isEmpty() {
+    return count.get() == 0;
+  }
+
+  /** Sets the executor that listeners are called on; by default, the writing thread. */
+  public void setExecutor(Executor executor) {
+    this.executor = Objects.requireNonNull(executor, "executor");
+  }
+
+  public void fire(ChangeEvent event) {
+    fire(List.of(event));
+  }
+
+  /** Delivers the events of one write or batch, in order, as one task on the executor. */
+  public void fire(List<ChangeEvent> events) {
+    Map<ChangeListener, List<ChangeEvent>> deliveries = new LinkedHashMap<>();
+    List<ChangeListener> matched = new ArrayList<>();
+    // a listener on several prefixes along the path gets each event once
+    Set<ChangeListener> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (ChangeEvent event : events) {
+      matched.clear();
+      seen.clear();
+      collect(event.getPath(), matched);
+      for (ChangeListener listener : matched) {
+        if (seen.add(listener)) {
+          deliveries.computeIfAbsent(listener, l -> new ArrayList<>()).add(event);
+        }
+      }
+    }
+    if (deliveries.isEmpty()) {
+      return;
+    }
+    executor.execute(() -> deliver(deliveries));
+  }
+
+  private static void deliver(Map<ChangeListener, List<ChangeEvent>> deliveries) {
+    RuntimeException failure = null;
+    for (Map.Entry<ChangeListener, List<ChangeEvent>> e : deliveries.entrySet()) {
+      try {
+        e.getKey().onChanges(e.getValue());
+      } catch (RuntimeException ex) {
+        // every listener still gets its events; the first failure is rethrown afterwards
+        if (failure == null) {
+          failure = ex;
+        } else {
+          failure.addSuppressed(ex);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private void collect(ConfigPath path, List<ChangeListener> out) {
+    Node node = root;
+    out.addAll(node.listeners);
+    for (int i = 0; i < path.size(); i++) {
+      node = node.children.get(path.segment(i));
+      if (node == null) {
+        return;
+      }
+      out.addAll(node.listeners);
+    }
+    for (Node child : node.children.values()) {
+      collectAll(child, out);
+    }
+  }
+
+  private static void collectAll(Node node, List<ChangeListener> out) {
+    out.addAll(node.listeners);
+    for (Node child : node.children.values()) {
+      collectAll(child, out);
+    }
+  }
+
+  private static final class Node {
+    final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    final Map<String, Node> children = new ConcurrentHashMap<>();
+  }
+}
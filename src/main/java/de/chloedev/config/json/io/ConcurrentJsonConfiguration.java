@@ -0,0 +1,445 @@
+package de.chloedev.config.json.io;
+
+import de.chloedev.config.error.ElementNotFoundException;
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.event.ChangeEvent;
+import de.chloedev.config.json.event.ChangeListener;
+import de.chloedev.config.json.path.ConfigPath;
+import de.chloedev.config.json.path.JsonPath;
+import de.chloedev.config.json.stream.JsonWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A configuration that can be shared between threads.
+ *
+ * <p>The tree is immutable and built from persistent data structures (see {@link
+ * JsonElement#toPersistent()}). It is published through a single volatile field, so reads take no
+ * lock and always see one consistent version, and {@link #snapshot()} costs O(1). Writers are
+ * serialized and publish a new version that copies only O(log n) nodes on the path to the change;
+ * everything else is shared with the previous version. Use {@link #batch(Consumer)} to publish
+ * several changes as one version.
+ *
+ * <p>Optionally, a bounded number of previous versions is kept for {@link #history()} and {@link
+ * #rollback()}. Since versions share structure, each one costs roughly the nodes its change
+ * copied.
+ *
+ * <p>Listeners are called after the write lock is released, so that they may read and write this
+ * configuration themselves. When several threads write at once, their events can therefore arrive
+ * in a different order than the versions were published. Each event carries the old and new value
+ * of its own change; listeners that need the latest state should read it from this configuration.
+ */
+public class ConcurrentJsonConfiguration extends ConfigurationBase {
+  private final Object writeLock = new Object();
+  private final int historyLimit;
+  /** Previous versions, most recent first; guarded by the write lock. */
+  private final ArrayDeque<JsonElement> history = new ArrayDeque<>();
+  private volatile JsonElement root;
+
+  private ConcurrentJsonConfiguration(JsonElement root, int historyLimit) {
+    if (historyLimit < 0) {
+      throw new IllegalArgumentException("History limit must not be negative: " + historyLimit);
+    }
+    this.root = root.toPersistent();
+    this.historyLimit = historyLimit;
+  }
+
+  /** Creates a concurrent configuration from a copy of the given configuration's tree. */
+  public static ConcurrentJsonConfiguration of(JsonConfiguration config) {
+    return of(config, 0);
+  }
+
+  /**
+   * Creates a concurrent configuration from a copy of the given configuration's tree that keeps up
+   * to {@code historyLimit} previous versions.
+   */
+  public static ConcurrentJsonConfiguration of(JsonConfiguration config, int historyLimit) {
+    return new ConcurrentJsonConfiguration(config.get(ConfigPath.ROOT), historyLimit);
+  }
+
+  public static ConcurrentJsonConfiguration fromString(String jsonStr) {
+    JsonElement el = JsonParser.parse(jsonStr);
+    if (!(el instanceof JsonObject) && !(el instanceof JsonArray)) {
+      throw new IllegalArgumentException("'jsonStr' must be of type JsonObject or JsonArray.");
+    }
+    return new ConcurrentJsonConfiguration(el, 0);
+  }
+
+  /**
+   * Returns the current version as an immutable configuration, which never changes afterwards.
+   * This takes constant time.
+   */
+  public JsonConfiguration snapshot() {
+    return toConfiguration(root);
+  }
+
+  private static JsonConfiguration toConfiguration(JsonElement version) {
+    return version instanceof JsonObject obj
+        ? JsonConfiguration.fromObject(obj)
+        : JsonConfiguration.fromArray((JsonArray) version);
+  }
+
+  /** Returns the kept previous versions, most recent first. */
+  public List<JsonConfiguration> history() {
+    synchronized (writeLock) {
+      List<JsonConfiguration> versions = new ArrayList<>(history.size());
+      for (JsonElement version : history) {
+        versions.add(toConfiguration(version));
+      }
+      return versions;
+    }
+  }
+
+  /**
+   * Restores the version before the most recent change and drops it from the history.
+   *
+   * @return false if there is no previous version to restore
+   */
+  public boolean rollback() {
+    JsonElement current;
+    JsonElement previous;
+    synchronized (writeLock) {
+      current = root;
+      previous = history.pollFirst();
+      if (previous == null) {
+        return false;
+      }
+      root = previous;
+    }
+    fireChanges(List.of(new ChangeEvent(ConfigPath.ROOT, current, previous)));
+    return true;
+  }
+
+  /** Publishes a new version; must be called with the write lock held. */
+  private void publish(JsonElement version) {
+    JsonElement current = root;
+    if (version == current) {
+      return;
+    }
+    if (historyLimit > 0) {
+      if (history.size() == historyLimit) {
+        history.pollLast();
+      }
+      history.addFirst(current);
+    }
+    root = version;
+  }
+
+  /**
+   * Keeps this configuration in sync with the given file, see {@link #watch(File, Duration)}.
+   */
+  public FileWatcher watch(File file) throws IOException {
+    return watch(file, FileWatcher.DEFAULT_DEBOUNCE);
+  }
+
+  /**
+   * Keeps this configuration in sync with the given file until the returned watcher is closed.
+   * Every change is re-read on the watcher's thread once the file has been quiet for the debounce
+   * interval, and published as one new version that shares all unchanged subtrees with the
+   * previous one.
+   */
+  public FileWatcher watch(File file, Duration debounce) throws IOException {
+    return FileWatcher.start(
+        file.toPath(),
+        debounce,
+        fresh -> {
+          List<ChangeEvent> changes = hasListeners() ? new ArrayList<>() : null;
+          synchronized (writeLock) {
+            JsonElement current = root;
+            JsonElement merged = TreeMerge.mergeCopy(current, fresh, ConfigPath.ROOT, changes);
+            if (changes != null && !TreeMerge.sameKind(current, merged)) {
+              changes.add(new ChangeEvent(ConfigPath.ROOT, current, merged));
+            }
+            publish(merged);
+          }
+          if (changes != null) {
+            fireChanges(changes);
+          }
+        });
+  }
+
+  @Override
+  public JsonElement get(String key) throws ElementNotFoundException {
+    return JsonConfiguration.resolve(root, ConfigPath.of(key));
+  }
+
+  @Override
+  public JsonElement get(ConfigPath path) throws ElementNotFoundException {
+    return JsonConfiguration.resolve(root, path);
+  }
+
+  @Override
+  public JsonElement getOrDefault(String key, JsonElement defaultValue) {
+    return getOrDefault(ConfigPath.of(key), defaultValue);
+  }
+
+  @Override
+  public JsonElement getOrDefault(ConfigPath path, JsonElement defaultValue) {
+    JsonElement el = JsonConfiguration.find(root, path);
+    return el != null ? el : defaultValue;
+  }
+
+  @Override
+  public void set(String key, JsonElement value) {
+    set(ConfigPath.of(key), value);
+  }
+
+  @Override
+  public void set(ConfigPath path, JsonElement value) {
+    if (!hasListeners()) {
+      synchronized (writeLock) {
+        publish(with(root, path, value));
+      }
+      return;
+    }
+    ChangeEvent event;
+    synchronized (writeLock) {
+      // a write through a primitive replaces it with the objects it creates
+      ConfigPath at = JsonConfiguration.replacedPath(root, path);
+      JsonElement old = JsonConfiguration.find(root, at);
+      publish(with(root, path, value));
+      event = new ChangeEvent(at, old, JsonConfiguration.find(root, at));
+    }
+    fireChanges(List.of(event));
+  }
+
+  @Override
+  public void remove(String key) {
+    remove(ConfigPath.of(key));
+  }
+
+  @Override
+  public void remove(ConfigPath path) {
+    if (path.isRoot()) {
+      clear();
+      return;
+    }
+    JsonElement old;
+    synchronized (writeLock) {
+      old = hasListeners() ? JsonConfiguration.find(root, path) : null;
+      publish(without(root, path));
+    }
+    if (old != null) {
+      fireChanges(List.of(new ChangeEvent(path, old, null)));
+    }
+  }
+
+  @Override
+  public void clear() {
+    JsonElement old;
+    JsonElement cleared;
+    synchronized (writeLock) {
+      old = root;
+      cleared = without(old, ConfigPath.ROOT);
+      publish(cleared);
+    }
+    fireChanges(List.of(new ChangeEvent(ConfigPath.ROOT, old, cleared)));
+  }
+
+  /**
+   * Applies all changes made through the given mutator and publishes them as a single version.
+   * Readers see either none or all of them. If {@code changes} throws, nothing is published.
+   * Listeners get all changes of the batch in one {@link ChangeListener#onChanges} call.
+   */
+  public void batch(Consumer<Mutator> changes) {
+    Mutator mutator;
+    synchronized (writeLock) {
+      mutator = new Mutator(root, hasListeners() ? new ArrayList<>() : null);
+      try {
+        changes.accept(mutator);
+      } finally {
+        mutator.closed = true;
+      }
+      publish(mutator.root);
+    }
+    if (mutator.events != null) {
+      fireChanges(mutator.events);
+    }
+  }
+
+  /** Collects the changes of one {@link #batch(Consumer)}; it must not be used after it ends. */
+  public static final class Mutator {
+    private JsonElement root;
+    /** The changes made so far, or null if nobody listens. */
+    private final List<ChangeEvent> events;
+    private boolean closed;
+
+    private Mutator(JsonElement root, List<ChangeEvent> events) {
+      this.root = root;
+      this.events = events;
+    }
+
+    public Mutator set(String key, JsonElement value) {
+      return set(ConfigPath.of(key), value);
+    }
+
+    public Mutator set(ConfigPath path, JsonElement value) {
+      checkOpen();
+      if (events == null) {
+        root = with(root, path, value);
+        return this;
+      }
+      ConfigPath at = JsonConfiguration.replacedPath(root, path);
+      JsonElement old = JsonConfiguration.find(root, at);
+      root = with(root, path, value);
+      events.add(new ChangeEvent(at, old, JsonConfiguration.find(root, at)));
+      return this;
+    }
+
+    public Mutator remove(String key) {
+      return remove(ConfigPath.of(key));
+    }
+
+    public Mutator remove(ConfigPath path) {
+      checkOpen();
+      JsonElement old = events == null ? null : JsonConfiguration.find(root, path);
+      root = without(root, path);
+      if (old != null) {
+        events.add(new ChangeEvent(path, old, path.isRoot() ? root : null));
+      }
+      return this;
+    }
+
+    /** Reads from the version being built, including the changes made so far. */
+    public JsonElement get(ConfigPath path) throws ElementNotFoundException {
+      checkOpen();
+      return JsonConfiguration.resolve(root, path);
+    }
+
+    private void checkOpen() {
+      if (closed) {
+        throw new IllegalStateException("Mutator used after its batch ended");
+      }
+    }
+  }
+
+  /** Returns a copy of {@code root} with the value set, following the rules of set(). */
+  private static JsonElement with(JsonElement root, ConfigPath path, JsonElement value) {
+    if (path.isRoot()) {
+      if (!(value instanceof JsonObject) && !(value instanceof JsonArray)) {
+        throw new IllegalArgumentException("Root must be object or array");
+      }
+      return value.toPersistent();
+    }
+    return with(root, path, 0, value);
+  }
+
+  private static JsonElement with(JsonElement node, ConfigPath path, int i, JsonElement value) {
+    String part = path.segment(i);
+    boolean leaf = i == path.size() - 1;
+    if (node instanceof JsonObject obj) {
+      JsonElement child = leaf ? value : with(container(obj.getMember(part)), path, i + 1, value);
+      return obj.withMember(part, child);
+    } else if (node instanceof JsonArray arr) {
+      int idx = JsonConfiguration.arrayIndex(path, i);
+      JsonElement child = leaf ? value : with(container(arr.get(idx)), path, i + 1, value);
+      return arr.withElement(idx, child);
+    } else if (leaf) {
+      throw new IllegalArgumentException("Cannot set value into a primitive at '" + part + "'");
+    } else {
+      throw new IllegalArgumentException("Cannot traverse into primitive at '" + part + "'");
+    }
+  }
+
+  /** Intermediate values that are not containers are replaced by a new object, like in set(). */
+  private static JsonElement container(JsonElement el) {
+    if (el instanceof JsonObject || el instanceof JsonArray) {
+      return el;
+    }
+    return new JsonObject().toPersistent();
+  }
+
+  /** Returns a copy of {@code root} without the value, or {@code root} if there is none. */
+  private static JsonElement without(JsonElement root, ConfigPath path) {
+    if (path.isRoot()) {
+      return (root instanceof JsonObject ? new JsonObject() : new JsonArray()).toPersistent();
+    }
+    return without(root, path, 0);
+  }
+
+  private static JsonElement without(JsonElement node, ConfigPath path, int i) {
+    boolean leaf = i == path.size() - 1;
+    if (node instanceof JsonObject obj) {
+      String part = path.segment(i);
+      if (leaf) {
+        return obj.withoutMember(part);
+      }
+      JsonElement child = obj.getMember(part);
+      JsonElement changed = child == null ? null : without(child, path, i + 1);
+      return changed == child ? node : obj.withMember(part, changed);
+    } else if (node instanceof JsonArray arr) {
+      int idx = JsonConfiguration.arrayIndex(path, i);
+      if (idx < 0 || idx >= arr.size()) {
+        return node;
+      }
+      if (leaf) {
+        return arr.withoutElement(idx);
+      }
+      JsonElement child = arr.get(idx);
+      JsonElement changed = without(child, path, i + 1);
+      return changed == child ? node : arr.withElement(idx, changed);
+    }
+    return node; // nothing to remove
+  }
+
+  @Override
+  public Set<String> getKeys(String path, boolean recursive) {
+    return walk(path, recursive ? Integer.MAX_VALUE : 1)
+        .map(JsonConfiguration.Entry::pathString)
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+  }
+
+  @Override
+  public List<JsonElement> getValues(String path, boolean recursive) {
+    return walk(path, recursive ? Integer.MAX_VALUE : 1)
+        .map(JsonConfiguration.Entry::value)
+        .collect(Collectors.toCollection(ArrayList::new));
+  }
+
+  /**
+   * Streams the entries below {@code root} like {@link JsonConfiguration#walk(String, int)}. The
+   * stream traverses the version that is current when it is created, so writers do not disturb it.
+   */
+  public Stream<JsonConfiguration.Entry> walk(String root, int depth) {
+    return JsonConfiguration.walk(
+        this.root, root == null ? "" : root, ConfigPath.of(root), depth);
+  }
+
+  /** Returns the values matching a JSONPath expression in the current version. */
+  public List<JsonElement> query(String expression) {
+    return JsonPath.of(expression).select(root);
+  }
+
+  @Override
+  public void forEach(BiConsumer<String, JsonElement> callback) {
+    snapshot().forEach(callback);
+  }
+
+  public boolean writeToFile(File file, int indentSize) {
+    try (JsonWriter writer = JsonWriter.of(Files.newOutputStream(file.toPath()))) {
+      writer.setIndent(indentSize).write(root);
+    } catch (IOException e) {
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public String toString(int indentSize) {
+    return root.toString(indentSize);
+  }
+}
@@ -1,11 +1,22 @@
 package de.chloedev.config.json.io;
 
+import de.chloedev.config.error.BindingException;
 import de.chloedev.config.error.ElementNotFoundException;
+import de.chloedev.config.json.bind.JsonBinder;
 import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.event.ChangeEvent;
+import de.chloedev.config.json.event.ChangeListener;
+import de.chloedev.config.json.event.ListenerRegistry;
+import de.chloedev.config.json.path.ConfigPath;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
 
 public abstract class ConfigurationBase {
+  /** Created on the first registration, so configurations nobody listens to pay nothing. */
+  private volatile ListenerRegistry listeners;
 
   /**
    * Retrieves the value associated with the given key from the config
@@ -16,6 +27,9 @@ public abstract class ConfigurationBase {
    */
   public abstract JsonElement get(String key) throws ElementNotFoundException;
 
+  /** Like {@link #get(String)}, but with a path that has already been parsed. */
+  public abstract JsonElement get(ConfigPath path) throws ElementNotFoundException;
+
   /**
    * See above. This allows to specify a default value that is returned instead when no value was
    * found
@@ -27,6 +41,60 @@ public abstract class ConfigurationBase {
    */
   public abstract JsonElement getOrDefault(String key, JsonElement defaultValue);
 
+  public abstract JsonElement getOrDefault(ConfigPath path, JsonElement defaultValue);
+
+  public long getLong(String key, long defaultValue) {
+    return getLong(ConfigPath.of(key), defaultValue);
+  }
+
+  /**
+   * Returns the number at the given path without its fractional part, or the default if there is
+   * no number there or it does not fit in a long.
+   */
+  public long getLong(ConfigPath path, long defaultValue) {
+    JsonElement el = getOrDefault(path, null);
+    return el instanceof JsonPrimitive p && p.fitsInLong() ? p.getAsLong() : defaultValue;
+  }
+
+  public int getInt(String key, int defaultValue) {
+    return getInt(ConfigPath.of(key), defaultValue);
+  }
+
+  /**
+   * Returns the number at the given path without its fractional part, or the default if there is
+   * no number there or it does not fit in an int.
+   */
+  public int getInt(ConfigPath path, int defaultValue) {
+    JsonElement el = getOrDefault(path, null);
+    if (el instanceof JsonPrimitive p && p.fitsInLong()) {
+      long value = p.getAsLong();
+      if ((int) value == value) {
+        return (int) value;
+      }
+    }
+    return defaultValue;
+  }
+
+  public double getDouble(String key, double defaultValue) {
+    return getDouble(ConfigPath.of(key), defaultValue);
+  }
+
+  /** Returns the number at the given path, or the default if there is no number there. */
+  public double getDouble(ConfigPath path, double defaultValue) {
+    JsonElement el = getOrDefault(path, null);
+    return el instanceof JsonPrimitive p && p.isNumber() ? p.getAsDouble() : defaultValue;
+  }
+
+  public boolean getBoolean(String key, boolean defaultValue) {
+    return getBoolean(ConfigPath.of(key), defaultValue);
+  }
+
+  /** Returns the boolean at the given path, or the default if there is no boolean there. */
+  public boolean getBoolean(ConfigPath path, boolean defaultValue) {
+    JsonElement el = getOrDefault(path, null);
+    return el instanceof JsonPrimitive p && p.isBoolean() ? p.getAsBoolean() : defaultValue;
+  }
+
   /**
    * Assigns a value to the given key If the key already had a value assigned, this will overwrite
    * it.
@@ -36,6 +104,36 @@ public abstract class ConfigurationBase {
    */
   public abstract void set(String key, JsonElement value);
 
+  public abstract void set(ConfigPath path, JsonElement value);
+
+  public <T> T bind(String key, Class<T> type) throws ElementNotFoundException {
+    return bind(ConfigPath.of(key), type);
+  }
+
+  /**
+   * Binds the value at the given path to a record or class, see {@link JsonBinder}. The object is
+   * a copy; reading its fields is much cheaper than looking up each value in the config.
+   *
+   * @throws ElementNotFoundException if there is no value at the path
+   * @throws BindingException if the value does not match the type
+   */
+  public <T> T bind(ConfigPath path, Class<T> type) throws ElementNotFoundException {
+    try {
+      return JsonBinder.bind(get(path), type);
+    } catch (BindingException e) {
+      throw path.isRoot() ? e : e.under(path.toString());
+    }
+  }
+
+  public void setObject(String key, Object value) {
+    setObject(ConfigPath.of(key), value);
+  }
+
+  /** Converts an object to JSON with {@link JsonBinder#toJson} and assigns it to the path. */
+  public void setObject(ConfigPath path, Object value) {
+    set(path, JsonBinder.toJson(value));
+  }
+
   /**
    * Removes the given key and it's assigned value from the config
    *
@@ -43,6 +141,8 @@ public abstract class ConfigurationBase {
    */
   public abstract void remove(String key);
 
+  public abstract void remove(ConfigPath path);
+
   /** Clears the entire config. */
   public abstract void clear();
 
@@ -55,12 +155,75 @@ public abstract class ConfigurationBase {
    */
   public abstract Set<String> getKeys(String root, boolean recursive);
 
-  public abstract Set<JsonElement> getValues(String root, boolean recursive);
+  /**
+   * Retrieves the values of all nested keys from the given root path, in the order of {@link
+   * #getKeys}. Equal values, and even the same instance, occur once for every key holding them.
+   *
+   * @param root the path to start searching at
+   * @param recursive whether to search recursively, or only in the given nest
+   */
+  public abstract List<JsonElement> getValues(String root, boolean recursive);
 
   public abstract void forEach(BiConsumer<String, JsonElement> callback);
 
   public abstract String toString(int indentSize);
 
+  public void addListener(String pathPrefix, ChangeListener listener) {
+    addListener(ConfigPath.of(pathPrefix), listener);
+  }
+
+  /**
+   * Registers a listener for changes at, above or below the given path: setting {@code db} or
+   * {@code db/pool/size} is reported to a listener on {@code db/pool}, setting {@code cache} is
+   * not. {@link #clear()} and replacing the root are reported to every listener.
+   */
+  public void addListener(ConfigPath pathPrefix, ChangeListener listener) {
+    registry().add(pathPrefix, listener);
+  }
+
+  public boolean removeListener(String pathPrefix, ChangeListener listener) {
+    return removeListener(ConfigPath.of(pathPrefix), listener);
+  }
+
+  /** Removes a listener that was registered on exactly the given path. */
+  public boolean removeListener(ConfigPath pathPrefix, ChangeListener listener) {
+    ListenerRegistry registry = listeners;
+    return registry != null && registry.remove(pathPrefix, listener);
+  }
+
+  /** Sets the executor that listeners are called on; by default, the thread making the change. */
+  public void setListenerExecutor(Executor executor) {
+    registry().setExecutor(executor);
+  }
+
+  private ListenerRegistry registry() {
+    ListenerRegistry registry = listeners;
+    if (registry == null) {
+      synchronized (this) {
+        registry = listeners;
+        if (registry == null) {
+          registry = new ListenerRegistry();
+          listeners = registry;
+        }
+      }
+    }
+    return registry;
+  }
+
+  /** Returns whether any listener is registered; writers skip building events otherwise. */
+  protected boolean hasListeners() {
+    ListenerRegistry registry = listeners;
+    return registry != null && !registry.isEmpty();
+  }
+
+  /** Delivers the changes of one write or batch to the listeners they concern. */
+  protected void fireChanges(List<ChangeEvent> events) {
+    ListenerRegistry registry = listeners;
+    if (registry != null && !events.isEmpty()) {
+      registry.fire(events);
+    }
+  }
+
   @Override
   public String toString() {
     return toString(0);
@@ -0,0 +1,141 @@
+package de.chloedev.config.json.io;
+
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.stream.JsonReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches a configuration file and hands every new version of its tree to a callback, on a daemon
+ * thread of its own. Bursts of writes, as editors tend to make, are debounced: a file is only
+ * re-read once it has not changed for the debounce interval. Versions that do not parse, e.g.
+ * because the file was caught half-written, are skipped, as are rewrites that leave the content
+ * unchanged. An exception thrown by the callback, or by a listener it notifies, is passed to the
+ * thread's uncaught exception handler and watching goes on; the version is read again on the next
+ * change even if it is the same.
+ *
+ * <p>Created by {@link JsonConfiguration#watch} and {@link ConcurrentJsonConfiguration#watch};
+ * {@link #close()} stops watching.
+ */
+public final class FileWatcher implements Closeable {
+  static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(200);
+
+  private final Path file;
+  private final long debounceNanos;
+  private final Consumer<JsonElement> onChange;
+  private final WatchService watchService;
+  private final Thread thread;
+  private byte[] lastContent;
+
+  private FileWatcher(Path file, Duration debounce, Consumer<JsonElement> onChange)
+      throws IOException {
+    this.file = file.toAbsolutePath();
+    this.debounceNanos = debounce.toNanos();
+    this.onChange = onChange;
+    this.watchService = FileSystems.getDefault().newWatchService();
+    // editors often replace the file instead of writing to it, so watch the directory
+    this.file
+        .getParent()
+        .register(
+            watchService,
+            StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY);
+    this.lastContent = Files.exists(this.file) ? Files.readAllBytes(this.file) : null;
+    this.thread = new Thread(this::run, "config-watcher-" + this.file.getFileName());
+    this.thread.setDaemon(true);
+  }
+
+  static FileWatcher start(Path file, Duration debounce, Consumer<JsonElement> onChange)
+      throws IOException {
+    if (debounce.isNegative()) {
+      throw new IllegalArgumentException("Debounce must not be negative: " + debounce);
+    }
+    FileWatcher watcher = new FileWatcher(file, debounce, onChange);
+    watcher.thread.start();
+    return watcher;
+  }
+
+  public Path getFile() {
+    return file;
+  }
+
+  private void run() {
+    try {
+      while (true) {
+        if (!drain(watchService.take())) {
+          continue;
+        }
+        // wait until the file has been quiet for a whole debounce interval
+        long deadline = System.nanoTime() + debounceNanos;
+        for (long left = debounceNanos; left > 0; left = deadline - System.nanoTime()) {
+          WatchKey key = watchService.poll(left, TimeUnit.NANOSECONDS);
+          if (key != null && drain(key)) {
+            deadline = System.nanoTime() + debounceNanos;
+          }
+        }
+        try {
+          reload();
+        } catch (RuntimeException ex) {
+          // a failing callback or listener must not end hot reloading for good
+          Thread t = Thread.currentThread();
+          t.getUncaughtExceptionHandler().uncaughtException(t, ex);
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException ex) {
+      // closed
+    }
+  }
+
+  /** Consumes the key's events and returns whether any of them concerned the watched file. */
+  private boolean drain(WatchKey key) {
+    boolean relevant = false;
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW
+          || file.getFileName().equals(event.context())) {
+        relevant = true;
+      }
+    }
+    key.reset();
+    return relevant;
+  }
+
+  private void reload() {
+    byte[] content;
+    JsonElement fresh;
+    try {
+      content = Files.readAllBytes(file);
+      if (Arrays.equals(content, lastContent)) {
+        return;
+      }
+      fresh = JsonParser.parse(JsonReader.of(content, 0, content.length));
+      if (!(fresh instanceof JsonObject) && !(fresh instanceof JsonArray)) {
+        return;
+      }
+    } catch (IOException | IllegalArgumentException ex) {
+      // missing or not (yet) valid: keep the current version and wait for the next change
+      return;
+    }
+    onChange.accept(fresh);
+    lastContent = content;
+  }
+
+  @Override
+  public void close() throws IOException {
+    watchService.close();
+  }
+}
@@ -0,0 +1,249 @@
+package de.chloedev.config.json.io;
+
+import de.chloedev.config.error.ElementNotFoundException;
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.path.ConfigPath;
+import java.io.File;
+import java.io.IOException;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A configuration that remembers where the paths it has looked up lead, so that reading the same
+ * deep path again is a single hash probe instead of a walk from the root. Entries are added as
+ * paths are read and are updated by {@link #set}, {@link #remove} and {@link #clear}: replacing or
+ * removing a container drops the entries for everything below it.
+ *
+ * <p>The index holds at most {@link #getIndexLimit()} paths; when it is full it is emptied and
+ * refilled by the lookups that follow, which keeps the paths that are actually hot. Reads may run
+ * concurrently like on a plain {@link JsonConfiguration}. Containers returned by {@link #get} must
+ * not be changed directly, or {@link #invalidateIndex()} has to be called afterwards.
+ */
+public class IndexedJsonConfiguration extends JsonConfiguration {
+  public static final int DEFAULT_INDEX_LIMIT = 1 << 16;
+
+  /** The estimated size of a map node and its table slot, in bytes. */
+  private static final int ENTRY_OVERHEAD = 40;
+
+  private final ConcurrentHashMap<ConfigPath, JsonElement> index = new ConcurrentHashMap<>();
+  private volatile int indexLimit = DEFAULT_INDEX_LIMIT;
+
+  IndexedJsonConfiguration(JsonElement root) {
+    super(root);
+  }
+
+  public static IndexedJsonConfiguration fromObject(JsonObject object) {
+    return new IndexedJsonConfiguration(object);
+  }
+
+  public static IndexedJsonConfiguration fromArray(JsonArray array) {
+    return new IndexedJsonConfiguration(array);
+  }
+
+  public static IndexedJsonConfiguration fromString(String jsonStr) {
+    return new IndexedJsonConfiguration(checkRoot(JsonParser.parse(jsonStr)));
+  }
+
+  public static IndexedJsonConfiguration fromFile(File file) throws IOException {
+    return fromFile(file, LoadMode.STREAMING);
+  }
+
+  public static IndexedJsonConfiguration fromFile(File file, LoadMode mode) throws IOException {
+    JsonConfiguration loaded = JsonConfiguration.fromFile(file, mode);
+    return new IndexedJsonConfiguration(loaded.get(ConfigPath.ROOT));
+  }
+
+  @Override
+  public JsonElement get(ConfigPath path) throws ElementNotFoundException {
+    JsonElement el = index.get(path);
+    if (el == null) {
+      el = load(path);
+      if (el == null) {
+        return super.get(path); // reports why the path cannot be resolved
+      }
+    }
+    return el;
+  }
+
+  @Override
+  public JsonElement getOrDefault(ConfigPath path, JsonElement defaultValue) {
+    JsonElement el = index.get(path);
+    if (el == null) {
+      el = load(path);
+    }
+    return el != null ? el : defaultValue;
+  }
+
+  /** Resolves a path from the root and adds it to the index, unless it is spelled unusually. */
+  private JsonElement load(ConfigPath path) {
+    JsonElement cur = root();
+    for (int i = 0; i < path.size() && cur != null; i++) {
+      if (cur instanceof JsonObject obj) {
+        cur = obj.getMember(path.segment(i));
+      } else if (cur instanceof JsonArray arr) {
+        int idx = readIndex(path, i);
+        cur = idx >= 0 && idx < arr.size() ? arr.get(idx) : null;
+      } else {
+        return null;
+      }
+    }
+    int limit = indexLimit;
+    // "01" or "+1" finds the same element as "1", but would not be dropped with it
+    if (cur != null && limit > 0 && !path.isRoot() && !path.hasUnusualIndex()) {
+      if (index.size() >= limit) {
+        index.clear();
+      }
+      index.put(path, cur);
+    }
+    return cur;
+  }
+
+  @Override
+  public void set(ConfigPath path, JsonElement value) {
+    if (path.isRoot() || path.hasUnusualIndex()) {
+      super.set(path, value);
+      index.clear();
+      return;
+    }
+    // find what the write replaces: the old value, or the first primitive it writes through
+    JsonElement cur = root();
+    for (int i = 0; i < path.size(); i++) {
+      JsonElement next = child(cur, path, i);
+      if (i == path.size() - 1) {
+        drop(path, next);
+      } else if (!(next instanceof JsonObject) && !(next instanceof JsonArray)) {
+        if (next != null) {
+          index.remove(path.subPath(i + 1));
+        }
+        break;
+      }
+      cur = next;
+    }
+    super.set(path, value);
+  }
+
+  @Override
+  public void remove(ConfigPath path) {
+    if (path.hasUnusualIndex()) {
+      index.clear();
+    } else if (!path.isRoot()) {
+      JsonElement parent = child(root(), path.parent());
+      if (parent instanceof JsonArray arr) {
+        // the elements after the removed one move up
+        dropBelow(path.parent(), arr);
+      } else {
+        drop(path, child(parent, path, path.size() - 1));
+      }
+    }
+    super.remove(path);
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    index.clear();
+  }
+
+  @Override
+  void reloaded() {
+    index.clear();
+  }
+
+  /** Empties the index, for after the tree was changed other than through this configuration. */
+  public void invalidateIndex() {
+    index.clear();
+  }
+
+  /** Returns the number of paths in the index. */
+  public int indexSize() {
+    return index.size();
+  }
+
+  /**
+   * Estimates the memory taken by the index, in bytes: its map nodes and the paths used as keys.
+   * The indexed elements belong to the tree and are not counted.
+   */
+  public long indexMemory() {
+    long bytes = 0;
+    for (ConfigPath path : index.keySet()) {
+      bytes += ENTRY_OVERHEAD + footprint(path);
+    }
+    return bytes;
+  }
+
+  public int getIndexLimit() {
+    return indexLimit;
+  }
+
+  /** Sets the number of paths the index may hold before it is emptied; 0 disables it. */
+  public void setIndexLimit(int maxEntries) {
+    if (maxEntries < 0) {
+      throw new IllegalArgumentException("The index limit must not be negative: " + maxEntries);
+    }
+    indexLimit = maxEntries;
+    if (index.size() > maxEntries) {
+      index.clear();
+    }
+  }
+
+  private JsonElement root() {
+    return super.getOrDefault(ConfigPath.ROOT, null);
+  }
+
+  /** Drops the entry at {@code path}, whose value is {@code old}, and those below it. */
+  private void drop(ConfigPath path, JsonElement old) {
+    if (old != null) {
+      index.remove(path);
+      dropBelow(path, old);
+    }
+  }
+
+  /**
+   * Drops the entries below {@code path}, whose value is {@code el}. The subtree is walked as long
+   * as it is not larger than the index; past that, scanning the index is cheaper.
+   */
+  private void dropBelow(ConfigPath path, JsonElement el) {
+    if (index.isEmpty() || !(el instanceof JsonObject || el instanceof JsonArray)) {
+      return;
+    }
+    Spliterator<Entry> below =
+        new TreeSpliterator(new Entry(path.toString(), path, el), Integer.MAX_VALUE);
+    long budget = index.size();
+    while (below.tryAdvance(e -> index.remove(e.path()))) {
+      if (--budget < 0) {
+        index.keySet().removeIf(p -> p.size() > path.size() && p.startsWith(path));
+        return;
+      }
+    }
+  }
+
+  private static JsonElement child(JsonElement el, ConfigPath path) {
+    for (int i = 0; i < path.size() && el != null; i++) {
+      el = child(el, path, i);
+    }
+    return el;
+  }
+
+  private static JsonElement child(JsonElement el, ConfigPath path, int i) {
+    if (el instanceof JsonObject obj) {
+      return obj.getMember(path.segment(i));
+    } else if (el instanceof JsonArray arr) {
+      int idx = readIndex(path, i);
+      return idx >= 0 && idx < arr.size() ? arr.get(idx) : null;
+    }
+    return null;
+  }
+
+  /** Estimates the size of a path with its text, segment and index arrays, in bytes. */
+  private static long footprint(ConfigPath path) {
+    int n = path.size();
+    long bytes = 24 + (40 + path.toString().length()) + 2 * (16 + 4L * n);
+    for (int i = 0; i < n; i++) {
+      bytes += 40 + path.segment(i).length();
+    }
+    return bytes;
+  }
+}
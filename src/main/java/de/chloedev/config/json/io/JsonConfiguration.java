@@ -1,18 +1,38 @@
 package de.chloedev.config.json.io;
 
 import de.chloedev.config.error.ElementNotFoundException;
+import de.chloedev.config.error.PatchException;
 import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.ParallelJsonParser;
 import de.chloedev.config.json.element.JsonArray;
 import de.chloedev.config.json.element.JsonElement;
 import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.event.ChangeEvent;
+import de.chloedev.config.json.patch.JsonMergePatch;
+import de.chloedev.config.json.patch.JsonPatch;
+import de.chloedev.config.json.path.ConfigPath;
+import de.chloedev.config.json.path.JsonPath;
+import de.chloedev.config.json.snapshot.SnapshotDocument;
+import de.chloedev.config.json.stream.JsonReader;
+import de.chloedev.config.json.stream.JsonWriter;
+import de.chloedev.config.json.tape.TapeDocument;
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
 import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class JsonConfiguration extends ConfigurationBase {
   private JsonElement root;
@@ -21,16 +41,19 @@ public class JsonConfiguration extends ConfigurationBase {
     this.root = new JsonObject();
   }
 
-  private JsonConfiguration(JsonElement root) {
+  JsonConfiguration(JsonElement root) {
     this.root = root;
   }
 
   private JsonConfiguration(String jsonStr) {
-    JsonElement el = JsonParser.parse(jsonStr);
+    this(checkRoot(JsonParser.parse(jsonStr)));
+  }
+
+  static JsonElement checkRoot(JsonElement el) {
     if (!(el instanceof JsonObject) && !(el instanceof JsonArray)) {
       throw new IllegalArgumentException("'jsonStr' must be of type JsonObject or JsonArray.");
     }
-    this.root = el;
+    return el;
   }
 
   public static JsonConfiguration fromObject(JsonObject object) {
@@ -47,29 +70,168 @@ public class JsonConfiguration extends ConfigurationBase {
 
   public static JsonConfiguration fromFile(File file)
       throws IOException, OutOfMemoryError, SecurityException {
-    String jsonStr = Files.readString(file.toPath(), StandardCharsets.UTF_8);
-    return new JsonConfiguration(jsonStr);
+    return fromFile(file, LoadMode.STREAMING);
+  }
+
+  public static JsonConfiguration fromFile(File file, LoadMode mode)
+      throws IOException, OutOfMemoryError, SecurityException {
+    if (mode == LoadMode.LAZY) {
+      byte[] bytes = Files.readAllBytes(file.toPath());
+      return new JsonConfiguration(checkRoot(TapeDocument.parse(bytes).root()));
+    }
+    if (mode == LoadMode.PARALLEL) {
+      byte[] bytes = Files.readAllBytes(file.toPath());
+      return new JsonConfiguration(checkRoot(ParallelJsonParser.parse(bytes)));
+    }
+    if (mode == LoadMode.MAPPED) {
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+        long size = channel.size();
+        if (size <= Integer.MAX_VALUE) {
+          MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+          return new JsonConfiguration(checkRoot(JsonParser.parse(JsonReader.of(buffer))));
+        }
+      }
+    }
+    try (InputStream in = Files.newInputStream(file.toPath())) {
+      return fromStream(in);
+    }
+  }
+
+  /**
+   * Loads a configuration from a snapshot written by {@link #writeSnapshot(Path)}. The file is
+   * memory-mapped and values are decoded as they are read, so loading takes constant time
+   * regardless of the size of the tree.
+   */
+  public static JsonConfiguration loadSnapshot(Path snapshot) throws IOException {
+    return new JsonConfiguration(checkRoot(SnapshotDocument.open(snapshot).root()));
+  }
+
+  /**
+   * Loads the given JSON file, using its snapshot instead if the snapshot was made from the file's
+   * current contents. Otherwise, the file is parsed and the snapshot is rewritten for the next
+   * start; failing to write it does not fail loading.
+   */
+  public static JsonConfiguration fromFile(File file, Path snapshot) throws IOException {
+    if (Files.isRegularFile(snapshot)) {
+      try {
+        SnapshotDocument doc = SnapshotDocument.open(snapshot);
+        if (doc.isUpToDate(file.toPath())) {
+          return new JsonConfiguration(checkRoot(doc.root()));
+        }
+      } catch (IOException | IllegalArgumentException ignored) {
+        // unreadable or foreign snapshot: fall back to the source
+      }
+    }
+    JsonConfiguration config = fromFile(file);
+    config.writeSnapshot(snapshot, file.toPath());
+    return config;
+  }
+
+  /**
+   * Returns a copy of this configuration whose tree is frozen, see {@link JsonElement#freeze()}.
+   * The copy is compact and safe to share between threads; all its mutators throw {@link
+   * UnsupportedOperationException}.
+   */
+  public JsonConfiguration immutableCopy() {
+    return root.isFrozen() ? this : new JsonConfiguration(root.freeze());
+  }
+
+  /** Returns the JSON Patch (RFC 6902) that turns this configuration into the given one. */
+  public JsonPatch diff(JsonConfiguration other) {
+    return JsonPatch.diff(root, other.root);
+  }
+
+  /**
+   * Applies a JSON Patch (RFC 6902) in place, see {@link JsonPatch#applyTo}.
+   *
+   * @throws PatchException if an operation fails; the configuration is then left unchanged
+   */
+  public void applyPatch(JsonPatch patch) {
+    checkMutable();
+    patch.applyTo(this);
+  }
+
+  /** Applies a JSON Merge Patch (RFC 7386) in place, see {@link JsonMergePatch#applyTo}. */
+  public void applyMergePatch(JsonElement patch) {
+    checkMutable();
+    JsonMergePatch.applyTo(this, patch);
+  }
+
+  /**
+   * Keeps this configuration in sync with the given file, see {@link #watch(File, Duration)}.
+   */
+  public FileWatcher watch(File file) throws IOException {
+    return watch(file, FileWatcher.DEFAULT_DEBOUNCE);
+  }
+
+  /**
+   * Keeps this configuration in sync with the given file until the returned watcher is closed.
+   *
+   * <p>Changes are re-read on the watcher's thread once the file has been quiet for the debounce
+   * interval, and are merged into the existing tree: containers are updated in place and only
+   * values that actually changed are replaced, so references held to unchanged parts stay valid.
+   * The merge holds this configuration's monitor. Code reading from other threads should
+   * synchronize on the configuration as well, or use {@link ConcurrentJsonConfiguration#watch}.
+   *
+   * @throws UnsupportedOperationException if this configuration is immutable
+   */
+  public FileWatcher watch(File file, Duration debounce) throws IOException {
+    checkMutable();
+    return FileWatcher.start(
+        file.toPath(),
+        debounce,
+        fresh -> {
+          List<ChangeEvent> changes = hasListeners() ? new ArrayList<>() : null;
+          synchronized (this) {
+            JsonElement merged = TreeMerge.mergeInto(root, fresh, ConfigPath.ROOT, changes);
+            if (changes != null && merged != root) {
+              changes.add(new ChangeEvent(ConfigPath.ROOT, root, merged));
+            }
+            root = merged;
+            reloaded();
+          }
+          if (changes != null) {
+            fireChanges(changes);
+          }
+        });
+  }
+
+  /** Called with the monitor held after a watched file was merged into the tree. */
+  void reloaded() {}
+
+  /**
+   * Reads a configuration from UTF-8 encoded JSON. The stream is read incrementally and is not
+   * closed.
+   */
+  public static JsonConfiguration fromStream(InputStream in) throws IOException {
+    return new JsonConfiguration(checkRoot(JsonParser.parse(in)));
   }
 
   @Override
   public JsonElement get(String key) throws ElementNotFoundException {
-    if (key == null || key.isEmpty()) {
-      return root;
-    }
-    String[] parts = key.split("/");
+    return get(ConfigPath.of(key));
+  }
+
+  @Override
+  public JsonElement get(ConfigPath path) throws ElementNotFoundException {
+    return resolve(root, path);
+  }
+
+  /** Resolves the path from the given root, reporting why it cannot be resolved if it can't. */
+  static JsonElement resolve(JsonElement root, ConfigPath path) throws ElementNotFoundException {
     JsonElement cur = root;
-    for (String part : parts) {
+    for (int i = 0; i < path.size(); i++) {
+      String part = path.segment(i);
       if (cur instanceof JsonObject obj) {
-        if (!obj.has(part)) {
-          throw new ElementNotFoundException("No such key: " + key);
+        JsonElement next = obj.getMember(part);
+        if (next == null) {
+          throw new ElementNotFoundException("No such key: " + path);
         }
-        cur = obj.get(part);
+        cur = next;
 
       } else if (cur instanceof JsonArray arr) {
-        int idx;
-        try {
-          idx = Integer.parseInt(part);
-        } catch (NumberFormatException ex) {
+        int idx = readIndex(path, i);
+        if (idx < 0 && !path.isUnusualIndex(i)) {
           throw new ElementNotFoundException("Expected array index but got '" + part + "'");
         }
         if (idx < 0 || idx >= arr.size()) {
@@ -86,16 +248,71 @@ public class JsonConfiguration extends ConfigurationBase {
 
   @Override
   public JsonElement getOrDefault(String key, JsonElement defaultValue) {
-    try {
-      return get(key);
-    } catch (ElementNotFoundException ex) {
-      return defaultValue;
+    return getOrDefault(ConfigPath.of(key), defaultValue);
+  }
+
+  @Override
+  public JsonElement getOrDefault(ConfigPath path, JsonElement defaultValue) {
+    JsonElement el = find(root, path);
+    return el != null ? el : defaultValue;
+  }
+
+  /** Resolves the path like {@link #resolve}, but returns null instead of throwing. */
+  static JsonElement find(JsonElement root, ConfigPath path) {
+    JsonElement cur = root;
+    for (int i = 0; i < path.size() && cur != null; i++) {
+      if (cur instanceof JsonObject obj) {
+        cur = obj.getMember(path.segment(i));
+      } else if (cur instanceof JsonArray arr) {
+        int idx = readIndex(path, i);
+        cur = idx >= 0 && idx < arr.size() ? arr.get(idx) : null;
+      } else {
+        return null;
+      }
     }
+    return cur;
   }
 
   @Override
   public void set(String key, JsonElement value) {
-    if (key == null || key.isEmpty()) {
+    set(ConfigPath.of(key), value);
+  }
+
+  @Override
+  public void set(ConfigPath path, JsonElement value) {
+    checkMutable();
+    if (!hasListeners()) {
+      write(path, value);
+      return;
+    }
+    // a write through a primitive replaces it with the objects it creates
+    ConfigPath at = replacedPath(root, path);
+    JsonElement old = find(root, at);
+    write(path, value);
+    fireChanges(List.of(new ChangeEvent(at, old, at == path ? value : find(root, at))));
+  }
+
+  /** Returns the path of the first primitive that a write to the path goes through, if any. */
+  static ConfigPath replacedPath(JsonElement root, ConfigPath path) {
+    JsonElement cur = root;
+    for (int i = 0; i < path.size() - 1; i++) {
+      if (cur instanceof JsonObject obj) {
+        cur = obj.getMember(path.segment(i));
+      } else if (cur instanceof JsonArray arr) {
+        int idx = readIndex(path, i);
+        cur = idx >= 0 && idx < arr.size() ? arr.get(idx) : null;
+      } else {
+        break;
+      }
+      if (cur != null && !(cur instanceof JsonObject) && !(cur instanceof JsonArray)) {
+        return path.subPath(i + 1);
+      }
+    }
+    return path;
+  }
+
+  private void write(ConfigPath path, JsonElement value) {
+    if (path.isRoot()) {
       // replace whole root
       if (!(value instanceof JsonObject) && !(value instanceof JsonArray)) {
         throw new IllegalArgumentException("Root must be object or array");
@@ -103,25 +320,24 @@ public class JsonConfiguration extends ConfigurationBase {
       this.root = value;
       return;
     }
-    String[] parts = key.split("/");
     JsonElement cur = root;
     // walk/create up to the parent of the leaf
-    for (int i = 0; i < parts.length - 1; i++) {
-      String part = parts[i];
+    for (int i = 0; i < path.size() - 1; i++) {
+      String part = path.segment(i);
       JsonElement next;
       if (cur instanceof JsonObject obj) {
-        next = obj.get(part);
+        next = obj.getMember(part);
         if (!(next instanceof JsonObject) && !(next instanceof JsonArray)) {
           // auto‐create object
           JsonObject newObj = new JsonObject();
-          obj.put(part, newObj);
+          obj.putMember(part, newObj);
           cur = newObj;
         } else {
           cur = next;
         }
 
       } else if (cur instanceof JsonArray arr) {
-        int idx = Integer.parseInt(part);
+        int idx = arrayIndex(path, i);
         next = arr.get(idx);
         if (!(next instanceof JsonObject) && !(next instanceof JsonArray)) {
           JsonObject newObj = new JsonObject();
@@ -137,13 +353,12 @@ public class JsonConfiguration extends ConfigurationBase {
     }
 
     // finally set the leaf in its parent
-    String leaf = parts[parts.length - 1];
+    String leaf = path.last();
     if (cur instanceof JsonObject obj) {
-      obj.put(leaf, value);
+      obj.putMember(leaf, value);
 
     } else if (cur instanceof JsonArray arr) {
-      int idx = Integer.parseInt(leaf);
-      arr.addAt(idx, value);
+      arr.addAt(arrayIndex(path, path.size() - 1), value);
 
     } else {
       throw new IllegalArgumentException("Cannot set value into a primitive at '" + leaf + "'");
@@ -152,102 +367,248 @@ public class JsonConfiguration extends ConfigurationBase {
 
   @Override
   public void remove(String key) {
-    if (key == null || key.isEmpty()) {
+    remove(ConfigPath.of(key));
+  }
+
+  @Override
+  public void remove(ConfigPath path) {
+    checkMutable();
+    if (path.isRoot()) {
       clear();
       return;
     }
-    String[] parts = key.split("/");
+    if (!hasListeners()) {
+      delete(path);
+      return;
+    }
+    JsonElement old = find(root, path);
+    delete(path);
+    if (old != null) {
+      fireChanges(List.of(new ChangeEvent(path, old, null)));
+    }
+  }
+
+  private void delete(ConfigPath path) {
     JsonElement cur = root;
-    for (int i = 0; i < parts.length - 1; i++) {
-      String part = parts[i];
+    for (int i = 0; i < path.size() - 1; i++) {
       if (cur instanceof JsonObject obj) {
-        cur = obj.get(part);
+        cur = obj.getMember(path.segment(i));
       } else if (cur instanceof JsonArray arr) {
-        cur = arr.get(Integer.parseInt(part));
+        cur = arr.get(arrayIndex(path, i));
       } else {
         return; // nothing to remove
       }
     }
-    String leaf = parts[parts.length - 1];
     if (cur instanceof JsonObject obj) {
-      obj.remove(leaf);
+      obj.removeMember(path.last());
     } else if (cur instanceof JsonArray arr) {
-      arr.remove(Integer.parseInt(leaf));
+      arr.remove(arrayIndex(path, path.size() - 1));
     }
   }
 
+  private void checkMutable() {
+    if (root.isFrozen()) {
+      throw new UnsupportedOperationException("Configuration is immutable");
+    }
+  }
+
+  /**
+   * Returns the array index the segment at {@code i} reads as, or -1 if it reads as none. Unusual
+   * spellings like {@code "+1"} read as the index they parse to, as they do in writes.
+   */
+  static int readIndex(ConfigPath path, int i) {
+    int idx = path.index(i);
+    if (idx < 0 && path.isUnusualIndex(i)) {
+      try {
+        idx = Integer.parseInt(path.segment(i));
+      } catch (NumberFormatException ex) {
+        return -1; // beyond the range of int
+      }
+    }
+    return idx;
+  }
+
+  /** The pre-parsed index of the given segment; anything else fails like Integer.parseInt. */
+  static int arrayIndex(ConfigPath path, int i) {
+    int idx = path.index(i);
+    return idx >= 0 ? idx : Integer.parseInt(path.segment(i));
+  }
+
   @Override
   public void clear() {
+    checkMutable();
+    JsonElement old = root;
     if (root instanceof JsonObject) {
       root = new JsonObject();
     } else {
       root = new JsonArray();
     }
+    if (hasListeners()) {
+      fireChanges(List.of(new ChangeEvent(ConfigPath.ROOT, old, root)));
+    }
   }
 
   @Override
   public Set<String> getKeys(String path, boolean recursive) {
-    JsonElement base;
-    try {
-      base = (path == null || path.isEmpty()) ? root : get(path);
-    } catch (Exception ex) {
-      return Set.of();
-    }
-    Set<String> out = new LinkedHashSet<>();
-    collectKeys(base, (path == null ? "" : path), recursive, out);
-    return out;
-  }
-
-  private void collectKeys(JsonElement el, String prefix, boolean recursive, Set<String> out) {
-    if (el instanceof JsonObject obj) {
-      for (Map.Entry<String, JsonElement> e : obj.entrySet()) {
-        String full = prefix.isEmpty() ? e.getKey() : prefix + "/" + e.getKey();
-        out.add(full);
-        if (recursive) {
-          collectKeys(e.getValue(), full, true, out);
-        }
-      }
-    } else if (el instanceof JsonArray arr) {
-      for (int i = 0; i < arr.size(); i++) {
-        String idx = String.valueOf(i);
-        String full = prefix.isEmpty() ? idx : prefix + "/" + idx;
-        out.add(full);
-        if (recursive) {
-          collectKeys(arr.get(i), full, true, out);
-        }
-      }
-    }
+    return walk(path, recursive ? Integer.MAX_VALUE : 1)
+        .map(Entry::pathString)
+        .collect(Collectors.toCollection(LinkedHashSet::new));
   }
 
   @Override
-  public Set<JsonElement> getValues(String path, boolean recursive) {
-    Set<JsonElement> vals = new LinkedHashSet<>();
-    for (String k : getKeys(path, recursive)) {
-      vals.add(getOrDefault(k, null));
-    }
-    return vals;
+  public List<JsonElement> getValues(String path, boolean recursive) {
+    return walk(path, recursive ? Integer.MAX_VALUE : 1)
+        .map(Entry::value)
+        .collect(Collectors.toCollection(ArrayList::new));
   }
 
   @Override
   public void forEach(BiConsumer<String, JsonElement> callback) {
-    if (root instanceof JsonObject obj) {
-      obj.entrySet().forEach(e -> callback.accept(e.getKey(), e.getValue()));
-    } else {
-      JsonArray arr = (JsonArray) root;
-      for (int i = 0; i < arr.size(); i++) {
-        callback.accept(String.valueOf(i), arr.get(i));
+    walk(ConfigPath.ROOT, 1).forEach(e -> callback.accept(e.name(), e.value()));
+  }
+
+  /**
+   * Streams the members and elements below {@code root}, depth-first and each before its children,
+   * see {@link #walk(ConfigPath, int)}. The paths of the entries start with {@code root} as it is
+   * given.
+   */
+  public Stream<Entry> walk(String root, int depth) {
+    return walk(this.root, root == null ? "" : root, ConfigPath.of(root), depth);
+  }
+
+  /**
+   * Streams the members and elements below {@code root}, depth-first and each before its children.
+   * The tree is traversed lazily as the stream is consumed, and parallel streams split it between
+   * subtrees. Paths are only built for the entries that are asked for theirs. The tree must not be
+   * modified while the stream is in use.
+   *
+   * @param depth how many levels below {@code root} to visit: 1 for its direct children, {@link
+   *     Integer#MAX_VALUE} for all of them
+   * @return the entries, or an empty stream if there is nothing at {@code root}
+   */
+  public Stream<Entry> walk(ConfigPath root, int depth) {
+    return walk(this.root, root.toString(), root, depth);
+  }
+
+  static Stream<Entry> walk(JsonElement tree, String text, ConfigPath root, int depth) {
+    JsonElement base = find(tree, root);
+    if (base == null) {
+      return Stream.empty();
+    }
+    return StreamSupport.stream(new TreeSpliterator(new Entry(text, root, base), depth), false);
+  }
+
+  /**
+   * Returns the values matching a JSONPath expression, in document order, see {@link JsonPath}.
+   * Expressions are compiled once and cached; use {@link #query(JsonPath)} to keep one yourself.
+   *
+   * @throws IllegalArgumentException if the expression is invalid
+   */
+  public List<JsonElement> query(String expression) {
+    return query(JsonPath.of(expression));
+  }
+
+  public List<JsonElement> query(JsonPath path) {
+    return path.select(root);
+  }
+
+  /**
+   * A member or element visited by {@link #walk(ConfigPath, int)}. Its path is built from its
+   * parents when it is first asked for.
+   */
+  public static final class Entry {
+    private final Entry parent;
+    private final String name;
+    private final int index;
+    private final JsonElement value;
+    private final int depth;
+    private String text;
+    private ConfigPath path;
+
+    /** The entry for the container a walk starts at. */
+    Entry(String text, ConfigPath path, JsonElement value) {
+      this.parent = null;
+      this.name = null;
+      this.index = -1;
+      this.value = value;
+      this.depth = 0;
+      this.text = text;
+      this.path = path;
+    }
+
+    /** An entry below {@code parent}; {@code name} is null for an array element. */
+    Entry(Entry parent, String name, int index, JsonElement value) {
+      this.parent = parent;
+      this.name = name;
+      this.index = index;
+      this.value = value;
+      this.depth = parent.depth + 1;
+    }
+
+    /** Returns the raw key of the member, or the index of the element as a String. */
+    public String name() {
+      return name != null ? name : Integer.toString(index);
+    }
+
+    /** Returns the position among the container's members or elements. */
+    public int index() {
+      return index;
+    }
+
+    public JsonElement value() {
+      return value;
+    }
+
+    /** Returns how many levels below the start of the walk this entry is, starting at 1. */
+    public int depth() {
+      return depth;
+    }
+
+    /** Returns the full path, escaped and slash-separated like {@link #getKeys} returns it. */
+    public String pathString() {
+      if (text == null) {
+        String segment = name != null ? ConfigPath.escape(name) : Integer.toString(index);
+        String prefix = parent.pathString();
+        text = prefix.isEmpty() ? segment : prefix + "/" + segment;
+      }
+      return text;
+    }
+
+    public ConfigPath path() {
+      if (path == null) {
+        path = parent.path().child(name());
       }
+      return path;
+    }
+
+    @Override
+    public String toString() {
+      return pathString() + "=" + value;
     }
   }
 
-  public boolean writeToFile(File file, int indentSize) {
+  /** Writes a binary snapshot of this configuration, see {@link #loadSnapshot(Path)}. */
+  public boolean writeSnapshot(Path file) {
+    return writeSnapshot(file, null);
+  }
+
+  /**
+   * Writes a binary snapshot of this configuration that records the size, modification time and
+   * hash of the JSON file it was loaded from, so that {@link #fromFile(File, Path)} can tell
+   * whether the snapshot is still current.
+   */
+  public boolean writeSnapshot(Path file, Path source) {
     try {
-      Files.writeString(
-          file.toPath(),
-          this.root instanceof JsonObject
-              ? ((JsonObject) this.root).toString(indentSize)
-              : ((JsonArray) this.root).toString(indentSize),
-          StandardCharsets.UTF_8);
+      SnapshotDocument.write(root, file, source);
+    } catch (IOException e) {
+      return false;
+    }
+    return true;
+  }
+
+  public boolean writeToFile(File file, int indentSize) {
+    try (JsonWriter writer = JsonWriter.of(Files.newOutputStream(file.toPath()))) {
+      writer.setIndent(indentSize).write(this.root);
     } catch (IOException e) {
       return false;
     }
@@ -256,8 +617,6 @@ public class JsonConfiguration extends ConfigurationBase {
 
   @Override
   public String toString(int indentSize) {
-    return this.root instanceof JsonObject
-        ? ((JsonObject) this.root).toString(indentSize)
-        : ((JsonArray) this.root).toString(indentSize);
+    return this.root.toString(indentSize);
   }
 }
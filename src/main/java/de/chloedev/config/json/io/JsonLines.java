@@ -0,0 +1,329 @@
+package de.chloedev.config.json.io;
+
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.stream.ByteScanner;
+import de.chloedev.config.json.stream.JsonReader;
+import de.chloedev.config.json.stream.JsonWriter;
+import de.chloedev.config.json.stream.NameTable;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads and writes JSON Lines files, which hold one JSON value per line. Records are read one at a
+ * time through a fixed-size buffer, so files of any size can be processed in constant memory; only
+ * a single record has to fit. Use {@link Stream#iterator()} on the returned stream to iterate
+ * records instead.
+ */
+public final class JsonLines {
+  private static final int BUFFER_SIZE = 1 << 16;
+  /** Ranges smaller than this are not split for parallel streams. */
+  private static final long MIN_SPLIT_SIZE = 1 << 20;
+
+  private static final ByteScanner SCANNER = ByteScanner.get();
+
+  private JsonLines() {}
+
+  /** Receives the records that could not be parsed; they are left out of the stream. */
+  @FunctionalInterface
+  public interface ErrorHandler {
+    /**
+     * Called for each record that is not valid JSON. Parallel streams may call it from several
+     * threads at once.
+     *
+     * @param line the 1-based line number of the record
+     */
+    void onError(long line, IllegalArgumentException error);
+  }
+
+  /**
+   * Streams the records of a JSON Lines file, see {@link #stream(Path, ErrorHandler)}. The stream
+   * fails with an {@link IllegalArgumentException} naming the line of the first invalid record.
+   */
+  public static Stream<JsonElement> stream(Path file) throws IOException {
+    return stream(file, null);
+  }
+
+  /**
+   * Streams the records of a JSON Lines file. The file is read lazily as the stream is consumed
+   * and stays open until the stream is closed, so use it in a try-with-resources block. Blank lines
+   * are skipped. Parallel streams split the file at line breaks and read the parts concurrently.
+   *
+   * @param onError receives invalid records, which are then skipped; null to fail the stream
+   */
+  public static Stream<JsonElement> stream(Path file, ErrorHandler onError) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      RecordSpliterator records = new RecordSpliterator(channel, 0, channel.size(), 1, onError);
+      return StreamSupport.stream(records, false)
+          .onClose(
+              () -> {
+                try {
+                  channel.close();
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              });
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Opens a JSON Lines file for appending, creating it if it does not exist. If the file does not
+   * end with a line break, like after an interrupted write, one is added so that the partial line
+   * stays separate from the new records.
+   */
+  public static Appender appender(Path file) throws IOException {
+    boolean separate = false;
+    if (Files.exists(file)) {
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        long size = channel.size();
+        if (size > 0) {
+          ByteBuffer last = ByteBuffer.allocate(1);
+          channel.read(last, size - 1);
+          separate = last.get(0) != '\n';
+        }
+      }
+    }
+    OutputStream out =
+        Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    if (separate) {
+      out.write('\n');
+    }
+    return new Appender(JsonWriter.of(out));
+  }
+
+  /**
+   * Appends records to a JSON Lines file, each written compact on a line of its own. Records are
+   * buffered until {@link #flush()} or {@link #close()}. Not thread-safe.
+   */
+  public static final class Appender implements Closeable, Flushable {
+    private final JsonWriter writer;
+
+    private Appender(JsonWriter writer) {
+      this.writer = writer;
+    }
+
+    public Appender append(JsonElement record) throws IOException {
+      writer.write(record).endLine();
+      return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+      writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      writer.close();
+    }
+  }
+
+  /**
+   * Parses the lines between two file offsets. The offsets of a range always fall on line starts.
+   * Reads are positional, so the halves of a split range can read the shared channel concurrently.
+   */
+  private static final class RecordSpliterator implements Spliterator<JsonElement> {
+    private final FileChannel channel;
+    private final ErrorHandler onError;
+    private final NameTable names = new NameTable();
+    private long end;
+    /** The line number at {@code rangeStart}, or 0 until it is needed. */
+    private long firstLine;
+    private long rangeStart;
+    /** The lines consumed since {@code rangeStart}. */
+    private long lines;
+    /** The file offset of {@code buf[head]}. */
+    private long pos;
+    private byte[] buf;
+    private int head;
+    private int tail;
+
+    RecordSpliterator(
+        FileChannel channel, long start, long end, long firstLine, ErrorHandler onError) {
+      this.channel = channel;
+      this.rangeStart = start;
+      this.pos = start;
+      this.end = end;
+      this.firstLine = firstLine;
+      this.onError = onError;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super JsonElement> action) {
+      while (true) {
+        int eol = indexOfNewline(buf, head, tail);
+        if (eol < 0) {
+          if (pos + (tail - head) < end) {
+            fill();
+            continue;
+          }
+          if (head == tail) {
+            return false;
+          }
+          eol = tail; // the last line has no line break
+        }
+        int start = head;
+        pos += Math.min(eol + 1, tail) - head;
+        head = Math.min(eol + 1, tail);
+        lines++;
+        if (SCANNER.skipWhitespace(buf, start, eol) == eol) {
+          continue;
+        }
+        JsonElement record;
+        try {
+          record = JsonParser.parse(JsonReader.of(buf, start, eol - start).setNameTable(names));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+          long line = lineAt() + lines - 1;
+          if (onError == null) {
+            throw new IllegalArgumentException(
+                "Invalid JSON on line " + line + ": " + e.getMessage(), e);
+          }
+          onError.onError(
+              line,
+              e instanceof IllegalArgumentException iae
+                  ? iae
+                  : new IllegalArgumentException(e.getMessage(), e));
+          continue;
+        }
+        action.accept(record);
+        return true;
+      }
+    }
+
+    /** Reads more of the range behind the buffered bytes, growing the buffer for long lines. */
+    private void fill() {
+      if (buf == null) {
+        buf = new byte[BUFFER_SIZE];
+      } else if (head > 0) {
+        System.arraycopy(buf, head, buf, 0, tail - head);
+        tail -= head;
+        head = 0;
+      } else if (tail == buf.length) {
+        buf = Arrays.copyOf(buf, buf.length * 2);
+      }
+      int want = (int) Math.min(buf.length - tail, end - (pos + tail));
+      try {
+        int n = channel.read(ByteBuffer.wrap(buf, tail, want), pos + tail);
+        if (n < 0) {
+          end = pos + tail; // the file was truncated while it was read
+        } else {
+          tail += n;
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    /** Returns the line number at the start of the range, counting the lines before it once. */
+    private long lineAt() {
+      if (firstLine == 0) {
+        long count = 1;
+        ByteBuffer chunk = ByteBuffer.allocate(BUFFER_SIZE);
+        try {
+          for (long at = 0; at < rangeStart; ) {
+            chunk.clear().limit((int) Math.min(BUFFER_SIZE, rangeStart - at));
+            int n = channel.read(chunk, at);
+            if (n < 0) {
+              break;
+            }
+            for (int i = 0; i < n; i++) {
+              if (chunk.get(i) == '\n') {
+                count++;
+              }
+            }
+            at += n;
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        firstLine = count;
+      }
+      return firstLine;
+    }
+
+    /**
+     * Splits off the first half of the unread lines, cutting at the first line break after the
+     * middle. Bytes already buffered are dropped and read again by the prefix.
+     */
+    @Override
+    public Spliterator<JsonElement> trySplit() {
+      if (end - pos < MIN_SPLIT_SIZE) {
+        return null;
+      }
+      long split = nextLineStart(pos + (end - pos) / 2);
+      if (split >= end) {
+        return null;
+      }
+      long prefixLine = firstLine == 0 ? 0 : firstLine + lines;
+      RecordSpliterator prefix = new RecordSpliterator(channel, pos, split, prefixLine, onError);
+      rangeStart = split;
+      pos = split;
+      firstLine = 0;
+      lines = 0;
+      head = 0;
+      tail = 0;
+      return prefix;
+    }
+
+    private long nextLineStart(long from) {
+      ByteBuffer chunk = ByteBuffer.allocate(8192);
+      try {
+        for (long at = from; at < end; ) {
+          chunk.clear().limit((int) Math.min(chunk.capacity(), end - at));
+          int n = channel.read(chunk, at);
+          if (n < 0) {
+            break;
+          }
+          for (int i = 0; i < n; i++) {
+            if (chunk.get(i) == '\n') {
+              return at + i + 1;
+            }
+          }
+          at += n;
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return end;
+    }
+
+    /** Returns the number of unread bytes, which is proportional to the number of records. */
+    @Override
+    public long estimateSize() {
+      return end - pos;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | NONNULL;
+    }
+
+    private static int indexOfNewline(byte[] b, int from, int to) {
+      for (int i = from; i < to; i++) {
+        if (b[i] == '\n') {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+}
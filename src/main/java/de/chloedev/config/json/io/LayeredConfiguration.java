@@ -0,0 +1,420 @@
+package de.chloedev.config.json.io;
+
+import de.chloedev.config.error.ElementNotFoundException;
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.event.ChangeEvent;
+import de.chloedev.config.json.event.ChangeListener;
+import de.chloedev.config.json.io.JsonConfiguration.Entry;
+import de.chloedev.config.json.path.ConfigPath;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.StreamSupport;
+
+/**
+ * A stack of configurations read as one, such as defaults, per-region and per-host settings and
+ * runtime overrides. A value in a higher layer overrides the one in the layers below, except that
+ * objects are merged member by member, all the way down; arrays and primitives replace whatever is
+ * below them.
+ *
+ * <p>Lookups resolve through the layers without merging them into a copy. Only the containers
+ * that several layers contribute to are merged, when they are read; everything else is returned as
+ * it is stored in its layer, so returned containers must be treated as read-only. Resolved lookups
+ * are cached; cache hits take no lock, only filling and dropping entries do. Each layer reports
+ * its changes to this configuration, which drops the cached lookups
+ * at, above and below the changed path, or below the array it is in, so layers may be changed
+ * directly as long as their listeners are called on the thread making the change, which is the
+ * default.
+ *
+ * <p>Writes go to the top layer: {@link #remove} removes an override there, so the value of the
+ * layers below shows again, and {@link #clear()} removes all of them.
+ */
+public class LayeredConfiguration extends ConfigurationBase {
+  public static final int DEFAULT_CACHE_LIMIT = 1 << 16;
+
+  /** Cached for a path that no layer has a value at. */
+  private static final JsonElement MISSING = new JsonPrimitive((Object) null);
+
+  /** The layers, lowest first. */
+  private final List<JsonConfiguration> layers = new ArrayList<>();
+  private final Map<JsonConfiguration, ChangeListener> invalidators = new HashMap<>();
+  private volatile CacheNode cache = new CacheNode();
+  /** The lookups cached since the cache was last emptied. */
+  private int cached;
+  private int cacheLimit = DEFAULT_CACHE_LIMIT;
+
+  private LayeredConfiguration() {}
+
+  /**
+   * Stacks the given configurations, lowest first: the last one overrides all the others, and is
+   * the one that is written to.
+   */
+  public static LayeredConfiguration of(JsonConfiguration... layers) {
+    if (layers.length == 0) {
+      throw new IllegalArgumentException("At least one layer is needed");
+    }
+    LayeredConfiguration config = new LayeredConfiguration();
+    for (JsonConfiguration layer : layers) {
+      config.addLayer(layer);
+    }
+    return config;
+  }
+
+  /** Puts a configuration on top of the others, making it the one that is written to. */
+  public synchronized void addLayer(JsonConfiguration layer) {
+    if (invalidators.containsKey(layer)) {
+      throw new IllegalArgumentException("The configuration is already a layer");
+    }
+    ChangeListener invalidator =
+        new ChangeListener() {
+          @Override
+          public void onChange(ChangeEvent event) {
+            onChanges(List.of(event));
+          }
+
+          @Override
+          public void onChanges(List<ChangeEvent> events) {
+            layerChanged(layer, events);
+          }
+        };
+    layers.add(layer);
+    invalidators.put(layer, invalidator);
+    layer.addListener(ConfigPath.ROOT, invalidator);
+    invalidateCache();
+  }
+
+  /** Takes a configuration out of the stack and stops listening to it. The last layer stays. */
+  public synchronized boolean removeLayer(JsonConfiguration layer) {
+    if (!invalidators.containsKey(layer) || layers.size() == 1) {
+      return false;
+    }
+    layer.removeListener(ConfigPath.ROOT, invalidators.remove(layer));
+    layers.remove(layer);
+    invalidateCache();
+    return true;
+  }
+
+  /** Returns the layers, lowest first. */
+  public synchronized List<JsonConfiguration> getLayers() {
+    return List.copyOf(layers);
+  }
+
+  @Override
+  public JsonElement get(String key) throws ElementNotFoundException {
+    return get(ConfigPath.of(key));
+  }
+
+  @Override
+  public JsonElement get(ConfigPath path) throws ElementNotFoundException {
+    JsonElement el = lookup(path);
+    if (el == null) {
+      throw new ElementNotFoundException("No such key: " + path);
+    }
+    return el;
+  }
+
+  @Override
+  public JsonElement getOrDefault(String key, JsonElement defaultValue) {
+    return getOrDefault(ConfigPath.of(key), defaultValue);
+  }
+
+  @Override
+  public JsonElement getOrDefault(ConfigPath path, JsonElement defaultValue) {
+    JsonElement el = lookup(path);
+    return el != null ? el : defaultValue;
+  }
+
+  /** Returns the resolved value at the path from the cache, resolving and caching it if needed. */
+  private JsonElement lookup(ConfigPath path) {
+    JsonElement hit = cached(path);
+    if (hit != null) {
+      return hit == MISSING ? null : hit;
+    }
+    return resolveAndCache(path);
+  }
+
+  /** Returns the cached lookup of the path, {@link #MISSING}, or null if there is none. */
+  private JsonElement cached(ConfigPath path) {
+    CacheNode node = cache;
+    for (int i = 0; i < path.size() && node != null; i++) {
+      Map<String, CacheNode> children = node.children;
+      node = children != null ? children.get(path.segment(i)) : null;
+    }
+    return node != null ? node.value : null;
+  }
+
+  private synchronized JsonElement resolveAndCache(ConfigPath path) {
+    JsonElement hit = cached(path); // another thread may have filled it in the meantime
+    if (hit != null) {
+      return hit == MISSING ? null : hit;
+    }
+    JsonElement resolved = resolve(path, null, null);
+    // "01" or "+1" finds the same element as "1", but would not be dropped with it
+    if (cacheLimit > 0 && !path.hasUnusualIndex()) {
+      if (cached >= cacheLimit) {
+        invalidateCache();
+      }
+      CacheNode node = cache;
+      for (int i = 0; i < path.size(); i++) {
+        Map<String, CacheNode> children = node.children;
+        if (children == null) {
+          children = new ConcurrentHashMap<>();
+          node.children = children;
+        }
+        node = children.computeIfAbsent(path.segment(i), k -> new CacheNode());
+      }
+      node.value = resolved == null ? MISSING : resolved;
+      cached++;
+    }
+    return resolved;
+  }
+
+  /**
+   * Resolves a path through the layers. If {@code changed} is set, its value at the path is taken
+   * to be {@code replaced} instead, which gives the value the path had before a change.
+   *
+   * @return the value, or null if no layer has one at the path
+   */
+  private JsonElement resolve(ConfigPath path, JsonConfiguration changed, JsonElement replaced) {
+    int n = layers.size();
+    // the values of the layers that show through at the current depth, highest first
+    JsonElement[] values = new JsonElement[n];
+    JsonConfiguration[] from = new JsonConfiguration[n];
+    int count = 0;
+    for (int i = n - 1; i >= 0; i--) {
+      JsonConfiguration layer = layers.get(i);
+      JsonElement v =
+          layer == changed && path.isRoot() ? replaced : layer.getOrDefault(ConfigPath.ROOT, null);
+      if (v != null) {
+        values[count] = v;
+        from[count++] = layer;
+      }
+    }
+    count = visible(values, count);
+    for (int d = 0; d < path.size() && count > 0; d++) {
+      boolean last = d == path.size() - 1;
+      int m = 0;
+      for (int i = 0; i < count; i++) {
+        JsonElement v = last && from[i] == changed ? replaced : child(values[i], path, d);
+        if (v != null) {
+          values[m] = v;
+          from[m++] = from[i];
+        }
+      }
+      count = visible(values, m);
+    }
+    return count == 0 ? null : count == 1 ? values[0] : merge(values, count);
+  }
+
+  /**
+   * Returns how many of the values, highest first, show through: only the highest if it is not an
+   * object, otherwise the objects down to the first value that is not one.
+   */
+  private static int visible(JsonElement[] values, int count) {
+    if (count == 0 || !(values[0] instanceof JsonObject)) {
+      return Math.min(count, 1);
+    }
+    int m = 1;
+    while (m < count && values[m] instanceof JsonObject) {
+      m++;
+    }
+    return m;
+  }
+
+  /**
+   * Merges objects, highest first, into a new object. Members come in the order of the lowest
+   * object, followed by those the higher ones add; values only one layer has are shared.
+   */
+  private static JsonObject merge(JsonElement[] objects, int count) {
+    JsonObject out = new JsonObject();
+    JsonElement[] values = new JsonElement[count];
+    for (int i = count - 1; i >= 0; i--) {
+      for (Map.Entry<String, JsonElement> e : ((JsonObject) objects[i]).entrySet()) {
+        String key = e.getKey();
+        if (out.getMember(key) != null) {
+          continue;
+        }
+        int m = 0;
+        for (int j = 0; j <= i; j++) {
+          JsonElement v = ((JsonObject) objects[j]).getMember(key);
+          if (v != null) {
+            values[m++] = v;
+          }
+        }
+        m = visible(values, m);
+        out.putMember(key, m == 1 ? values[0] : merge(values, m));
+      }
+    }
+    return out;
+  }
+
+  private static JsonElement child(JsonElement el, ConfigPath path, int i) {
+    if (el instanceof JsonObject obj) {
+      return obj.getMember(path.segment(i));
+    } else if (el instanceof JsonArray arr) {
+      int idx = JsonConfiguration.readIndex(path, i);
+      return idx >= 0 && idx < arr.size() ? arr.get(idx) : null;
+    }
+    return null;
+  }
+
+  /** Drops the cached lookups a change touches and tells this configuration's listeners. */
+  private void layerChanged(JsonConfiguration layer, List<ChangeEvent> events) {
+    List<ChangeEvent> changes = hasListeners() ? new ArrayList<>() : null;
+    synchronized (this) {
+      if (!invalidators.containsKey(layer)) {
+        return;
+      }
+      for (ChangeEvent event : events) {
+        ConfigPath path = event.getPath();
+        JsonElement before = changes != null ? resolve(path, layer, event.getOldValue()) : null;
+        invalidate(layer, path);
+        if (changes != null) {
+          JsonElement after = resolve(path, null, null);
+          boolean same =
+              before == after || (before != null && after != null && before.contentEquals(after));
+          if (!same) {
+            changes.add(new ChangeEvent(path, before, after));
+          }
+        }
+      }
+    }
+    if (changes != null) {
+      fireChanges(changes);
+    }
+  }
+
+  /**
+   * Drops the cached lookups at the path, the ones above it and the ones below it. A change in an
+   * array drops everything below the array, since removing an element moves the ones after it.
+   */
+  private void invalidate(JsonConfiguration layer, ConfigPath path) {
+    if (!path.isRoot() && layer.getOrDefault(path.parent(), null) instanceof JsonArray) {
+      path = path.parent();
+    }
+    if (path.isRoot() || path.hasUnusualIndex()) {
+      invalidateCache();
+      return;
+    }
+    CacheNode node = cache;
+    for (int i = 0; node != null; i++) {
+      node.value = null; // merged containers above the path include it
+      if (i == path.size()) {
+        node.children = null;
+        return;
+      }
+      Map<String, CacheNode> children = node.children;
+      node = children != null ? children.get(path.segment(i)) : null;
+    }
+  }
+
+  /** Empties the cache, for after a layer was changed other than through its methods. */
+  public synchronized void invalidateCache() {
+    cache = new CacheNode();
+    cached = 0;
+  }
+
+  public synchronized int getCacheLimit() {
+    return cacheLimit;
+  }
+
+  /** Sets the number of lookups cached before the cache is emptied; 0 disables it. */
+  public synchronized void setCacheLimit(int maxEntries) {
+    if (maxEntries < 0) {
+      throw new IllegalArgumentException("The cache limit must not be negative: " + maxEntries);
+    }
+    cacheLimit = maxEntries;
+    invalidateCache();
+  }
+
+  @Override
+  public void set(String key, JsonElement value) {
+    set(ConfigPath.of(key), value);
+  }
+
+  /** Sets the value in the top layer. */
+  @Override
+  public void set(ConfigPath path, JsonElement value) {
+    topLayer().set(path, value);
+  }
+
+  @Override
+  public void remove(String key) {
+    remove(ConfigPath.of(key));
+  }
+
+  /** Removes the value from the top layer; a value the layers below have shows again. */
+  @Override
+  public void remove(ConfigPath path) {
+    topLayer().remove(path);
+  }
+
+  /** Clears the top layer. */
+  @Override
+  public void clear() {
+    topLayer().clear();
+  }
+
+  private synchronized JsonConfiguration topLayer() {
+    return layers.get(layers.size() - 1);
+  }
+
+  @Override
+  public Set<String> getKeys(String path, boolean recursive) {
+    return walk(path, recursive ? Integer.MAX_VALUE : 1)
+        .map(Entry::pathString)
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+  }
+
+  @Override
+  public List<JsonElement> getValues(String path, boolean recursive) {
+    return walk(path, recursive ? Integer.MAX_VALUE : 1)
+        .map(Entry::value)
+        .collect(Collectors.toCollection(ArrayList::new));
+  }
+
+  @Override
+  public void forEach(BiConsumer<String, JsonElement> callback) {
+    walk(null, 1).forEach(e -> callback.accept(e.name(), e.value()));
+  }
+
+  /**
+   * Streams the resolved members and elements below {@code root}, like {@link
+   * JsonConfiguration#walk(String, int)}. The layers must not be changed while the stream is in
+   * use.
+   */
+  public Stream<Entry> walk(String root, int depth) {
+    ConfigPath path = ConfigPath.of(root);
+    JsonElement base = getOrDefault(path, null);
+    if (base == null) {
+      return Stream.empty();
+    }
+    Entry start = new Entry(root == null ? "" : root, path, base);
+    return StreamSupport.stream(new TreeSpliterator(start, depth), false);
+  }
+
+  @Override
+  public String toString(int indentSize) {
+    return get(ConfigPath.ROOT).toString(indentSize);
+  }
+
+  /**
+   * The cached lookup of a path, if any, and those of the paths below it. Readers walk the nodes
+   * without the monitor; they are only changed with it held.
+   */
+  private static final class CacheNode {
+    /** The resolved value, {@link #MISSING} if there is none, or null if it is not cached. */
+    volatile JsonElement value;
+    volatile Map<String, CacheNode> children;
+  }
+}
@@ -0,0 +1,32 @@
+package de.chloedev.config.json.io;
+
+import java.io.File;
+
+/** Selects how {@link JsonConfiguration#fromFile(File, LoadMode)} reads a file. */
+public enum LoadMode {
+  /**
+   * Reads the file through a bounded buffer. This is what {@link JsonConfiguration#fromFile(File)}
+   * uses.
+   */
+  STREAMING,
+  /**
+   * Maps the file into memory and tokenizes its UTF-8 bytes directly, without a read syscall per
+   * buffer or a decoded copy of the document. Files larger than 2 GiB fall back to {@link
+   * #STREAMING}.
+   */
+  MAPPED,
+  /**
+   * Reads the file's bytes and indexes them with a single structural pass, building elements only
+   * for the parts of the tree that are actually accessed. Writes materialize only the containers
+   * along the written path. Suited to large files of which only a few keys are read; the raw
+   * bytes are kept in memory for as long as the configuration is in use. As in the other modes,
+   * the tree may be read from several threads at once.
+   */
+  LAZY,
+  /**
+   * Reads the file's bytes and, if the document is a large top-level array, parses its elements on
+   * the common fork-join pool. Other documents are parsed sequentially. The tree is the same as
+   * with {@link #STREAMING}.
+   */
+  PARALLEL
+}
@@ -0,0 +1,250 @@
+package de.chloedev.config.json.io;
+
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.event.ChangeEvent;
+import de.chloedev.config.json.path.ConfigPath;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Brings a tree up to date with a freshly parsed version of it while keeping every subtree that
+ * did not change, so references held to those stay valid.
+ */
+final class TreeMerge {
+  private TreeMerge() {}
+
+  /**
+   * Updates {@code current} in place to match {@code fresh}. Containers of the same type are kept
+   * and only their changed members are replaced.
+   *
+   * @return {@code current}, or {@code fresh} if the two cannot be merged
+   */
+  static JsonElement mergeInto(JsonElement current, JsonElement fresh) {
+    return mergeInto(current, fresh, ConfigPath.ROOT, null);
+  }
+
+  /**
+   * Like {@link #mergeInto(JsonElement, JsonElement)}, and adds an event to {@code changes}, if it
+   * is not null, for every value below {@code path} that was added, removed or replaced. Containers
+   * that were merged into are not reported themselves, only their changed members are.
+   */
+  static JsonElement mergeInto(
+      JsonElement current, JsonElement fresh, ConfigPath path, List<ChangeEvent> changes) {
+    if (current instanceof JsonObject cur && fresh instanceof JsonObject next) {
+      if (!sameKeyOrder(cur, next)) {
+        // re-adding in the new order keeps the children, only this object's map is rebuilt
+        Map<String, JsonElement> old = new HashMap<>();
+        for (Map.Entry<String, JsonElement> e : cur.entrySet()) {
+          old.put(e.getKey(), e.getValue());
+        }
+        for (String key : old.keySet()) {
+          cur.removeMember(key);
+        }
+        for (Map.Entry<String, JsonElement> e : next.entrySet()) {
+          JsonElement child = old.remove(e.getKey());
+          cur.putMember(e.getKey(), child(child, e.getValue(), path, e.getKey(), changes, false));
+        }
+        for (Map.Entry<String, JsonElement> e : old.entrySet()) {
+          removed(changes, path, e.getKey(), e.getValue());
+        }
+        return cur;
+      }
+      for (String key : removedKeys(cur, next)) {
+        removed(changes, path, key, cur.removeMember(key));
+      }
+      for (Map.Entry<String, JsonElement> e : next.entrySet()) {
+        JsonElement child = cur.getMember(e.getKey());
+        JsonElement merged = child(child, e.getValue(), path, e.getKey(), changes, false);
+        if (merged != child) {
+          cur.putMember(e.getKey(), merged);
+        }
+      }
+      return cur;
+    }
+    if (current instanceof JsonArray cur && fresh instanceof JsonArray next) {
+      int common = Math.min(cur.size(), next.size());
+      for (int i = 0; i < common; i++) {
+        JsonElement child = cur.get(i);
+        JsonElement merged = child(child, next.get(i), path, Integer.toString(i), changes, false);
+        if (merged != child) {
+          cur.addAt(i, merged);
+        }
+      }
+      for (int i = common; i < next.size(); i++) {
+        cur.add(child(null, next.get(i), path, Integer.toString(i), changes, false));
+      }
+      while (cur.size() > next.size()) {
+        int last = cur.size() - 1;
+        removed(changes, path, Integer.toString(last), cur.remove(last));
+      }
+      return cur;
+    }
+    return primitiveEquals(current, fresh) ? current : fresh;
+  }
+
+  /**
+   * Like {@link #mergeInto}, but for immutable trees: returns a new version of {@code current} that
+   * shares every unchanged subtree, or {@code current} itself if nothing changed.
+   */
+  static JsonElement mergeCopy(JsonElement current, JsonElement fresh) {
+    return mergeCopy(current, fresh, ConfigPath.ROOT, null);
+  }
+
+  /** Like {@link #mergeCopy(JsonElement, JsonElement)}, reporting changes like mergeInto. */
+  static JsonElement mergeCopy(
+      JsonElement current, JsonElement fresh, ConfigPath path, List<ChangeEvent> changes) {
+    if (current instanceof JsonObject cur && fresh instanceof JsonObject next) {
+      if (!sameKeyOrder(cur, next)) {
+        JsonObject rebuilt = new JsonObject();
+        for (Map.Entry<String, JsonElement> e : next.entrySet()) {
+          JsonElement child = cur.getMember(e.getKey());
+          rebuilt.putMember(
+              e.getKey(), child(child, e.getValue(), path, e.getKey(), changes, true));
+        }
+        for (String key : removedKeys(cur, next)) {
+          removed(changes, path, key, cur.getMember(key));
+        }
+        return rebuilt.toPersistent();
+      }
+      JsonObject result = cur;
+      for (String key : removedKeys(cur, next)) {
+        removed(changes, path, key, cur.getMember(key));
+        result = result.withoutMember(key);
+      }
+      for (Map.Entry<String, JsonElement> e : next.entrySet()) {
+        JsonElement child = cur.getMember(e.getKey());
+        JsonElement merged = child(child, e.getValue(), path, e.getKey(), changes, true);
+        if (merged != child) {
+          result = result.withMember(e.getKey(), merged);
+        }
+      }
+      return result;
+    }
+    if (current instanceof JsonArray cur && fresh instanceof JsonArray next) {
+      if (cur.size() != next.size()) {
+        JsonArray rebuilt = new JsonArray();
+        for (int i = 0; i < next.size(); i++) {
+          JsonElement child = i < cur.size() ? cur.get(i) : null;
+          rebuilt.add(child(child, next.get(i), path, Integer.toString(i), changes, true));
+        }
+        for (int i = next.size(); i < cur.size(); i++) {
+          removed(changes, path, Integer.toString(i), cur.get(i));
+        }
+        return rebuilt.toPersistent();
+      }
+      JsonArray result = cur;
+      for (int i = 0; i < next.size(); i++) {
+        JsonElement child = cur.get(i);
+        JsonElement merged = child(child, next.get(i), path, Integer.toString(i), changes, true);
+        if (merged != child) {
+          result = result.withElement(i, merged);
+        }
+      }
+      return result;
+    }
+    return primitiveEquals(current, fresh) ? current : fresh.toPersistent();
+  }
+
+  /** Merges one member or element; {@code old} is null if it did not exist before. */
+  private static JsonElement child(
+      JsonElement old,
+      JsonElement fresh,
+      ConfigPath parent,
+      String key,
+      List<ChangeEvent> changes,
+      boolean copy) {
+    ConfigPath path = changes == null ? null : parent.child(key);
+    if (old == null) {
+      if (changes != null) {
+        changes.add(new ChangeEvent(path, null, fresh));
+      }
+      return copy ? fresh.toPersistent() : fresh;
+    }
+    JsonElement merged =
+        copy ? mergeCopy(old, fresh, path, changes) : mergeInto(old, fresh, path, changes);
+    if (changes != null && merged != old && !sameKind(old, fresh)) {
+      changes.add(new ChangeEvent(path, old, merged));
+    }
+    return merged;
+  }
+
+  private static void removed(
+      List<ChangeEvent> changes, ConfigPath parent, String key, JsonElement old) {
+    if (changes != null) {
+      changes.add(new ChangeEvent(parent.child(key), old, null));
+    }
+  }
+
+  /** Whether both are objects or both are arrays, which a merge updates instead of replacing. */
+  static boolean sameKind(JsonElement a, JsonElement b) {
+    return (a instanceof JsonObject && b instanceof JsonObject)
+        || (a instanceof JsonArray && b instanceof JsonArray);
+  }
+
+  private static List<String> removedKeys(JsonObject current, JsonObject fresh) {
+    List<String> removed = new ArrayList<>();
+    for (Map.Entry<String, JsonElement> e : current.entrySet()) {
+      if (fresh.getMember(e.getKey()) == null) {
+        removed.add(e.getKey());
+      }
+    }
+    return removed;
+  }
+
+  /** Keys may be removed anywhere and added at the end; anything else is a reordering. */
+  private static boolean sameKeyOrder(JsonObject a, JsonObject b) {
+    return commonKeysInOrder(a, b) && appendsOnly(a, b);
+  }
+
+  /** Whether the keys of {@code a} that are also in {@code b} appear in the same order in both. */
+  private static boolean commonKeysInOrder(JsonObject a, JsonObject b) {
+    Iterator<Map.Entry<String, JsonElement>> ib = b.entrySet().iterator();
+    for (Map.Entry<String, JsonElement> e : a.entrySet()) {
+      if (b.getMember(e.getKey()) == null) {
+        continue;
+      }
+      boolean found = false;
+      while (ib.hasNext()) {
+        if (ib.next().getKey().equals(e.getKey())) {
+          found = true;
+          break;
+        }
+      }
+      if (!found) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Whether the keys that {@code b} adds to {@code a} all come after the keys they share. */
+  private static boolean appendsOnly(JsonObject a, JsonObject b) {
+    boolean added = false;
+    for (Map.Entry<String, JsonElement> e : b.entrySet()) {
+      if (a.getMember(e.getKey()) == null) {
+        added = true;
+      } else if (added) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean primitiveEquals(JsonElement a, JsonElement b) {
+    if (!(a instanceof JsonPrimitive pa) || !(b instanceof JsonPrimitive pb)) {
+      return false;
+    }
+    if (pa.isNull() || pb.isNull()) {
+      return pa.isNull() && pb.isNull();
+    }
+    return pa.isString() == pb.isString()
+        && pa.isNumber() == pb.isNumber()
+        && pa.getAsString().equals(pb.getAsString());
+  }
+}
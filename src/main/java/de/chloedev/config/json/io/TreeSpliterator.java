@@ -0,0 +1,159 @@
+package de.chloedev.config.json.io;
+
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.io.JsonConfiguration.Entry;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Visits the members and elements below a container depth-first, each before its children. The
+ * traversal keeps one frame per open container; splitting hands the first half of the outermost
+ * frame that has two or more children left, together with everything opened above it, to the new
+ * spliterator, so that both halves stay in document order.
+ */
+final class TreeSpliterator implements Spliterator<Entry> {
+  private final int maxDepth;
+  private Frame[] stack = new Frame[8];
+  private int size;
+
+  /** Visits the children of {@code base} down to {@code maxDepth} levels below it. */
+  TreeSpliterator(Entry base, int maxDepth) {
+    this.maxDepth = maxDepth;
+    if (maxDepth > 0 && isOpen(base.value())) {
+      push(new Frame(base));
+    }
+  }
+
+  private TreeSpliterator(int maxDepth) {
+    this.maxDepth = maxDepth;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super Entry> action) {
+    while (size > 0) {
+      Entry e = stack[size - 1].next();
+      if (e == null) {
+        stack[--size] = null;
+        continue;
+      }
+      if (e.depth() < maxDepth && isOpen(e.value())) {
+        push(new Frame(e));
+      }
+      action.accept(e);
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public Spliterator<Entry> trySplit() {
+    for (int k = 0; k < size; k++) {
+      Frame f = stack[k];
+      if (f.end - f.next < 2) {
+        continue;
+      }
+      int mid = (f.next + f.end) >>> 1;
+      TreeSpliterator prefix = new TreeSpliterator(maxDepth);
+      prefix.push(f.split(mid));
+      for (int j = k + 1; j < size; j++) {
+        prefix.push(stack[j]);
+        stack[j] = null;
+      }
+      size = k + 1;
+      return prefix;
+    }
+    return null;
+  }
+
+  /** Returns the children left in the open containers; their descendants are not counted. */
+  @Override
+  public long estimateSize() {
+    long n = 0;
+    for (int i = 0; i < size; i++) {
+      n += stack[i].end - stack[i].next;
+    }
+    return n;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL;
+  }
+
+  private void push(Frame f) {
+    if (size == stack.length) {
+      stack = Arrays.copyOf(stack, size * 2);
+    }
+    stack[size++] = f;
+  }
+
+  private static boolean isOpen(JsonElement el) {
+    return (el instanceof JsonObject obj && obj.size() > 0)
+        || (el instanceof JsonArray arr && arr.size() > 0);
+  }
+
+  /**
+   * The children of one container from {@code next} to {@code end}. Members of an object are read
+   * through its iterator, and only copied into an array when the frame is split.
+   */
+  private static final class Frame {
+    private final Entry parent;
+    private final JsonArray array;
+    private Iterator<Map.Entry<String, JsonElement>> members;
+    private Map.Entry<String, JsonElement>[] split;
+    private int next;
+    private int end;
+
+    Frame(Entry parent) {
+      this.parent = parent;
+      if (parent.value() instanceof JsonObject obj) {
+        this.array = null;
+        this.members = obj.entrySet().iterator();
+        this.end = obj.size();
+      } else {
+        this.array = (JsonArray) parent.value();
+        this.end = array.size();
+      }
+    }
+
+    private Frame(Frame from, int next, int end) {
+      this.parent = from.parent;
+      this.array = from.array;
+      this.split = from.split;
+      this.next = next;
+      this.end = end;
+    }
+
+    Entry next() {
+      if (next >= end) {
+        return null;
+      }
+      int i = next++;
+      if (array != null) {
+        return new Entry(parent, null, i, array.get(i));
+      }
+      Map.Entry<String, JsonElement> m = split != null ? split[i] : members.next();
+      return new Entry(parent, m.getKey(), i, m.getValue());
+    }
+
+    /** Keeps the children from {@code mid} on and returns a frame for the ones before it. */
+    @SuppressWarnings("unchecked")
+    Frame split(int mid) {
+      if (array == null && split == null) {
+        split = (Map.Entry<String, JsonElement>[]) new Map.Entry<?, ?>[end];
+        for (int i = next; i < end; i++) {
+          split[i] = members.next();
+        }
+        members = null;
+      }
+      Frame prefix = new Frame(this, next, mid);
+      next = mid;
+      return prefix;
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package de.chloedev.config.json.patch;
+
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.io.ConfigurationBase;
+import de.chloedev.config.json.path.ConfigPath;
+import java.util.Map;
+
+/**
+ * JSON Merge Patch (RFC 7386): a document shaped like the target, in which objects are merged
+ * recursively, {@code null} members delete and everything else replaces.
+ */
+public final class JsonMergePatch {
+  private JsonMergePatch() {}
+
+  /**
+   * Merges the patch into the given configuration through its set and remove methods, so only the
+   * values the patch names are touched.
+   *
+   * @throws IllegalArgumentException if the patch would make the root a primitive
+   */
+  public static void applyTo(ConfigurationBase config, JsonElement patch) {
+    merge(config, ConfigPath.ROOT, patch);
+  }
+
+  private static void merge(ConfigurationBase config, ConfigPath path, JsonElement patch) {
+    if (!(patch instanceof JsonObject members)) {
+      config.set(path, JsonPatch.copy(patch));
+      return;
+    }
+    if (!(config.getOrDefault(path, null) instanceof JsonObject)) {
+      config.set(path, new JsonObject());
+    }
+    for (Map.Entry<String, JsonElement> e : members.entrySet()) {
+      ConfigPath child = path.child(e.getKey());
+      if (e.getValue() instanceof JsonPrimitive p && p.isNull()) {
+        if (config.getOrDefault(child, null) != null) {
+          config.remove(child);
+        }
+      } else {
+        merge(config, child, e.getValue());
+      }
+    }
+  }
+}
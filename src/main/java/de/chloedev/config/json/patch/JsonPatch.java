@@ -0,0 +1,435 @@
+package de.chloedev.config.json.patch;
+
+import de.chloedev.config.error.PatchException;
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.io.ConfigurationBase;
+import de.chloedev.config.json.path.ConfigPath;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An immutable JSON Patch (RFC 6902): a list of operations that turns one document into another.
+ *
+ * <p>{@link #diff} computes a patch from two trees. It skips subtrees that are the same instance,
+ * which is the common case between versions of a persistent tree, and compares immutable subtrees
+ * by their cached {@link JsonElement#contentHash()} before walking them, so a one-key change costs
+ * a walk down to that key rather than a comparison of both documents.
+ */
+public final class JsonPatch {
+  private final List<Operation> operations;
+
+  private JsonPatch(List<Operation> operations) {
+    this.operations = List.copyOf(operations);
+  }
+
+  public static JsonPatch of(List<Operation> operations) {
+    return new JsonPatch(operations);
+  }
+
+  /** Parses a patch document, a JSON array of operation objects. */
+  public static JsonPatch parse(String json) {
+    JsonElement el = JsonParser.parse(json);
+    if (!(el instanceof JsonArray arr)) {
+      throw new IllegalArgumentException("JSON Patch must be an array");
+    }
+    return fromJson(arr);
+  }
+
+  public static JsonPatch fromJson(JsonArray json) {
+    List<Operation> ops = new ArrayList<>(json.size());
+    for (int i = 0; i < json.size(); i++) {
+      if (!(json.get(i) instanceof JsonObject op)) {
+        throw new IllegalArgumentException("Patch operation must be an object at index " + i);
+      }
+      ops.add(Operation.fromJson(op, i));
+    }
+    return new JsonPatch(ops);
+  }
+
+  /** Returns the operations that turn {@code source} into {@code target}. */
+  public static JsonPatch diff(JsonElement source, JsonElement target) {
+    List<Operation> ops = new ArrayList<>();
+    diff(ConfigPath.ROOT, source, target, ops);
+    return new JsonPatch(ops);
+  }
+
+  private static void diff(ConfigPath path, JsonElement a, JsonElement b, List<Operation> ops) {
+    if (a == b) {
+      return;
+    }
+    if (a instanceof JsonObject oa && b instanceof JsonObject ob) {
+      if (!sameFrozen(a, b)) {
+        diffObjects(path, oa, ob, ops);
+      }
+    } else if (a instanceof JsonArray aa && b instanceof JsonArray ab) {
+      if (!sameFrozen(a, b)) {
+        diffArrays(path, aa, ab, ops);
+      }
+    } else if (!a.contentEquals(b)) {
+      ops.add(Operation.replace(path, b));
+    }
+  }
+
+  /** Whether two immutable trees are equal; their hashes are cached, so most misses are cheap. */
+  private static boolean sameFrozen(JsonElement a, JsonElement b) {
+    return a.isFrozen()
+        && b.isFrozen()
+        && a.contentHash() == b.contentHash()
+        && a.contentEquals(b);
+  }
+
+  private static void diffObjects(
+      ConfigPath path, JsonObject a, JsonObject b, List<Operation> ops) {
+    for (Map.Entry<String, JsonElement> e : a.entrySet()) {
+      if (b.getMember(e.getKey()) == null) {
+        ops.add(Operation.remove(path.child(e.getKey())));
+      }
+    }
+    for (Map.Entry<String, JsonElement> e : b.entrySet()) {
+      JsonElement old = a.getMember(e.getKey());
+      if (old == null) {
+        ops.add(Operation.add(path.child(e.getKey()), e.getValue()));
+      } else {
+        diff(path.child(e.getKey()), old, e.getValue(), ops);
+      }
+    }
+  }
+
+  private static void diffArrays(
+      ConfigPath path, JsonArray a, JsonArray b, List<Operation> ops) {
+    // skip the common prefix and suffix, so inserting or removing one element is one operation
+    int start = 0;
+    while (start < a.size() && start < b.size() && same(a.get(start), b.get(start))) {
+      start++;
+    }
+    int endA = a.size();
+    int endB = b.size();
+    while (endA > start && endB > start && same(a.get(endA - 1), b.get(endB - 1))) {
+      endA--;
+      endB--;
+    }
+    int common = Math.min(endA, endB) - start;
+    for (int i = start; i < start + common; i++) {
+      diff(path.child(i), a.get(i), b.get(i), ops);
+    }
+    // removing from the back keeps the indices of the remaining elements valid
+    for (int i = endA - 1; i >= start + common; i--) {
+      ops.add(Operation.remove(path.child(i)));
+    }
+    for (int i = start + common; i < endB; i++) {
+      ops.add(Operation.add(path.child(i), b.get(i)));
+    }
+  }
+
+  private static boolean same(JsonElement a, JsonElement b) {
+    return a == b || a.contentEquals(b);
+  }
+
+  public List<Operation> getOperations() {
+    return operations;
+  }
+
+  public boolean isEmpty() {
+    return operations.isEmpty();
+  }
+
+  /**
+   * Applies this patch to the given configuration through its set and remove methods. Like RFC
+   * 6902 requires, the patch is applied completely or not at all: if an operation fails, the
+   * operations before it are undone and a {@link PatchException} is thrown.
+   */
+  public void applyTo(ConfigurationBase config) {
+    Applier applier = new Applier(config);
+    for (int i = 0; i < operations.size(); i++) {
+      try {
+        applier.apply(operations.get(i));
+      } catch (RuntimeException e) {
+        applier.undo();
+        if (e instanceof PatchException) {
+          throw new PatchException(e.getMessage() + " (operation " + i + ")", e);
+        }
+        throw new PatchException("Could not apply operation " + i + ": " + e.getMessage(), e);
+      }
+    }
+  }
+
+  public JsonArray toJson() {
+    JsonArray arr = new JsonArray();
+    for (Operation op : operations) {
+      arr.add((JsonElement) op.toJson());
+    }
+    return arr;
+  }
+
+  @Override
+  public String toString() {
+    return toJson().toString();
+  }
+
+  /** Applies operations to a configuration and remembers how to revert them. */
+  private static final class Applier {
+    private final ConfigurationBase config;
+    private final Deque<Runnable> undo = new ArrayDeque<>();
+
+    Applier(ConfigurationBase config) {
+      this.config = config;
+    }
+
+    void apply(Operation op) {
+      switch (op.getOp()) {
+        case ADD -> add(op.getPath(), copy(op.getValue()));
+        case REMOVE -> remove(op.getPath());
+        case REPLACE -> {
+          require(op.getPath());
+          set(op.getPath(), copy(op.getValue()));
+        }
+        case MOVE -> {
+          if (op.getFrom().equals(op.getPath())) {
+            return;
+          }
+          if (op.getPath().startsWith(op.getFrom())) {
+            throw new PatchException(
+                "Cannot move '" + op.getFrom().toPointer() + "' into one of its children");
+          }
+          JsonElement value = require(op.getFrom());
+          remove(op.getFrom());
+          add(op.getPath(), value);
+        }
+        case COPY -> add(op.getPath(), copy(require(op.getFrom())));
+        case TEST -> {
+          if (!require(op.getPath()).contentEquals(op.getValue())) {
+            throw new PatchException("Test failed at '" + op.getPath().toPointer() + "'");
+          }
+        }
+      }
+    }
+
+    private JsonElement require(ConfigPath path) {
+      JsonElement el = config.getOrDefault(path, null);
+      if (el == null) {
+        throw new PatchException("No value at '" + path.toPointer() + "'");
+      }
+      return el;
+    }
+
+    private void add(ConfigPath path, JsonElement value) {
+      if (path.isRoot()) {
+        set(path, value);
+        return;
+      }
+      JsonElement parent = config.getOrDefault(path.parent(), null);
+      if (parent instanceof JsonObject) {
+        set(path, value);
+      } else if (parent instanceof JsonArray arr) {
+        String last = path.last();
+        int idx = last.equals("-") ? arr.size() : path.index(path.size() - 1);
+        if (idx < 0 || idx > arr.size()) {
+          throw new PatchException("Invalid array index at '" + path.toPointer() + "'");
+        }
+        // set() replaces elements, so inserting means setting a copy of the array
+        set(path.parent(), inserted(arr, idx, value));
+      } else {
+        throw new PatchException("No object or array to add to at '" + path.toPointer() + "'");
+      }
+    }
+
+    private void set(ConfigPath path, JsonElement value) {
+      JsonElement old = config.getOrDefault(path, null);
+      config.set(path, value);
+      undo.push(() -> {
+        if (old == null) {
+          config.remove(path);
+        } else {
+          config.set(path, old);
+        }
+      });
+    }
+
+    private void remove(ConfigPath path) {
+      if (path.isRoot()) {
+        throw new PatchException("Cannot remove the root");
+      }
+      JsonElement old = require(path);
+      ConfigPath parentPath = path.parent();
+      boolean inArray = config.getOrDefault(parentPath, null) instanceof JsonArray;
+      config.remove(path);
+      undo.push(() -> {
+        if (inArray) {
+          JsonArray arr = (JsonArray) config.get(parentPath);
+          config.set(parentPath, inserted(arr, path.index(path.size() - 1), old));
+        } else {
+          config.set(path, old);
+        }
+      });
+    }
+
+    void undo() {
+      while (!undo.isEmpty()) {
+        undo.pop().run();
+      }
+    }
+  }
+
+  private static JsonArray inserted(JsonArray arr, int idx, JsonElement value) {
+    JsonArray copy = new JsonArray();
+    for (int i = 0; i < arr.size(); i++) {
+      if (i == idx) {
+        copy.add(value);
+      }
+      copy.add(arr.get(i));
+    }
+    if (idx == arr.size()) {
+      copy.add(value);
+    }
+    return copy;
+  }
+
+  /**
+   * Returns a mutable copy of the value, so that values of the patch, or values copied within the
+   * configuration, are never shared between two places of a mutable tree.
+   */
+  static JsonElement copy(JsonElement el) {
+    if (el instanceof JsonObject obj) {
+      JsonObject copy = new JsonObject();
+      for (Map.Entry<String, JsonElement> e : obj.entrySet()) {
+        copy.putMember(e.getKey(), copy(e.getValue()));
+      }
+      return copy;
+    } else if (el instanceof JsonArray arr) {
+      JsonArray copy = new JsonArray();
+      for (int i = 0; i < arr.size(); i++) {
+        copy.add(copy(arr.get(i)));
+      }
+      return copy;
+    }
+    return el;
+  }
+
+  /** One operation of a patch. Values are frozen, so a patch can be applied any number of times. */
+  public static final class Operation {
+    /** The operations defined by RFC 6902. */
+    public enum Op {
+      ADD,
+      REMOVE,
+      REPLACE,
+      MOVE,
+      COPY,
+      TEST;
+
+      String jsonName() {
+        return name().toLowerCase(Locale.ROOT);
+      }
+    }
+
+    private final Op op;
+    private final ConfigPath path;
+    private final ConfigPath from;
+    private final JsonElement value;
+
+    private Operation(Op op, ConfigPath path, ConfigPath from, JsonElement value) {
+      this.op = op;
+      this.path = path;
+      this.from = from;
+      this.value = value == null ? null : value.freeze();
+    }
+
+    public static Operation add(ConfigPath path, JsonElement value) {
+      return new Operation(Op.ADD, path, null, value);
+    }
+
+    public static Operation remove(ConfigPath path) {
+      return new Operation(Op.REMOVE, path, null, null);
+    }
+
+    public static Operation replace(ConfigPath path, JsonElement value) {
+      return new Operation(Op.REPLACE, path, null, value);
+    }
+
+    public static Operation move(ConfigPath from, ConfigPath path) {
+      return new Operation(Op.MOVE, path, from, null);
+    }
+
+    public static Operation copy(ConfigPath from, ConfigPath path) {
+      return new Operation(Op.COPY, path, from, null);
+    }
+
+    public static Operation test(ConfigPath path, JsonElement value) {
+      return new Operation(Op.TEST, path, null, value);
+    }
+
+    static Operation fromJson(JsonObject json, int index) {
+      String name = string(json, "op", index);
+      Op op = null;
+      for (Op candidate : Op.values()) {
+        if (candidate.jsonName().equals(name)) {
+          op = candidate;
+        }
+      }
+      if (op == null) {
+        throw new IllegalArgumentException(
+            "Unknown patch operation '" + name + "' at index " + index);
+      }
+      ConfigPath path = ConfigPath.fromPointer(string(json, "path", index));
+      ConfigPath from =
+          op == Op.MOVE || op == Op.COPY
+              ? ConfigPath.fromPointer(string(json, "from", index))
+              : null;
+      JsonElement value = json.getMember("value");
+      if (value == null && (op == Op.ADD || op == Op.REPLACE || op == Op.TEST)) {
+        throw new IllegalArgumentException("Missing 'value' at index " + index);
+      }
+      return new Operation(op, path, from, op == Op.REMOVE ? null : value);
+    }
+
+    private static String string(JsonObject json, String name, int index) {
+      if (!(json.getMember(name) instanceof JsonPrimitive p) || !p.isString()) {
+        throw new IllegalArgumentException("Missing '" + name + "' at index " + index);
+      }
+      return p.getAsString();
+    }
+
+    public Op getOp() {
+      return op;
+    }
+
+    public ConfigPath getPath() {
+      return path;
+    }
+
+    /** The source path of a move or copy, otherwise null. */
+    public ConfigPath getFrom() {
+      return from;
+    }
+
+    /** The value of an add, replace or test, otherwise null. */
+    public JsonElement getValue() {
+      return value;
+    }
+
+    public JsonObject toJson() {
+      JsonObject obj = new JsonObject();
+      obj.putMember("op", JsonPrimitive.of(op.jsonName()));
+      if (from != null) {
+        obj.putMember("from", JsonPrimitive.of(from.toPointer()));
+      }
+      obj.putMember("path", JsonPrimitive.of(path.toPointer()));
+      if (value != null) {
+        obj.putMember("value", value);
+      }
+      return obj;
+    }
+
+    @Override
+    public String toString() {
+      return toJson().toString();
+    }
+  }
+}
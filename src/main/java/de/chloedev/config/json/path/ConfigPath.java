@@ -0,0 +1,274 @@
+package de.chloedev.config.json.path;
+
+import java.util.Arrays;
+
+/**
+ * An immutable, pre-split path into a JSON tree, such as {@code "db/pool/size"}.
+ *
+ * <p>Segments are separated by {@code '/'}. Like in a JSON Pointer (RFC 6901), a {@code '/'}
+ * inside a key is written as {@code "~1"} and a {@code '~'} as {@code "~0"}, so every key can be
+ * addressed. Segments that are valid array indices are parsed once, up front.
+ *
+ * <p>Paths are meant to be created once and reused. The String-based methods of the library go
+ * through {@link #of(String)}, which keeps recently used paths in a small bounded cache.
+ */
+public final class ConfigPath {
+  public static final ConfigPath ROOT = new ConfigPath("", new String[0], new int[0]);
+
+  private static final int CACHE_SIZE = 1024;
+  private static final ConfigPath[] CACHE = new ConfigPath[CACHE_SIZE];
+
+  private final String text;
+  private final String[] segments;
+  private final int[] indices;
+  /** The hash of the segments, computed when first needed; 0 until then. */
+  private int hash;
+
+  private ConfigPath(String text, String[] segments, int[] indices) {
+    this.text = text;
+    this.segments = segments;
+    this.indices = indices;
+  }
+
+  /**
+   * Returns the path for the given String, reusing a cached instance if there is one. {@code null}
+   * and the empty String denote the root.
+   */
+  public static ConfigPath of(String path) {
+    if (path == null || path.isEmpty()) {
+      return ROOT;
+    }
+    // a direct-mapped cache: racing writers may overwrite each other, which only costs a re-parse
+    int slot = path.hashCode() & (CACHE_SIZE - 1);
+    ConfigPath cached = CACHE[slot];
+    if (cached != null && cached.text.equals(path)) {
+      return cached;
+    }
+    ConfigPath parsed = parse(path);
+    CACHE[slot] = parsed;
+    return parsed;
+  }
+
+  /** Parses the given String without consulting the cache. */
+  public static ConfigPath parse(String path) {
+    if (path == null || path.isEmpty()) {
+      return ROOT;
+    }
+    int count = 1;
+    for (int i = 0; i < path.length(); i++) {
+      if (path.charAt(i) == '/') {
+        count++;
+      }
+    }
+    String[] segments = new String[count];
+    int n = 0;
+    int start = 0;
+    for (int i = 0; i <= path.length(); i++) {
+      if (i == path.length() || path.charAt(i) == '/') {
+        segments[n++] = unescape(path.substring(start, i));
+        start = i + 1;
+      }
+    }
+    // like String.split, trailing empty segments are dropped
+    while (n > 0 && segments[n - 1].isEmpty()) {
+      n--;
+    }
+    return create(path, Arrays.copyOf(segments, n));
+  }
+
+  /** Creates a path from raw keys; slashes inside them are part of the key. */
+  public static ConfigPath ofSegments(String... segments) {
+    String[] copy = segments.clone();
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < copy.length; i++) {
+      if (i > 0) {
+        sb.append('/');
+      }
+      sb.append(escape(copy[i]));
+    }
+    return create(sb.toString(), copy);
+  }
+
+  /** Parses an RFC 6901 JSON Pointer such as {@code "/db/pool/size"}. */
+  public static ConfigPath fromPointer(String pointer) {
+    if (pointer.isEmpty()) {
+      return ROOT;
+    }
+    if (pointer.charAt(0) != '/') {
+      throw new IllegalArgumentException("JSON Pointer must start with '/': " + pointer);
+    }
+    String[] raw = pointer.substring(1).split("/", -1);
+    for (int i = 0; i < raw.length; i++) {
+      raw[i] = unescape(raw[i]);
+    }
+    return ofSegments(raw);
+  }
+
+  private static ConfigPath create(String text, String[] segments) {
+    if (segments.length == 0) {
+      return ROOT;
+    }
+    int[] indices = new int[segments.length];
+    for (int i = 0; i < segments.length; i++) {
+      indices[i] = parseIndex(segments[i]);
+    }
+    return new ConfigPath(text, segments, indices);
+  }
+
+  private static int parseIndex(String s) {
+    int len = s.length();
+    if (len == 0 || len > 10) {
+      return -1;
+    }
+    long value = 0;
+    for (int i = 0; i < len; i++) {
+      char c = s.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value > Integer.MAX_VALUE ? -1 : (int) value;
+  }
+
+  /** Escapes a raw key for use as a path segment. */
+  public static String escape(String key) {
+    if (key.indexOf('~') < 0 && key.indexOf('/') < 0) {
+      return key;
+    }
+    return key.replace("~", "~0").replace("/", "~1");
+  }
+
+  /** Turns an escaped path segment back into the raw key. */
+  public static String unescape(String segment) {
+    if (segment.indexOf('~') < 0) {
+      return segment;
+    }
+    return segment.replace("~1", "/").replace("~0", "~");
+  }
+
+  public int size() {
+    return segments.length;
+  }
+
+  public boolean isRoot() {
+    return segments.length == 0;
+  }
+
+  /** Returns the raw key at the given position. */
+  public String segment(int i) {
+    return segments[i];
+  }
+
+  /** Returns the segment at the given position as an array index, or -1 if it is not one. */
+  public int index(int i) {
+    return indices[i];
+  }
+
+  /** Returns the raw key of the last segment. */
+  public String last() {
+    return segments[segments.length - 1];
+  }
+
+  public ConfigPath parent() {
+    if (segments.length <= 1) {
+      return ROOT;
+    }
+    return subPath(segments.length - 1);
+  }
+
+  /** Returns the path made of the first {@code length} segments. */
+  public ConfigPath subPath(int length) {
+    if (length == segments.length) {
+      return this;
+    }
+    return ofSegments(Arrays.copyOf(segments, length));
+  }
+
+  public ConfigPath child(String key) {
+    String[] s = Arrays.copyOf(segments, segments.length + 1);
+    s[segments.length] = key;
+    return create(segments.length == 0 ? escape(key) : text + "/" + escape(key), s);
+  }
+
+  public ConfigPath child(int index) {
+    return child(Integer.toString(index));
+  }
+
+  /**
+   * Returns whether a segment is a number spelled other than as a plain index, like {@code "01"},
+   * {@code "+1"} or {@code "-0"}. Configurations read such a segment as the index it parses to, so
+   * the path finds the same array element as the plain one, but does not equal it.
+   */
+  public boolean hasUnusualIndex() {
+    for (int i = 0; i < segments.length; i++) {
+      if (isUnusualIndex(i)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Returns whether the segment at the given position is an unusual index, as above. */
+  public boolean isUnusualIndex(int i) {
+    String s = segments[i];
+    if (indices[i] >= 0) {
+      return s.length() > 1 && s.charAt(0) == '0';
+    }
+    // anything else Integer.parseInt accepts: a sign, or more than ten digits
+    int start = !s.isEmpty() && (s.charAt(0) == '+' || s.charAt(0) == '-') ? 1 : 0;
+    if (start == s.length()) {
+      return false;
+    }
+    for (int k = start; k < s.length(); k++) {
+      if (s.charAt(k) < '0' || s.charAt(k) > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns whether this path equals {@code prefix} or lies beneath it. */
+  public boolean startsWith(ConfigPath prefix) {
+    if (prefix.segments.length > segments.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.segments.length; i++) {
+      if (!segments[i].equals(prefix.segments[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns this path as an RFC 6901 JSON Pointer, e.g. {@code "/db/pool/size"}. */
+  public String toPointer() {
+    // not from the text: "a/" has the single segment "a", which would gain an empty one
+    StringBuilder sb = new StringBuilder();
+    for (String segment : segments) {
+      sb.append('/').append(escape(segment));
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return this == o || (o instanceof ConfigPath other && Arrays.equals(segments, other.segments));
+  }
+
+  @Override
+  public int hashCode() {
+    int h = hash;
+    if (h == 0) {
+      h = Arrays.hashCode(segments);
+      hash = h;
+    }
+    return h;
+  }
+
+  /** Returns the escaped, slash-separated form that {@link #of(String)} accepts. */
+  @Override
+  public String toString() {
+    return text;
+  }
+}
@@ -0,0 +1,307 @@
+package de.chloedev.config.json.path;
+
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.stream.JsonReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compiled JSONPath query, such as {@code "$.services.*.port"} or {@code
+ * "$..servers[?(@.enabled == true)].host"}. Compile an expression once and use it on any number
+ * of trees, or directly on a {@link JsonReader}.
+ *
+ * <p>The supported subset: the root {@code $}, members {@code .name} and {@code ['name']}, the
+ * wildcards {@code .*} and {@code [*]}, array indices {@code [2]} and {@code [-1]}, slices {@code
+ * [start:end:step]}, recursive descent {@code ..name}, {@code ..*} and {@code ..[...]}, and
+ * filters {@code [?(...)]} over the children of a node. Filters compare relative paths like
+ * {@code @.a.b} or {@code @['a'][0]} with each other or with literals using {@code == != < <= >
+ * >=}, test for existence with a bare path, and combine with {@code && || !} and parentheses.
+ *
+ * <p>A query is evaluated as a set of states over a single pass through the tree, so every
+ * matching value is returned once, in document order, even if several routes lead to it. A slice
+ * with a negative step selects the same elements as one with a positive step.
+ */
+public final class JsonPath {
+  /** The number of steps is limited by the bits of the state sets. */
+  private static final int MAX_STEPS = 63;
+
+  private static final int CACHE_SIZE = 256;
+  private static final JsonPath[] CACHE = new JsonPath[CACHE_SIZE];
+
+  private final String expression;
+  private final Step[] steps;
+  /** The state bit of a node that all steps matched. */
+  private final long matched;
+  /** The states whose step needs the container's size or its children as elements. */
+  private final long needsTree;
+
+  private JsonPath(String expression, Step[] steps) {
+    this.expression = expression;
+    this.steps = steps;
+    this.matched = 1L << steps.length;
+    long tree = 0;
+    for (int i = 0; i < steps.length; i++) {
+      if (steps[i].needsTree()) {
+        tree |= 1L << i;
+      }
+    }
+    this.needsTree = tree;
+  }
+
+  /**
+   * Compiles the given expression.
+   *
+   * @throws IllegalArgumentException if the expression is invalid; the message gives the position
+   */
+  public static JsonPath compile(String expression) {
+    Step[] steps = JsonPathParser.parse(expression);
+    if (steps.length > MAX_STEPS) {
+      throw new IllegalArgumentException(
+          "Invalid JSONPath '" + expression + "': more than " + MAX_STEPS + " steps");
+    }
+    return new JsonPath(expression, steps);
+  }
+
+  /** Returns the compiled expression, reusing a recently compiled instance if there is one. */
+  public static JsonPath of(String expression) {
+    // a direct-mapped cache like the one of ConfigPath
+    int slot = expression.hashCode() & (CACHE_SIZE - 1);
+    JsonPath cached = CACHE[slot];
+    if (cached != null && cached.expression.equals(expression)) {
+      return cached;
+    }
+    JsonPath compiled = compile(expression);
+    CACHE[slot] = compiled;
+    return compiled;
+  }
+
+  /** Returns the values in the tree that match, in document order. */
+  public List<JsonElement> select(JsonElement root) {
+    List<JsonElement> out = new ArrayList<>();
+    visit(root, 1L, out);
+    return out;
+  }
+
+  /**
+   * Returns the matching values of the next value in the reader, leaving it positioned after that
+   * value. Only the matches, and the children that a filter or a negative index has to look at, are
+   * built as elements; everything else is skipped token by token.
+   */
+  public List<JsonElement> select(JsonReader reader) throws IOException {
+    List<JsonElement> out = new ArrayList<>();
+    visit(reader, 1L, out);
+    return out;
+  }
+
+  private void visit(JsonElement node, long states, List<JsonElement> out) {
+    if ((states & matched) != 0) {
+      out.add(node);
+      states &= ~matched;
+    }
+    if (states == 0) {
+      return;
+    }
+    if (node instanceof JsonObject obj) {
+      for (Map.Entry<String, JsonElement> e : obj.entrySet()) {
+        long next = step(states, e.getKey(), -1, -1, e.getValue());
+        if (next != 0) {
+          visit(e.getValue(), next, out);
+        }
+      }
+    } else if (node instanceof JsonArray arr) {
+      for (int i = 0, n = arr.size(); i < n; i++) {
+        long next = step(states, null, i, n, arr.get(i));
+        if (next != 0) {
+          visit(arr.get(i), next, out);
+        }
+      }
+    }
+  }
+
+  private void visit(JsonReader reader, long states, List<JsonElement> out) throws IOException {
+    if (states == 0) {
+      reader.skipValue();
+      return;
+    }
+    if ((states & (matched | needsTree)) != 0) {
+      visit(JsonParser.parseValue(reader), states, out);
+      return;
+    }
+    switch (reader.peek()) {
+      case BEGIN_OBJECT -> {
+        reader.beginObject();
+        while (reader.hasNext()) {
+          String name = reader.nextName();
+          visit(reader, step(states, name, -1, -1, null), out);
+        }
+        reader.endObject();
+      }
+      case BEGIN_ARRAY -> {
+        reader.beginArray();
+        for (int i = 0; reader.hasNext(); i++) {
+          visit(reader, step(states, null, i, -1, null), out);
+        }
+        reader.endArray();
+      }
+      default -> reader.skipValue();
+    }
+  }
+
+  /**
+   * Returns the states of a child, given those of its container. A child of an object has a name;
+   * one of an array has an index, and the array's size if it is known.
+   */
+  private long step(long states, String name, int index, int size, JsonElement child) {
+    long next = 0;
+    for (long rest = states; rest != 0; rest &= rest - 1) {
+      int i = Long.numberOfTrailingZeros(rest);
+      Step s = steps[i];
+      if (s.descendant) {
+        next |= 1L << i;
+      }
+      if (s.selects(name, index, size, child)) {
+        next |= 1L << (i + 1);
+      }
+    }
+    return next;
+  }
+
+  /** Compares two values that may be missing, like a filter does. */
+  static boolean compare(String op, JsonElement a, JsonElement b) {
+    if (a == null || b == null) {
+      return op.equals("==") ? a == b : op.equals("!=") && a != b;
+    }
+    if (op.equals("==")) {
+      return a.contentEquals(b);
+    } else if (op.equals("!=")) {
+      return !a.contentEquals(b);
+    }
+    if (!(a instanceof JsonPrimitive p) || !(b instanceof JsonPrimitive q)) {
+      return false;
+    }
+    int cmp;
+    if (p.isNumber() && q.isNumber()) {
+      cmp = Double.compare(p.getAsDouble(), q.getAsDouble());
+    } else if (p.isString() && q.isString()) {
+      cmp = p.getAsString().compareTo(q.getAsString());
+    } else {
+      return false;
+    }
+    return switch (op) {
+      case "<" -> cmp < 0;
+      case "<=" -> cmp <= 0;
+      case ">" -> cmp > 0;
+      default -> cmp >= 0;
+    };
+  }
+
+  @Override
+  public String toString() {
+    return expression;
+  }
+
+  enum Kind {
+    NAME,
+    WILDCARD,
+    INDEX,
+    SLICE,
+    FILTER
+  }
+
+  /** One selector of the expression; {@code descendant} if it was preceded by {@code ..}. */
+  static final class Step {
+    final Kind kind;
+    final boolean descendant;
+    String name;
+    int index;
+    Integer start;
+    Integer end;
+    int step = 1;
+    Filter filter;
+
+    Step(Kind kind, boolean descendant) {
+      this.kind = kind;
+      this.descendant = descendant;
+    }
+
+    /** Whether this step cannot be decided from a child's name or index alone. */
+    boolean needsTree() {
+      return switch (kind) {
+        case INDEX -> index < 0;
+        case SLICE -> step < 0 || (start != null && start < 0) || (end != null && end < 0);
+        case FILTER -> true;
+        default -> false;
+      };
+    }
+
+    boolean selects(String member, int i, int size, JsonElement child) {
+      return switch (kind) {
+        case NAME -> member != null && member.equals(name);
+        case WILDCARD -> true;
+        case INDEX -> member == null && i == (index >= 0 ? index : size + index);
+        case SLICE -> member == null && inSlice(i, size);
+        case FILTER -> filter.test(child);
+      };
+    }
+
+    private boolean inSlice(int i, int size) {
+      if (step == 0) {
+        return false;
+      }
+      if (step > 0) {
+        int lo = start == null ? 0 : bound(start, size);
+        int hi = end == null ? Integer.MAX_VALUE : bound(end, size);
+        return i >= lo && i < hi && (i - lo) % step == 0;
+      }
+      // a negative step counts down from start to just above end
+      int hi = start == null ? size - 1 : clamp(start >= 0 ? start : size + start, size);
+      int lo = end == null ? -1 : clamp(end >= 0 ? end : size + end, size);
+      return i > lo && i <= hi && (hi - i) % -step == 0;
+    }
+
+    /** Resolves a negative bound against the size, which is known whenever one can occur. */
+    private static int bound(int b, int size) {
+      return b >= 0 ? b : Math.max(size + b, 0);
+    }
+
+    private static int clamp(int b, int size) {
+      return Math.max(-1, Math.min(b, size - 1));
+    }
+  }
+
+  /** A condition of a filter, tested on each child of the filtered node. */
+  @FunctionalInterface
+  interface Filter {
+    boolean test(JsonElement el);
+  }
+
+  /** A relative path such as {@code @.a[0]}, or a literal if {@code constant} is set. */
+  record Operand(Object[] segments, JsonElement constant) {
+    /** Returns the value of this operand for the given node, or null if the path leads nowhere. */
+    JsonElement resolve(JsonElement el) {
+      if (constant != null) {
+        return constant;
+      }
+      for (Object seg : segments) {
+        if (seg instanceof String name && el instanceof JsonObject obj) {
+          el = obj.getMember(name);
+        } else if (seg instanceof Integer idx && el instanceof JsonArray arr) {
+          int i = idx >= 0 ? idx : arr.size() + idx;
+          el = i >= 0 && i < arr.size() ? arr.get(i) : null;
+        } else {
+          return null;
+        }
+        if (el == null) {
+          return null;
+        }
+      }
+      return el;
+    }
+  }
+}
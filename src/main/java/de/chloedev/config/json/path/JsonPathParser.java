@@ -0,0 +1,331 @@
+package de.chloedev.config.json.path;
+
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.path.JsonPath.Filter;
+import de.chloedev.config.json.path.JsonPath.Kind;
+import de.chloedev.config.json.path.JsonPath.Operand;
+import de.chloedev.config.json.path.JsonPath.Step;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Compiles the expression syntax described at {@link JsonPath} into steps and filters. */
+final class JsonPathParser {
+  private final String s;
+  private int pos;
+
+  private JsonPathParser(String s) {
+    this.s = s;
+  }
+
+  static Step[] parse(String expression) {
+    return new JsonPathParser(expression).path();
+  }
+
+  private Step[] path() {
+    skipSpaces();
+    expect('$');
+    List<Step> steps = new ArrayList<>();
+    while (true) {
+      skipSpaces();
+      if (pos == s.length()) {
+        break;
+      }
+      if (s.startsWith("..", pos)) {
+        pos += 2;
+        steps.add(peek() == '[' ? bracket(true) : dotted(true));
+      } else if (peek() == '.') {
+        pos++;
+        steps.add(dotted(false));
+      } else if (peek() == '[') {
+        steps.add(bracket(false));
+      } else {
+        throw error("Expected '.' or '['");
+      }
+    }
+    return steps.toArray(new Step[0]);
+  }
+
+  /** A step after a dot: a name or a wildcard. */
+  private Step dotted(boolean descendant) {
+    if (peek() == '*') {
+      pos++;
+      return new Step(Kind.WILDCARD, descendant);
+    }
+    int start = pos;
+    while (pos < s.length() && s.charAt(pos) != '.' && s.charAt(pos) != '[') {
+      pos++;
+    }
+    String name = s.substring(start, pos).strip();
+    if (name.isEmpty()) {
+      pos = start;
+      throw error("Expected a name");
+    }
+    Step step = new Step(Kind.NAME, descendant);
+    step.name = name;
+    return step;
+  }
+
+  private Step bracket(boolean descendant) {
+    expect('[');
+    skipSpaces();
+    Step step;
+    char c = peek();
+    if (c == '*') {
+      pos++;
+      step = new Step(Kind.WILDCARD, descendant);
+    } else if (c == '\'' || c == '"') {
+      step = new Step(Kind.NAME, descendant);
+      step.name = quoted();
+    } else if (c == '?') {
+      pos++;
+      skipSpaces();
+      step = new Step(Kind.FILTER, descendant);
+      step.filter = or();
+    } else {
+      Integer start = optionalInt();
+      skipSpaces();
+      if (peek() != ':') {
+        if (start == null) {
+          throw error("Expected an index, a slice, a name, '*' or a filter");
+        }
+        step = new Step(Kind.INDEX, descendant);
+        step.index = start;
+      } else {
+        pos++;
+        step = new Step(Kind.SLICE, descendant);
+        step.start = start;
+        step.end = optionalInt();
+        skipSpaces();
+        if (peek() == ':') {
+          pos++;
+          Integer by = optionalInt();
+          step.step = by == null ? 1 : by;
+        }
+      }
+    }
+    skipSpaces();
+    expect(']');
+    return step;
+  }
+
+  private Integer optionalInt() {
+    skipSpaces();
+    int start = pos;
+    if (peek() == '-') {
+      pos++;
+    }
+    while (pos < s.length() && Character.isDigit(s.charAt(pos))) {
+      pos++;
+    }
+    if (pos == start) {
+      return null;
+    }
+    try {
+      return Integer.parseInt(s, start, pos, 10);
+    } catch (NumberFormatException e) {
+      pos = start;
+      throw error("Invalid index");
+    }
+  }
+
+  // filters: || binds weaker than &&, which binds weaker than !
+
+  private Filter or() {
+    Filter left = and();
+    while (startsWith("||")) {
+      pos += 2;
+      Filter a = left;
+      Filter b = and();
+      left = el -> a.test(el) || b.test(el);
+    }
+    return left;
+  }
+
+  private Filter and() {
+    Filter left = unary();
+    while (startsWith("&&")) {
+      pos += 2;
+      Filter a = left;
+      Filter b = unary();
+      left = el -> a.test(el) && b.test(el);
+    }
+    return left;
+  }
+
+  private Filter unary() {
+    skipSpaces();
+    if (peek() == '!' && !s.startsWith("!=", pos)) {
+      pos++;
+      Filter f = unary();
+      return el -> !f.test(el);
+    }
+    if (peek() == '(') {
+      pos++;
+      Filter f = or();
+      skipSpaces();
+      expect(')');
+      return f;
+    }
+    int start = pos;
+    Operand left = operand();
+    skipSpaces();
+    String op = null;
+    for (String candidate : new String[] {"==", "!=", "<=", ">=", "<", ">"}) {
+      if (s.startsWith(candidate, pos)) {
+        op = candidate;
+        break;
+      }
+    }
+    if (op == null) {
+      if (left.constant() != null) {
+        pos = start;
+        throw error("Expected a comparison");
+      }
+      return el -> left.resolve(el) != null;
+    }
+    pos += op.length();
+    skipSpaces();
+    Operand right = operand();
+    String o = op;
+    return el -> JsonPath.compare(o, left.resolve(el), right.resolve(el));
+  }
+
+  /** A relative path starting with {@code @}, or a literal. */
+  private Operand operand() {
+    char c = peek();
+    if (c == '@') {
+      pos++;
+      List<Object> segments = new ArrayList<>();
+      while (true) {
+        if (peek() == '.') {
+          pos++;
+          int start = pos;
+          while (pos < s.length() && isNameChar(s.charAt(pos))) {
+            pos++;
+          }
+          if (pos == start) {
+            throw error("Expected a name");
+          }
+          segments.add(s.substring(start, pos));
+        } else if (peek() == '[') {
+          pos++;
+          skipSpaces();
+          if (peek() == '\'' || peek() == '"') {
+            segments.add(quoted());
+          } else {
+            Integer idx = optionalInt();
+            if (idx == null) {
+              throw error("Expected an index or a name");
+            }
+            segments.add(idx);
+          }
+          skipSpaces();
+          expect(']');
+        } else {
+          break;
+        }
+      }
+      return new Operand(segments.toArray(), null);
+    }
+    JsonElement literal;
+    if (c == '\'' || c == '"') {
+      literal = JsonPrimitive.of(quoted());
+    } else if (s.startsWith("true", pos)) {
+      pos += 4;
+      literal = JsonPrimitive.of(true);
+    } else if (s.startsWith("false", pos)) {
+      pos += 5;
+      literal = JsonPrimitive.of(false);
+    } else if (s.startsWith("null", pos)) {
+      pos += 4;
+      literal = new JsonPrimitive((Object) null);
+    } else {
+      int start = pos;
+      while (pos < s.length() && "+-.0123456789eE".indexOf(s.charAt(pos)) >= 0) {
+        pos++;
+      }
+      try {
+        literal = JsonParser.parseNumber(s.substring(start, pos));
+      } catch (IllegalArgumentException e) {
+        pos = start;
+        throw error("Expected '@' or a literal");
+      }
+    }
+    return new Operand(null, literal);
+  }
+
+  private static boolean isNameChar(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '$' || c > 0x7F;
+  }
+
+  private String quoted() {
+    char quote = s.charAt(pos++);
+    StringBuilder sb = new StringBuilder();
+    while (true) {
+      if (pos >= s.length()) {
+        throw error("Unterminated string");
+      }
+      char c = s.charAt(pos++);
+      if (c == quote) {
+        return sb.toString();
+      }
+      if (c != '\\') {
+        sb.append(c);
+        continue;
+      }
+      if (pos >= s.length()) {
+        throw error("Unterminated string");
+      }
+      char e = s.charAt(pos++);
+      switch (e) {
+        case 'b' -> sb.append('\b');
+        case 'f' -> sb.append('\f');
+        case 'n' -> sb.append('\n');
+        case 'r' -> sb.append('\r');
+        case 't' -> sb.append('\t');
+        case 'u' -> {
+          if (pos + 4 > s.length()) {
+            throw error("Invalid escape");
+          }
+          try {
+            sb.append((char) Integer.parseInt(s, pos, pos + 4, 16));
+          } catch (NumberFormatException ex) {
+            throw error("Invalid escape");
+          }
+          pos += 4;
+        }
+        default -> sb.append(e);
+      }
+    }
+  }
+
+  private char peek() {
+    return pos < s.length() ? s.charAt(pos) : '\0';
+  }
+
+  private void expect(char c) {
+    if (peek() != c) {
+      throw error("Expected '" + c + "'");
+    }
+    pos++;
+  }
+
+  private void skipSpaces() {
+    while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+      pos++;
+    }
+  }
+
+  /** Skips spaces and tells whether the given token follows. */
+  private boolean startsWith(String token) {
+    skipSpaces();
+    return s.startsWith(token, pos);
+  }
+
+  private IllegalArgumentException error(String message) {
+    return new IllegalArgumentException(
+        "Invalid JSONPath '" + s + "': " + message + " at position " + pos);
+  }
+}
@@ -0,0 +1,281 @@
+package de.chloedev.config.json.snapshot;
+
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonPrimitive;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * A configuration tree in a compact binary encoding, read through a memory mapping.
+ *
+ * <p>Every value starts with a one-byte type tag. Integers are stored as zigzag varints and
+ * numbers that a double reproduces exactly as its eight raw bytes; strings and other numbers as a
+ * varint length and their bytes. Containers store their size as a varint followed by a table of
+ * offsets, one per child, so any child can be reached without reading its siblings. The offsets
+ * take 2 bytes in containers smaller than 64 KiB and 4 bytes otherwise. Object keys are stored
+ * once, in a dictionary at the end of the file, and referenced by their varint index.
+ *
+ * <p>{@link #root()} builds elements only for the parts of the tree that are read, like {@link
+ * de.chloedev.config.json.tape.TapeDocument}. The header records the size, modification time and
+ * CRC-32C of the JSON file the snapshot was made from, so a stale snapshot can be detected with
+ * {@link #isUpToDate(Path)}.
+ */
+public final class SnapshotDocument {
+  static final int MAGIC = 0x434A534E; // "CJSN"
+  static final int VERSION = 1;
+  static final int ROOT_OFFSET = 32;
+  private static final int HEADER_SIZE = ROOT_OFFSET + 8;
+
+  static final int NULL = 0;
+  static final int FALSE = 1;
+  static final int TRUE = 2;
+  static final int LONG = 3;
+  static final int DOUBLE = 4;
+  static final int NUMBER = 5;
+  static final int STRING = 6;
+  static final int OBJECT = 7;
+  static final int ARRAY = 8;
+  /** Set on the tag of containers whose offset table has 2-byte entries. */
+  static final int NARROW = 0x10;
+
+  private final ByteBuffer buf;
+  private final String[] names;
+  /**
+   * Maps keys to their dictionary index; built on the first lookup by key. Concurrent first lookups
+   * may each build one, which is harmless since they are equal and published whole.
+   */
+  private volatile Map<String, Integer> ids;
+
+  private SnapshotDocument(ByteBuffer buf) throws IOException {
+    this.buf = buf;
+    if (buf.limit() < HEADER_SIZE || buf.getInt(0) != MAGIC) {
+      throw new IOException("Not a configuration snapshot");
+    }
+    if (buf.getInt(4) != VERSION) {
+      throw new IOException("Unsupported snapshot version " + buf.getInt(4));
+    }
+    int dictionary = buf.getInt(ROOT_OFFSET + 4);
+    if (rootPosition() < HEADER_SIZE || dictionary < HEADER_SIZE || dictionary >= buf.limit()) {
+      throw new IOException("Corrupt configuration snapshot");
+    }
+    int[] pos = {dictionary};
+    this.names = new String[varint(pos)];
+    for (int i = 0; i < names.length; i++) {
+      int len = varint(pos);
+      names[i] = utf8(pos[0], len);
+      pos[0] += len;
+    }
+  }
+
+  /** Maps the given snapshot file; the mapping stays valid if the file is replaced later. */
+  public static SnapshotDocument open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("Snapshot larger than 2 GiB: " + file);
+      }
+      return new SnapshotDocument(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+    }
+  }
+
+  /** Reads a snapshot from memory, e.g. one that was not stored in a file. */
+  public static SnapshotDocument of(byte[] bytes) throws IOException {
+    return new SnapshotDocument(ByteBuffer.wrap(bytes));
+  }
+
+  /** Encodes the tree without information about a source file. */
+  public static byte[] encode(JsonElement root) {
+    return SnapshotWriter.encode(root, -1, 0, 0);
+  }
+
+  /**
+   * Writes a snapshot of the tree to the given file, replacing it atomically so that processes
+   * reading the old snapshot are not disturbed.
+   *
+   * @param source the JSON file the tree was loaded from, or null
+   */
+  public static void write(JsonElement root, Path file, Path source) throws IOException {
+    byte[] bytes =
+        source == null
+            ? encode(root)
+            : SnapshotWriter.encode(
+                root,
+                Files.size(source),
+                Files.getLastModifiedTime(source).toMillis(),
+                hash(source));
+    Path dir = file.toAbsolutePath().getParent();
+    Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+    try {
+      Files.write(tmp, bytes);
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  /**
+   * Returns whether this snapshot was made from the current contents of the given file. Size and
+   * modification time are checked first; the file is only hashed if its size matches but it was
+   * touched since.
+   */
+  public boolean isUpToDate(Path source) throws IOException {
+    long size = buf.getLong(8);
+    if (size < 0 || Files.size(source) != size) {
+      return false;
+    }
+    if (Files.getLastModifiedTime(source).toMillis() == buf.getLong(16)) {
+      return true;
+    }
+    return hash(source) == buf.getLong(24);
+  }
+
+  private static long hash(Path file) throws IOException {
+    CRC32C crc = new CRC32C();
+    byte[] chunk = new byte[65536];
+    try (InputStream in = Files.newInputStream(file)) {
+      for (int n; (n = in.read(chunk)) > 0; ) {
+        crc.update(chunk, 0, n);
+      }
+    }
+    return crc.getValue();
+  }
+
+  /** Returns the root of the tree, building nothing beyond the root itself. */
+  public JsonElement root() {
+    return element(rootPosition());
+  }
+
+  private int rootPosition() {
+    return buf.getInt(ROOT_OFFSET);
+  }
+
+  JsonElement element(int pos) {
+    return switch (buf.get(pos) & ~NARROW) {
+      case OBJECT -> new SnapshotJsonObject(this, pos);
+      case ARRAY -> new SnapshotJsonArray(this, pos);
+      case STRING -> JsonPrimitive.of(string(pos));
+      case LONG -> {
+        long zigzag = varlong(pos + 1);
+        yield JsonPrimitive.of((zigzag >>> 1) ^ -(zigzag & 1));
+      }
+      case DOUBLE -> JsonPrimitive.of(Double.longBitsToDouble(buf.getLong(pos + 1)));
+      case NUMBER -> JsonParser.parseNumber(string(pos));
+      case TRUE -> JsonPrimitive.of(true);
+      case FALSE -> JsonPrimitive.of(false);
+      case NULL -> new JsonPrimitive((Object) null);
+      default -> throw new IllegalStateException("Corrupt snapshot at position " + pos);
+    };
+  }
+
+  /** The number of children of the container at {@code pos}. */
+  int count(int pos) {
+    return varint(new int[] {pos + 1});
+  }
+
+  /** The position of the container's offset table. */
+  private int table(int pos) {
+    int p = pos + 1;
+    while ((buf.get(p) & 0x80) != 0) {
+      p++;
+    }
+    return p + 1;
+  }
+
+  /** The size of the entries in the offset table of the container at {@code pos}. */
+  private int width(int pos) {
+    return (buf.get(pos) & NARROW) != 0 ? 2 : 4;
+  }
+
+  /** The position of the {@code i}th child of the container at {@code pos}. */
+  int child(int pos, int i) {
+    return child(pos, table(pos), width(pos), i);
+  }
+
+  private int child(int pos, int table, int width, int i) {
+    return pos
+        + (width == 2 ? buf.getShort(table + 2 * i) & 0xFFFF : buf.getInt(table + 4 * i));
+  }
+
+  /** Returns the keys of the object at {@code pos}, in order. */
+  String[] keys(int pos) {
+    int count = count(pos);
+    String[] keys = new String[count];
+    int[] p = {table(pos) + width(pos) * count};
+    for (int i = 0; i < count; i++) {
+      keys[i] = names[varint(p)];
+    }
+    return keys;
+  }
+
+  /** Finds the position of the value of {@code key} in the object at {@code pos}, or -1. */
+  int find(int pos, String key) {
+    Map<String, Integer> m = ids;
+    if (m == null) {
+      m = new HashMap<>((int) (names.length / 0.75f) + 1);
+      for (int i = 0; i < names.length; i++) {
+        m.put(names[i], i);
+      }
+      ids = m;
+    }
+    Integer id = m.get(key);
+    if (id == null) {
+      return -1; // no object in the snapshot has this key
+    }
+    int count = count(pos);
+    int table = table(pos);
+    int width = width(pos);
+    int[] p = {table + width * count};
+    for (int i = 0; i < count; i++) {
+      if (varint(p) == id) {
+        return child(pos, table, width, i);
+      }
+    }
+    return -1;
+  }
+
+  private String string(int pos) {
+    int[] p = {pos + 1};
+    int len = varint(p);
+    return utf8(p[0], len);
+  }
+
+  private String utf8(int pos, int len) {
+    byte[] b = new byte[len];
+    buf.get(pos, b);
+    return new String(b, StandardCharsets.UTF_8);
+  }
+
+  private long varlong(int pos) {
+    long value = 0;
+    for (int shift = 0; ; shift += 7) {
+      byte b = buf.get(pos++);
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+  }
+
+  /** Reads the varint at {@code pos[0]} and advances it. */
+  private int varint(int[] pos) {
+    int value = 0;
+    for (int shift = 0; ; shift += 7) {
+      byte b = buf.get(pos[0]++);
+      value |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package de.chloedev.config.json.snapshot;
+
+import de.chloedev.config.json.element.JsonElement;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The elements of an array in a snapshot. Reads jump straight to the requested element through
+ * the offset table; the first mutation turns this level into a regular {@link ArrayList}. Like
+ * those of a regular array, the elements may be read from several threads at once.
+ */
+final class SnapshotElements extends AbstractList<JsonElement> implements RandomAccess {
+  private final SnapshotDocument doc;
+  private final int pos;
+  private final int size;
+  private final AtomicReferenceArray<JsonElement> cache;
+  private volatile ArrayList<JsonElement> elements;
+
+  SnapshotElements(SnapshotDocument doc, int pos) {
+    this.doc = doc;
+    this.pos = pos;
+    this.size = doc.count(pos);
+    this.cache = new AtomicReferenceArray<>(size);
+  }
+
+  private ArrayList<JsonElement> elements() {
+    if (elements == null) {
+      ArrayList<JsonElement> list = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        list.add(get(i));
+      }
+      elements = list;
+    }
+    return elements;
+  }
+
+  @Override
+  public JsonElement get(int i) {
+    ArrayList<JsonElement> list = elements;
+    if (list != null) {
+      return list.get(i);
+    }
+    Objects.checkIndex(i, size);
+    JsonElement e = cache.get(i);
+    if (e == null) {
+      e = doc.element(doc.child(pos, i));
+      // a concurrent reader may have built the element first; keep its instance
+      JsonElement first = cache.compareAndExchange(i, null, e);
+      if (first != null) {
+        e = first;
+      }
+    }
+    return e;
+  }
+
+  @Override
+  public int size() {
+    ArrayList<JsonElement> list = elements;
+    return list != null ? list.size() : size;
+  }
+
+  @Override
+  public JsonElement set(int i, JsonElement element) {
+    return elements().set(i, element);
+  }
+
+  @Override
+  public void add(int i, JsonElement element) {
+    elements().add(i, element);
+    modCount++;
+  }
+
+  @Override
+  public JsonElement remove(int i) {
+    modCount++;
+    return elements().remove(i);
+  }
+
+  @Override
+  public void clear() {
+    elements = new ArrayList<>();
+    modCount++;
+  }
+}
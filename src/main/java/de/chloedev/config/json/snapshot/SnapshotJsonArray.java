@@ -0,0 +1,10 @@
+package de.chloedev.config.json.snapshot;
+
+import de.chloedev.config.json.element.JsonArray;
+
+/** A {@link JsonArray} whose elements are read from a {@link SnapshotDocument} when needed. */
+final class SnapshotJsonArray extends JsonArray {
+  SnapshotJsonArray(SnapshotDocument doc, int pos) {
+    super(new SnapshotElements(doc, pos));
+  }
+}
@@ -0,0 +1,10 @@
+package de.chloedev.config.json.snapshot;
+
+import de.chloedev.config.json.element.JsonObject;
+
+/** A {@link JsonObject} whose members are read from a {@link SnapshotDocument} when needed. */
+final class SnapshotJsonObject extends JsonObject {
+  SnapshotJsonObject(SnapshotDocument doc, int pos) {
+    super(new SnapshotMembers(doc, pos));
+  }
+}
@@ -0,0 +1,42 @@
+package de.chloedev.config.json.snapshot;
+
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.LazyMembers;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * The members of an object in a snapshot. A lookup by key compares dictionary indices; positions
+ * are offsets in the snapshot.
+ */
+final class SnapshotMembers extends LazyMembers {
+  private final SnapshotDocument doc;
+  private final int pos;
+
+  SnapshotMembers(SnapshotDocument doc, int pos) {
+    this.doc = doc;
+    this.pos = pos;
+  }
+
+  @Override
+  protected int count() {
+    return doc.count(pos);
+  }
+
+  @Override
+  protected int find(String key) {
+    return doc.find(pos, key);
+  }
+
+  @Override
+  protected JsonElement element(int position) {
+    return doc.element(position);
+  }
+
+  @Override
+  protected void forEachMember(ObjIntConsumer<String> action) {
+    String[] keys = doc.keys(pos);
+    for (int i = 0; i < keys.length; i++) {
+      action.accept(keys[i], doc.child(pos, i));
+    }
+  }
+}
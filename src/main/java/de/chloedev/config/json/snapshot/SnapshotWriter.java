@@ -0,0 +1,208 @@
+package de.chloedev.config.json.snapshot;
+
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Encodes a tree in the format read by {@link SnapshotDocument}. */
+final class SnapshotWriter {
+  private final Map<String, Integer> ids = new HashMap<>();
+  private final List<String> names = new ArrayList<>();
+  private byte[] buf = new byte[4096];
+  private int size;
+
+  static byte[] encode(JsonElement root, long sourceSize, long sourceModified, long sourceHash) {
+    SnapshotWriter w = new SnapshotWriter();
+    w.writeInt(SnapshotDocument.MAGIC);
+    w.writeInt(SnapshotDocument.VERSION);
+    w.writeLong(sourceSize);
+    w.writeLong(sourceModified);
+    w.writeLong(sourceHash);
+    w.writeInt(0); // root offset
+    w.writeInt(0); // dictionary offset
+    int rootPosition = w.value(root);
+    int dictionary = w.size;
+    w.writeVarint(w.names.size());
+    for (String name : w.names) {
+      byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+      w.writeVarint(utf8.length);
+      w.writeBytes(utf8);
+    }
+    w.putInt(SnapshotDocument.ROOT_OFFSET, rootPosition);
+    w.putInt(SnapshotDocument.ROOT_OFFSET + 4, dictionary);
+    return Arrays.copyOf(w.buf, w.size);
+  }
+
+  /** Writes the value and returns its position. */
+  private int value(JsonElement el) {
+    int pos = size;
+    if (el instanceof JsonObject obj) {
+      writeByte(SnapshotDocument.OBJECT);
+      writeVarint(obj.size());
+      int table = reserve(4 * obj.size());
+      for (Map.Entry<String, JsonElement> e : obj.entrySet()) {
+        writeVarint(id(e.getKey()));
+      }
+      int i = 0;
+      for (Map.Entry<String, JsonElement> e : obj.entrySet()) {
+        putInt(table + 4 * i++, value(e.getValue()) - pos);
+      }
+      narrow(pos, table, obj.size());
+    } else if (el instanceof JsonArray arr) {
+      writeByte(SnapshotDocument.ARRAY);
+      writeVarint(arr.size());
+      int table = reserve(4 * arr.size());
+      for (int i = 0; i < arr.size(); i++) {
+        putInt(table + 4 * i, value(arr.get(i)) - pos);
+      }
+      narrow(pos, table, arr.size());
+    } else {
+      primitive((JsonPrimitive) el);
+    }
+    return pos;
+  }
+
+  /**
+   * Rewrites the offset table of a container that spans less than 64 KiB with 2-byte entries,
+   * which most containers do. Offsets are relative to their own container, so the bytes after the
+   * table can simply be moved.
+   */
+  private void narrow(int pos, int table, int count) {
+    int saved = 2 * count;
+    if (count == 0 || size - pos - saved > 0xFFFF) {
+      return;
+    }
+    for (int i = 0; i < count; i++) {
+      int offset = getInt(table + 4 * i) - saved;
+      buf[table + 2 * i] = (byte) (offset >>> 8);
+      buf[table + 2 * i + 1] = (byte) offset;
+    }
+    int rest = table + 4 * count;
+    System.arraycopy(buf, rest, buf, rest - saved, size - rest);
+    size -= saved;
+    buf[pos] = (byte) (buf[pos] | SnapshotDocument.NARROW);
+  }
+
+  private void primitive(JsonPrimitive p) {
+    if (p.isNull()) {
+      writeByte(SnapshotDocument.NULL);
+    } else if (p.isBoolean()) {
+      writeByte(p.getAsBoolean() ? SnapshotDocument.TRUE : SnapshotDocument.FALSE);
+    } else if (p.isString()) {
+      writeByte(SnapshotDocument.STRING);
+      byte[] utf8 = p.getAsString().getBytes(StandardCharsets.UTF_8);
+      writeVarint(utf8.length);
+      writeBytes(utf8);
+    } else {
+      number(p.getAsString());
+    }
+  }
+
+  /**
+   * Stores numbers whose text a long or double reproduces exactly in binary, and the literal
+   * otherwise, so that loading a snapshot never changes how a number is written back.
+   */
+  private void number(String literal) {
+    try {
+      long l = Long.parseLong(literal);
+      if (Long.toString(l).equals(literal)) {
+        writeByte(SnapshotDocument.LONG);
+        // zigzag, so that small negative numbers stay short as well
+        writeVarint((l << 1) ^ (l >> 63));
+        return;
+      }
+    } catch (NumberFormatException ignored) {
+      // not an integer in long range
+    }
+    try {
+      double d = Double.parseDouble(literal);
+      if (Double.toString(d).equals(literal)) {
+        writeByte(SnapshotDocument.DOUBLE);
+        writeLong(Double.doubleToRawLongBits(d));
+        return;
+      }
+    } catch (NumberFormatException ignored) {
+      // not a plain decimal
+    }
+    writeByte(SnapshotDocument.NUMBER);
+    byte[] ascii = literal.getBytes(StandardCharsets.ISO_8859_1);
+    writeVarint(ascii.length);
+    writeBytes(ascii);
+  }
+
+  private int id(String name) {
+    Integer id = ids.get(name);
+    if (id == null) {
+      id = names.size();
+      ids.put(name, id);
+      names.add(name);
+    }
+    return id;
+  }
+
+  private void ensure(int more) {
+    if (more > Integer.MAX_VALUE - 8 - size) {
+      throw new IllegalArgumentException("Snapshot would exceed 2 GiB");
+    }
+    if (size + more > buf.length) {
+      long grown = Math.max((long) buf.length * 2, (long) size + more);
+      buf = Arrays.copyOf(buf, (int) Math.min(grown, Integer.MAX_VALUE - 8));
+    }
+  }
+
+  private int reserve(int n) {
+    ensure(n);
+    int pos = size;
+    size += n;
+    return pos;
+  }
+
+  private void writeByte(int b) {
+    ensure(1);
+    buf[size++] = (byte) b;
+  }
+
+  private void writeBytes(byte[] b) {
+    ensure(b.length);
+    System.arraycopy(b, 0, buf, size, b.length);
+    size += b.length;
+  }
+
+  private void writeVarint(long v) {
+    while ((v & ~0x7FL) != 0) {
+      writeByte((int) (v & 0x7F) | 0x80);
+      v >>>= 7;
+    }
+    writeByte((int) v);
+  }
+
+  private void writeInt(int v) {
+    putInt(reserve(4), v);
+  }
+
+  private void writeLong(long v) {
+    writeInt((int) (v >>> 32));
+    writeInt((int) v);
+  }
+
+  private int getInt(int pos) {
+    return (buf[pos] & 0xFF) << 24
+        | (buf[pos + 1] & 0xFF) << 16
+        | (buf[pos + 2] & 0xFF) << 8
+        | (buf[pos + 3] & 0xFF);
+  }
+
+  private void putInt(int pos, int v) {
+    buf[pos] = (byte) (v >>> 24);
+    buf[pos + 1] = (byte) (v >>> 16);
+    buf[pos + 2] = (byte) (v >>> 8);
+    buf[pos + 3] = (byte) v;
+  }
+}
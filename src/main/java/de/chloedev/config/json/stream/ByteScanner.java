@@ -0,0 +1,76 @@
+package de.chloedev.config.json.stream;
+
+/**
+ * Finds the bytes the UTF-8 tokenizers stop at, several bytes at a time.
+ *
+ * <p>{@link #get()} picks a backend once at startup: one built on the incubating {@code
+ * jdk.incubator.vector} module when the JVM was started with {@code --add-modules
+ * jdk.incubator.vector} and has vectors of at least 16 bytes, otherwise a scalar one that reads
+ * eight bytes per step (SWAR). Setting the system property {@value #FORCE_SCALAR_PROPERTY} to
+ * {@code true} always selects the scalar backend. Both produce the same results.
+ */
+public abstract class ByteScanner {
+  public static final String FORCE_SCALAR_PROPERTY = "de.chloedev.config.scanner.scalar";
+
+  private static final ByteScanner SCALAR = new SwarByteScanner();
+  private static final ByteScanner DEFAULT = select();
+
+  ByteScanner() {}
+
+  /** Returns the backend selected for this JVM. */
+  public static ByteScanner get() {
+    return DEFAULT;
+  }
+
+  /** Returns the scalar backend, regardless of what this JVM supports. */
+  public static ByteScanner scalar() {
+    return SCALAR;
+  }
+
+  private static ByteScanner select() {
+    if (Boolean.getBoolean(FORCE_SCALAR_PROPERTY)
+        || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+      return SCALAR;
+    }
+    try {
+      ByteScanner vector =
+          (ByteScanner)
+              Class.forName("de.chloedev.config.json.stream.VectorByteScanner")
+                  .getDeclaredConstructor()
+                  .newInstance();
+      // exercise it once, so a JVM that cannot run it falls back here rather than mid-parse
+      byte[] probe = "    \"a\\".repeat(8).getBytes();
+      if (vector.isUseful()
+          && vector.skipWhitespace(probe, 0, probe.length) == 4
+          && vector.findQuoteOrBackslash(probe, 5, probe.length) == 6) {
+        return vector;
+      }
+    } catch (ReflectiveOperationException | LinkageError | RuntimeException ignored) {
+      // not available, use the scalar backend
+    }
+    return SCALAR;
+  }
+
+  /** Returns a short name of this backend, for logs and benchmarks. */
+  public abstract String name();
+
+  boolean isUseful() {
+    return true;
+  }
+
+  /**
+   * Returns the index of the first byte in {@code [from, to)} that is not JSON whitespace, or
+   * {@code to} if there is none.
+   */
+  public abstract int skipWhitespace(byte[] b, int from, int to);
+
+  /**
+   * Returns the index of the first {@code '"'} or {@code '\\'} in {@code [from, to)}, or {@code
+   * to} if there is none.
+   */
+  public abstract int findQuoteOrBackslash(byte[] b, int from, int to);
+
+  static boolean isWhitespace(byte c) {
+    return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+  }
+}
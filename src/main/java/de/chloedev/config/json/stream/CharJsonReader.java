@@ -0,0 +1,231 @@
+package de.chloedev.config.json.stream;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/** A {@link JsonReader} over a character stream, read through a fixed-size window. */
+final class CharJsonReader extends JsonReader {
+  private static final int BUFFER_SIZE = 8192;
+
+  private final Reader in;
+  private final char[] buf = new char[BUFFER_SIZE];
+  private int pos = 0;
+  private int limit = 0;
+  /** Number of characters that were discarded from the front of the window. */
+  private long discarded = 0;
+
+  CharJsonReader(Reader in) {
+    this.in = in;
+  }
+
+  @Override
+  public long position() {
+    return discarded + pos;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  /** Makes sure at least {@code minimum} characters are buffered after {@code pos}. */
+  private boolean fill(int minimum) throws IOException {
+    if (pos > 0) {
+      discarded += pos;
+      limit -= pos;
+      System.arraycopy(buf, pos, buf, 0, limit);
+      pos = 0;
+    }
+    while (limit < minimum) {
+      int n = in.read(buf, limit, buf.length - limit);
+      if (n == -1) {
+        return false;
+      }
+      limit += n;
+    }
+    return true;
+  }
+
+  @Override
+  int nextNonWhitespace() throws IOException {
+    while (true) {
+      int p = pos;
+      int l = limit;
+      while (p < l) {
+        char c = buf[p];
+        if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+          pos = p;
+          return c;
+        }
+        p++;
+      }
+      pos = p;
+      if (!fill(1)) {
+        return -1;
+      }
+    }
+  }
+
+  @Override
+  void consume() {
+    pos++;
+  }
+
+  @Override
+  boolean consumeLiteral(String literal) throws IOException {
+    int n = literal.length();
+    if (limit - pos < n && !fill(n)) {
+      return false;
+    }
+    for (int i = 0; i < n; i++) {
+      if (buf[pos + i] != literal.charAt(i)) {
+        return false;
+      }
+    }
+    pos += n;
+    return true;
+  }
+
+  @Override
+  String readString(NameTable names) throws IOException {
+    StringBuilder sb = null;
+    while (true) {
+      int p = pos;
+      int l = limit;
+      int start = p;
+      while (p < l) {
+        char c = buf[p++];
+        if (c == '"') {
+          pos = p;
+          if (sb == null) {
+            return names != null
+                ? names.get(buf, start, p - start - 1)
+                : new String(buf, start, p - start - 1);
+          }
+          sb.append(buf, start, p - start - 1);
+          return names != null ? names.get(sb.toString()) : sb.toString();
+        } else if (c == '\\') {
+          if (sb == null) {
+            sb = new StringBuilder(Math.max(16, (p - start) * 2));
+          }
+          sb.append(buf, start, p - start - 1);
+          pos = p;
+          sb.append(readEscape());
+          p = pos;
+          l = limit;
+          start = p;
+        }
+      }
+      if (sb == null) {
+        sb = new StringBuilder(Math.max(16, (p - start) * 2));
+      }
+      sb.append(buf, start, p - start);
+      pos = p;
+      if (!fill(1)) {
+        throw syntaxError("Unterminated string");
+      }
+    }
+  }
+
+  @Override
+  void skipString() throws IOException {
+    while (true) {
+      int p = pos;
+      int l = limit;
+      while (p < l) {
+        char c = buf[p++];
+        if (c == '"') {
+          pos = p;
+          return;
+        } else if (c == '\\') {
+          pos = p;
+          readEscape();
+          p = pos;
+          l = limit;
+        }
+      }
+      pos = p;
+      if (!fill(1)) {
+        throw syntaxError("Unterminated string");
+      }
+    }
+  }
+
+  private char readEscape() throws IOException {
+    if (pos == limit && !fill(1)) {
+      throw syntaxError("Unterminated escape");
+    }
+    char esc = buf[pos++];
+    switch (esc) {
+      case '"':
+      case '\\':
+      case '/':
+        return esc;
+      case 'b':
+        return '\b';
+      case 'f':
+        return '\f';
+      case 'n':
+        return '\n';
+      case 'r':
+        return '\r';
+      case 't':
+        return '\t';
+      case 'u':
+        if (limit - pos < 4 && !fill(4)) {
+          throw syntaxError("Invalid \\u escape");
+        }
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+          int digit = Character.digit(buf[pos + i], 16);
+          if (digit < 0) {
+            throw syntaxError("Invalid \\u escape");
+          }
+          value = (value << 4) | digit;
+        }
+        pos += 4;
+        return (char) value;
+      default:
+        throw syntaxError("Invalid escape: \\" + esc);
+    }
+  }
+
+  @Override
+  String readNumber() throws IOException {
+    StringBuilder sb = null;
+    int start = pos;
+    while (true) {
+      if (pos == limit) {
+        if (sb == null) {
+          sb = new StringBuilder();
+        }
+        sb.append(buf, start, pos - start);
+        boolean more = fill(1);
+        start = pos; // fill moves the window
+        if (!more) {
+          break;
+        }
+      }
+      char c = buf[pos];
+      if ((c < '0' || c > '9') && c != '-' && c != '+' && c != '.' && c != 'e' && c != 'E') {
+        break;
+      }
+      pos++;
+    }
+    String literal;
+    if (sb == null) {
+      literal = new String(buf, start, pos - start);
+    } else {
+      literal = sb.append(buf, start, pos - start).toString();
+    }
+    if (!isValidNumber(literal)) {
+      throw syntaxError("Invalid number '" + literal + "'");
+    }
+    return literal;
+  }
+
+  @Override
+  void skipNumber() throws IOException {
+    readNumber();
+  }
+}
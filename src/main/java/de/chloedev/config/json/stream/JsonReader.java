@@ -0,0 +1,423 @@
+package de.chloedev.config.json.stream;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A pull parser that reads a JSON document one token at a time.
+ *
+ * <p>Input is consumed through a bounded buffer, so the memory needed to read a document depends
+ * on its nesting depth and the length of its longest string, not on its total size. Syntax errors
+ * are reported as {@link IllegalArgumentException}s carrying the offending position, the same way
+ * {@link de.chloedev.config.json.JsonParser} reports them.
+ *
+ * <pre>{@code
+ * try (JsonReader reader = JsonReader.of(Files.newInputStream(path))) {
+ *   reader.beginObject();
+ *   while (reader.hasNext()) {
+ *     String name = reader.nextName();
+ *     if (name.equals("port")) {
+ *       port = reader.nextInt();
+ *     } else {
+ *       reader.skipValue();
+ *     }
+ *   }
+ *   reader.endObject();
+ * }
+ * }</pre>
+ */
+public abstract class JsonReader implements Closeable {
+  private static final int EMPTY_DOCUMENT = 0;
+  private static final int NONEMPTY_DOCUMENT = 1;
+  private static final int EMPTY_OBJECT = 2;
+  private static final int DANGLING_NAME = 3;
+  private static final int NONEMPTY_OBJECT = 4;
+  private static final int EMPTY_ARRAY = 5;
+  private static final int NONEMPTY_ARRAY = 6;
+
+  private int[] stack = new int[32];
+  private int stackSize = 1;
+  private JsonToken peeked;
+  private boolean peekedBoolean;
+  private NameTable names;
+
+  JsonReader() {
+    stack[0] = EMPTY_DOCUMENT;
+  }
+
+  public static JsonReader of(Reader reader) {
+    return new CharJsonReader(reader);
+  }
+
+  public static JsonReader of(String json) {
+    return new CharJsonReader(new StringReader(json));
+  }
+
+  /** Reads UTF-8 encoded JSON from the given stream, tokenizing the raw bytes. */
+  public static JsonReader of(InputStream in) {
+    return Utf8JsonReader.fromStream(in);
+  }
+
+  /** Reads UTF-8 encoded JSON from the given channel, tokenizing the raw bytes. */
+  public static JsonReader of(ReadableByteChannel channel) {
+    return Utf8JsonReader.fromChannel(channel);
+  }
+
+  /**
+   * Reads UTF-8 encoded JSON from the remaining bytes of the given buffer, e.g. a {@link
+   * java.nio.MappedByteBuffer}. The buffer's position is left untouched.
+   */
+  public static JsonReader of(ByteBuffer buffer) {
+    return Utf8JsonReader.fromBuffer(buffer);
+  }
+
+  /** Reads UTF-8 encoded JSON from the given array, which is used in place and never modified. */
+  public static JsonReader of(byte[] bytes, int offset, int length) {
+    Objects.checkFromIndexSize(offset, length, bytes.length);
+    return Utf8JsonReader.fromArray(bytes, offset, length);
+  }
+
+  /**
+   * Makes {@link #nextName()} return shared instances from the given table, or stops doing so if
+   * it is null.
+   */
+  public JsonReader setNameTable(NameTable names) {
+    this.names = names;
+    return this;
+  }
+
+  public NameTable getNameTable() {
+    return names;
+  }
+
+  /** Returns the type of the next token without consuming it. */
+  public JsonToken peek() throws IOException {
+    JsonToken p = peeked;
+    if (p == null) {
+      p = doPeek();
+    }
+    return p;
+  }
+
+  public void beginObject() throws IOException {
+    expect(JsonToken.BEGIN_OBJECT);
+    push(EMPTY_OBJECT);
+    peeked = null;
+  }
+
+  public void endObject() throws IOException {
+    expect(JsonToken.END_OBJECT);
+    stackSize--;
+    peeked = null;
+  }
+
+  public void beginArray() throws IOException {
+    expect(JsonToken.BEGIN_ARRAY);
+    push(EMPTY_ARRAY);
+    peeked = null;
+  }
+
+  public void endArray() throws IOException {
+    expect(JsonToken.END_ARRAY);
+    stackSize--;
+    peeked = null;
+  }
+
+  /** Returns whether the current object or array has another element. */
+  public boolean hasNext() throws IOException {
+    JsonToken p = peek();
+    return p != JsonToken.END_OBJECT && p != JsonToken.END_ARRAY && p != JsonToken.END_DOCUMENT;
+  }
+
+  public String nextName() throws IOException {
+    expect(JsonToken.NAME);
+    peeked = null;
+    return readString(names);
+  }
+
+  /** Returns the next string value. Numbers are returned in their literal form. */
+  public String nextString() throws IOException {
+    JsonToken p = peek();
+    if (p == JsonToken.STRING) {
+      peeked = null;
+      return readString(null);
+    }
+    if (p == JsonToken.NUMBER) {
+      peeked = null;
+      return readNumber();
+    }
+    throw unexpected("a string", p);
+  }
+
+  public boolean nextBoolean() throws IOException {
+    expect(JsonToken.BOOLEAN);
+    peeked = null;
+    return peekedBoolean;
+  }
+
+  public void nextNull() throws IOException {
+    expect(JsonToken.NULL);
+    peeked = null;
+  }
+
+  /** Returns the literal text of the next number without interpreting it. */
+  public String nextNumberLiteral() throws IOException {
+    expect(JsonToken.NUMBER);
+    peeked = null;
+    return readNumber();
+  }
+
+  public long nextLong() throws IOException {
+    String literal = nextNumberLiteral();
+    try {
+      return Long.parseLong(literal);
+    } catch (NumberFormatException ex) {
+      // e.g. "1e3" or "2.0"; a double would round values near the ends of the range
+      try {
+        return new BigDecimal(literal).longValueExact();
+      } catch (ArithmeticException notExact) {
+        throw new NumberFormatException("Expected a long but was " + literal);
+      }
+    }
+  }
+
+  public int nextInt() throws IOException {
+    long l = nextLong();
+    if ((int) l != l) {
+      throw new NumberFormatException("Expected an int but was " + l);
+    }
+    return (int) l;
+  }
+
+  public double nextDouble() throws IOException {
+    return Double.parseDouble(nextNumberLiteral());
+  }
+
+  /** Skips the next value, including all nested values if it is an object or array. */
+  public void skipValue() throws IOException {
+    int depth = 0;
+    do {
+      JsonToken p = peek();
+      peeked = null;
+      switch (p) {
+        case BEGIN_OBJECT -> {
+          push(EMPTY_OBJECT);
+          depth++;
+        }
+        case BEGIN_ARRAY -> {
+          push(EMPTY_ARRAY);
+          depth++;
+        }
+        case END_OBJECT, END_ARRAY -> {
+          stackSize--;
+          depth--;
+        }
+        case NAME, STRING -> skipString();
+        case NUMBER -> skipNumber();
+        case END_DOCUMENT -> throw syntaxError("Unexpected end of input");
+        default -> {}
+      }
+    } while (depth > 0);
+  }
+
+  /** Returns the current nesting depth; 0 outside of any object or array. */
+  public int depth() {
+    return stackSize - 1;
+  }
+
+  /**
+   * Returns the number of characters consumed so far, or the number of bytes for readers created
+   * over UTF-8 input.
+   */
+  public abstract long position();
+
+  private JsonToken doPeek() throws IOException {
+    int scope = stack[stackSize - 1];
+    int c;
+    switch (scope) {
+      case EMPTY_ARRAY -> {
+        stack[stackSize - 1] = NONEMPTY_ARRAY;
+        if (nextNonWhitespace() == ']') {
+          consume();
+          return peeked = JsonToken.END_ARRAY;
+        }
+      }
+      case NONEMPTY_ARRAY -> {
+        c = nextNonWhitespace();
+        consume();
+        if (c == ']') {
+          return peeked = JsonToken.END_ARRAY;
+        } else if (c != ',') {
+          throw syntaxError("Expected ',' or ']' in array");
+        }
+      }
+      case EMPTY_OBJECT, NONEMPTY_OBJECT -> {
+        stack[stackSize - 1] = DANGLING_NAME;
+        c = nextNonWhitespace();
+        if (scope == NONEMPTY_OBJECT) {
+          consume();
+          if (c == '}') {
+            return peeked = JsonToken.END_OBJECT;
+          } else if (c != ',') {
+            throw syntaxError("Expected ',' or '}' in object");
+          }
+          c = nextNonWhitespace();
+        } else if (c == '}') {
+          consume();
+          return peeked = JsonToken.END_OBJECT;
+        }
+        if (c != '"') {
+          throw syntaxError("Expected '\"'");
+        }
+        consume();
+        return peeked = JsonToken.NAME;
+      }
+      case DANGLING_NAME -> {
+        stack[stackSize - 1] = NONEMPTY_OBJECT;
+        if (nextNonWhitespace() != ':') {
+          throw syntaxError("Expected ':'");
+        }
+        consume();
+      }
+      case EMPTY_DOCUMENT -> stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+      default -> {
+        if (nextNonWhitespace() == -1) {
+          return peeked = JsonToken.END_DOCUMENT;
+        }
+        throw syntaxError("Unexpected trailing data");
+      }
+    }
+    return peeked = peekValue();
+  }
+
+  private JsonToken peekValue() throws IOException {
+    int c = nextNonWhitespace();
+    switch (c) {
+      case '{':
+        consume();
+        return JsonToken.BEGIN_OBJECT;
+      case '[':
+        consume();
+        return JsonToken.BEGIN_ARRAY;
+      case '"':
+        consume();
+        return JsonToken.STRING;
+      case 't':
+        expectLiteral("true");
+        peekedBoolean = true;
+        return JsonToken.BOOLEAN;
+      case 'f':
+        expectLiteral("false");
+        peekedBoolean = false;
+        return JsonToken.BOOLEAN;
+      case 'n':
+        expectLiteral("null");
+        return JsonToken.NULL;
+      case -1:
+        throw syntaxError("Unexpected end of input");
+      default:
+        if (c == '-' || (c >= '0' && c <= '9')) {
+          return JsonToken.NUMBER;
+        }
+        throw syntaxError("Unexpected character '" + (char) c + "'");
+    }
+  }
+
+  private void expectLiteral(String literal) throws IOException {
+    if (!consumeLiteral(literal)) {
+      throw syntaxError("Expected literal " + literal);
+    }
+  }
+
+  private void expect(JsonToken token) throws IOException {
+    JsonToken p = peek();
+    if (p != token) {
+      throw unexpected(token.name(), p);
+    }
+  }
+
+  private void push(int scope) {
+    if (stackSize == stack.length) {
+      stack = Arrays.copyOf(stack, stackSize * 2);
+    }
+    stack[stackSize++] = scope;
+  }
+
+  private IllegalArgumentException unexpected(String expected, JsonToken actual) {
+    return syntaxError("Expected " + expected + " but was " + actual);
+  }
+
+  IllegalArgumentException syntaxError(String msg) {
+    return new IllegalArgumentException(msg + " at position " + position());
+  }
+
+  /** Skips whitespace and returns the next character without consuming it, or -1 at the end. */
+  abstract int nextNonWhitespace() throws IOException;
+
+  /** Consumes the character last returned by {@link #nextNonWhitespace()}. */
+  abstract void consume();
+
+  /** Consumes the given literal if the input continues with it. */
+  abstract boolean consumeLiteral(String literal) throws IOException;
+
+  /**
+   * Reads the body of a string whose opening quote has been consumed.
+   *
+   * @param names the table to take the result from, or null
+   */
+  abstract String readString(NameTable names) throws IOException;
+
+  abstract void skipString() throws IOException;
+
+  /** Reads the number literal starting at the current position. */
+  abstract String readNumber() throws IOException;
+
+  abstract void skipNumber() throws IOException;
+
+  /** Checks a literal against the JSON number grammar. */
+  public static boolean isValidNumber(CharSequence s) {
+    int i = 0;
+    int n = s.length();
+    if (i < n && s.charAt(i) == '-') {
+      i++;
+    }
+    int digits = i;
+    while (i < n && s.charAt(i) >= '0' && s.charAt(i) <= '9') {
+      i++;
+    }
+    if (i == digits || (s.charAt(digits) == '0' && i - digits > 1)) {
+      return false;
+    }
+    if (i < n && s.charAt(i) == '.') {
+      digits = ++i;
+      while (i < n && s.charAt(i) >= '0' && s.charAt(i) <= '9') {
+        i++;
+      }
+      if (i == digits) {
+        return false;
+      }
+    }
+    if (i < n && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+      i++;
+      if (i < n && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+        i++;
+      }
+      digits = i;
+      while (i < n && s.charAt(i) >= '0' && s.charAt(i) <= '9') {
+        i++;
+      }
+      if (i == digits) {
+        return false;
+      }
+    }
+    return i == n;
+  }
+}
@@ -0,0 +1,15 @@
+package de.chloedev.config.json.stream;
+
+/** The kinds of tokens a {@link JsonReader} can report from {@link JsonReader#peek()}. */
+public enum JsonToken {
+  BEGIN_ARRAY,
+  END_ARRAY,
+  BEGIN_OBJECT,
+  END_OBJECT,
+  NAME,
+  STRING,
+  NUMBER,
+  BOOLEAN,
+  NULL,
+  END_DOCUMENT
+}
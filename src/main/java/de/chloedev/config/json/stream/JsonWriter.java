@@ -0,0 +1,447 @@
+package de.chloedev.config.json.stream;
+
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Writes JSON one token at a time into a fixed-size buffer that is flushed to a {@link Writer},
+ * a {@link StringBuilder}, or UTF-8 encoded to an {@link OutputStream} or {@link
+ * WritableByteChannel}. Whole trees can be written with {@link #write(JsonElement)}, which walks
+ * the tree once without building intermediate strings.
+ *
+ * <p>With an indent size of 0 the output is compact; otherwise it has the same layout as {@link
+ * JsonElement#toString(int)}.
+ */
+public final class JsonWriter implements Closeable, Flushable {
+  private static final int BUFFER_SIZE = 8192;
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private static final int EMPTY_DOCUMENT = 0;
+  private static final int NONEMPTY_DOCUMENT = 1;
+  private static final int EMPTY_OBJECT = 2;
+  private static final int DANGLING_NAME = 3;
+  private static final int NONEMPTY_OBJECT = 4;
+  private static final int EMPTY_ARRAY = 5;
+  private static final int NONEMPTY_ARRAY = 6;
+
+  private final Writer writer;
+  private final StringBuilder builder;
+  private final OutputStream out;
+  private final WritableByteChannel channel;
+  private final char[] buf = new char[BUFFER_SIZE];
+  private int count = 0;
+  private byte[] encoded;
+  private char pendingHighSurrogate;
+
+  private int indentSize = 0;
+  private char[] indent = new char[0];
+  private int[] stack = new int[32];
+  private int stackSize = 1;
+
+  private JsonWriter(
+      Writer writer, StringBuilder builder, OutputStream out, WritableByteChannel channel) {
+    this.writer = writer;
+    this.builder = builder;
+    this.out = out;
+    this.channel = channel;
+    this.stack[0] = EMPTY_DOCUMENT;
+  }
+
+  public static JsonWriter of(Writer writer) {
+    return new JsonWriter(writer, null, null, null);
+  }
+
+  public static JsonWriter of(StringBuilder builder) {
+    return new JsonWriter(null, builder, null, null);
+  }
+
+  /** Writes UTF-8 encoded JSON to the given stream. */
+  public static JsonWriter of(OutputStream out) {
+    return new JsonWriter(null, null, out, null);
+  }
+
+  /** Writes UTF-8 encoded JSON to the given channel. */
+  public static JsonWriter of(WritableByteChannel channel) {
+    return new JsonWriter(null, null, null, channel);
+  }
+
+  /** Serializes the given element into a String. */
+  public static String toString(JsonElement element, int indentSize) {
+    StringBuilder sb = new StringBuilder();
+    try (JsonWriter w = of(sb).setIndent(indentSize)) {
+      w.write(element);
+    } catch (IOException ex) {
+      // a StringBuilder never fails
+      throw new UncheckedIOException(ex);
+    }
+    return sb.toString();
+  }
+
+  /** Sets the number of spaces to indent each nesting level with; 0 writes compact output. */
+  public JsonWriter setIndent(int indentSize) {
+    this.indentSize = Math.max(0, indentSize);
+    return this;
+  }
+
+  public JsonWriter beginObject() throws IOException {
+    beforeValue();
+    return open(EMPTY_OBJECT, '{');
+  }
+
+  public JsonWriter endObject() throws IOException {
+    return close(EMPTY_OBJECT, NONEMPTY_OBJECT, '}');
+  }
+
+  public JsonWriter beginArray() throws IOException {
+    beforeValue();
+    return open(EMPTY_ARRAY, '[');
+  }
+
+  public JsonWriter endArray() throws IOException {
+    return close(EMPTY_ARRAY, NONEMPTY_ARRAY, ']');
+  }
+
+  public JsonWriter name(String name) throws IOException {
+    int scope = stack[stackSize - 1];
+    if (scope == NONEMPTY_OBJECT) {
+      write(',');
+    } else if (scope != EMPTY_OBJECT) {
+      throw new IllegalStateException("Names are only allowed inside objects");
+    }
+    newline(scope == NONEMPTY_OBJECT);
+    stack[stackSize - 1] = DANGLING_NAME;
+    writeQuoted(name);
+    write(':');
+    if (indentSize > 0) {
+      write(' ');
+    }
+    return this;
+  }
+
+  public JsonWriter value(String value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    beforeValue();
+    writeQuoted(value);
+    return this;
+  }
+
+  public JsonWriter value(long value) throws IOException {
+    beforeValue();
+    write(Long.toString(value));
+    return this;
+  }
+
+  /** Writes the number, or {@code null} if it is infinite or NaN, which JSON cannot represent. */
+  public JsonWriter value(double value) throws IOException {
+    if (!Double.isFinite(value)) {
+      return nullValue();
+    }
+    beforeValue();
+    write(Double.toString(value));
+    return this;
+  }
+
+  public JsonWriter value(boolean value) throws IOException {
+    beforeValue();
+    write(value ? "true" : "false");
+    return this;
+  }
+
+  /** Writes the number, or {@code null} if it is null, infinite or NaN. */
+  public JsonWriter value(Number value) throws IOException {
+    if (value == null
+        || (value instanceof Double || value instanceof Float)
+            && !Double.isFinite(value.doubleValue())) {
+      return nullValue();
+    }
+    beforeValue();
+    write(value.toString());
+    return this;
+  }
+
+  public JsonWriter nullValue() throws IOException {
+    beforeValue();
+    write("null");
+    return this;
+  }
+
+  /**
+   * Ends the top-level value just written with a line break, so that another one can follow, as
+   * in JSON Lines. The values should be written compact, or their own line breaks split them.
+   */
+  public JsonWriter endLine() throws IOException {
+    if (stackSize != 1 || stack[0] != NONEMPTY_DOCUMENT) {
+      throw new IllegalStateException("No complete top-level value to end");
+    }
+    write('\n');
+    stack[0] = EMPTY_DOCUMENT;
+    return this;
+  }
+
+  /** Writes the given element and everything nested inside it. */
+  public JsonWriter write(JsonElement element) throws IOException {
+    if (element instanceof JsonObject obj) {
+      beginObject();
+      for (Map.Entry<String, JsonElement> e : obj.entrySet()) {
+        name(e.getKey());
+        write(e.getValue());
+      }
+      endObject();
+    } else if (element instanceof JsonArray arr) {
+      beginArray();
+      for (int i = 0, n = arr.size(); i < n; i++) {
+        write(arr.get(i));
+      }
+      endArray();
+    } else if (element instanceof JsonPrimitive prim) {
+      if (prim.isNull()) {
+        nullValue();
+      } else if (prim.isString()) {
+        value(prim.getAsString());
+      } else if (prim.isNumber()) {
+        // toString renders the number without boxing it
+        beforeValue();
+        write(prim.toString());
+      } else {
+        value(prim.getAsBoolean().booleanValue());
+      }
+    } else {
+      nullValue();
+    }
+    return this;
+  }
+
+  private JsonWriter open(int scope, char bracket) throws IOException {
+    if (stackSize == stack.length) {
+      stack = Arrays.copyOf(stack, stackSize * 2);
+    }
+    stack[stackSize++] = scope;
+    write(bracket);
+    if (indentSize > 0) {
+      write('\n');
+    }
+    return this;
+  }
+
+  private JsonWriter close(int empty, int nonempty, char bracket) throws IOException {
+    int scope = stack[stackSize - 1];
+    if (scope != empty && scope != nonempty) {
+      throw new IllegalStateException("Nesting problem");
+    }
+    stackSize--;
+    if (indentSize > 0) {
+      if (scope == nonempty) {
+        write('\n');
+      }
+      writeIndent(stackSize - 1);
+    }
+    write(bracket);
+    return this;
+  }
+
+  private void beforeValue() throws IOException {
+    switch (stack[stackSize - 1]) {
+      case EMPTY_DOCUMENT -> stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+      case EMPTY_ARRAY -> {
+        stack[stackSize - 1] = NONEMPTY_ARRAY;
+        newline(false);
+      }
+      case NONEMPTY_ARRAY -> {
+        write(',');
+        newline(true);
+      }
+      case DANGLING_NAME -> stack[stackSize - 1] = NONEMPTY_OBJECT;
+      case NONEMPTY_DOCUMENT ->
+          throw new IllegalStateException("JSON must have only one top-level value");
+      default -> throw new IllegalStateException("Expected a name");
+    }
+  }
+
+  /**
+   * Indents the next member of the current container, unless the output is compact. The first
+   * member follows the newline written after the opening bracket.
+   */
+  private void newline(boolean separate) throws IOException {
+    if (indentSize > 0) {
+      if (separate) {
+        write('\n');
+      }
+      writeIndent(stackSize - 1);
+    }
+  }
+
+  private void writeIndent(int depth) throws IOException {
+    int n = depth * indentSize;
+    if (n > indent.length) {
+      indent = new char[Math.max(n, indent.length * 2)];
+      Arrays.fill(indent, ' ');
+    }
+    write(indent, n);
+  }
+
+  private void writeQuoted(String s) throws IOException {
+    write('"');
+    int start = 0;
+    int len = s.length();
+    for (int i = 0; i < len; i++) {
+      char c = s.charAt(i);
+      if (c >= 0x20 && c != '"' && c != '\\') {
+        continue;
+      }
+      write(s, start, i);
+      start = i + 1;
+      switch (c) {
+        case '"' -> write("\\\"");
+        case '\\' -> write("\\\\");
+        case '\b' -> write("\\b");
+        case '\f' -> write("\\f");
+        case '\n' -> write("\\n");
+        case '\r' -> write("\\r");
+        case '\t' -> write("\\t");
+        default -> {
+          write("\\u00");
+          write(HEX[c >> 4]);
+          write(HEX[c & 0xF]);
+        }
+      }
+    }
+    write(s, start, len);
+    write('"');
+  }
+
+  private void write(char c) throws IOException {
+    if (count == buf.length) {
+      flushBuffer();
+    }
+    buf[count++] = c;
+  }
+
+  private void write(String s) throws IOException {
+    write(s, 0, s.length());
+  }
+
+  private void write(String s, int start, int end) throws IOException {
+    while (start < end) {
+      if (count == buf.length) {
+        flushBuffer();
+      }
+      int n = Math.min(end - start, buf.length - count);
+      s.getChars(start, start + n, buf, count);
+      count += n;
+      start += n;
+    }
+  }
+
+  private void write(char[] chars, int len) throws IOException {
+    int off = 0;
+    while (off < len) {
+      if (count == buf.length) {
+        flushBuffer();
+      }
+      int n = Math.min(len - off, buf.length - count);
+      System.arraycopy(chars, off, buf, count, n);
+      count += n;
+      off += n;
+    }
+  }
+
+  private void flushBuffer() throws IOException {
+    if (writer != null) {
+      writer.write(buf, 0, count);
+    } else if (builder != null) {
+      builder.append(buf, 0, count);
+    } else {
+      int n = encodeUtf8();
+      if (out != null) {
+        out.write(encoded, 0, n);
+      } else {
+        ByteBuffer bb = ByteBuffer.wrap(encoded, 0, n);
+        while (bb.hasRemaining()) {
+          channel.write(bb);
+        }
+      }
+    }
+    count = 0;
+  }
+
+  /** Encodes the buffered chars into {@link #encoded}, carrying a split surrogate pair over. */
+  private int encodeUtf8() {
+    if (encoded == null) {
+      encoded = new byte[BUFFER_SIZE * 3 + 4];
+    }
+    byte[] b = encoded;
+    int n = 0;
+    for (int i = 0; i < count; i++) {
+      char c = buf[i];
+      if (pendingHighSurrogate != 0) {
+        char high = pendingHighSurrogate;
+        pendingHighSurrogate = 0;
+        if (Character.isLowSurrogate(c)) {
+          int cp = Character.toCodePoint(high, c);
+          b[n++] = (byte) (0xF0 | (cp >> 18));
+          b[n++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+          b[n++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+          b[n++] = (byte) (0x80 | (cp & 0x3F));
+          continue;
+        }
+        b[n++] = '?';
+      }
+      if (c < 0x80) {
+        b[n++] = (byte) c;
+      } else if (c < 0x800) {
+        b[n++] = (byte) (0xC0 | (c >> 6));
+        b[n++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c)) {
+        pendingHighSurrogate = c;
+      } else if (Character.isLowSurrogate(c)) {
+        b[n++] = '?';
+      } else {
+        b[n++] = (byte) (0xE0 | (c >> 12));
+        b[n++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        b[n++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+    return n;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    flushBuffer();
+    if (writer != null) {
+      writer.flush();
+    } else if (out != null) {
+      out.flush();
+    }
+  }
+
+  /** Flushes the buffered output and closes the underlying sink, if it is closeable. */
+  @Override
+  public void close() throws IOException {
+    if (pendingHighSurrogate != 0) {
+      pendingHighSurrogate = 0;
+      write('?');
+    }
+    flushBuffer();
+    if (writer != null) {
+      writer.close();
+    } else if (out != null) {
+      out.close();
+    } else if (channel != null) {
+      channel.close();
+    }
+  }
+}
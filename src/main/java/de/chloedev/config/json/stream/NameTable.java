@@ -0,0 +1,113 @@
+package de.chloedev.config.json.stream;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A bounded table that makes equal object keys share one {@code String} instance.
+ *
+ * <p>Documents that repeat the same keys many times, like arrays of similar objects, otherwise
+ * retain one copy of every key per occurrence. Keys are looked up by their source characters or
+ * bytes, so a key that is already in the table is returned without allocating anything. The table
+ * is direct-mapped: a colliding key replaces the previous entry, which bounds its size but never
+ * its correctness.
+ *
+ * <p>A table may be shared between readers, also across threads; concurrent writes only ever
+ * lose an entry.
+ */
+public final class NameTable {
+  /** Longer keys are rarely repeated and are not worth hashing. */
+  private static final int MAX_LENGTH = 64;
+
+  private final String[] entries;
+  private final int mask;
+
+  public NameTable() {
+    this(512);
+  }
+
+  /**
+   * @param capacity the number of slots, rounded up to a power of two
+   */
+  public NameTable(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+    this.entries = new String[Math.min(size, 1 << 30)];
+    this.mask = entries.length - 1;
+  }
+
+  /** Returns the shared instance of the given key. */
+  public String get(String key) {
+    int len = key.length();
+    if (len > MAX_LENGTH) {
+      return key;
+    }
+    int slot = slot(key.hashCode());
+    String cached = entries[slot];
+    if (key.equals(cached)) {
+      return cached;
+    }
+    entries[slot] = key;
+    return key;
+  }
+
+  /** Returns the shared instance of the key made of the given characters. */
+  public String get(char[] chars, int start, int len) {
+    if (len > MAX_LENGTH) {
+      return new String(chars, start, len);
+    }
+    int h = 0;
+    for (int i = start, end = start + len; i < end; i++) {
+      h = 31 * h + chars[i];
+    }
+    int slot = slot(h);
+    String cached = entries[slot];
+    if (cached != null && cached.length() == len) {
+      int i = 0;
+      while (i < len && cached.charAt(i) == chars[start + i]) {
+        i++;
+      }
+      if (i == len) {
+        return cached;
+      }
+    }
+    String key = new String(chars, start, len);
+    entries[slot] = key;
+    return key;
+  }
+
+  /** Returns the shared instance of the key encoded by the given UTF-8 bytes. */
+  public String get(byte[] bytes, int start, int len) {
+    if (len > MAX_LENGTH) {
+      return new String(bytes, start, len, StandardCharsets.UTF_8);
+    }
+    int h = 0;
+    for (int i = start, end = start + len; i < end; i++) {
+      byte b = bytes[i];
+      if (b < 0) {
+        // for ASCII the hash matches String.hashCode; anything else is decoded first
+        return get(new String(bytes, start, len, StandardCharsets.UTF_8));
+      }
+      h = 31 * h + b;
+    }
+    int slot = slot(h);
+    String cached = entries[slot];
+    if (cached != null && cached.length() == len) {
+      int i = 0;
+      while (i < len && cached.charAt(i) == bytes[start + i]) {
+        i++;
+      }
+      if (i == len) {
+        return cached;
+      }
+    }
+    String key = new String(bytes, start, len, StandardCharsets.ISO_8859_1);
+    entries[slot] = key;
+    return key;
+  }
+
+  private int slot(int hash) {
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+}
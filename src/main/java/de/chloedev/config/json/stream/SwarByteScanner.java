@@ -0,0 +1,58 @@
+package de.chloedev.config.json.stream;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/** Scans eight bytes at a time using arithmetic on {@code long} words. */
+final class SwarByteScanner extends ByteScanner {
+  private static final VarHandle LONG =
+      MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGHS = 0x8080808080808080L;
+  private static final long SPACES = ONES * ' ';
+  private static final long QUOTES = ONES * '"';
+  private static final long BACKSLASHES = ONES * '\\';
+
+  @Override
+  public String name() {
+    return "swar";
+  }
+
+  @Override
+  public int skipWhitespace(byte[] b, int from, int to) {
+    int i = from;
+    if (i < to && !isWhitespace(b[i])) {
+      return i;
+    }
+    // indentation is the only long whitespace run in practice, so only skip runs of spaces wide
+    while (i + 8 <= to && (long) LONG.get(b, i) == SPACES) {
+      i += 8;
+    }
+    while (i < to && isWhitespace(b[i])) {
+      i++;
+    }
+    return i;
+  }
+
+  @Override
+  public int findQuoteOrBackslash(byte[] b, int from, int to) {
+    int i = from;
+    for (; i + 8 <= to; i += 8) {
+      long w = (long) LONG.get(b, i);
+      long q = w ^ QUOTES;
+      long s = w ^ BACKSLASHES;
+      // the lowest set bit marks the first zero byte, i.e. the first match
+      long m = (((q - ONES) & ~q) | ((s - ONES) & ~s)) & HIGHS;
+      if (m != 0) {
+        return i + (Long.numberOfTrailingZeros(m) >>> 3);
+      }
+    }
+    for (; i < to; i++) {
+      if (b[i] == '"' || b[i] == '\\') {
+        return i;
+      }
+    }
+    return to;
+  }
+}
@@ -0,0 +1,109 @@
+package de.chloedev.config.json.stream;
+
+import java.nio.charset.StandardCharsets;
+
+/** Helpers for working on raw UTF-8 encoded JSON, shared by the byte-level readers. */
+public final class Utf8 {
+  private Utf8() {}
+
+  /**
+   * Decodes the body of a JSON string, i.e. the bytes between its quotes, resolving escapes.
+   *
+   * @param positionBase added to array indices when reporting the position of a bad escape
+   * @throws IllegalArgumentException if the string contains an invalid escape
+   */
+  public static String decodeString(byte[] b, int start, int end, long positionBase) {
+    int p = start;
+    while (p < end && b[p] != '\\') {
+      p++;
+    }
+    if (p == end) {
+      return new String(b, start, end - start, StandardCharsets.UTF_8);
+    }
+    StringBuilder sb = new StringBuilder(end - start);
+    int segment = start;
+    while (p < end) {
+      if (b[p] != '\\') {
+        p++;
+        continue;
+      }
+      if (p > segment) {
+        sb.append(new String(b, segment, p - segment, StandardCharsets.UTF_8));
+      }
+      byte esc = p + 1 < end ? b[p + 1] : 0;
+      p += 2;
+      switch (esc) {
+        case '"', '\\', '/' -> sb.append((char) esc);
+        case 'b' -> sb.append('\b');
+        case 'f' -> sb.append('\f');
+        case 'n' -> sb.append('\n');
+        case 'r' -> sb.append('\r');
+        case 't' -> sb.append('\t');
+        case 'u' -> {
+          int value = 0;
+          for (int i = 0; i < 4; i++) {
+            int digit = p + i < end ? Character.digit(b[p + i], 16) : -1;
+            if (digit < 0) {
+              throw new IllegalArgumentException(
+                  "Invalid \\u escape at position " + (positionBase + p));
+            }
+            value = (value << 4) | digit;
+          }
+          sb.append((char) value);
+          p += 4;
+        }
+        default ->
+            throw new IllegalArgumentException(
+                "Invalid escape: \\" + (char) (esc & 0xFF) + " at position " + (positionBase + p));
+      }
+      segment = p;
+    }
+    if (end > segment) {
+      sb.append(new String(b, segment, end - segment, StandardCharsets.UTF_8));
+    }
+    return sb.toString();
+  }
+
+  /** Returns whether the byte can occur in a number literal. */
+  public static boolean isNumberChar(byte c) {
+    return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+  }
+
+  /** Checks the given bytes against the JSON number grammar. */
+  public static boolean isValidNumber(byte[] b, int start, int end) {
+    int i = start;
+    if (i < end && b[i] == '-') {
+      i++;
+    }
+    int digits = i;
+    while (i < end && b[i] >= '0' && b[i] <= '9') {
+      i++;
+    }
+    if (i == digits || (b[digits] == '0' && i - digits > 1)) {
+      return false;
+    }
+    if (i < end && b[i] == '.') {
+      digits = ++i;
+      while (i < end && b[i] >= '0' && b[i] <= '9') {
+        i++;
+      }
+      if (i == digits) {
+        return false;
+      }
+    }
+    if (i < end && (b[i] == 'e' || b[i] == 'E')) {
+      i++;
+      if (i < end && (b[i] == '+' || b[i] == '-')) {
+        i++;
+      }
+      digits = i;
+      while (i < end && b[i] >= '0' && b[i] <= '9') {
+        i++;
+      }
+      if (i == digits) {
+        return false;
+      }
+    }
+    return i == end;
+  }
+}
@@ -0,0 +1,250 @@
+package de.chloedev.config.json.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A {@link JsonReader} that tokenizes UTF-8 bytes directly. Structure, whitespace and literals are
+ * matched as bytes; only strings that are actually read get decoded.
+ *
+ * <p>Bytes come either from a caller-supplied array, which is used in place, or from a stream,
+ * channel or buffer that is copied through a window. The window only grows beyond its initial size
+ * to hold a single string that does not fit into it.
+ */
+final class Utf8JsonReader extends JsonReader {
+  private static final int BUFFER_SIZE = 16384;
+  private static final ByteScanner SCANNER = ByteScanner.get();
+
+  private final InputStream in;
+  private final ReadableByteChannel channel;
+  private final ByteBuffer source;
+  private byte[] buf;
+  private int pos;
+  private int limit;
+  private long discarded;
+
+  private Utf8JsonReader(
+      InputStream in,
+      ReadableByteChannel channel,
+      ByteBuffer source,
+      byte[] buf,
+      int pos,
+      int limit) {
+    this.in = in;
+    this.channel = channel;
+    this.source = source;
+    this.buf = buf;
+    this.pos = pos;
+    this.limit = limit;
+    this.discarded = -pos;
+  }
+
+  static Utf8JsonReader fromArray(byte[] bytes, int offset, int length) {
+    return new Utf8JsonReader(null, null, null, bytes, offset, offset + length);
+  }
+
+  static Utf8JsonReader fromStream(InputStream in) {
+    return new Utf8JsonReader(in, null, null, new byte[BUFFER_SIZE], 0, 0);
+  }
+
+  static Utf8JsonReader fromChannel(ReadableByteChannel channel) {
+    return new Utf8JsonReader(null, channel, null, new byte[BUFFER_SIZE], 0, 0);
+  }
+
+  static Utf8JsonReader fromBuffer(ByteBuffer buffer) {
+    if (buffer.hasArray()) {
+      int offset = buffer.arrayOffset() + buffer.position();
+      return fromArray(buffer.array(), offset, buffer.remaining());
+    }
+    return new Utf8JsonReader(null, null, buffer.duplicate(), new byte[BUFFER_SIZE], 0, 0);
+  }
+
+  @Override
+  public long position() {
+    return discarded + pos;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (in != null) {
+      in.close();
+    } else if (channel != null) {
+      channel.close();
+    }
+  }
+
+  /**
+   * Makes sure at least {@code minimum} bytes are buffered after {@code pos}, compacting and, if
+   * needed, growing the window. In-place arrays are never modified.
+   */
+  private boolean fill(int minimum) throws IOException {
+    if (limit - pos >= minimum) {
+      return true;
+    }
+    if (in == null && channel == null && source == null) {
+      return false;
+    }
+    if (pos > 0) {
+      discarded += pos;
+      limit -= pos;
+      System.arraycopy(buf, pos, buf, 0, limit);
+      pos = 0;
+    }
+    if (minimum > buf.length) {
+      buf = Arrays.copyOf(buf, Math.max(minimum, buf.length * 2));
+    }
+    while (limit < minimum) {
+      int n;
+      if (in != null) {
+        n = in.read(buf, limit, buf.length - limit);
+      } else if (channel != null) {
+        n = channel.read(ByteBuffer.wrap(buf, limit, buf.length - limit));
+      } else {
+        n = Math.min(source.remaining(), buf.length - limit);
+        if (n == 0) {
+          n = -1;
+        } else {
+          source.get(buf, limit, n);
+        }
+      }
+      if (n == -1) {
+        return false;
+      }
+      limit += n;
+    }
+    return true;
+  }
+
+  @Override
+  int nextNonWhitespace() throws IOException {
+    while (true) {
+      int p = SCANNER.skipWhitespace(buf, pos, limit);
+      pos = p;
+      if (p < limit) {
+        return buf[p] & 0xFF;
+      }
+      if (!fill(1)) {
+        return -1;
+      }
+    }
+  }
+
+  @Override
+  void consume() {
+    pos++;
+  }
+
+  @Override
+  boolean consumeLiteral(String literal) throws IOException {
+    int n = literal.length();
+    if (!fill(n)) {
+      return false;
+    }
+    for (int i = 0; i < n; i++) {
+      if (buf[pos + i] != literal.charAt(i)) {
+        return false;
+      }
+    }
+    pos += n;
+    return true;
+  }
+
+  @Override
+  String readString(NameTable names) throws IOException {
+    int scanned = 0;
+    boolean escaped = false;
+    while (true) {
+      byte[] b = buf;
+      int p = pos + scanned;
+      int l = limit;
+      while (p < l) {
+        p = SCANNER.findQuoteOrBackslash(b, p, l);
+        if (p == l) {
+          break;
+        }
+        if (b[p] == '"') {
+          String s;
+          if (escaped) {
+            s = Utf8.decodeString(b, pos, p, discarded);
+            if (names != null) {
+              s = names.get(s);
+            }
+          } else {
+            s =
+                names != null
+                    ? names.get(b, pos, p - pos)
+                    : new String(b, pos, p - pos, StandardCharsets.UTF_8);
+          }
+          pos = p + 1;
+          return s;
+        }
+        escaped = true;
+        p += 2;
+      }
+      // keep the raw string contiguous so multi-byte sequences are never split
+      scanned = p - pos;
+      if (!fill(scanned + 1)) {
+        pos = limit;
+        throw syntaxError("Unterminated string");
+      }
+    }
+  }
+
+  @Override
+  void skipString() throws IOException {
+    while (true) {
+      byte[] b = buf;
+      int p = pos;
+      int l = limit;
+      while (p < l) {
+        p = SCANNER.findQuoteOrBackslash(b, p, l);
+        if (p == l) {
+          break;
+        }
+        if (b[p] == '"') {
+          pos = p + 1;
+          return;
+        }
+        if (p + 1 == l) {
+          break;
+        }
+        p += 2;
+      }
+      pos = p;
+      if (!fill(p < l ? 2 : 1)) {
+        throw syntaxError("Unterminated string");
+      }
+    }
+  }
+
+  @Override
+  String readNumber() throws IOException {
+    int scanned = 0;
+    while (true) {
+      int p = pos + scanned;
+      int l = limit;
+      while (p < l && Utf8.isNumberChar(buf[p])) {
+        p++;
+      }
+      scanned = p - pos;
+      if (p < l || !fill(scanned + 1)) {
+        break;
+      }
+    }
+    String literal = new String(buf, pos, scanned, StandardCharsets.ISO_8859_1);
+    if (!Utf8.isValidNumber(buf, pos, pos + scanned)) {
+      throw syntaxError("Invalid number '" + literal + "'");
+    }
+    pos += scanned;
+    return literal;
+  }
+
+  @Override
+  void skipNumber() throws IOException {
+    readNumber();
+  }
+}
@@ -0,0 +1,112 @@
+package de.chloedev.config.json.tape;
+
+import de.chloedev.config.json.element.JsonElement;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The elements of an array on a tape. Reads build only the requested element; the first
+ * mutation turns this level into a regular {@link ArrayList}. Like those of a regular array, the
+ * elements may be read from several threads at once.
+ */
+final class LazyElements extends AbstractList<JsonElement> implements RandomAccess {
+  private final TapeDocument doc;
+  private final int index;
+  /** Tape index of every element, computed on first access. */
+  private volatile int[] offsets;
+  private volatile AtomicReferenceArray<JsonElement> cache;
+  private volatile ArrayList<JsonElement> elements;
+
+  LazyElements(TapeDocument doc, int index) {
+    this.doc = doc;
+    this.index = index;
+  }
+
+  private ArrayList<JsonElement> elements() {
+    if (elements == null) {
+      int size = doc.count(index);
+      ArrayList<JsonElement> list = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        list.add(get(i));
+      }
+      elements = list;
+      offsets = null;
+      cache = null;
+    }
+    return elements;
+  }
+
+  @Override
+  public JsonElement get(int i) {
+    ArrayList<JsonElement> list = elements;
+    if (list != null) {
+      return list.get(i);
+    }
+    Objects.checkIndex(i, doc.count(index));
+    int[] o = offsets;
+    if (o == null) {
+      o = index();
+    }
+    AtomicReferenceArray<JsonElement> c = cache;
+    JsonElement e = c.get(i);
+    if (e == null) {
+      e = doc.element(o[i]);
+      // a concurrent reader may have built the element first; keep its instance
+      JsonElement first = c.compareAndExchange(i, null, e);
+      if (first != null) {
+        e = first;
+      }
+    }
+    return e;
+  }
+
+  /** Computes the offsets and the cache, once. */
+  private synchronized int[] index() {
+    if (offsets == null) {
+      int size = doc.count(index);
+      int[] o = new int[size];
+      int t = index + 1;
+      for (int k = 0; k < size; k++) {
+        o[k] = t;
+        t = doc.next(t);
+      }
+      cache = new AtomicReferenceArray<>(size);
+      offsets = o;
+    }
+    return offsets;
+  }
+
+  @Override
+  public int size() {
+    ArrayList<JsonElement> list = elements;
+    return list != null ? list.size() : doc.count(index);
+  }
+
+  @Override
+  public JsonElement set(int i, JsonElement element) {
+    return elements().set(i, element);
+  }
+
+  @Override
+  public void add(int i, JsonElement element) {
+    elements().add(i, element);
+    modCount++;
+  }
+
+  @Override
+  public JsonElement remove(int i) {
+    modCount++;
+    return elements().remove(i);
+  }
+
+  @Override
+  public void clear() {
+    elements = new ArrayList<>();
+    offsets = null;
+    cache = null;
+    modCount++;
+  }
+}
@@ -0,0 +1,10 @@
+package de.chloedev.config.json.tape;
+
+import de.chloedev.config.json.element.JsonArray;
+
+/** A {@link JsonArray} whose elements are read from a {@link TapeDocument} when first needed. */
+final class LazyJsonArray extends JsonArray {
+  LazyJsonArray(TapeDocument doc, int index) {
+    super(new LazyElements(doc, index));
+  }
+}
@@ -0,0 +1,10 @@
+package de.chloedev.config.json.tape;
+
+import de.chloedev.config.json.element.JsonObject;
+
+/** A {@link JsonObject} whose members are read from a {@link TapeDocument} when first needed. */
+final class LazyJsonObject extends JsonObject {
+  LazyJsonObject(TapeDocument doc, int index) {
+    super(new TapeMembers(doc, index));
+  }
+}
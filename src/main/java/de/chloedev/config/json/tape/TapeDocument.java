@@ -0,0 +1,343 @@
+package de.chloedev.config.json.tape;
+
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.stream.ByteScanner;
+import de.chloedev.config.json.stream.NameTable;
+import de.chloedev.config.json.stream.Utf8;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A JSON document that has been indexed by a single structural pass but not turned into elements.
+ *
+ * <p>Every token is recorded as one {@code long} on a tape: containers store their child count
+ * and the tape index just past their last token, so whole subtrees can be stepped over in one
+ * jump; strings and numbers store their byte span in the source. The tree returned by {@link
+ * #root()} is built from the tape on demand, one container level at a time, as it is read.
+ *
+ * <p>The source bytes are retained and must not be modified while the document is in use.
+ */
+public final class TapeDocument {
+  static final int OBJECT = 1;
+  static final int ARRAY = 2;
+  static final int STRING = 3;
+  static final int NUMBER = 4;
+  static final int TRUE = 5;
+  static final int FALSE = 6;
+  static final int NULL = 7;
+
+  private static final int MAX_COUNT = (1 << 28) - 1;
+  private static final int MAX_STRING_LENGTH = (1 << 27) - 1;
+  private static final long ESCAPED = 1L << 32;
+  private static final ByteScanner SCANNER = ByteScanner.get();
+
+  private final byte[] bytes;
+  private final int offset;
+  private final long[] tape;
+  private final int length;
+  /** Shared by all readers of the document, which the table allows. */
+  private final NameTable names = new NameTable();
+
+  private TapeDocument(byte[] bytes, int offset, long[] tape, int length) {
+    this.bytes = bytes;
+    this.offset = offset;
+    this.tape = tape;
+    this.length = length;
+  }
+
+  public static TapeDocument parse(byte[] bytes) {
+    return parse(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Indexes the UTF-8 encoded document in the given range. The structure, literals and numbers are
+   * validated; escape sequences inside strings are only checked once a string is decoded.
+   *
+   * @throws IllegalArgumentException if the document is not valid JSON
+   */
+  public static TapeDocument parse(byte[] bytes, int offset, int length) {
+    return new Scanner(bytes, offset, offset + length).scan();
+  }
+
+  /** Returns the root of the document, materializing nothing beyond the root itself. */
+  public JsonElement root() {
+    return element(0);
+  }
+
+  /** Returns the number of tokens on the tape. */
+  public int tapeLength() {
+    return length;
+  }
+
+  int type(int i) {
+    return (int) (tape[i] >>> 60);
+  }
+
+  /** The number of children of the container at {@code i}. */
+  int count(int i) {
+    return (int) (tape[i] >>> 32) & MAX_COUNT;
+  }
+
+  /** The tape index of the token following the value at {@code i}, skipping over containers. */
+  int next(int i) {
+    int t = type(i);
+    return t == OBJECT || t == ARRAY ? (int) tape[i] : i + 1;
+  }
+
+  JsonElement element(int i) {
+    return switch (type(i)) {
+      case OBJECT -> new LazyJsonObject(this, i);
+      case ARRAY -> new LazyJsonArray(this, i);
+      case STRING -> JsonPrimitive.of(string(i));
+      case NUMBER -> {
+        int start = (int) tape[i];
+        int len = (int) (tape[i] >>> 33) & MAX_STRING_LENGTH;
+        yield JsonParser.parseNumber(new String(bytes, start, len, StandardCharsets.ISO_8859_1));
+      }
+      case TRUE -> JsonPrimitive.of(true);
+      case FALSE -> JsonPrimitive.of(false);
+      default -> new JsonPrimitive((Object) null);
+    };
+  }
+
+  String string(int i) {
+    long entry = tape[i];
+    int start = (int) entry;
+    int len = (int) (entry >>> 33) & MAX_STRING_LENGTH;
+    if ((entry & ESCAPED) == 0) {
+      return new String(bytes, start, len, StandardCharsets.UTF_8);
+    }
+    return Utf8.decodeString(bytes, start, start + len, -offset);
+  }
+
+  /** Decodes the object key at {@code i}; equal keys share one instance across the document. */
+  String name(int i) {
+    long entry = tape[i];
+    if ((entry & ESCAPED) != 0) {
+      return names.get(string(i));
+    }
+    return names.get(bytes, (int) entry, (int) (entry >>> 33) & MAX_STRING_LENGTH);
+  }
+
+  /** Compares the string at {@code i} with {@code key}, decoding only if it cannot be avoided. */
+  boolean stringEquals(int i, String key) {
+    long entry = tape[i];
+    int start = (int) entry;
+    int len = (int) (entry >>> 33) & MAX_STRING_LENGTH;
+    if ((entry & ESCAPED) != 0) {
+      return string(i).equals(key);
+    }
+    if (key.length() > len) {
+      return false;
+    }
+    int n = key.length();
+    for (int k = 0; k < n; k++) {
+      char c = key.charAt(k);
+      byte b = bytes[start + k];
+      if (c >= 0x80 || b < 0) {
+        return string(i).equals(key);
+      }
+      if (c != b) {
+        return false;
+      }
+    }
+    return n == len;
+  }
+
+  /** Finds the value of {@code key} in the object at {@code obj}; the last duplicate wins. */
+  int find(int obj, String key) {
+    int found = -1;
+    int end = (int) tape[obj];
+    for (int i = obj + 1; i < end; i = next(i + 1)) {
+      if (stringEquals(i, key)) {
+        found = i + 1;
+      }
+    }
+    return found;
+  }
+
+  /** The single structural pass that builds the tape. */
+  private static final class Scanner {
+    private final byte[] b;
+    private final int start;
+    private final int end;
+    private int p;
+    private long[] tape;
+    private int n = 0;
+    private int[] open = new int[32];
+    private int[] counts = new int[32];
+    private int depth = 0;
+
+    Scanner(byte[] b, int start, int end) {
+      this.b = b;
+      this.start = start;
+      this.end = end;
+      this.p = start;
+      this.tape = new long[Math.max(16, (end - start) >> 3)];
+    }
+
+    TapeDocument scan() {
+      value();
+      while (depth > 0) {
+        int c = nextNonWhitespace();
+        boolean object = type(open[depth - 1]) == OBJECT;
+        p++;
+        if (c == ',') {
+          if (object) {
+            key();
+          }
+          value();
+        } else if (c == (object ? '}' : ']')) {
+          close();
+        } else {
+          p--;
+          throw error(object ? "Expected ',' or '}' in object" : "Expected ',' or ']' in array");
+        }
+      }
+      if (nextNonWhitespace() != -1) {
+        throw error("Unexpected trailing data");
+      }
+      return new TapeDocument(b, start, tape, n);
+    }
+
+    private int type(int i) {
+      return (int) (tape[i] >>> 60);
+    }
+
+    private void value() {
+      int c = nextNonWhitespace();
+      if (depth > 0) {
+        counts[depth - 1]++;
+      }
+      switch (c) {
+        case '{' -> {
+          p++;
+          push(OBJECT);
+          if (nextNonWhitespace() == '}') {
+            p++;
+            close();
+          } else {
+            key();
+            value();
+          }
+        }
+        case '[' -> {
+          p++;
+          push(ARRAY);
+          if (nextNonWhitespace() == ']') {
+            p++;
+            close();
+          } else {
+            value();
+          }
+        }
+        case '"' -> string();
+        case 't' -> literal("true", TRUE);
+        case 'f' -> literal("false", FALSE);
+        case 'n' -> literal("null", NULL);
+        case -1 -> throw error("Unexpected end of input");
+        default -> {
+          if (c != '-' && (c < '0' || c > '9')) {
+            throw error("Unexpected character '" + (char) c + "'");
+          }
+          int s = p;
+          while (p < end && Utf8.isNumberChar(b[p])) {
+            p++;
+          }
+          if (!Utf8.isValidNumber(b, s, p)) {
+            String literal = new String(b, s, p - s, StandardCharsets.ISO_8859_1);
+            throw error("Invalid number '" + literal + "'");
+          }
+          emit(NUMBER, (long) (p - s) << 1, s);
+        }
+      }
+    }
+
+    /** Reads an object key and the colon after it; nested containers are resumed in scan(). */
+    private void key() {
+      if (nextNonWhitespace() != '"') {
+        throw error("Expected '\"'");
+      }
+      string();
+      if (nextNonWhitespace() != ':') {
+        throw error("Expected ':'");
+      }
+      p++;
+    }
+
+    private void string() {
+      int s = ++p;
+      boolean escaped = false;
+      while (true) {
+        p = p < end ? SCANNER.findQuoteOrBackslash(b, p, end) : end;
+        if (p >= end) {
+          throw error("Unterminated string");
+        }
+        if (b[p] == '"') {
+          break;
+        }
+        escaped = true;
+        p += 2;
+      }
+      int len = p - s;
+      if (len > MAX_STRING_LENGTH) {
+        throw error("String too long for a tape document");
+      }
+      p++;
+      emit(STRING, ((long) len << 1) | (escaped ? 1 : 0), s);
+    }
+
+    private void literal(String literal, int type) {
+      int len = literal.length();
+      if (end - p < len) {
+        throw error("Expected literal " + literal);
+      }
+      for (int i = 0; i < len; i++) {
+        if (b[p + i] != literal.charAt(i)) {
+          throw error("Expected literal " + literal);
+        }
+      }
+      p += len;
+      emit(type, 0, 0);
+    }
+
+    private void push(int type) {
+      if (depth == open.length) {
+        open = Arrays.copyOf(open, depth * 2);
+        counts = Arrays.copyOf(counts, depth * 2);
+      }
+      open[depth] = n;
+      counts[depth] = 0;
+      depth++;
+      emit(type, 0, 0);
+    }
+
+    private void close() {
+      depth--;
+      int i = open[depth];
+      int count = counts[depth];
+      if (count > MAX_COUNT) {
+        throw error("Container too large for a tape document");
+      }
+      tape[i] = ((long) type(i) << 60) | ((long) count << 32) | n;
+    }
+
+    private void emit(int type, long high, int low) {
+      if (n == tape.length) {
+        tape = Arrays.copyOf(tape, n + (n >> 1));
+      }
+      tape[n++] = ((long) type << 60) | (high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    private int nextNonWhitespace() {
+      p = SCANNER.skipWhitespace(b, p, end);
+      return p < end ? b[p] & 0xFF : -1;
+    }
+
+    private IllegalArgumentException error(String msg) {
+      return new IllegalArgumentException(msg + " at position " + (p - start));
+    }
+  }
+}
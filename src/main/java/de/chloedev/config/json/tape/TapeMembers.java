@@ -0,0 +1,42 @@
+package de.chloedev.config.json.tape;
+
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.LazyMembers;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * The members of an object on a tape. Lookups by key scan the object's keys on the tape and step
+ * over the values in between; positions are tape indices.
+ */
+final class TapeMembers extends LazyMembers {
+  private final TapeDocument doc;
+  private final int index;
+
+  TapeMembers(TapeDocument doc, int index) {
+    this.doc = doc;
+    this.index = index;
+  }
+
+  @Override
+  protected int count() {
+    return doc.count(index);
+  }
+
+  @Override
+  protected int find(String key) {
+    return doc.find(index, key);
+  }
+
+  @Override
+  protected JsonElement element(int position) {
+    return doc.element(position);
+  }
+
+  @Override
+  protected void forEachMember(ObjIntConsumer<String> action) {
+    int end = doc.next(index);
+    for (int i = index + 1; i < end; i = doc.next(i + 1)) {
+      action.accept(doc.name(i), i + 1);
+    }
+  }
+}
@@ -0,0 +1,880 @@
+package de.chloedev.config.yaml;
+
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Parses YAML 1.2 into the same trees as {@link JsonParser}, in a single pass that builds the
+ * elements as the nodes are read.
+ *
+ * <p>Supported are block and flow mappings and sequences, plain, quoted, literal ({@code |}) and
+ * folded ({@code >}) scalars, comments, multi-document streams, anchors and aliases, and merge keys
+ * ({@code <<}). An alias stands for a copy of its anchor's node, so that changing the tree in one
+ * place never changes it in another; a document's aliases may copy at most 2<sup>20</sup> nodes
+ * in total. Plain scalars are resolved with the core schema, so {@code 8080} is a number, {@code
+ * true} a boolean and {@code ~} null; the tags {@code !!str}, {@code !!int}, {@code !!float},
+ * {@code !!bool} and {@code !!null} override that, other tags are ignored. Complex keys ({@code ?})
+ * are not supported.
+ */
+public final class YamlParser {
+  /** Bounds the tree that nested aliases can expand to, as in the "billion laughs" attack. */
+  private static final int MAX_ALIAS_NODES = 1 << 20;
+  private static final Pattern JSON_NUMBER =
+      Pattern.compile("-?(?:0|[1-9][0-9]*)(?:\\.[0-9]+)?(?:[eE][-+]?[0-9]+)?");
+  private static final Pattern INT = Pattern.compile("[-+]?[0-9]+");
+  private static final Pattern FLOAT =
+      Pattern.compile("[-+]?(?:\\.[0-9]+|[0-9]+(?:\\.[0-9]*)?)(?:[eE][-+]?[0-9]+)?");
+
+  private final String in;
+  private final int len;
+  private int pos;
+  /** The indentation of the line {@link #pos} is on after {@link #toContent()}, -1 at the end. */
+  private int lineIndent;
+
+  private final Map<String, JsonElement> anchors = new HashMap<>();
+  /** The number of nodes the aliases of the current document have copied. */
+  private int aliasNodes;
+
+  private YamlParser(String yaml) {
+    this.in = yaml.indexOf('\r') < 0 ? yaml : yaml.replace("\r\n", "\n").replace('\r', '\n');
+    this.len = in.length();
+    if (len > 0 && in.charAt(0) == '\uFEFF') {
+      pos = 1;
+    }
+  }
+
+  /**
+   * Parses a YAML document.
+   *
+   * @return the root, or JSON null if the document is empty
+   * @throws IllegalArgumentException if the input is not valid YAML or holds several documents
+   */
+  public static JsonElement parse(String yaml) {
+    List<JsonElement> docs = parseAll(yaml);
+    if (docs.size() > 1) {
+      throw new IllegalArgumentException("Expected one document but found " + docs.size());
+    }
+    return docs.isEmpty() ? new JsonPrimitive((Object) null) : docs.get(0);
+  }
+
+  public static JsonElement parse(Reader reader) throws IOException {
+    return parse(read(reader));
+  }
+
+  /** Parses every document of a stream separated by {@code ---}. Anchors are per document. */
+  public static List<JsonElement> parseAll(String yaml) {
+    return new YamlParser(yaml).stream();
+  }
+
+  public static List<JsonElement> parseAll(Reader reader) throws IOException {
+    return parseAll(read(reader));
+  }
+
+  private static String read(Reader reader) throws IOException {
+    StringWriter out = new StringWriter();
+    reader.transferTo(out);
+    return out.toString();
+  }
+
+  private List<JsonElement> stream() {
+    List<JsonElement> docs = new ArrayList<>();
+    toContent();
+    while (lineIndent >= 0) {
+      if (lineIndent == 0 && in.charAt(pos) == '%') {
+        pos = lineEnd(pos); // directives do not change how a config is read
+        toContent();
+        continue;
+      }
+      if (atMarker("...")) {
+        pos += 3;
+        nextLine();
+        continue;
+      }
+      anchors.clear();
+      aliasNodes = 0;
+      if (atMarker("---")) {
+        pos += 3;
+        docs.add(blockNode(-1, false));
+      } else {
+        docs.add(inlineNode(-1, true));
+      }
+      if (lineIndent >= 0 && !atMarker("---") && !atMarker("...")) {
+        throw error("Expected the end of the document");
+      }
+    }
+    return docs;
+  }
+
+  // ---- block context ----
+
+  /**
+   * Parses the node after an indicator: a mapping key's colon, a sequence entry's dash or a
+   * document start. The node may start on the same line or on the following, more indented ones.
+   *
+   * @param parent the indentation of the collection the node belongs to
+   * @param afterKey whether the node is the value of a mapping entry
+   */
+  private JsonElement blockNode(int parent, boolean afterKey) {
+    skipSpaces();
+    String anchor = null;
+    String tag = null;
+    while (pos < len && (peek() == '&' || peek() == '!')) {
+      if (peek() == '&') {
+        pos++;
+        anchor = word();
+      } else {
+        tag = word();
+      }
+      skipSpaces();
+    }
+    JsonElement value;
+    if (atLineEnd()) {
+      nextLine();
+      if (lineIndent > parent && !atMarker("---") && !atMarker("...")) {
+        value = inlineNode(parent, true, tag);
+      } else if (afterKey && lineIndent == parent && atSequenceEntry()) {
+        value = blockSequence(lineIndent);
+      } else {
+        value = scalar("", true, tag);
+      }
+    } else {
+      value = inlineNode(parent, !afterKey, tag);
+    }
+    if (anchor != null) {
+      anchors.put(anchor, value);
+    }
+    return value;
+  }
+
+  private JsonElement inlineNode(int parent, boolean allowMapping) {
+    return inlineNode(parent, allowMapping, null);
+  }
+
+  /** Parses the node that starts at {@link #pos}, which is followed by more content. */
+  private JsonElement inlineNode(int parent, boolean allowMapping, String tag) {
+    char c = peek();
+    if (c == '*') {
+      pos++;
+      JsonElement value = alias(word());
+      nextLine();
+      return value;
+    } else if (c == '|' || c == '>') {
+      return scalar(blockScalar(parent), false, tag);
+    } else if (c == '[' || c == '{') {
+      JsonElement value = flowNode();
+      nextLine();
+      return value;
+    } else if (atSequenceEntry()) {
+      if (!allowMapping) {
+        throw error("A sequence cannot start on the line of its key");
+      }
+      return blockSequence(column());
+    } else if (allowMapping && atMappingKey()) {
+      return blockMapping(column());
+    } else if (c == '"' || c == '\'') {
+      String value = quoted();
+      nextLine();
+      return scalar(value, false, tag);
+    }
+    return scalar(plainBlock(parent), true, tag);
+  }
+
+  private JsonElement blockMapping(int col) {
+    JsonObject obj = new JsonObject();
+    List<JsonElement> merges = null;
+    while (true) {
+      boolean plain = peek() != '"' && peek() != '\'';
+      String key = plain ? plainLine(false) : quoted();
+      skipSpaces();
+      if (peek() != ':') {
+        throw error("Expected ':' after the key '" + key + "'");
+      }
+      pos++;
+      JsonElement value = blockNode(col, true);
+      if (plain && key.equals("<<")) {
+        merges = merges == null ? new ArrayList<>() : merges;
+        merges.add(value);
+      } else {
+        obj.putMember(key, value);
+      }
+      if (lineIndent < col || atMarker("---") || atMarker("...")) {
+        break;
+      } else if (lineIndent > col) {
+        throw error("Bad indentation of a mapping entry");
+      } else if (atSequenceEntry() || !atMappingKey()) {
+        throw error("Expected a mapping entry");
+      }
+    }
+    if (merges != null) {
+      for (JsonElement merge : merges) {
+        merge(obj, merge);
+      }
+    }
+    return obj;
+  }
+
+  /** Returns a copy of the node anchored under the given name. */
+  private JsonElement alias(String name) {
+    JsonElement value = anchors.get(name);
+    if (value == null) {
+      throw error("Unknown alias '" + name + "'");
+    }
+    return copy(value);
+  }
+
+  private JsonElement copy(JsonElement node) {
+    if (++aliasNodes > MAX_ALIAS_NODES) {
+      throw error("Aliases expand to more than " + MAX_ALIAS_NODES + " nodes");
+    }
+    if (node instanceof JsonObject obj) {
+      JsonObject copy = new JsonObject();
+      for (Map.Entry<String, JsonElement> e : obj.entrySet()) {
+        copy.putMember(e.getKey(), copy(e.getValue()));
+      }
+      return copy;
+    } else if (node instanceof JsonArray arr) {
+      JsonArray copy = new JsonArray();
+      for (int i = 0; i < arr.size(); i++) {
+        copy.add(copy(arr.get(i)));
+      }
+      return copy;
+    }
+    return node; // primitives are immutable
+  }
+
+  /** Adds the members of a merged mapping, or of a list of them, that are not set yet. */
+  private void merge(JsonObject obj, JsonElement merge) {
+    if (merge instanceof JsonArray arr) {
+      for (int i = 0; i < arr.size(); i++) {
+        merge(obj, arr.get(i));
+      }
+    } else if (merge instanceof JsonObject src) {
+      for (Map.Entry<String, JsonElement> e : src.entrySet()) {
+        if (obj.getMember(e.getKey()) == null) {
+          obj.putMember(e.getKey(), e.getValue());
+        }
+      }
+    } else {
+      throw error("A merge key needs a mapping or a sequence of mappings");
+    }
+  }
+
+  private JsonElement blockSequence(int col) {
+    JsonArray arr = new JsonArray();
+    do {
+      pos++; // the dash
+      arr.add(blockNode(col, false));
+      if (lineIndent > col) {
+        throw error("Bad indentation of a sequence entry");
+      }
+    } while (lineIndent == col && atSequenceEntry());
+    return arr;
+  }
+
+  /**
+   * Reads a plain scalar, which may continue on following lines that are indented more than its
+   * parent. Line breaks fold into spaces, empty lines into line breaks.
+   */
+  private String plainBlock(int parent) {
+    StringBuilder sb = new StringBuilder(plainLine(false));
+    while (pos < len && peek() == '\n') {
+      int end = pos;
+      int empty = 0;
+      int p = pos + 1;
+      int indent;
+      while (true) {
+        indent = 0;
+        while (p + indent < len && in.charAt(p + indent) == ' ') {
+          indent++;
+        }
+        if (p + indent < len && in.charAt(p + indent) == '\n') {
+          empty++;
+          p += indent + 1;
+          continue;
+        }
+        break;
+      }
+      if (p + indent >= len
+          || indent <= parent
+          || in.charAt(p + indent) == '#'
+          || (indent == 0 && (in.startsWith("---", p) || in.startsWith("...", p)))) {
+        pos = end;
+        break;
+      }
+      pos = p + indent;
+      sb.append(empty == 0 ? " " : "\n".repeat(empty)).append(plainLine(false));
+      if (!atLineEnd()) {
+        throw error("Unexpected '" + peek() + "' in a multi-line scalar");
+      }
+    }
+    nextLine();
+    return sb.toString();
+  }
+
+  /**
+   * Reads a plain scalar up to the end of the line, a comment, or a colon followed by a space. In
+   * flow context, flow indicators end it as well.
+   */
+  private String plainLine(boolean flow) {
+    int start = pos;
+    int end = pos;
+    while (pos < len) {
+      char c = in.charAt(pos);
+      if (c == '\n'
+          || (c == ':' && (pos + 1 >= len || isBlank(in.charAt(pos + 1))
+              || (flow && isFlowIndicator(in.charAt(pos + 1)))))
+          || (c == '#' && pos > start && isBlank(in.charAt(pos - 1)))
+          || (flow && isFlowIndicator(c))) {
+        break;
+      }
+      pos++;
+      if (c != ' ' && c != '\t') {
+        end = pos;
+      }
+    }
+    return in.substring(start, end);
+  }
+
+  /** Reads a literal or folded block scalar, leaving {@link #pos} on the next content line. */
+  private String blockScalar(int parent) {
+    boolean folded = in.charAt(pos++) == '>';
+    int chomp = 0;
+    int explicit = 0;
+    for (; pos < len && !isBlank(peek()); pos++) {
+      char c = peek();
+      if (c == '-' || c == '+') {
+        chomp = c == '-' ? -1 : 1;
+      } else if (c >= '1' && c <= '9') {
+        explicit = c - '0';
+      } else {
+        throw error("Unexpected '" + c + "' in a block scalar header");
+      }
+    }
+    skipSpaces();
+    if (!atLineEnd()) {
+      throw error("Unexpected '" + peek() + "' after a block scalar header");
+    }
+    pos = lineEnd(pos);
+    pos = Math.min(pos + 1, len);
+    int indent = explicit > 0 ? Math.max(parent, 0) + explicit : -1;
+    List<String> lines = new ArrayList<>();
+    while (pos < len) {
+      int sp = 0;
+      while (pos + sp < len && in.charAt(pos + sp) == ' ') {
+        sp++;
+      }
+      int eol = lineEnd(pos + sp);
+      if (pos + sp == eol && (indent < 0 || sp <= indent)) {
+        lines.add("");
+      } else {
+        if (indent < 0) {
+          if (sp <= parent) {
+            break;
+          }
+          indent = sp;
+        }
+        if (sp < indent
+            || (sp == 0 && (in.startsWith("---", pos) || in.startsWith("...", pos)))) {
+          break;
+        }
+        lines.add(in.substring(pos + indent, eol));
+      }
+      pos = Math.min(eol + 1, len);
+    }
+    int trailing = 0;
+    while (trailing < lines.size() && lines.get(lines.size() - 1 - trailing).isEmpty()) {
+      trailing++;
+    }
+    List<String> content = lines.subList(0, lines.size() - trailing);
+    String body = folded ? fold(content) : String.join("\n", content);
+    toContent();
+    if (content.isEmpty()) {
+      return chomp > 0 ? "\n".repeat(trailing) : "";
+    }
+    return chomp < 0 ? body : chomp == 0 ? body + "\n" : body + "\n".repeat(trailing + 1);
+  }
+
+  /**
+   * Folds the lines of a folded scalar: a break between two lines of text becomes a space, unless
+   * there are empty lines between them or one of them is indented further.
+   */
+  private static String fold(List<String> lines) {
+    StringBuilder sb = new StringBuilder();
+    int empty = 0;
+    boolean first = true;
+    boolean prevIndented = false;
+    for (String line : lines) {
+      if (line.isEmpty()) {
+        empty++;
+        continue;
+      }
+      boolean indented = line.charAt(0) == ' ' || line.charAt(0) == '\t';
+      if (first) {
+        sb.append("\n".repeat(empty));
+      } else if (indented || prevIndented) {
+        sb.append("\n".repeat(empty + 1));
+      } else {
+        sb.append(empty == 0 ? " " : "\n".repeat(empty));
+      }
+      sb.append(line);
+      empty = 0;
+      first = false;
+      prevIndented = indented;
+    }
+    return sb.toString();
+  }
+
+  // ---- flow context ----
+
+  private JsonElement flowNode() {
+    skipFlowSpace();
+    String anchor = null;
+    String tag = null;
+    while (pos < len && (peek() == '&' || peek() == '!')) {
+      if (peek() == '&') {
+        pos++;
+        anchor = word();
+      } else {
+        tag = word();
+      }
+      skipFlowSpace();
+    }
+    JsonElement value;
+    char c = peek();
+    if (c == '[') {
+      value = flowSequence();
+    } else if (c == '{') {
+      value = flowMapping();
+    } else if (c == '*') {
+      pos++;
+      value = alias(word());
+    } else if (c == '"' || c == '\'') {
+      value = scalar(quoted(), false, tag);
+    } else {
+      value = scalar(plainLine(true), true, tag);
+    }
+    if (anchor != null) {
+      anchors.put(anchor, value);
+    }
+    return value;
+  }
+
+  private JsonArray flowSequence() {
+    JsonArray arr = new JsonArray();
+    pos++;
+    while (true) {
+      skipFlowSpace();
+      if (peek() == ']') {
+        pos++;
+        return arr;
+      }
+      JsonElement entry = flowNode();
+      skipFlowSpace();
+      if (peek() == ':') {
+        // a single pair, [a: 1] is [{a: 1}]
+        if (!(entry instanceof JsonPrimitive key) || key.isNull()) {
+          throw error("Expected a scalar key");
+        }
+        pos++;
+        JsonObject pair = new JsonObject();
+        pair.putMember(key.getAsString(), flowValue(']'));
+        entry = pair;
+      }
+      arr.add(entry);
+      if (!flowSeparator(']')) {
+        return arr;
+      }
+    }
+  }
+
+  private JsonObject flowMapping() {
+    JsonObject obj = new JsonObject();
+    pos++;
+    while (true) {
+      skipFlowSpace();
+      if (peek() == '}') {
+        pos++;
+        return obj;
+      }
+      String key = peek() == '"' || peek() == '\'' ? quoted() : plainLine(true);
+      skipFlowSpace();
+      JsonElement value;
+      if (peek() == ':') {
+        pos++;
+        value = flowValue('}');
+      } else {
+        value = new JsonPrimitive((Object) null);
+      }
+      obj.putMember(key, value);
+      if (!flowSeparator('}')) {
+        return obj;
+      }
+    }
+  }
+
+  /** Parses the value after a colon in flow context, which may be left out. */
+  private JsonElement flowValue(char close) {
+    skipFlowSpace();
+    if (peek() == ',' || peek() == close) {
+      return new JsonPrimitive((Object) null);
+    }
+    return flowNode();
+  }
+
+  /** Consumes a comma, returning true, or the closing bracket, returning false. */
+  private boolean flowSeparator(char close) {
+    skipFlowSpace();
+    if (pos < len && peek() == ',') {
+      pos++;
+      return true;
+    } else if (pos < len && peek() == close) {
+      pos++;
+      return false;
+    }
+    throw error("Expected ',' or '" + close + "'");
+  }
+
+  private void skipFlowSpace() {
+    while (pos < len) {
+      char c = peek();
+      if (c == ' ' || c == '\t' || c == '\n') {
+        pos++;
+      } else if (c == '#') {
+        pos = lineEnd(pos);
+      } else {
+        return;
+      }
+    }
+    throw error("Unterminated flow collection");
+  }
+
+  // ---- scalars ----
+
+  private String quoted() {
+    char quote = in.charAt(pos++);
+    StringBuilder sb = new StringBuilder();
+    while (true) {
+      if (pos >= len) {
+        throw error("Unterminated quoted scalar");
+      }
+      char c = in.charAt(pos++);
+      if (c == quote) {
+        if (quote == '\'' && pos < len && peek() == '\'') {
+          sb.append('\'');
+          pos++;
+          continue;
+        }
+        return sb.toString();
+      } else if (c == '\\' && quote == '"') {
+        escape(sb);
+      } else if (c == '\n') {
+        foldQuoted(sb);
+      } else {
+        sb.append(c);
+      }
+    }
+  }
+
+  /** Folds a line break in a quoted scalar, dropping the whitespace around it. */
+  private void foldQuoted(StringBuilder sb) {
+    int end = sb.length();
+    while (end > 0 && (sb.charAt(end - 1) == ' ' || sb.charAt(end - 1) == '\t')) {
+      end--;
+    }
+    sb.setLength(end);
+    int empty = 0;
+    while (pos < len) {
+      char c = peek();
+      if (c == '\n') {
+        empty++;
+      } else if (c != ' ' && c != '\t') {
+        break;
+      }
+      pos++;
+    }
+    sb.append(empty == 0 ? " " : "\n".repeat(empty));
+  }
+
+  private void escape(StringBuilder sb) {
+    if (pos >= len) {
+      throw error("Unterminated quoted scalar");
+    }
+    char c = in.charAt(pos++);
+    switch (c) {
+      case '0' -> sb.append('\0');
+      case 'a' -> sb.append('\u0007');
+      case 'b' -> sb.append('\b');
+      case 't', '\t' -> sb.append('\t');
+      case 'n' -> sb.append('\n');
+      case 'v' -> sb.append('\u000B');
+      case 'f' -> sb.append('\f');
+      case 'r' -> sb.append('\r');
+      case 'e' -> sb.append('\u001B');
+      case ' ', '"', '/', '\\' -> sb.append(c);
+      case 'N' -> sb.append('\u0085');
+      case '_' -> sb.append('\u00A0');
+      case 'L' -> sb.append('\u2028');
+      case 'P' -> sb.append('\u2029');
+      case 'x' -> sb.appendCodePoint(hex(2));
+      case 'u' -> sb.appendCodePoint(hex(4));
+      case 'U' -> sb.appendCodePoint(hex(8));
+      case '\n' -> {
+        // an escaped line break joins the lines without a space
+        while (pos < len && (peek() == ' ' || peek() == '\t')) {
+          pos++;
+        }
+      }
+      default -> {
+        pos--;
+        throw error("Invalid escape '\\" + c + "'");
+      }
+    }
+  }
+
+  private int hex(int digits) {
+    if (pos + digits > len) {
+      throw error("Invalid escape");
+    }
+    try {
+      int cp = Integer.parseUnsignedInt(in, pos, pos + digits, 16);
+      pos += digits;
+      return cp;
+    } catch (NumberFormatException e) {
+      throw error("Invalid escape");
+    }
+  }
+
+  /** Turns a scalar into a primitive; only plain scalars are resolved to non-strings by default. */
+  private JsonElement scalar(String text, boolean plain, String tag) {
+    if (tag == null) {
+      return plain ? resolve(text) : JsonPrimitive.of(text);
+    }
+    switch (tag) {
+      case "!!str", "!" -> {
+        return JsonPrimitive.of(text);
+      }
+      case "!!null" -> {
+        return new JsonPrimitive((Object) null);
+      }
+      case "!!bool", "!!int", "!!float" -> {
+        JsonElement value = resolve(text);
+        boolean ok =
+            value instanceof JsonPrimitive p
+                && (tag.equals("!!bool") ? p.isBoolean() : p.isNumber());
+        if (!ok) {
+          throw error("'" + text + "' is not a valid " + tag.substring(2));
+        }
+        return value;
+      }
+      default -> {
+        return plain ? resolve(text) : JsonPrimitive.of(text);
+      }
+    }
+  }
+
+  /** Resolves a plain scalar with the YAML 1.2 core schema. */
+  static JsonElement resolve(String s) {
+    switch (s) {
+      case "", "~", "null", "Null", "NULL" -> {
+        return new JsonPrimitive((Object) null);
+      }
+      case "true", "True", "TRUE" -> {
+        return JsonPrimitive.of(true);
+      }
+      case "false", "False", "FALSE" -> {
+        return JsonPrimitive.of(false);
+      }
+      default -> {
+        char c = s.charAt(0);
+        if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.') {
+          JsonElement number = number(s);
+          if (number != null) {
+            return number;
+          }
+        }
+        return JsonPrimitive.of(s);
+      }
+    }
+  }
+
+  private static JsonElement number(String s) {
+    if (JSON_NUMBER.matcher(s).matches()) {
+      return JsonParser.parseNumber(s);
+    } else if (INT.matcher(s).matches()) {
+      return integer(s.startsWith("+") ? s.substring(1) : s, 10);
+    } else if (s.length() > 2
+        && s.charAt(0) == '0'
+        && (s.charAt(1) == 'x' || s.charAt(1) == 'o')) {
+      try {
+        return integer(s.substring(2), s.charAt(1) == 'x' ? 16 : 8);
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    } else if (FLOAT.matcher(s).matches()) {
+      return JsonPrimitive.of(Double.parseDouble(s));
+    }
+    String abs = s.charAt(0) == '-' || s.charAt(0) == '+' ? s.substring(1) : s;
+    if (abs.equals(".inf") || abs.equals(".Inf") || abs.equals(".INF")) {
+      boolean negative = s.charAt(0) == '-';
+      return JsonPrimitive.of(negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY);
+    } else if (s.equals(".nan") || s.equals(".NaN") || s.equals(".NAN")) {
+      return JsonPrimitive.of(Double.NaN);
+    }
+    return null;
+  }
+
+  private static JsonElement integer(String digits, int radix) {
+    BigInteger value = new BigInteger(digits, radix);
+    return value.bitLength() < 64 ? JsonPrimitive.of(value.longValue()) : new JsonPrimitive(value);
+  }
+
+  // ---- lines ----
+
+  /** Skips to the first content of the next line that has any, from the start of a line. */
+  private void toContent() {
+    while (pos < len) {
+      int indent = 0;
+      while (pos + indent < len && in.charAt(pos + indent) == ' ') {
+        indent++;
+      }
+      int p = pos + indent;
+      if (p < len && in.charAt(p) == '\t') {
+        int q = p;
+        while (q < len && (in.charAt(q) == ' ' || in.charAt(q) == '\t')) {
+          q++;
+        }
+        if (q < len && in.charAt(q) != '\n' && in.charAt(q) != '#') {
+          pos = p;
+          throw error("Tabs cannot be used for indentation");
+        }
+        p = q;
+      }
+      if (p >= len) {
+        pos = len;
+        break;
+      } else if (in.charAt(p) == '\n' || in.charAt(p) == '#') {
+        pos = Math.min(lineEnd(p) + 1, len);
+        continue;
+      }
+      pos = p;
+      lineIndent = indent;
+      return;
+    }
+    lineIndent = -1;
+  }
+
+  /** Checks that the rest of the line is blank or a comment and moves to the next content. */
+  private void nextLine() {
+    skipSpaces();
+    if (!atLineEnd()) {
+      throw error("Unexpected '" + peek() + "'");
+    }
+    pos = Math.min(lineEnd(pos) + 1, len);
+    toContent();
+  }
+
+  private int lineEnd(int from) {
+    int eol = in.indexOf('\n', from);
+    return eol < 0 ? len : eol;
+  }
+
+  private boolean atLineEnd() {
+    return pos >= len || peek() == '\n' || peek() == '#';
+  }
+
+  private boolean atMarker(String marker) {
+    return column() == 0
+        && in.startsWith(marker, pos)
+        && (pos + 3 >= len || isBlank(in.charAt(pos + 3)));
+  }
+
+  private boolean atSequenceEntry() {
+    return pos < len && peek() == '-' && (pos + 1 >= len || isBlank(in.charAt(pos + 1)));
+  }
+
+  /** Whether the line at {@link #pos} starts with a key followed by a colon. */
+  private boolean atMappingKey() {
+    int start = pos;
+    try {
+      char c = peek();
+      if (c == '"' || c == '\'') {
+        quoted();
+        skipSpaces();
+      } else if (c == '[' || c == '{' || c == '#' || c == '&' || c == '*' || c == '!') {
+        return false;
+      } else {
+        plainLine(false);
+      }
+      return pos < len
+          && peek() == ':'
+          && (pos + 1 >= len || isBlank(in.charAt(pos + 1)));
+    } catch (IllegalArgumentException e) {
+      return false;
+    } finally {
+      pos = start;
+    }
+  }
+
+  private int column() {
+    int p = pos;
+    while (p > 0 && in.charAt(p - 1) != '\n') {
+      p--;
+    }
+    return pos - p;
+  }
+
+  /** Reads an anchor, alias or tag name. */
+  private String word() {
+    int start = pos;
+    while (pos < len && !isBlank(peek()) && !isFlowIndicator(peek())) {
+      pos++;
+    }
+    if (pos == start) {
+      throw error("Expected a name");
+    }
+    return in.substring(start, pos);
+  }
+
+  private void skipSpaces() {
+    while (pos < len && (peek() == ' ' || peek() == '\t')) {
+      pos++;
+    }
+  }
+
+  private char peek() {
+    return pos < len ? in.charAt(pos) : '\0';
+  }
+
+  private static boolean isBlank(char c) {
+    return c == ' ' || c == '\t' || c == '\n';
+  }
+
+  private static boolean isFlowIndicator(char c) {
+    return c == ',' || c == '[' || c == ']' || c == '{' || c == '}';
+  }
+
+  private IllegalArgumentException error(String message) {
+    int line = 1;
+    int lineStart = 0;
+    for (int i = 0; i < Math.min(pos, len); i++) {
+      if (in.charAt(i) == '\n') {
+        line++;
+        lineStart = i + 1;
+      }
+    }
+    return new IllegalArgumentException(
+        message + " at line " + line + ", column " + (pos - lineStart + 1));
+  }
+}
@@ -0,0 +1,253 @@
+package de.chloedev.config.yaml;
+
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Writes trees as block-style YAML that {@link YamlParser} reads back into an equal tree. Strings
+ * are written plain where that is unambiguous, as literal blocks if they span lines, and
+ * double-quoted otherwise. A container that occurs more than once in the tree, like one read from
+ * an alias, is written once with an anchor and then referred to by alias.
+ */
+public final class YamlWriter {
+  private static final String INDICATORS = "-?:,[]{}#&*!|>'\"%@`";
+
+  private final Appendable out;
+  private final int indentSize;
+  /** Containers that occur more than once, mapped to their anchor once it has been written. */
+  private final Map<JsonElement, String> shared = new IdentityHashMap<>();
+  private int anchors;
+
+  private YamlWriter(Appendable out, int indentSize) {
+    this.out = out;
+    this.indentSize = indentSize < 1 ? 2 : indentSize;
+  }
+
+  /**
+   * Converts a tree to YAML.
+   *
+   * @param indentSize the spaces per level; values below 1 use 2, since block style needs them
+   */
+  public static String toString(JsonElement root, int indentSize) {
+    StringBuilder sb = new StringBuilder();
+    try {
+      new YamlWriter(sb, indentSize).document(root);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e); // cannot happen with a StringBuilder
+    }
+    return sb.toString();
+  }
+
+  /** Writes a tree as YAML; the writer is not closed. */
+  public static void write(JsonElement root, Writer out, int indentSize) throws IOException {
+    new YamlWriter(out, indentSize).document(root);
+  }
+
+  private void document(JsonElement root) throws IOException {
+    Map<JsonElement, Boolean> seen = new IdentityHashMap<>();
+    findShared(root, seen);
+    if (root instanceof JsonObject obj && obj.size() > 0) {
+      mapping(obj, 0, false);
+    } else if (root instanceof JsonArray arr && arr.size() > 0) {
+      sequence(arr, 0, false);
+    } else {
+      out.append(root instanceof JsonObject ? "{}" : root instanceof JsonArray ? "[]" : "");
+      if (root instanceof JsonPrimitive p) {
+        scalar(p, 0);
+      } else {
+        out.append('\n');
+      }
+    }
+  }
+
+  private void findShared(JsonElement el, Map<JsonElement, Boolean> seen) {
+    if (!isBlock(el)) {
+      return;
+    }
+    if (seen.put(el, Boolean.TRUE) != null) {
+      shared.put(el, null);
+      return;
+    }
+    if (el instanceof JsonObject obj) {
+      for (Map.Entry<String, JsonElement> e : obj.entrySet()) {
+        findShared(e.getValue(), seen);
+      }
+    } else {
+      JsonArray arr = (JsonArray) el;
+      for (int i = 0; i < arr.size(); i++) {
+        findShared(arr.get(i), seen);
+      }
+    }
+  }
+
+  /**
+   * Writes the entries of a mapping at the given column.
+   *
+   * @param inline whether the first entry continues the current line, after a sequence dash
+   */
+  private void mapping(JsonObject obj, int col, boolean inline) throws IOException {
+    boolean first = true;
+    for (Map.Entry<String, JsonElement> e : obj.entrySet()) {
+      if (!first || !inline) {
+        indent(col);
+      }
+      first = false;
+      String key = e.getKey();
+      // "<<" would be read back as a merge key
+      boolean plain = isPlain(key) && !key.equals("<<");
+      out.append(plain ? key : JsonPrimitive.of(key).toString()).append(':');
+      value(e.getValue(), col, true);
+    }
+  }
+
+  private void sequence(JsonArray arr, int col, boolean inline) throws IOException {
+    for (int i = 0; i < arr.size(); i++) {
+      if (i > 0 || !inline) {
+        indent(col);
+      }
+      out.append('-');
+      value(arr.get(i), col, false);
+    }
+  }
+
+  /** Writes a value after the colon of a key, or the dash of a sequence entry, at {@code col}. */
+  private void value(JsonElement el, int col, boolean afterKey) throws IOException {
+    if (isBlock(el) && shared.containsKey(el)) {
+      String anchor = shared.get(el);
+      if (anchor != null) {
+        out.append(" *").append(anchor).append('\n');
+        return;
+      }
+      anchor = "a" + ++anchors;
+      shared.put(el, anchor);
+      out.append(" &").append(anchor).append('\n');
+      block(el, col + indentSize, false);
+    } else if (isBlock(el)) {
+      if (afterKey) {
+        out.append('\n');
+        block(el, col + indentSize, false);
+      } else {
+        // compact form: the first entry shares the line with the dash
+        out.append(' ');
+        block(el, col + 2, true);
+      }
+    } else if (el instanceof JsonPrimitive p) {
+      out.append(' ');
+      scalar(p, col + indentSize);
+    } else {
+      out.append(el instanceof JsonObject ? " {}\n" : " []\n");
+    }
+  }
+
+  private void block(JsonElement el, int col, boolean inline) throws IOException {
+    if (el instanceof JsonObject obj) {
+      mapping(obj, col, inline);
+    } else {
+      sequence((JsonArray) el, col, inline);
+    }
+  }
+
+  /** Writes a scalar and ends the line; literal blocks are indented to {@code blockCol}. */
+  private void scalar(JsonPrimitive p, int blockCol) throws IOException {
+    if (p.isString()) {
+      String s = p.getAsString();
+      if (isPlain(s)) {
+        out.append(s);
+      } else if (isLiteral(s)) {
+        literal(s, blockCol);
+        return;
+      } else {
+        out.append(p.toString());
+      }
+    } else if (p.isNumber() && p.getAsNumber() instanceof Double d && !Double.isFinite(d)) {
+      out.append(d.isNaN() ? ".nan" : d > 0 ? ".inf" : "-.inf");
+    } else {
+      out.append(p.toString());
+    }
+    out.append('\n');
+  }
+
+  private void literal(String s, int col) throws IOException {
+    int end = s.length();
+    while (end > 0 && s.charAt(end - 1) == '\n') {
+      end--;
+    }
+    int trailing = s.length() - end;
+    out.append(trailing == 0 ? "|-" : trailing == 1 ? "|" : "|+").append('\n');
+    for (String line : s.substring(0, end).split("\n", -1)) {
+      if (!line.isEmpty()) {
+        indent(col);
+        out.append(line);
+      }
+      out.append('\n');
+    }
+    for (int i = 1; i < trailing; i++) {
+      out.append('\n');
+    }
+  }
+
+  private void indent(int col) throws IOException {
+    for (int i = 0; i < col; i++) {
+      out.append(' ');
+    }
+  }
+
+  private static boolean isBlock(JsonElement el) {
+    return (el instanceof JsonObject obj && obj.size() > 0)
+        || (el instanceof JsonArray arr && arr.size() > 0);
+  }
+
+  /** Whether a string can be written without quotes and still reads back as the same string. */
+  static boolean isPlain(String s) {
+    if (s.isEmpty()
+        || INDICATORS.indexOf(s.charAt(0)) >= 0
+        || s.charAt(0) == ' '
+        || s.charAt(s.length() - 1) == ' '
+        || s.charAt(s.length() - 1) == ':'
+        || s.contains(": ")
+        || s.contains(" #")) {
+      return false;
+    }
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c < 0x20 || (c >= 0x7F && c <= 0x9F) || c == '\uFEFF') {
+        return false;
+      }
+    }
+    return YamlParser.resolve(s) instanceof JsonPrimitive p && p.isString();
+  }
+
+  /** Whether a multi-line string can be written as a literal block. */
+  private static boolean isLiteral(String s) {
+    int end = s.length();
+    while (end > 0 && s.charAt(end - 1) == '\n') {
+      end--;
+    }
+    if (end == 0 || s.indexOf('\n') < 0 || s.charAt(0) == ' ' || s.charAt(0) == '\t') {
+      return false;
+    }
+    boolean blankLine = false;
+    for (int i = 0; i < end; i++) {
+      char c = s.charAt(i);
+      if ((c < 0x20 && c != '\n' && c != '\t') || (c >= 0x7F && c <= 0x9F) || c == '\uFEFF') {
+        return false;
+      }
+      // a line of only spaces would be read as an empty one
+      if (c == '\n') {
+        blankLine = true;
+      } else if (c != ' ' && c != '\t') {
+        blankLine = false;
+      } else if (blankLine && (i + 1 == end || s.charAt(i + 1) == '\n')) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,180 @@
+package de.chloedev.config.yaml.io;
+
+import de.chloedev.config.error.ElementNotFoundException;
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.event.ChangeListener;
+import de.chloedev.config.json.io.ConfigurationBase;
+import de.chloedev.config.json.io.JsonConfiguration;
+import de.chloedev.config.json.path.ConfigPath;
+import de.chloedev.config.yaml.YamlParser;
+import de.chloedev.config.yaml.YamlWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+/**
+ * A configuration read from and written as YAML. The tree is the same one a {@link
+ * JsonConfiguration} holds, and every operation behaves like it does there; {@link #asJson()}
+ * returns the JSON view of the same tree.
+ */
+public class YamlConfiguration extends ConfigurationBase {
+  private final JsonConfiguration config;
+
+  private YamlConfiguration(JsonConfiguration config) {
+    this.config = config;
+  }
+
+  private static YamlConfiguration of(JsonElement root) {
+    if (root instanceof JsonPrimitive p && p.isNull()) {
+      return new YamlConfiguration(JsonConfiguration.fromObject(new JsonObject()));
+    } else if (root instanceof JsonObject obj) {
+      return new YamlConfiguration(JsonConfiguration.fromObject(obj));
+    } else if (root instanceof JsonArray arr) {
+      return new YamlConfiguration(JsonConfiguration.fromArray(arr));
+    }
+    throw new IllegalArgumentException("The document must be a mapping or a sequence.");
+  }
+
+  public static YamlConfiguration fromObject(JsonObject object) {
+    return of(object);
+  }
+
+  public static YamlConfiguration fromArray(JsonArray array) {
+    return of(array);
+  }
+
+  /** Reads a configuration from a YAML document; an empty document gives an empty mapping. */
+  public static YamlConfiguration fromString(String yaml) {
+    return of(YamlParser.parse(yaml));
+  }
+
+  public static YamlConfiguration fromFile(File file) throws IOException {
+    return fromString(Files.readString(file.toPath(), StandardCharsets.UTF_8));
+  }
+
+  /** Reads a configuration from UTF-8 encoded YAML. The stream is not closed. */
+  public static YamlConfiguration fromStream(InputStream in) throws IOException {
+    return fromString(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+  }
+
+  /** Reads every document of a multi-document stream as a configuration of its own. */
+  public static List<YamlConfiguration> fromStringAll(String yaml) {
+    List<YamlConfiguration> configs = new ArrayList<>();
+    for (JsonElement doc : YamlParser.parseAll(yaml)) {
+      configs.add(of(doc));
+    }
+    return configs;
+  }
+
+  public static List<YamlConfiguration> fromFileAll(File file) throws IOException {
+    return fromStringAll(Files.readString(file.toPath(), StandardCharsets.UTF_8));
+  }
+
+  /** Returns the JSON configuration holding the same tree; changes to either show in both. */
+  public JsonConfiguration asJson() {
+    return config;
+  }
+
+  @Override
+  public JsonElement get(String key) throws ElementNotFoundException {
+    return config.get(key);
+  }
+
+  @Override
+  public JsonElement get(ConfigPath path) throws ElementNotFoundException {
+    return config.get(path);
+  }
+
+  @Override
+  public JsonElement getOrDefault(String key, JsonElement defaultValue) {
+    return config.getOrDefault(key, defaultValue);
+  }
+
+  @Override
+  public JsonElement getOrDefault(ConfigPath path, JsonElement defaultValue) {
+    return config.getOrDefault(path, defaultValue);
+  }
+
+  @Override
+  public void set(String key, JsonElement value) {
+    config.set(key, value);
+  }
+
+  @Override
+  public void set(ConfigPath path, JsonElement value) {
+    config.set(path, value);
+  }
+
+  @Override
+  public void remove(String key) {
+    config.remove(key);
+  }
+
+  @Override
+  public void remove(ConfigPath path) {
+    config.remove(path);
+  }
+
+  @Override
+  public void clear() {
+    config.clear();
+  }
+
+  @Override
+  public Set<String> getKeys(String root, boolean recursive) {
+    return config.getKeys(root, recursive);
+  }
+
+  @Override
+  public List<JsonElement> getValues(String root, boolean recursive) {
+    return config.getValues(root, recursive);
+  }
+
+  @Override
+  public void forEach(BiConsumer<String, JsonElement> callback) {
+    config.forEach(callback);
+  }
+
+  // listeners are kept by the JSON configuration, which makes the changes
+
+  @Override
+  public void addListener(ConfigPath pathPrefix, ChangeListener listener) {
+    config.addListener(pathPrefix, listener);
+  }
+
+  @Override
+  public boolean removeListener(ConfigPath pathPrefix, ChangeListener listener) {
+    return config.removeListener(pathPrefix, listener);
+  }
+
+  @Override
+  public void setListenerExecutor(Executor executor) {
+    config.setListenerExecutor(executor);
+  }
+
+  public boolean writeToFile(File file, int indentSize) {
+    try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+      YamlWriter.write(config.get(ConfigPath.ROOT), writer, indentSize);
+    } catch (IOException e) {
+      return false;
+    }
+    return true;
+  }
+
+  /** Returns this configuration as YAML; block style needs indentation, so 0 means 2. */
+  @Override
+  public String toString(int indentSize) {
+    return YamlWriter.toString(config.get(ConfigPath.ROOT), indentSize);
+  }
+}
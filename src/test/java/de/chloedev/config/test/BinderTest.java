@@ -0,0 +1,196 @@
+package de.chloedev.config.test;
+
+import de.chloedev.config.error.BindingException;
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.bind.JsonBinder;
+import de.chloedev.config.json.element.JsonElement;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class BinderTest {
+  public enum Level {
+    LOW,
+    HIGH
+  }
+
+  public record Server(String host, int port, boolean tls, List<String> tags) {}
+
+  public record Service(String name, Server server, Map<String, Server> replicas) {}
+
+  public record Node(String name, List<Node> children) {}
+
+  public record Keys(Map<Level, Integer> levels, Map<Integer, String> codes, Set<Level> seen) {}
+
+  public record Root(Service svc, Server[] servers) {}
+
+  public static class Pool {
+    int size = 4;
+    String name = "main";
+    long timeout = 30;
+    Level level = Level.LOW;
+    transient int skipped = 7;
+  }
+
+  public static class Chain {
+    int value;
+    Chain next;
+  }
+
+  public static class ArrayFields {
+    int[] ints;
+    long[] longs;
+    double[] doubles;
+    boolean[] flags;
+    char[] chars;
+    String[] names;
+  }
+
+  private static <T> T bind(String json, Class<T> type) {
+    return JsonBinder.bind(JsonParser.parse(json), type);
+  }
+
+  public void testRecords() {
+    Server s =
+        bind(
+            "{\"host\": \"h\", \"port\": 80, \"tls\": true, \"tags\": [\"a\", \"b\"]}",
+            Server.class);
+    Check.equal(new Server("h", 80, true, List.of("a", "b")), s);
+    Check.equal(new Server(null, 0, false, null), bind("{\"extra\": 1}", Server.class));
+    Check.equal(null, bind("null", Server.class));
+  }
+
+  public void testPojoKeepsDefaultsOfMissingMembers() {
+    Pool pool = bind("{\"size\": 8, \"level\": \"HIGH\", \"skipped\": 1}", Pool.class);
+    Check.equal(8, pool.size);
+    Check.equal("main", pool.name);
+    Check.equal(30L, pool.timeout);
+    Check.equal(Level.HIGH, pool.level);
+    Check.equal(7, pool.skipped);
+  }
+
+  public void testNestedAndSelfReferencingTypes() {
+    Service svc =
+        bind(
+            "{\"name\": \"api\", \"server\": {\"host\": \"a\", \"port\": 1},"
+                + " \"replicas\": {\"eu\": {\"host\": \"b\", \"port\": 2}}}",
+            Service.class);
+    Check.equal(
+        new Service(
+            "api",
+            new Server("a", 1, false, null),
+            Map.of("eu", new Server("b", 2, false, null))),
+        svc);
+    Node tree =
+        bind(
+            "{\"name\": \"r\", \"children\": [{\"name\": \"c\", \"children\": []}]}", Node.class);
+    Check.equal(new Node("r", List.of(new Node("c", List.of()))), tree);
+    Chain chain =
+        bind("{\"value\": 1, \"next\": {\"value\": 2, \"next\": {\"value\": 3}}}", Chain.class);
+    Check.equal(3, chain.next.next.value);
+    Check.equal(null, chain.next.next.next);
+  }
+
+  public void testEnumAndIntegerKeys() {
+    Keys keys =
+        bind(
+            "{\"levels\": {\"HIGH\": 2, \"LOW\": 1}, \"codes\": {\"404\": \"missing\"},"
+                + " \"seen\": [\"LOW\", \"LOW\"]}",
+            Keys.class);
+    Check.equal(Map.of(Level.HIGH, 2, Level.LOW, 1), keys.levels());
+    Check.equal(Map.of(404, "missing"), keys.codes());
+    Check.equal(Set.of(Level.LOW), keys.seen());
+    BindingException ex =
+        Check.fails(BindingException.class, () -> bind("{\"codes\": {\"x\": \"y\"}}", Keys.class));
+    Check.equal("codes/x", ex.getPath());
+    ex = Check.fails(BindingException.class, () -> bind("{\"levels\": {\"MID\": 1}}", Keys.class));
+    Check.equal("levels/MID", ex.getPath());
+  }
+
+  public void testArrays() {
+    ArrayFields a =
+        bind(
+            "{\"ints\": [1, 2], \"longs\": [9007199254740993], \"doubles\": [0.5],"
+                + " \"flags\": [true, false], \"chars\": [\"x\"], \"names\": [\"n\", null]}",
+            ArrayFields.class);
+    Check.isTrue(Arrays.equals(new int[] {1, 2}, a.ints), "ints");
+    Check.isTrue(Arrays.equals(new long[] {9007199254740993L}, a.longs), "longs");
+    Check.isTrue(Arrays.equals(new double[] {0.5}, a.doubles), "doubles");
+    Check.isTrue(Arrays.equals(new boolean[] {true, false}, a.flags), "flags");
+    Check.isTrue(Arrays.equals(new char[] {'x'}, a.chars), "chars");
+    Check.isTrue(Arrays.equals(new String[] {"n", null}, a.names), "names");
+    BindingException ex =
+        Check.fails(
+            BindingException.class, () -> bind("{\"ints\": [1, \"x\"]}", ArrayFields.class));
+    Check.equal("ints/1", ex.getPath());
+  }
+
+  public void testErrorPaths() {
+    BindingException ex =
+        Check.fails(
+            BindingException.class,
+            () -> bind("{\"svc\": {\"server\": {\"port\": \"x\"}}}", Root.class));
+    Check.equal("svc/server/port", ex.getPath());
+    Check.isTrue(ex.getMessage().endsWith(" at 'svc/server/port'"), ex.getMessage());
+    ex =
+        Check.fails(
+            BindingException.class,
+            () -> bind("{\"servers\": [{}, {\"tags\": [\"a\", 1]}]}", Root.class));
+    Check.equal("servers/1/tags/1", ex.getPath());
+    ex =
+        Check.fails(
+            BindingException.class,
+            () -> bind("{\"svc\": {\"replicas\": {\"eu\": []}}}", Root.class));
+    Check.equal("svc/replicas/eu", ex.getPath());
+    Check.fails(BindingException.class, () -> bind("[]", Server.class));
+    Check.fails(BindingException.class, () -> bind("{}", Runnable.class));
+  }
+
+  public void testObjectBindsToPlainValues() {
+    Object value = bind("{\"a\": [1, \"s\", true, null], \"b\": {}}", Object.class);
+    Check.equal(
+        Map.of("a", Arrays.asList(1L, "s", true, null), "b", Map.of()), normalize(value));
+    Check.equal("s", bind("\"s\"", Object.class));
+    Check.equal(null, bind("null", Object.class));
+    Check.json("{}", JsonBinder.toJson(new Object()));
+  }
+
+  /** Numbers bind to whatever Number the parser made; compare them as longs. */
+  private static Object normalize(Object value) {
+    if (value instanceof Map<?, ?> map) {
+      Map<Object, Object> out = new LinkedHashMap<>();
+      map.forEach((k, v) -> out.put(k, normalize(v)));
+      return out;
+    } else if (value instanceof List<?> list) {
+      return list.stream().map(BinderTest::normalize).collect(Collectors.toList());
+    }
+    return value instanceof Number n ? (Object) n.longValue() : value;
+  }
+
+  public void testToJsonRoundTrip() {
+    Service svc =
+        new Service(
+            "api",
+            new Server("a", 1, true, List.of("x")),
+            Map.of("eu", new Server(null, 2, false, null)));
+    JsonElement json = JsonBinder.toJson(svc);
+    Check.json(
+        "{\"name\": \"api\", \"server\": {\"host\": \"a\", \"port\": 1, \"tls\": true,"
+            + " \"tags\": [\"x\"]}, \"replicas\": {\"eu\": {\"port\": 2, \"tls\": false}}}",
+        json);
+    Check.equal(svc, JsonBinder.bind(json, Service.class));
+
+    Keys keys = new Keys(Map.of(Level.HIGH, 3), Map.of(7, "seven"), Set.of(Level.LOW));
+    Check.equal(keys, JsonBinder.bind(JsonBinder.toJson(keys), Keys.class));
+
+    Pool pool = new Pool();
+    pool.size = 12;
+    pool.name = null;
+    JsonElement poolJson = JsonBinder.toJson(pool);
+    Check.json("{\"size\": 12, \"timeout\": 30, \"level\": \"LOW\"}", poolJson);
+    Check.equal("main", JsonBinder.bind(poolJson, Pool.class).name);
+  }
+}
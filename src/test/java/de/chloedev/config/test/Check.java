@@ -0,0 +1,47 @@
+package de.chloedev.config.test;
+
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.element.JsonElement;
+import java.util.Objects;
+
+/** Assertions for the tests run by {@link TestRunner}. */
+final class Check {
+  private Check() {}
+
+  @FunctionalInterface
+  interface Action {
+    void run() throws Exception;
+  }
+
+  static void isTrue(boolean condition, String message) {
+    if (!condition) {
+      throw new AssertionError(message);
+    }
+  }
+
+  static void equal(Object expected, Object actual) {
+    if (!Objects.equals(expected, actual)) {
+      throw new AssertionError("expected <" + expected + "> but was <" + actual + ">");
+    }
+  }
+
+  /** Compares a tree with the given JSON text by content. */
+  static void json(String expected, JsonElement actual) {
+    JsonElement want = JsonParser.parse(expected);
+    if (actual == null || !want.contentEquals(actual)) {
+      throw new AssertionError("expected " + want + " but was " + actual);
+    }
+  }
+
+  static <T extends Throwable> T fails(Class<T> type, Action action) {
+    try {
+      action.run();
+    } catch (Throwable t) {
+      if (type.isInstance(t)) {
+        return type.cast(t);
+      }
+      throw new AssertionError("expected " + type.getSimpleName() + " but got " + t, t);
+    }
+    throw new AssertionError("expected " + type.getSimpleName() + " but nothing was thrown");
+  }
+}
@@ -0,0 +1,168 @@
+package de.chloedev.config.test;
+
+import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.event.ChangeEvent;
+import de.chloedev.config.json.event.ChangeListener;
+import de.chloedev.config.json.io.ConcurrentJsonConfiguration;
+import de.chloedev.config.json.io.JsonConfiguration;
+import de.chloedev.config.json.path.ConfigPath;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ConcurrentConfigurationTest {
+  private final ConcurrentJsonConfiguration config =
+      ConcurrentJsonConfiguration.fromString("{\"a\": 0, \"b\": 0, \"db\": {\"size\": 0}}");
+
+  public void testSnapshotNeverChanges() {
+    JsonConfiguration before = config.snapshot();
+    config.set("a", JsonPrimitive.of(1));
+    config.remove("db/size");
+    config.batch(m -> m.set("b", JsonPrimitive.of(2)).set("c", JsonPrimitive.of(3)));
+    Check.json("{\"a\": 0, \"b\": 0, \"db\": {\"size\": 0}}", before.get(""));
+    Check.json("{\"a\": 1, \"b\": 2, \"db\": {}, \"c\": 3}", config.snapshot().get(""));
+    Check.fails(
+        UnsupportedOperationException.class, () -> before.set("a", JsonPrimitive.of(5)));
+  }
+
+  public void testHistoryIsBoundedAndRollsBack() {
+    ConcurrentJsonConfiguration versioned =
+        ConcurrentJsonConfiguration.of(JsonConfiguration.fromString("{\"v\": 0}"), 3);
+    List<String> events = new ArrayList<>();
+    versioned.addListener("", e -> events.add(e.getPath() + ":" + e.getNewValue()));
+    for (int i = 1; i <= 5; i++) {
+      versioned.set("v", JsonPrimitive.of(i));
+    }
+    List<JsonConfiguration> history = versioned.history();
+    Check.equal(3, history.size());
+    Check.equal(4L, history.get(0).getLong("v", -1));
+    Check.equal(3L, history.get(1).getLong("v", -1));
+    Check.equal(2L, history.get(2).getLong("v", -1));
+
+    events.clear();
+    Check.isTrue(versioned.rollback(), "nothing to roll back");
+    Check.equal(List.of(":{\"v\":4}"), events);
+    Check.isTrue(versioned.rollback(), "nothing to roll back");
+    Check.isTrue(versioned.rollback(), "nothing to roll back");
+    Check.equal(2L, versioned.getLong("v", -1));
+    Check.isTrue(!versioned.rollback(), "rolled back past the history limit");
+    Check.equal(2L, versioned.getLong("v", -1));
+    Check.equal(List.of(), versioned.history());
+
+    ConcurrentJsonConfiguration unversioned = ConcurrentJsonConfiguration.of(versioned.snapshot());
+    unversioned.set("v", JsonPrimitive.of(9));
+    Check.equal(List.of(), unversioned.history());
+    Check.isTrue(!unversioned.rollback(), "rolled back without a history");
+    Check.fails(
+        IllegalArgumentException.class,
+        () -> ConcurrentJsonConfiguration.of(versioned.snapshot(), -1));
+  }
+
+  public void testFailedBatchPublishesNothing() {
+    List<List<ChangeEvent>> delivered = new ArrayList<>();
+    config.addListener(
+        "",
+        new ChangeListener() {
+          @Override
+          public void onChange(ChangeEvent event) {}
+
+          @Override
+          public void onChanges(List<ChangeEvent> events) {
+            delivered.add(events);
+          }
+        });
+    ConcurrentJsonConfiguration.Mutator[] escaped = new ConcurrentJsonConfiguration.Mutator[1];
+    Check.fails(
+        IllegalStateException.class,
+        () ->
+            config.batch(
+                m -> {
+                  escaped[0] = m.set("a", JsonPrimitive.of(1));
+                  Check.equal(1L, ((JsonPrimitive) m.get(ConfigPath.of("a"))).getAsLong());
+                  throw new IllegalStateException("abort");
+                }));
+    Check.equal(0L, config.getLong("a", -1));
+    Check.equal(List.of(), delivered);
+    Check.fails(IllegalStateException.class, () -> escaped[0].set("b", JsonPrimitive.of(1)));
+
+    config.batch(m -> m.set("a", JsonPrimitive.of(1)).remove("b"));
+    Check.equal(1, delivered.size());
+    Check.equal(2, delivered.get(0).size());
+  }
+
+  public void testReadsDoNotWaitForAWriter() throws Exception {
+    CountDownLatch inBatch = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread writer =
+        new Thread(
+            () ->
+                config.batch(
+                    m -> {
+                      m.set("a", JsonPrimitive.of(1));
+                      inBatch.countDown();
+                      try {
+                        release.await();
+                      } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                      }
+                      m.set("b", JsonPrimitive.of(1));
+                    }));
+    writer.start();
+    try {
+      Check.isTrue(inBatch.await(10, TimeUnit.SECONDS), "batch did not start");
+      // the writer holds the write lock; reads still complete, and see the old version
+      Check.equal(0L, config.getLong("a", -1));
+      Check.json("{\"a\": 0, \"b\": 0, \"db\": {\"size\": 0}}", config.snapshot().get(""));
+    } finally {
+      release.countDown();
+      writer.join();
+    }
+    Check.equal(1L, config.getLong("a", -1));
+    Check.equal(1L, config.getLong("b", -1));
+  }
+
+  public void testReadersSeeNoneOrAllOfABatch() throws Exception {
+    int batches = 2_000;
+    AtomicReference<String> failure = new AtomicReference<>();
+    CountDownLatch done = new CountDownLatch(1);
+    List<Thread> readers = new ArrayList<>();
+    for (int r = 0; r < 4; r++) {
+      Thread reader =
+          new Thread(
+              () -> {
+                long last = 0;
+                while (done.getCount() > 0 && failure.get() == null) {
+                  JsonConfiguration version = config.snapshot();
+                  long a = version.getLong("a", -1);
+                  long b = version.getLong("b", -1);
+                  long size = version.getLong("db/size", -1);
+                  if (a != b || a != size || a < last) {
+                    failure.set("saw a=" + a + ", b=" + b + ", db/size=" + size + " after " + last);
+                  }
+                  last = a;
+                }
+              });
+      reader.start();
+      readers.add(reader);
+    }
+    try {
+      for (int i = 1; i <= batches; i++) {
+        long value = i;
+        config.batch(
+            m ->
+                m.set("a", JsonPrimitive.of(value))
+                    .set("db/size", JsonPrimitive.of(value))
+                    .set("b", JsonPrimitive.of(value)));
+      }
+    } finally {
+      done.countDown();
+      for (Thread reader : readers) {
+        reader.join();
+      }
+    }
+    Check.equal(null, failure.get());
+    Check.equal((long) batches, config.getLong("db/size", -1));
+  }
+}
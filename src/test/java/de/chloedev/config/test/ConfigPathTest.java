@@ -0,0 +1,59 @@
+package de.chloedev.config.test;
+
+import de.chloedev.config.json.path.ConfigPath;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ConfigPathTest {
+  private static List<String> segments(ConfigPath path) {
+    List<String> out = new ArrayList<>();
+    for (int i = 0; i < path.size(); i++) {
+      out.add(path.segment(i));
+    }
+    return out;
+  }
+
+  public void testSegmentsAndIndices() {
+    ConfigPath path = ConfigPath.of("db/pool/0/size");
+    Check.equal(List.of("db", "pool", "0", "size"), segments(path));
+    Check.equal(-1, path.index(0));
+    Check.equal(0, path.index(2));
+    Check.equal(ConfigPath.of("db/pool"), path.subPath(2));
+    Check.equal(ConfigPath.of("db/pool/0"), path.parent());
+    Check.isTrue(path.startsWith(ConfigPath.of("db")), "not below its first segment");
+    Check.isTrue(!ConfigPath.of("dbx").startsWith(ConfigPath.of("db")), "prefix by text");
+    Check.isTrue(ConfigPath.of("").isRoot() && ConfigPath.of(null).isRoot(), "no root");
+    Check.equal(List.of("a"), segments(ConfigPath.of("a/")));
+  }
+
+  public void testEscapes() {
+    ConfigPath path = ConfigPath.of("a~1b/c~0d/~01");
+    Check.equal(List.of("a/b", "c~d", "~1"), segments(path));
+    Check.equal(path, ConfigPath.ofSegments("a/b", "c~d", "~1"));
+    Check.equal("a~1b/c~0d/~01", ConfigPath.ofSegments("a/b", "c~d", "~1").toString());
+    Check.equal("/a~1b/c~0d/~01", path.toPointer());
+    Check.equal(path, ConfigPath.fromPointer("/a~1b/c~0d/~01"));
+    Check.equal("a~1b", ConfigPath.escape("a/b"));
+    Check.equal("~1", ConfigPath.unescape("~01"));
+  }
+
+  public void testPointers() {
+    Check.equal("", ConfigPath.ROOT.toPointer());
+    Check.equal("/a", ConfigPath.of("a/").toPointer());
+    Check.equal(ConfigPath.of("a"), ConfigPath.fromPointer(ConfigPath.of("a/").toPointer()));
+    Check.equal(List.of("a", "", "b"), segments(ConfigPath.fromPointer("/a//b")));
+    Check.equal("/a//b", ConfigPath.fromPointer("/a//b").toPointer());
+    Check.equal(List.of(""), segments(ConfigPath.fromPointer("/")));
+    Check.equal("/", ConfigPath.fromPointer("/").toPointer());
+    Check.fails(IllegalArgumentException.class, () -> ConfigPath.fromPointer("a/b"));
+  }
+
+  public void testUnusualIndices() {
+    for (String path : List.of("a/01", "a/+1", "a/-0", "a/000000000001", "a/-5")) {
+      Check.isTrue(ConfigPath.of(path).hasUnusualIndex(), path);
+    }
+    for (String path : List.of("a/0", "a/10", "a/+", "a/-", "a/1a", "a/")) {
+      Check.isTrue(!ConfigPath.of(path).hasUnusualIndex(), path);
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package de.chloedev.config.test;
+
+import de.chloedev.config.json.io.FileWatcher;
+import de.chloedev.config.json.io.JsonConfiguration;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+public class FileWatcherTest {
+  private static void await(BooleanSupplier condition, String what) throws InterruptedException {
+    long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+    while (!condition.getAsBoolean()) {
+      if (System.nanoTime() > deadline) {
+        throw new AssertionError("timed out waiting for " + what);
+      }
+      Thread.sleep(10);
+    }
+  }
+
+  /** Reads like the watch() doc asks: under the monitor the watcher merges with. */
+  private static BooleanSupplier locked(JsonConfiguration config, BooleanSupplier read) {
+    return () -> {
+      synchronized (config) {
+        return read.getAsBoolean();
+      }
+    };
+  }
+
+  public void testReloadsAndSurvivesFailingListener() throws Exception {
+    Path dir = Files.createTempDirectory("watch");
+    File file = dir.resolve("config.json").toFile();
+    Files.writeString(file.toPath(), "{\"a\": 1, \"b\": {\"c\": true}}");
+    JsonConfiguration config = JsonConfiguration.fromFile(file);
+    List<Throwable> reported = new CopyOnWriteArrayList<>();
+    Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+    Thread.setDefaultUncaughtExceptionHandler((t, e) -> reported.add(e));
+    boolean[] failNext = {true};
+    config.addListener(
+        "a",
+        e -> {
+          if (failNext[0]) {
+            failNext[0] = false;
+            throw new IllegalStateException("listener failed");
+          }
+        });
+    try (FileWatcher watcher = config.watch(file, Duration.ofMillis(20))) {
+      Check.equal(file.toPath().toAbsolutePath(), watcher.getFile());
+      Files.writeString(file.toPath(), "{\"a\": 2, \"b\": {\"c\": true}}");
+      await(locked(config, () -> config.getLong("a", 0) == 2), "the first reload");
+      await(() -> !reported.isEmpty(), "the listener failure to be reported");
+      Check.equal("listener failed", reported.get(0).getMessage());
+
+      Files.writeString(file.toPath(), "{\"a\": 3, \"b\": {\"c\": false}}");
+      // the watcher merges member by member, so wait for the whole version
+      await(
+          locked(config, () -> config.getLong("a", 0) == 3 && !config.getBoolean("b/c", true)),
+          "the reload after the failure");
+
+      Files.writeString(file.toPath(), "{\"a\": ");
+      Files.writeString(file.toPath(), "{\"a\": 4, \"b\": {\"c\": false}}");
+      await(
+          locked(config, () -> config.getLong("a", 0) == 4), "the reload after a broken version");
+      Check.equal(1, reported.size());
+    } finally {
+      Thread.setDefaultUncaughtExceptionHandler(previous);
+      Files.deleteIfExists(file.toPath());
+      Files.deleteIfExists(dir);
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package de.chloedev.config.test;
+
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+
+public class FrozenTreeTest {
+  private static final String JSON =
+      "{\"a\": [1, {\"b\": [true, \"x\"]}, []], \"c\": {\"d\": null, \"e\": 2.5}}";
+
+  public void testFreezeKeepsContent() {
+    JsonElement tree = JsonParser.parse(JSON);
+    JsonElement frozen = tree.freeze();
+    Check.isTrue(frozen.isFrozen(), "not frozen");
+    Check.isTrue(frozen.contentEquals(tree), "content changed");
+    Check.equal(tree.contentHash(), frozen.contentHash());
+    Check.isTrue(frozen.freeze() == frozen, "frozen tree copied again");
+    JsonArray a = (JsonArray) ((JsonObject) frozen).getMember("a");
+    Check.equal(3, a.size());
+    Check.isTrue(a.get(1).isFrozen(), "children not frozen");
+    Check.fails(IndexOutOfBoundsException.class, () -> a.get(3));
+  }
+
+  public void testFrozenArraysRejectChanges() {
+    JsonArray a = (JsonArray) JsonParser.parse("[1, 2, 3]").freeze();
+    Check.fails(UnsupportedOperationException.class, () -> a.add(JsonPrimitive.of(4)));
+    Check.fails(UnsupportedOperationException.class, () -> a.addAt(0, JsonPrimitive.of(4)));
+    Check.fails(UnsupportedOperationException.class, () -> a.remove(0));
+    Check.json("[1, 2, 3]", a);
+  }
+
+  public void testFrozenObjectsRejectChanges() {
+    JsonObject o = (JsonObject) JsonParser.parse(JSON).freeze();
+    Check.fails(UnsupportedOperationException.class, () -> o.putMember("z", JsonPrimitive.of(1)));
+    Check.fails(UnsupportedOperationException.class, () -> o.removeMember("a"));
+    Check.json(JSON, o);
+  }
+
+  public void testCopiesOnWrite() {
+    JsonArray a = (JsonArray) JsonParser.parse("[1, 2, 3]").freeze();
+    Check.json("[1, 9, 3]", a.withElement(1, JsonPrimitive.of(9)));
+    Check.json("[1, 3]", a.withoutElement(1));
+    Check.json("[1, 2, 3]", a);
+    JsonObject o = (JsonObject) JsonParser.parse("{\"a\": 1}").freeze();
+    Check.json("{\"a\": 1, \"b\": 2}", o.withMember("b", JsonPrimitive.of(2)));
+    Check.json("{}", o.withoutMember("a"));
+    Check.json("{\"a\": 1}", o);
+  }
+}
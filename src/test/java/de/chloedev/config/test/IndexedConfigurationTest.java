@@ -0,0 +1,111 @@
+package de.chloedev.config.test;
+
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.io.IndexedJsonConfiguration;
+import de.chloedev.config.json.io.JsonConfiguration;
+import java.util.List;
+import java.util.Random;
+
+public class IndexedConfigurationTest {
+  private static final String JSON =
+      "{\"arr\": [{\"v\": 0}, {\"v\": 1}, {\"v\": 2}], \"obj\": {\"a\": {\"b\": 1}, \"c\": 2}}";
+
+  private final IndexedJsonConfiguration config = IndexedJsonConfiguration.fromString(JSON);
+
+  private void warm() {
+    for (String path : List.of("arr/0/v", "arr/1/v", "arr/2/v", "arr/1", "obj/a/b", "obj/c")) {
+      config.get(path);
+    }
+  }
+
+  private long value(String path) {
+    return ((JsonPrimitive) config.get(path)).getAsLong();
+  }
+
+  public void testLookupsAreIndexed() {
+    warm();
+    Check.isTrue(config.indexSize() == 6, "index holds " + config.indexSize() + " paths");
+    Check.isTrue(config.get("obj/a") == config.get("obj/a"), "lookup returned another instance");
+    config.setIndexLimit(0);
+    Check.equal(0, config.indexSize());
+    Check.equal(2L, value("arr/2/v"));
+    Check.equal(0, config.indexSize());
+  }
+
+  public void testUnusualIndexSpellings() {
+    for (String one : List.of("01", "+1", "000000000001")) {
+      IndexedJsonConfiguration c = IndexedJsonConfiguration.fromString(JSON);
+      c.get("arr/1/v");
+      c.set("arr/" + one, JsonParser.parse("{\"v\": 9}"));
+      Check.equal(9L, ((JsonPrimitive) c.get("arr/1/v")).getAsLong());
+    }
+    warm();
+    config.set("arr/-0/v", JsonPrimitive.of(7));
+    Check.equal(7L, value("arr/0/v"));
+    config.remove("arr/+0");
+    Check.equal(1L, value("arr/0/v"));
+    Check.equal(2L, value("arr/1/v"));
+    Check.isTrue(config.getOrDefault("arr/2/v", null) == null, "removed element still indexed");
+  }
+
+  public void testWritesDropStaleEntries() {
+    warm();
+    config.set("obj/a", JsonPrimitive.of(5));
+    Check.isTrue(config.getOrDefault("obj/a/b", null) == null, "replaced subtree still indexed");
+    config.set("obj/c/d", JsonPrimitive.of(3));
+    Check.equal(3L, value("obj/c/d"));
+    config.remove("arr/1");
+    Check.equal(2L, value("arr/1/v"));
+    Check.isTrue(config.getOrDefault("arr/2", null) == null, "shifted element still indexed");
+    config.clear();
+    Check.isTrue(config.getOrDefault("obj/c", null) == null, "cleared tree still indexed");
+  }
+
+  /** Runs random writes against an indexed and a plain configuration and compares every read. */
+  public void testMatchesPlainConfiguration() {
+    Random random = new Random(42);
+    String[] segments = {"a", "b", "0", "1", "01", "+1", "-0", "2"};
+    for (int round = 0; round < 50; round++) {
+      String json = "{\"a\": [{\"a\": 1, \"b\": [1, 2]}, [3, {\"b\": 4}], 5], \"b\": {\"a\": [6]}}";
+      JsonConfiguration plain = JsonConfiguration.fromString(json);
+      IndexedJsonConfiguration indexed = IndexedJsonConfiguration.fromString(json);
+      indexed.setIndexLimit(1 + random.nextInt(20));
+      for (int op = 0; op < 40; op++) {
+        StringBuilder path = new StringBuilder(segments[random.nextInt(2)]);
+        for (int depth = random.nextInt(4); depth > 0; depth--) {
+          path.append('/').append(segments[random.nextInt(segments.length)]);
+        }
+        String p = path.toString();
+        int kind = random.nextInt(4);
+        // each configuration gets its own copy, or they would share subtrees
+        String value = random.nextBoolean() ? Integer.toString(op) : "{\"a\": [" + op + "]}";
+        boolean plainFailed = apply(plain, kind, p, JsonParser.parse(value));
+        boolean indexedFailed = apply(indexed, kind, p, JsonParser.parse(value));
+        Check.equal(plainFailed, indexedFailed);
+        Check.json(plain.toString(), JsonParser.parse(indexed.toString()));
+        for (String probe : plain.getKeys("", true)) {
+          JsonElement want = plain.getOrDefault(probe, null);
+          JsonElement got = indexed.getOrDefault(probe, null);
+          Check.isTrue(want.contentEquals(got), probe + ": expected " + want + " but was " + got);
+        }
+      }
+    }
+  }
+
+  private static boolean apply(JsonConfiguration c, int kind, String path, JsonElement value) {
+    try {
+      if (kind == 0) {
+        c.remove(path);
+      } else if (kind == 1) {
+        c.getOrDefault(path, null);
+      } else {
+        c.set(path, value);
+      }
+      return false;
+    } catch (RuntimeException ex) {
+      return true;
+    }
+  }
+}
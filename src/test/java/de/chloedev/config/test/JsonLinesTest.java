@@ -0,0 +1,211 @@
+package de.chloedev.config.test;
+
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.io.JsonLines;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class JsonLinesTest {
+  /** Larger than the smallest range a parallel stream splits. */
+  private static final int LARGE = 3 << 20;
+
+  private interface FileTest {
+    void run(Path file) throws Exception;
+  }
+
+  private static void withFile(String content, FileTest test) throws Exception {
+    Path file = Files.createTempFile("records", ".jsonl");
+    try {
+      Files.writeString(file, content);
+      test.run(file);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  private static JsonArray read(Path file) throws IOException {
+    JsonArray arr = new JsonArray();
+    try (Stream<JsonElement> records = JsonLines.stream(file)) {
+      records.forEach(arr::add);
+    }
+    return arr;
+  }
+
+  /**
+   * Numbered records, with a blank line after every 1000th record, CRLF after every 7th, and an
+   * invalid line at each of the given record numbers; the invalid lines are added to {@code bad}.
+   */
+  private static String records(int size, Set<Integer> invalid, Set<Long> bad) {
+    StringBuilder sb = new StringBuilder();
+    long line = 1;
+    for (int i = 0; sb.length() < size; i++) {
+      if (invalid.contains(i)) {
+        sb.append("{\"i\": ").append(i).append(", oops}\n");
+        bad.add(line++);
+      }
+      sb.append("{\"i\": ").append(i).append(", \"pad\": \"").append("x".repeat(i % 50));
+      sb.append("\"}").append(i % 7 == 0 ? "\r\n" : "\n");
+      line++;
+      if (i % 1000 == 999) {
+        sb.append("\n");
+        line++;
+      }
+    }
+    return sb.toString();
+  }
+
+  private static List<Long> ids(Stream<JsonElement> records) {
+    return records
+        .map(r -> ((JsonPrimitive) ((JsonObject) r).getMember("i")).getAsLong())
+        .collect(Collectors.toList());
+  }
+
+  public void testBlankLinesCrlfAndLastLineWithoutBreak() throws Exception {
+    withFile(
+        "{\"a\": 1}\n\n  \t\n[2]\r\n\"s\"\r\n3",
+        file -> Check.json("[{\"a\": 1}, [2], \"s\", 3]", read(file)));
+    withFile("[1]\n[2]\n", file -> Check.json("[[1], [2]]", read(file)));
+    withFile("", file -> Check.json("[]", read(file)));
+    withFile("\n\n", file -> Check.json("[]", read(file)));
+  }
+
+  public void testErrorsNameTheirLine() throws Exception {
+    withFile(
+        "1\n\n{oops\r\n2\n[\n3",
+        file -> {
+          List<Long> lines = new ArrayList<>();
+          JsonArray arr = new JsonArray();
+          try (Stream<JsonElement> records =
+              JsonLines.stream(file, (line, error) -> lines.add(line))) {
+            records.forEach(arr::add);
+          }
+          Check.json("[1, 2, 3]", arr);
+          Check.equal(List.of(3L, 5L), lines);
+          IllegalArgumentException e =
+              Check.fails(IllegalArgumentException.class, () -> read(file));
+          Check.isTrue(e.getMessage().startsWith("Invalid JSON on line 3: "), e.getMessage());
+        });
+  }
+
+  public void testAppenderSeparatesPartialLine() throws Exception {
+    withFile(
+        "{\"a\": 1}",
+        file -> {
+          try (JsonLines.Appender appender = JsonLines.appender(file)) {
+            appender.append(JsonPrimitive.of(2)).append(new JsonArray().add(JsonPrimitive.of(3)));
+          }
+          Check.equal("{\"a\": 1}\n2\n[3]\n", Files.readString(file));
+          try (JsonLines.Appender appender = JsonLines.appender(file)) {
+            appender.append(JsonPrimitive.of("x"));
+          }
+          Check.json("[{\"a\": 1}, 2, [3], \"x\"]", read(file));
+        });
+    withFile(
+        "1\n{\"interrupted\": ",
+        file -> {
+          try (JsonLines.Appender appender = JsonLines.appender(file)) {
+            appender.append(JsonPrimitive.of(2));
+          }
+          List<Long> lines = new ArrayList<>();
+          try (Stream<JsonElement> records =
+              JsonLines.stream(file, (line, error) -> lines.add(line))) {
+            Check.equal(2L, records.count());
+          }
+          Check.equal(List.of(2L), lines);
+        });
+    Path missing = Files.createTempDirectory("records").resolve("new.jsonl");
+    try {
+      try (JsonLines.Appender appender = JsonLines.appender(missing)) {
+        appender.append(JsonPrimitive.of(1));
+      }
+      Check.equal("1\n", Files.readString(missing));
+    } finally {
+      Files.deleteIfExists(missing);
+      Files.deleteIfExists(missing.getParent());
+    }
+  }
+
+  public void testSplitsAtLineBreaks() throws Exception {
+    withFile(
+        records(LARGE, Set.of(), new TreeSet<>()),
+        file -> {
+          List<Long> all;
+          try (Stream<JsonElement> records = JsonLines.stream(file)) {
+            all = ids(records);
+          }
+          try (Stream<JsonElement> records = JsonLines.stream(file)) {
+            Spliterator<JsonElement> rest = records.spliterator();
+            Spliterator<JsonElement> prefix = rest.trySplit();
+            Check.isTrue(prefix != null, "not split");
+            Spliterator<JsonElement> first = prefix.trySplit();
+            Check.isTrue(first != null, "prefix not split");
+            List<Long> joined = new ArrayList<>();
+            Consumer<JsonElement> collect =
+                r -> joined.add(((JsonPrimitive) ((JsonObject) r).getMember("i")).getAsLong());
+            for (Spliterator<JsonElement> part : List.of(first, prefix, rest)) {
+              int before = joined.size();
+              part.forEachRemaining(collect);
+              Check.isTrue(joined.size() > before, "empty part");
+            }
+            Check.equal(all, joined);
+          }
+        });
+    withFile(
+        records(1000, Set.of(), new TreeSet<>()),
+        file -> {
+          try (Stream<JsonElement> records = JsonLines.stream(file)) {
+            Check.equal(null, records.spliterator().trySplit());
+          }
+        });
+  }
+
+  public void testParallelStreamReportsEveryBadLine() throws Exception {
+    Set<Long> bad = new TreeSet<>();
+    String content = records(LARGE, Set.of(0, 5, 20_000, 40_001, 60_000), bad);
+    withFile(
+        content,
+        file -> {
+          List<Long> sequential;
+          try (Stream<JsonElement> records = JsonLines.stream(file, (line, error) -> {})) {
+            sequential = ids(records);
+          }
+          Check.equal(sequential.size() - 1L, sequential.get(sequential.size() - 1));
+
+          Set<Long> reported = new ConcurrentSkipListSet<>();
+          try (Stream<JsonElement> records =
+              JsonLines.stream(file, (line, error) -> reported.add(line))) {
+            Check.equal(sequential, ids(records.parallel()));
+          }
+          Check.equal(bad, reported);
+
+          // without a handler, the stream fails with the line of one of the bad records
+          IllegalArgumentException e =
+              Check.fails(
+                  IllegalArgumentException.class,
+                  () -> {
+                    try (Stream<JsonElement> records = JsonLines.stream(file)) {
+                      records.parallel().forEach(r -> {});
+                    }
+                  });
+          // the pool may rethrow a copy that carries the original as its cause
+          Matcher m = Pattern.compile("Invalid JSON on line (\\d+)").matcher(e.getMessage());
+          Check.isTrue(m.find(), e.getMessage());
+          Check.isTrue(bad.contains(Long.parseLong(m.group(1))), e.getMessage());
+        });
+  }
+}
@@ -0,0 +1,86 @@
+package de.chloedev.config.test;
+
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.stream.JsonReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+public class JsonParserTest {
+  /** Parses the text through the character reader and through the UTF-8 reader. */
+  private static JsonElement[] parseBoth(String json) throws IOException {
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    return new JsonElement[] {
+      JsonParser.parse(json), JsonParser.parse(new ByteArrayInputStream(bytes))
+    };
+  }
+
+  public void testNumberAtEndOfInputAfterWhitespace() throws IOException {
+    for (String json : new String[] {" 1", " 12.5", "\n\t-3e2", "0"}) {
+      for (JsonElement el : parseBoth(json)) {
+        Check.equal(Double.parseDouble(json.strip()), ((JsonPrimitive) el).getAsDouble());
+      }
+    }
+  }
+
+  public void testNumberAcrossBufferBoundary() throws IOException {
+    for (int pad = 8180; pad < 8200; pad++) {
+      String json = " ".repeat(pad) + "[1234567.25]";
+      for (JsonElement el : parseBoth(json)) {
+        Check.json("[1234567.25]", el);
+      }
+      for (JsonElement el : parseBoth(" ".repeat(pad) + "98765")) {
+        Check.equal(98765L, ((JsonPrimitive) el).getAsLong());
+      }
+    }
+  }
+
+  public void testDocument() throws IOException {
+    String json =
+        "{\"a\": [1, -2.5e3, true, false, null], \"b\": {\"c\": \"d\\n\\u00e9\\\"\"}, \"\": []}";
+    for (JsonElement el : parseBoth(json)) {
+      Check.json(json, el);
+      Check.json(json, JsonParser.parse(el.toString()));
+    }
+  }
+
+  public void testMultiByteStrings() throws IOException {
+    for (JsonElement el : parseBoth("[\"grüße\", \"日本\", \"😀\"]")) {
+      Check.json("[\"gr\\u00fc\\u00dfe\", \"\\u65e5\\u672c\", \"\\ud83d\\ude00\"]", el);
+    }
+  }
+
+  public void testBigIntegersStayExact() {
+    JsonPrimitive p = (JsonPrimitive) JsonParser.parse("123456789012345678901234567890");
+    Check.equal(new BigInteger("123456789012345678901234567890"), p.getAsBigInteger());
+  }
+
+  public void testNextLongIsExact() throws IOException {
+    String json =
+        "[9223372036854775807, -9223372036854775808, 1e3, 2.0, 9223372036854775808,"
+            + " 9223372036854775807.5, 1.5, 2147483648]";
+    JsonReader reader = JsonReader.of(json);
+    reader.beginArray();
+    Check.equal(Long.MAX_VALUE, reader.nextLong());
+    Check.equal(Long.MIN_VALUE, reader.nextLong());
+    Check.equal(1000L, reader.nextLong());
+    Check.equal(2L, reader.nextLong());
+    Check.fails(NumberFormatException.class, reader::nextLong);
+    Check.fails(NumberFormatException.class, reader::nextLong);
+    Check.fails(NumberFormatException.class, reader::nextLong);
+    Check.fails(NumberFormatException.class, reader::nextInt);
+    reader.endArray();
+  }
+
+  public void testSyntaxErrors() {
+    for (String json : new String[] {"[1,]", "{\"a\" 1}", "01", "1.", "\"abc", "[1] 2", "tru"}) {
+      Check.fails(IllegalArgumentException.class, () -> JsonParser.parse(json));
+      Check.fails(
+          IllegalArgumentException.class, () -> JsonParser.parse(new StringReader(json)));
+    }
+  }
+}
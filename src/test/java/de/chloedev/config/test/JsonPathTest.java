@@ -0,0 +1,133 @@
+package de.chloedev.config.test;
+
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.path.JsonPath;
+import de.chloedev.config.json.stream.JsonReader;
+import java.io.IOException;
+import java.util.List;
+
+public class JsonPathTest {
+  private static final String STORE =
+      "{\"store\": {\"book\": ["
+          + "{\"category\": \"ref\", \"author\": \"Rees\", \"title\": \"Sayings\","
+          + " \"price\": 8.95},"
+          + " {\"category\": \"fiction\", \"author\": \"Waugh\", \"title\": \"Sword\","
+          + " \"price\": 12.99},"
+          + " {\"category\": \"fiction\", \"author\": \"Melville\", \"title\": \"Moby\","
+          + " \"isbn\": \"0-553\", \"price\": 8.99},"
+          + " {\"category\": \"fiction\", \"author\": \"Tolkien\", \"title\": \"Rings\","
+          + " \"isbn\": \"0-395\", \"price\": 22.99}],"
+          + " \"bicycle\": {\"color\": \"red\", \"price\": 19.95}},"
+          + " \"expensive\": 10}";
+
+  /**
+   * Checks that the expression selects the expected values from the store, both from the tree and
+   * while reading the text.
+   */
+  private static void selects(String expected, String expression) throws IOException {
+    JsonPath path = JsonPath.compile(expression);
+    Check.json(expected, toArray(path.select(JsonParser.parse(STORE))));
+    Check.json(expected, toArray(path.select(JsonReader.of(STORE))));
+  }
+
+  private static JsonArray toArray(List<JsonElement> values) {
+    JsonArray arr = new JsonArray();
+    values.forEach(arr::add);
+    return arr;
+  }
+
+  private static void fails(String expression, String message) {
+    IllegalArgumentException e =
+        Check.fails(IllegalArgumentException.class, () -> JsonPath.compile(expression));
+    Check.equal("Invalid JSONPath '" + expression + "': " + message, e.getMessage());
+  }
+
+  public void testMembersAndWildcards() throws IOException {
+    selects("[" + STORE + "]", "$");
+    selects("[\"red\"]", "$.store.bicycle.color");
+    selects("[\"red\"]", "$['store'][\"bicycle\"]['color']");
+    selects("[\"Rees\", \"Waugh\", \"Melville\", \"Tolkien\"]", "$.store.book[*].author");
+    selects("[10]", "$.expensive");
+    selects("[10]", "$[?(@ == 10)]");
+    selects("[{\"color\": \"red\", \"price\": 19.95}]", "$.store[?(@.color)]");
+    selects("[]", "$.store.missing");
+    selects("[]", "$.expensive.deeper");
+  }
+
+  public void testRecursiveDescent() throws IOException {
+    selects("[\"Rees\", \"Waugh\", \"Melville\", \"Tolkien\"]", "$..author");
+    selects("[8.95, 12.99, 8.99, 22.99, 19.95]", "$..price");
+    selects("[\"Moby\"]", "$..book[2].title");
+    selects("[\"Sayings\"]", "$..[0].title");
+    // several routes lead to each author, but every match is returned once
+    selects("[\"Rees\", \"Waugh\", \"Melville\", \"Tolkien\"]", "$..*..author");
+    selects("[\"0-553\", \"0-395\"]", "$..['isbn']");
+  }
+
+  public void testIndicesAndSlices() throws IOException {
+    selects("[\"Rings\"]", "$.store.book[-1].title");
+    selects("[\"Sayings\"]", "$.store.book[-4].title");
+    selects("[]", "$.store.book[-5].title");
+    selects("[]", "$.store.book[4].title");
+    selects("[\"Sayings\", \"Sword\"]", "$.store.book[0:2].title");
+    selects("[\"Moby\", \"Rings\"]", "$.store.book[-2:].title");
+    selects("[\"Sayings\", \"Sword\", \"Moby\"]", "$.store.book[:-1].title");
+    selects("[\"Sayings\", \"Moby\"]", "$.store.book[::2].title");
+    selects("[\"Sword\", \"Moby\"]", "$.store.book[1:3].title");
+    selects("[]", "$.store.book[::0].title");
+    // negative steps select the same elements as a positive step, in document order
+    selects("[\"Sayings\", \"Sword\", \"Moby\", \"Rings\"]", "$.store.book[::-1].title");
+    selects("[\"Sword\", \"Rings\"]", "$.store.book[::-2].title");
+    selects("[\"Sword\", \"Moby\"]", "$.store.book[2:0:-1].title");
+    selects("[\"Moby\", \"Rings\"]", "$.store.book[-1:-3:-1].title");
+  }
+
+  public void testFilters() throws IOException {
+    selects("[\"Moby\", \"Rings\"]", "$..book[?(@.isbn)].title");
+    selects("[\"Sayings\", \"Sword\"]", "$..book[?(!@.isbn)].title");
+    selects("[\"Moby\"]", "$..book[?(@.price < 10 && @.category == 'fiction')].title");
+    selects("[\"Sayings\", \"Rings\"]", "$..book[?(@.price > 20 || @.author == \"Rees\")].title");
+    selects(
+        "[\"Sword\", \"Rings\"]", "$..book[?(!(@.price < 10) && @['category'] != 'ref')].title");
+    selects(
+        "[\"Sayings\", \"Moby\", \"Rings\"]",
+        "$..book[?(@.price <= 8.99 || @.price >= 22.99 && @.isbn)].title");
+    selects("[\"Rees\", \"Waugh\"]", "$..book[?(@.title > 'Rio')].author");
+    selects("[19.95]", "$.store[?(@.color == 'red')].price");
+    selects("[\"Moby\"]", "$..book[?(@.isbn == '0-553')].title");
+    // a comparison with a missing value only holds for !=
+    selects("[\"Sayings\", \"Sword\"]", "$..book[?(@.isbn == null || !@.isbn)].title");
+    selects("[]", "$..book[?(@.missing < 1)].title");
+  }
+
+  public void testReaderIsLeftAfterTheValue() throws IOException {
+    JsonReader reader = JsonReader.of("[" + STORE + ", 7]");
+    reader.beginArray();
+    Check.json("[10]", toArray(JsonPath.compile("$.expensive").select(reader)));
+    Check.equal(7, reader.nextInt());
+    reader.endArray();
+  }
+
+  public void testCompiledPathsAreCached() {
+    Check.isTrue(JsonPath.of("$..price") == JsonPath.of("$..price"), "not cached");
+    Check.equal("$..price", JsonPath.of("$..price").toString());
+  }
+
+  public void testCompileErrors() {
+    fails("store", "Expected '$' at position 0");
+    fails("$x", "Expected '.' or '[' at position 1");
+    fails("$.", "Expected a name at position 2");
+    fails("$.a[", "Expected an index, a slice, a name, '*' or a filter at position 4");
+    fails("$.a[1", "Expected ']' at position 5");
+    fails("$.a['x", "Unterminated string at position 6");
+    fails("$.a[99999999999]", "Invalid index at position 4");
+    fails("$.a[?(@.b ==)]", "Expected '@' or a literal at position 12");
+    fails("$.a[?(1)]", "Expected a comparison at position 6");
+    fails("$.a[?(@.b == 1]", "Expected ')' at position 14");
+    fails("$.a[?(@.)]", "Expected a name at position 8");
+    fails("$" + ".a".repeat(64), "more than 63 steps");
+    JsonPath.compile("$" + ".a".repeat(63));
+  }
+}
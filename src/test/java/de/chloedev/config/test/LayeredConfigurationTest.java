@@ -0,0 +1,190 @@
+package de.chloedev.config.test;
+
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.event.ChangeListener;
+import de.chloedev.config.json.io.JsonConfiguration;
+import de.chloedev.config.json.io.LayeredConfiguration;
+import de.chloedev.config.json.path.ConfigPath;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class LayeredConfigurationTest {
+  private final JsonConfiguration defaults =
+      JsonConfiguration.fromString(
+          "{\"db\": {\"host\": \"localhost\", \"port\": 5432, \"opts\": {\"ssl\": false}},"
+              + " \"tags\": [\"a\", \"b\"], \"name\": \"app\"}");
+  private final JsonConfiguration overrides =
+      JsonConfiguration.fromString(
+          "{\"db\": {\"port\": 6432, \"opts\": {\"timeout\": 5}}, \"tags\": [\"c\"]}");
+  private final LayeredConfiguration config = LayeredConfiguration.of(defaults, overrides);
+
+  private String string(String path) {
+    return ((JsonPrimitive) config.get(path)).getAsString();
+  }
+
+  public void testObjectsMergeAndOtherValuesReplace() {
+    Check.json(
+        "{\"db\": {\"host\": \"localhost\", \"port\": 6432, \"opts\": {\"ssl\": false,"
+            + " \"timeout\": 5}}, \"tags\": [\"c\"], \"name\": \"app\"}",
+        config.get(ConfigPath.ROOT));
+    Check.equal("6432", string("db/port"));
+    Check.equal("c", string("tags/0"));
+    Check.isTrue(config.getOrDefault("tags/1", null) == null, "lower array showed through");
+    Check.equal(List.of("db", "tags", "name"), List.copyOf(config.getKeys("", false)));
+  }
+
+  public void testWritesGoToTheTopLayer() {
+    config.set("db/host", JsonPrimitive.of("remote"));
+    Check.equal("remote", string("db/host"));
+    Check.equal("localhost", ((JsonPrimitive) defaults.get("db/host")).getAsString());
+    config.remove("db/port");
+    Check.equal("5432", string("db/port"));
+    config.clear();
+    Check.json(defaults.get(ConfigPath.ROOT).toString(), config.get(ConfigPath.ROOT));
+  }
+
+  public void testLayersChangedDirectly() {
+    config.get("db/opts/ssl");
+    defaults.set("db/opts/ssl", JsonPrimitive.of(true));
+    Check.equal("true", string("db/opts/ssl"));
+    config.get("db");
+    overrides.set("db/opts/timeout", JsonPrimitive.of(9));
+    Check.json("{\"ssl\": true, \"timeout\": 9}", config.get("db/opts"));
+    JsonConfiguration top = JsonConfiguration.fromString("{\"name\": \"top\"}");
+    config.addLayer(top);
+    Check.equal("top", string("name"));
+    config.removeLayer(top);
+    Check.equal("app", string("name"));
+  }
+
+  public void testRemovingArrayElementsMovesTheOthers() {
+    JsonConfiguration top = JsonConfiguration.fromString("{\"arr\": [\"a\", \"b\", \"c\"]}");
+    LayeredConfiguration layered = LayeredConfiguration.of(top);
+    for (String path : List.of("arr/0", "arr/1", "arr/2")) {
+      layered.get(path);
+    }
+    layered.remove("arr/0");
+    Check.equal("b", ((JsonPrimitive) layered.get("arr/0")).getAsString());
+    Check.equal("c", ((JsonPrimitive) layered.get("arr/1")).getAsString());
+    Check.isTrue(layered.getOrDefault("arr/2", null) == null, "removed element still cached");
+    layered.get("arr/1");
+    layered.remove("arr/+0");
+    Check.equal("c", ((JsonPrimitive) layered.get("arr/0")).getAsString());
+    Check.isTrue(layered.getOrDefault("arr/1", null) == null, "moved element still cached");
+  }
+
+  public void testListenersSeeResolvedValues() {
+    List<String> heard = new ArrayList<>();
+    ChangeListener listener =
+        e -> heard.add(e.getPath() + ":" + e.getOldValue() + "->" + e.getNewValue());
+    config.addListener("db", listener);
+    defaults.set("db/port", JsonPrimitive.of(1)); // hidden by the override
+    overrides.remove("db/port");
+    Check.equal(List.of("db/port:6432->1"), heard);
+  }
+
+  public void testCacheHitsDoNotTakeTheMonitor() throws Exception {
+    config.get("db/port");
+    JsonElement[] read = new JsonElement[1];
+    Thread reader = new Thread(() -> read[0] = config.get("db/port"));
+    synchronized (config) {
+      reader.start();
+      reader.join(10_000);
+      Check.isTrue(!reader.isAlive(), "a cache hit waited for the monitor");
+    }
+    Check.equal(6432L, ((JsonPrimitive) read[0]).getAsLong());
+  }
+
+  public void testConcurrentReadersSeeEveryChangeOnceItIsDone() throws Exception {
+    int writes = 2_000;
+    AtomicReference<String> failure = new AtomicReference<>();
+    AtomicLong done = new AtomicLong(-1);
+    List<Thread> readers = new ArrayList<>();
+    for (int r = 0; r < 4; r++) {
+      Thread reader =
+          new Thread(
+              () -> {
+                while (done.get() < writes && failure.get() == null) {
+                  long before = done.get();
+                  long port = ((JsonPrimitive) config.get("db/port")).getAsLong();
+                  long merged =
+                      ((JsonPrimitive) ((JsonObject) config.get("db")).getMember("port"))
+                          .getAsLong();
+                  // values only grow, and a finished write is never hidden by a stale entry
+                  if (port < before || merged < before) {
+                    failure.set("read " + port + " and " + merged + " after write " + before);
+                  }
+                  config.get("db/host");
+                }
+              });
+      reader.start();
+      readers.add(reader);
+    }
+    try {
+      for (int i = 0; i <= writes; i++) {
+        // the layers are plain configurations, so keep misses from resolving through a write
+        synchronized (config) {
+          overrides.set("db/port", JsonPrimitive.of(i));
+        }
+        done.set(i);
+      }
+    } finally {
+      done.set(writes);
+      for (Thread reader : readers) {
+        reader.join();
+      }
+    }
+    Check.equal(null, failure.get());
+    Check.equal((long) writes, ((JsonPrimitive) config.get("db/port")).getAsLong());
+  }
+
+  /** Runs random writes to random layers and compares every read with an uncached stack. */
+  public void testCacheMatchesUncachedLookups() {
+    Random random = new Random(3);
+    String[] segments = {"a", "b", "0", "1", "+1"};
+    String[] values = {"1", "[1, {\"a\": 2}, 3]", "{\"a\": {\"b\": 4}, \"b\": [5]}"};
+    for (int round = 0; round < 30; round++) {
+      List<JsonConfiguration> layers = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        layers.add(JsonConfiguration.fromString("{\"a\": {\"a\": [1, 2, {\"b\": 3}]}, \"b\": {}}"));
+      }
+      JsonConfiguration[] array = layers.toArray(new JsonConfiguration[0]);
+      LayeredConfiguration cached = LayeredConfiguration.of(array);
+      LayeredConfiguration uncached = LayeredConfiguration.of(array);
+      uncached.setCacheLimit(0);
+      cached.setCacheLimit(1 + random.nextInt(30));
+      for (int op = 0; op < 40; op++) {
+        StringBuilder path = new StringBuilder(segments[random.nextInt(2)]);
+        for (int depth = random.nextInt(4); depth > 0; depth--) {
+          path.append('/').append(segments[random.nextInt(segments.length)]);
+        }
+        JsonConfiguration layer = layers.get(random.nextInt(layers.size()));
+        try {
+          if (random.nextBoolean()) {
+            layer.remove(path.toString());
+          } else {
+            layer.set(path.toString(), JsonParser.parse(values[random.nextInt(values.length)]));
+          }
+        } catch (RuntimeException ex) {
+          // e.g. an index past the end of an array; the layer is unchanged
+        }
+        for (String probe : uncached.getKeys("", true)) {
+          JsonElement want = uncached.getOrDefault(probe, null);
+          JsonElement got = cached.getOrDefault(probe, null);
+          Check.isTrue(
+              got != null && want.contentEquals(got),
+              probe + ": expected " + want + " but was " + got);
+        }
+        String probe = path.toString();
+        boolean found = uncached.getOrDefault(probe, null) != null;
+        Check.equal(found, cached.getOrDefault(probe, null) != null);
+      }
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package de.chloedev.config.test;
+
+import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.event.ChangeEvent;
+import de.chloedev.config.json.event.ChangeListener;
+import de.chloedev.config.json.io.ConcurrentJsonConfiguration;
+import de.chloedev.config.json.io.JsonConfiguration;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ListenerTest {
+  private final JsonConfiguration config =
+      JsonConfiguration.fromString(
+          "{\"db\": {\"pool\": {\"size\": 4}, \"host\": \"h\"}, \"x\": 1}");
+
+  private static String describe(ChangeEvent e) {
+    return e.getPath() + ":" + e.getOldValue() + "->" + e.getNewValue();
+  }
+
+  private ChangeListener record(List<String> out) {
+    return new ChangeListener() {
+      @Override
+      public void onChange(ChangeEvent event) {
+        out.add(describe(event));
+      }
+
+      @Override
+      public void onChanges(List<ChangeEvent> events) {
+        out.add("batch" + events.size());
+        ChangeListener.super.onChanges(events);
+      }
+    };
+  }
+
+  public void testPrefixes() {
+    List<String> root = new ArrayList<>();
+    List<String> db = new ArrayList<>();
+    List<String> pool = new ArrayList<>();
+    List<String> other = new ArrayList<>();
+    config.addListener("", record(root));
+    config.addListener("db", record(db));
+    config.addListener("db/pool/size", record(pool));
+    config.addListener("cache", record(other));
+    config.set("db/pool/size", JsonPrimitive.of(8));
+    config.set("db", JsonPrimitive.of("gone"));
+    config.set("x", JsonPrimitive.of(2));
+    Check.equal(
+        List.of(
+            "batch1",
+            "db/pool/size:4->8",
+            "batch1",
+            "db:{\"pool\":{\"size\":8},\"host\":\"h\"}->\"gone\"",
+            "batch1",
+            "x:1->2"),
+        root);
+    Check.equal(4, db.size());
+    Check.equal(4, pool.size());
+    Check.equal(List.of(), other);
+  }
+
+  public void testListenerOnSeveralPrefixesGetsEachEventOnce() {
+    List<String> seen = new ArrayList<>();
+    ChangeListener listener = record(seen);
+    config.addListener("db", listener);
+    config.addListener("db/pool", listener);
+    config.addListener("db/pool/size", listener);
+    config.set("db/pool/size", JsonPrimitive.of(5));
+    Check.equal(List.of("batch1", "db/pool/size:4->5"), seen);
+    Check.isTrue(config.removeListener("db/pool", listener), "not removed");
+    Check.isTrue(!config.removeListener("db/pool", listener), "removed twice");
+  }
+
+  public void testWriteThroughPrimitiveIsReportedAtThePrimitive() {
+    List<String> seen = new ArrayList<>();
+    config.addListener("x", record(seen));
+    config.set("x/y/z", JsonPrimitive.of(3));
+    Check.equal(List.of("batch1", "x:1->{\"y\":{\"z\":3}}"), seen);
+  }
+
+  public void testConcurrentWriteThroughPrimitiveIsReportedAtThePrimitive() {
+    ConcurrentJsonConfiguration concurrent = ConcurrentJsonConfiguration.of(config);
+    List<String> seen = new ArrayList<>();
+    concurrent.addListener("", record(seen));
+    concurrent.set("x/y/z", JsonPrimitive.of(3));
+    concurrent.batch(
+        m -> m.set("db/host/port", JsonPrimitive.of(80)).set("db/pool/size", JsonPrimitive.of(6)));
+    Check.equal(
+        List.of(
+            "batch1",
+            "x:1->{\"y\":{\"z\":3}}",
+            "batch2",
+            "db/host:\"h\"->{\"port\":80}",
+            "db/pool/size:4->6"),
+        seen);
+  }
+
+  public void testEveryListenerRunsBeforeAFailureIsRethrown() {
+    List<String> seen = new ArrayList<>();
+    config.addListener(
+        "db",
+        e -> {
+          throw new IllegalStateException("first");
+        });
+    config.addListener("db", record(seen));
+    IllegalStateException ex =
+        Check.fails(
+            IllegalStateException.class, () -> config.set("db/host", JsonPrimitive.of("k")));
+    Check.equal("first", ex.getMessage());
+    Check.equal(2, seen.size());
+    Check.equal("k", ((JsonPrimitive) config.get("db/host")).getAsString());
+  }
+
+  public void testExecutor() {
+    List<Runnable> tasks = new ArrayList<>();
+    List<String> seen = new ArrayList<>();
+    config.setListenerExecutor(tasks::add);
+    config.addListener("x", record(seen));
+    config.set("x", JsonPrimitive.of(7));
+    Check.equal(List.of(), seen);
+    tasks.forEach(Runnable::run);
+    Check.equal(List.of("batch1", "x:1->7"), seen);
+  }
+}
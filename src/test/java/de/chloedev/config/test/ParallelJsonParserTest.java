@@ -0,0 +1,54 @@
+package de.chloedev.config.test;
+
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.ParallelJsonParser;
+import de.chloedev.config.json.element.JsonElement;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelJsonParserTest {
+  private final ForkJoinPool pool = new ForkJoinPool(4);
+
+  /** The elements of an array large enough to be parsed in parallel, without the brackets. */
+  private static String elements() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; sb.length() < 3 << 20; i++) {
+      if (i > 0) {
+        sb.append(",\n");
+      }
+      sb.append("{\"id\": ").append(i).append(", \"name\": \"n\\\"").append(i % 97).append('"');
+      sb.append(", \"tags\": [\"a]\", \"{b\", ").append(i * 0.5).append("], \"on\": ");
+      sb.append(i % 3 == 0).append(", \"none\": null}");
+    }
+    return sb.toString();
+  }
+
+  private JsonElement parse(String json) {
+    return ParallelJsonParser.parse(json.getBytes(StandardCharsets.UTF_8), pool);
+  }
+
+  public void testSameTreeAsSequentialParser() {
+    String json = " [" + elements() + "] \n";
+    Check.isTrue(JsonParser.parse(json).contentEquals(parse(json)), "trees differ");
+    Check.json("[]", parse(" ".repeat(2 << 20) + "[ ]"));
+  }
+
+  public void testMalformedArraysFailLikeSequentialParser() {
+    String elements = elements();
+    String[] malformed = {
+      "[" + elements + "}",
+      "[" + elements + ",]",
+      "[" + elements + ",\n ]",
+      "[1,," + elements + "]",
+      "[" + elements + ",,2]",
+      "[," + elements + "]",
+      "[" + elements,
+      "[" + elements + "] 1",
+      "[" + elements + "]]",
+    };
+    for (String json : malformed) {
+      Check.fails(IllegalArgumentException.class, () -> JsonParser.parse(json));
+      Check.fails(IllegalArgumentException.class, () -> parse(json));
+    }
+  }
+}
@@ -0,0 +1,176 @@
+package de.chloedev.config.test;
+
+import de.chloedev.config.error.PatchException;
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.io.ConfigurationBase;
+import de.chloedev.config.json.io.JsonConfiguration;
+import de.chloedev.config.json.path.ConfigPath;
+import de.chloedev.config.json.patch.JsonMergePatch;
+import de.chloedev.config.json.patch.JsonPatch;
+import java.util.Random;
+
+public class PatchTest {
+  private static void patch(String doc, String patch, String expected) {
+    JsonConfiguration config = JsonConfiguration.fromString(doc);
+    JsonPatch.parse(patch).applyTo(config);
+    Check.json(expected, config.get(ConfigPath.ROOT));
+  }
+
+  private static void merge(String doc, String patch, String expected) {
+    JsonConfiguration config = JsonConfiguration.fromString(doc);
+    JsonMergePatch.applyTo(config, JsonParser.parse(patch));
+    Check.json(expected, config.get(ConfigPath.ROOT));
+  }
+
+  // the examples of RFC 6902, appendix A
+
+  public void testAdd() {
+    patch("{\"foo\": \"bar\"}", "[{\"op\": \"add\", \"path\": \"/baz\", \"value\": \"qux\"}]",
+        "{\"baz\": \"qux\", \"foo\": \"bar\"}");
+    patch("{\"foo\": [\"bar\", \"baz\"]}",
+        "[{\"op\": \"add\", \"path\": \"/foo/1\", \"value\": \"qux\"}]",
+        "{\"foo\": [\"bar\", \"qux\", \"baz\"]}");
+    patch("{\"foo\": [\"bar\"]}", "[{\"op\": \"add\", \"path\": \"/foo/-\", \"value\": [\"a\"]}]",
+        "{\"foo\": [\"bar\", [\"a\"]]}");
+    patch("{\"foo\": \"bar\"}",
+        "[{\"op\": \"add\", \"path\": \"/child\", \"value\": {\"grandchild\": {}}}]",
+        "{\"foo\": \"bar\", \"child\": {\"grandchild\": {}}}");
+  }
+
+  public void testRemoveAndReplace() {
+    patch("{\"baz\": \"qux\", \"foo\": \"bar\"}", "[{\"op\": \"remove\", \"path\": \"/baz\"}]",
+        "{\"foo\": \"bar\"}");
+    patch("{\"foo\": [\"bar\", \"qux\", \"baz\"]}",
+        "[{\"op\": \"remove\", \"path\": \"/foo/1\"}]", "{\"foo\": [\"bar\", \"baz\"]}");
+    patch("{\"baz\": \"qux\", \"foo\": \"bar\"}",
+        "[{\"op\": \"replace\", \"path\": \"/baz\", \"value\": \"boo\"}]",
+        "{\"baz\": \"boo\", \"foo\": \"bar\"}");
+  }
+
+  public void testMoveCopyAndTest() {
+    patch("{\"foo\": {\"bar\": \"baz\", \"waldo\": \"fred\"}, \"qux\": {\"corge\": \"grault\"}}",
+        "[{\"op\": \"move\", \"from\": \"/foo/waldo\", \"path\": \"/qux/thud\"}]",
+        "{\"foo\": {\"bar\": \"baz\"}, \"qux\": {\"corge\": \"grault\", \"thud\": \"fred\"}}");
+    patch("{\"foo\": [\"all\", \"grass\", \"cows\", \"eat\"]}",
+        "[{\"op\": \"move\", \"from\": \"/foo/1\", \"path\": \"/foo/3\"}]",
+        "{\"foo\": [\"all\", \"cows\", \"eat\", \"grass\"]}");
+    patch("{\"a\": {\"b\": [1]}}", "[{\"op\": \"copy\", \"from\": \"/a\", \"path\": \"/c\"}]",
+        "{\"a\": {\"b\": [1]}, \"c\": {\"b\": [1]}}");
+    patch("{\"baz\": \"qux\", \"foo\": [\"a\", 2, \"c\"]}",
+        "[{\"op\": \"test\", \"path\": \"/baz\", \"value\": \"qux\"},"
+            + " {\"op\": \"test\", \"path\": \"/foo/1\", \"value\": 2}]",
+        "{\"baz\": \"qux\", \"foo\": [\"a\", 2, \"c\"]}");
+    patch("{\"/\": 1, \"m~n\": 2}", "[{\"op\": \"remove\", \"path\": \"/~1\"},"
+        + " {\"op\": \"replace\", \"path\": \"/m~0n\", \"value\": 3}]", "{\"m~n\": 3}");
+  }
+
+  public void testCopiedValuesAreNotShared() {
+    JsonConfiguration config = JsonConfiguration.fromString("{\"a\": {\"b\": 1}}");
+    JsonPatch.parse("[{\"op\": \"copy\", \"from\": \"/a\", \"path\": \"/c\"}]").applyTo(config);
+    config.set("c/b", JsonPrimitive.of(2));
+    Check.json("{\"a\": {\"b\": 1}, \"c\": {\"b\": 2}}", config.get(ConfigPath.ROOT));
+  }
+
+  public void testFailedPatchIsUndone() {
+    String doc = "{\"a\": [1, 2, 3], \"b\": {\"c\": \"d\"}}";
+    JsonConfiguration config = JsonConfiguration.fromString(doc);
+    JsonPatch p =
+        JsonPatch.parse(
+            "[{\"op\": \"remove\", \"path\": \"/a/0\"},"
+                + " {\"op\": \"add\", \"path\": \"/a/1\", \"value\": 9},"
+                + " {\"op\": \"move\", \"from\": \"/b/c\", \"path\": \"/e\"},"
+                + " {\"op\": \"replace\", \"path\": \"/b\", \"value\": 0},"
+                + " {\"op\": \"test\", \"path\": \"/e\", \"value\": \"nope\"}]");
+    PatchException ex = Check.fails(PatchException.class, () -> p.applyTo(config));
+    Check.isTrue(ex.getMessage().contains("operation 4"), ex.getMessage());
+    Check.json(doc, config.get(ConfigPath.ROOT));
+  }
+
+  public void testInvalidOperations() {
+    JsonConfiguration config = JsonConfiguration.fromString("{\"a\": [1], \"b\": 2}");
+    for (String patch :
+        new String[] {
+          "[{\"op\": \"remove\", \"path\": \"/x\"}]",
+          "[{\"op\": \"replace\", \"path\": \"/x\", \"value\": 1}]",
+          "[{\"op\": \"add\", \"path\": \"/a/5\", \"value\": 1}]",
+          "[{\"op\": \"add\", \"path\": \"/b/c\", \"value\": 1}]",
+          "[{\"op\": \"move\", \"from\": \"/a\", \"path\": \"/a/0\"}]",
+          "[{\"op\": \"remove\", \"path\": \"\"}]"
+        }) {
+      Check.fails(PatchException.class, () -> JsonPatch.parse(patch).applyTo(config));
+    }
+    Check.json("{\"a\": [1], \"b\": 2}", config.get(ConfigPath.ROOT));
+  }
+
+  public void testDiffTurnsSourceIntoTarget() {
+    Random random = new Random(7);
+    for (int i = 0; i < 300; i++) {
+      JsonElement source = randomTree(random, 3, true);
+      JsonElement target = randomTree(random, 3, true);
+      if (random.nextBoolean()) {
+        target = source.freeze(); // shares everything: the diff must be empty
+        Check.isTrue(JsonPatch.diff(source.freeze(), target).isEmpty(), "diff not empty");
+      }
+      JsonPatch diff = JsonPatch.diff(source, target);
+      JsonConfiguration config = JsonConfiguration.fromString(source.toString());
+      diff.applyTo(config);
+      Check.json(target.toString(), config.get(ConfigPath.ROOT));
+      // and it survives a round trip through its JSON form
+      config = JsonConfiguration.fromString(source.toString());
+      JsonPatch.parse(diff.toString()).applyTo(config);
+      Check.json(target.toString(), config.get(ConfigPath.ROOT));
+    }
+  }
+
+  private static JsonElement randomTree(Random random, int depth, boolean container) {
+    // 0 and 1 are containers, 2 is a primitive, 3 and 4 make containers as likely as primitives
+    int kind = container ? random.nextInt(2) : depth > 0 ? random.nextInt(5) : 2;
+    switch (kind) {
+      case 0, 3 -> {
+        JsonObject obj = new JsonObject();
+        for (int i = random.nextInt(4); i > 0; i--) {
+          obj.putMember("k" + random.nextInt(5), randomTree(random, depth - 1, false));
+        }
+        return obj;
+      }
+      case 1, 4 -> {
+        JsonArray arr = new JsonArray();
+        for (int i = random.nextInt(4); i > 0; i--) {
+          arr.add(randomTree(random, depth - 1, false));
+        }
+        return arr;
+      }
+      default -> {
+        return random.nextBoolean() ? JsonPrimitive.of(random.nextInt(3)) : JsonPrimitive.of("s");
+      }
+    }
+  }
+
+  // the examples of RFC 7386, appendix A
+
+  public void testMergePatch() {
+    merge("{\"a\": \"b\"}", "{\"a\": \"c\"}", "{\"a\": \"c\"}");
+    merge("{\"a\": \"b\"}", "{\"b\": \"c\"}", "{\"a\": \"b\", \"b\": \"c\"}");
+    merge("{\"a\": \"b\"}", "{\"a\": null}", "{}");
+    merge("{\"a\": \"b\", \"b\": \"c\"}", "{\"a\": null}", "{\"b\": \"c\"}");
+    merge("{\"a\": [\"b\"]}", "{\"a\": \"c\"}", "{\"a\": \"c\"}");
+    merge("{\"a\": \"c\"}", "{\"a\": [\"b\"]}", "{\"a\": [\"b\"]}");
+    merge("{\"a\": {\"b\": \"c\"}}", "{\"a\": {\"b\": \"d\", \"c\": null}}",
+        "{\"a\": {\"b\": \"d\"}}");
+    merge("{\"a\": [{\"b\": \"c\"}]}", "{\"a\": [1]}", "{\"a\": [1]}");
+    merge("{\"e\": null}", "{\"a\": 1}", "{\"e\": null, \"a\": 1}");
+    merge("{}", "{\"a\": {\"bb\": {\"ccc\": null}}}", "{\"a\": {\"bb\": {}}}");
+    merge("[1, 2]", "{\"a\": \"b\", \"c\": null}", "{\"a\": \"b\"}");
+  }
+
+  public void testMergePatchCannotMakeTheRootAPrimitive() {
+    ConfigurationBase config = JsonConfiguration.fromString("{\"a\": 1}");
+    Check.fails(
+        IllegalArgumentException.class,
+        () -> JsonMergePatch.applyTo(config, JsonPrimitive.of("x")));
+  }
+}
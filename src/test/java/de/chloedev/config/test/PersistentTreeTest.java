@@ -0,0 +1,172 @@
+package de.chloedev.config.test;
+
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class PersistentTreeTest {
+  private static void check(List<Long> expected, JsonArray actual) {
+    Check.equal(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      Check.equal(expected.get(i), ((JsonPrimitive) actual.get(i)).getAsLong());
+    }
+  }
+
+  private static void check(Map<String, Long> expected, JsonObject actual) {
+    Check.equal(expected.size(), actual.size());
+    List<String> order = new ArrayList<>();
+    for (Map.Entry<String, JsonElement> e : actual.entrySet()) {
+      order.add(e.getKey());
+      Check.equal(expected.get(e.getKey()), ((JsonPrimitive) e.getValue()).getAsLong());
+    }
+    Check.equal(new ArrayList<>(expected.keySet()), order);
+    for (Map.Entry<String, Long> e : expected.entrySet()) {
+      Check.equal(e.getValue(), ((JsonPrimitive) actual.getMember(e.getKey())).getAsLong());
+    }
+  }
+
+  /** Keys made of "Aa" and "BB" blocks: all keys with the same number of blocks share a hash. */
+  private static String collidingKey(Random random) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 4; i++) {
+      sb.append(random.nextBoolean() ? "Aa" : "BB");
+    }
+    return sb.toString();
+  }
+
+  public void testVectorAgainstArrayList() {
+    // the sizes cross the tail, the first level and the second level of the radix tree
+    for (int size : new int[] {0, 1, 31, 32, 33, 1056, 1057, 33824, 33825, 40000}) {
+      List<Long> expected = new ArrayList<>();
+      JsonArray source = new JsonArray();
+      for (long i = 0; i < size; i++) {
+        expected.add(i);
+        source.add(JsonPrimitive.of(i));
+      }
+      JsonArray persistent = source.toPersistent();
+      check(expected, persistent);
+      if (size > 0) {
+        JsonArray changed = persistent.withElement(size - 1, JsonPrimitive.of(-1));
+        Check.equal(-1L, ((JsonPrimitive) changed.get(size - 1)).getAsLong());
+        Check.equal(size - 1L, ((JsonPrimitive) persistent.get(size - 1)).getAsLong());
+      }
+    }
+
+    Random random = new Random(12);
+    List<Long> expected = new ArrayList<>();
+    JsonArray source = new JsonArray();
+    for (long i = 0; i < 2000; i++) {
+      expected.add(i);
+      source.add(JsonPrimitive.of(i));
+    }
+    JsonArray current = source.toPersistent();
+    List<List<Long>> oldLists = new ArrayList<>();
+    List<JsonArray> oldVersions = new ArrayList<>();
+    for (int step = 0; step < 3000 && !expected.isEmpty(); step++) {
+      if (step % 100 == 0) {
+        oldLists.add(new ArrayList<>(expected));
+        oldVersions.add(current);
+      }
+      int i = random.nextInt(expected.size());
+      if (random.nextInt(20) == 0) {
+        // removing anything but the last element rebuilds the vector, so do it rarely
+        int at = random.nextBoolean() ? expected.size() - 1 : i;
+        expected.remove(at);
+        current = current.withoutElement(at);
+      } else {
+        long value = random.nextLong();
+        expected.set(i, value);
+        current = current.withElement(i, JsonPrimitive.of(value));
+      }
+    }
+    check(expected, current);
+    for (int v = 0; v < oldVersions.size(); v++) {
+      check(oldLists.get(v), oldVersions.get(v));
+    }
+    JsonArray last = current;
+    Check.fails(
+        IndexOutOfBoundsException.class, () -> last.withElement(last.size(), JsonPrimitive.of(0)));
+    Check.fails(IndexOutOfBoundsException.class, () -> last.withoutElement(-1));
+  }
+
+  public void testMembersAgainstLinkedHashMap() {
+    Random random = new Random(34);
+    Map<String, Long> expected = new LinkedHashMap<>();
+    JsonObject current = new JsonObject().toPersistent();
+    List<Map<String, Long>> oldMaps = new ArrayList<>();
+    List<JsonObject> oldVersions = new ArrayList<>();
+    for (int step = 0; step < 20_000; step++) {
+      if (step % 500 == 0) {
+        oldMaps.add(new LinkedHashMap<>(expected));
+        oldVersions.add(current);
+      }
+      // a third of the keys collide with each other, the rest come from a small random range
+      int range = step < 10_000 ? 600 : 60;
+      String key = random.nextInt(3) == 0 ? collidingKey(random) : "k" + random.nextInt(range);
+      // remove more often in the second half, so that the order vector gets compacted
+      if (random.nextInt(step < 10_000 ? 3 : 2) == 0) {
+        expected.remove(key);
+        current = current.withoutMember(key);
+      } else {
+        long value = random.nextLong();
+        expected.put(key, value);
+        current = current.withMember(key, JsonPrimitive.of(value));
+      }
+      if (step % 97 == 0) {
+        check(expected, current);
+      }
+      Check.equal(null, current.getMember("missing" + step));
+    }
+    check(expected, current);
+    for (int v = 0; v < oldVersions.size(); v++) {
+      check(oldMaps.get(v), oldVersions.get(v));
+    }
+  }
+
+  public void testCollisionNodes() {
+    Map<String, Long> expected = new LinkedHashMap<>();
+    JsonObject current = new JsonObject().toPersistent();
+    List<String> keys = new ArrayList<>();
+    for (int bits = 0; bits < 16; bits++) {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < 4; i++) {
+        sb.append((bits >> i & 1) == 0 ? "Aa" : "BB");
+      }
+      keys.add(sb.toString());
+    }
+    Check.equal(keys.get(0).hashCode(), keys.get(15).hashCode());
+    // other members around them, so that the collision node sits below a bitmap node
+    for (long i = 0; i < 100; i++) {
+      expected.put("x" + i, i);
+      current = current.withMember("x" + i, JsonPrimitive.of(i));
+    }
+    for (int i = 0; i < keys.size(); i++) {
+      expected.put(keys.get(i), (long) i);
+      current = current.withMember(keys.get(i), JsonPrimitive.of(i));
+      check(expected, current);
+    }
+    // replace in place, then remove down to a single member and back to empty
+    expected.put(keys.get(3), 99L);
+    current = current.withMember(keys.get(3), JsonPrimitive.of(99));
+    check(expected, current);
+    for (int i = keys.size() - 1; i >= 0; i -= 2) {
+      expected.remove(keys.get(i));
+      current = current.withoutMember(keys.get(i));
+      check(expected, current);
+    }
+    Check.isTrue(current.withoutMember("AaAaAaAaAa") == current, "missing member removed");
+    for (int i = 0; i < keys.size(); i += 2) {
+      expected.remove(keys.get(i));
+      current = current.withoutMember(keys.get(i));
+      check(expected, current);
+    }
+    Check.equal(100, current.size());
+    check(expected, current);
+  }
+}
@@ -0,0 +1,126 @@
+package de.chloedev.config.test;
+
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.snapshot.SnapshotDocument;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class SnapshotDocumentTest {
+  private static final String JSON =
+      "{\"name\": \"app\", \"servers\": [{\"host\": \"a\", \"port\": 1}, {\"host\": \"b\", "
+          + "\"port\": 2}], \"nested\": {\"k\": [true, null, 1.5e2, -7, 0.1]}, \"empty\": {}, "
+          + "\"big\": 123456789012345678901234567890, \"text\": \"h\\u00e9 \\\"q\\\"\"}";
+
+  private static JsonElement snapshot(String json) throws Exception {
+    return SnapshotDocument.of(SnapshotDocument.encode(JsonParser.parse(json))).root();
+  }
+
+  public void testSameTreeAsParser() throws Exception {
+    Check.json(JSON, snapshot(JSON));
+    Check.json("[[], {}, \"x\", -0.5]", snapshot("[[], {}, \"x\", -0.5]"));
+  }
+
+  public void testMissingKeys() throws Exception {
+    JsonObject root = (JsonObject) snapshot(JSON);
+    Check.isTrue(root.getMember("nope") == null, "found a key no object has");
+    Check.isTrue(root.getMember("host") == null, "found a key of a nested object");
+  }
+
+  public void testLookupsKeepIdentity() throws Exception {
+    JsonObject root = (JsonObject) snapshot(JSON);
+    JsonElement servers = root.getMember("servers");
+    Check.isTrue(servers == root.getMember("servers"), "lookup built a second instance");
+    JsonElement first = ((JsonArray) servers).get(0);
+    root.entrySet().size(); // materializes the root
+    Check.isTrue(servers == root.getMember("servers"), "materialization replaced a value");
+    Check.isTrue(first == ((JsonArray) root.getMember("servers")).get(0), "element rebuilt");
+  }
+
+  public void testWritesMaterialize() throws Exception {
+    JsonObject root = (JsonObject) snapshot(JSON);
+    root.putMember("added", JsonParser.parse("[1]"));
+    root.removeMember("empty");
+    ((JsonArray) root.getMember("servers")).remove(0);
+    Check.json(
+        "{\"name\": \"app\", \"servers\": [{\"host\": \"b\", \"port\": 2}], "
+            + "\"nested\": {\"k\": [true, null, 150, -7, 0.1]}, "
+            + "\"big\": 123456789012345678901234567890, \"text\": \"h\\u00e9 \\\"q\\\"\", "
+            + "\"added\": [1]}",
+        root);
+  }
+
+  public void testFileRoundTrip() throws Exception {
+    Path dir = Files.createTempDirectory("snapshot-test");
+    Path source = dir.resolve("config.json");
+    Path file = dir.resolve("config.snap");
+    try {
+      Files.writeString(source, JSON);
+      SnapshotDocument.write(JsonParser.parse(JSON), file, source);
+      SnapshotDocument doc = SnapshotDocument.open(file);
+      Check.json(JSON, doc.root());
+      Check.isTrue(doc.isUpToDate(source), "fresh snapshot reported stale");
+      Files.writeString(source, JSON + " ");
+      Check.isTrue(!doc.isUpToDate(source), "stale snapshot reported up to date");
+    } finally {
+      Files.deleteIfExists(file);
+      Files.deleteIfExists(source);
+      Files.delete(dir);
+    }
+  }
+
+  public void testConcurrentReaders() throws Exception {
+    StringBuilder sb = new StringBuilder("{");
+    for (int i = 0; i < 200; i++) {
+      sb.append(i > 0 ? ", " : "").append("\"k").append(i).append("\": [").append(i);
+      sb.append(", {\"v\": ").append(i).append("}]");
+    }
+    byte[] bytes = SnapshotDocument.encode(JsonParser.parse(sb.append('}').toString()));
+    int threads = 8;
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      for (int round = 0; round < 20; round++) {
+        JsonObject root = (JsonObject) SnapshotDocument.of(bytes).root();
+        CyclicBarrier start = new CyclicBarrier(threads);
+        List<Future<JsonElement[]>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+          int offset = t * 13;
+          results.add(
+              pool.submit(
+                  () -> {
+                    start.await();
+                    JsonElement[] seen = new JsonElement[200];
+                    for (int i = 0; i < 200; i++) {
+                      int k = (i * 7 + offset) % 200;
+                      seen[k] = ((JsonArray) root.getMember("k" + k)).get(1);
+                      Check.equal((long) k, value(seen[k]));
+                    }
+                    return seen;
+                  }));
+        }
+        JsonElement[] first = results.get(0).get();
+        for (Future<JsonElement[]> f : results) {
+          JsonElement[] seen = f.get();
+          for (int k = 0; k < seen.length; k++) {
+            Check.isTrue(seen[k] == first[k], "readers got different instances of k" + k);
+          }
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static long value(JsonElement obj) {
+    return ((JsonPrimitive) ((JsonObject) obj).getMember("v")).getAsLong();
+  }
+}
@@ -0,0 +1,97 @@
+package de.chloedev.config.test;
+
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.element.JsonArray;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.tape.TapeDocument;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TapeDocumentTest {
+  private static final String JSON =
+      "{\"name\": \"app\", \"servers\": [{\"host\": \"a\", \"port\": 1}, {\"host\": \"b\", "
+          + "\"port\": 2}], \"esc\\u0061ped\": {\"k\": [true, null, 1.5e2]}, \"empty\": {}}";
+
+  private static JsonElement lazy(String json) {
+    return TapeDocument.parse(json.getBytes(StandardCharsets.UTF_8)).root();
+  }
+
+  public void testSameTreeAsParser() {
+    Check.json(JSON, lazy(JSON));
+    Check.json("[[], {}, \"x\", -0.5]", lazy("[[], {}, \"x\", -0.5]"));
+  }
+
+  public void testLookupsKeepIdentity() {
+    JsonObject root = (JsonObject) lazy(JSON);
+    JsonElement servers = root.getMember("servers");
+    Check.isTrue(servers == root.getMember("servers"), "lookup built a second instance");
+    JsonElement first = ((JsonArray) servers).get(0);
+    root.entrySet().size(); // materializes the root
+    Check.isTrue(servers == root.getMember("servers"), "materialization replaced a value");
+    Check.isTrue(first == ((JsonArray) root.getMember("servers")).get(0), "element rebuilt");
+  }
+
+  public void testWritesMaterialize() {
+    JsonObject root = (JsonObject) lazy(JSON);
+    root.putMember("added", JsonParser.parse("[1]"));
+    root.removeMember("empty");
+    ((JsonArray) root.getMember("servers")).remove(0);
+    Check.json(
+        "{\"name\": \"app\", \"servers\": [{\"host\": \"b\", \"port\": 2}], "
+            + "\"escaped\": {\"k\": [true, null, 150]}, \"added\": [1]}",
+        root);
+  }
+
+  public void testConcurrentReaders() throws Exception {
+    StringBuilder sb = new StringBuilder("{");
+    for (int i = 0; i < 200; i++) {
+      sb.append(i > 0 ? ", " : "").append("\"k").append(i).append("\": [").append(i);
+      sb.append(", {\"v\": ").append(i).append("}]");
+    }
+    String json = sb.append('}').toString();
+    int threads = 8;
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      for (int round = 0; round < 20; round++) {
+        JsonObject root = (JsonObject) lazy(json);
+        CyclicBarrier start = new CyclicBarrier(threads);
+        List<Future<JsonElement[]>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+          int offset = t * 13;
+          results.add(
+              pool.submit(
+                  () -> {
+                    start.await();
+                    JsonElement[] seen = new JsonElement[200];
+                    for (int i = 0; i < 200; i++) {
+                      int k = (i * 7 + offset) % 200;
+                      seen[k] = ((JsonArray) root.getMember("k" + k)).get(1);
+                      Check.equal((long) k, value(seen[k]));
+                    }
+                    return seen;
+                  }));
+        }
+        JsonElement[] first = results.get(0).get();
+        for (Future<JsonElement[]> f : results) {
+          JsonElement[] seen = f.get();
+          for (int k = 0; k < seen.length; k++) {
+            Check.isTrue(seen[k] == first[k], "readers got different instances of k" + k);
+          }
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static long value(JsonElement obj) {
+    return ((JsonPrimitive) ((JsonObject) obj).getMember("v")).getAsLong();
+  }
+}
@@ -0,0 +1,66 @@
+package de.chloedev.config.test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Runs every public no-argument method named {@code test...} of the test classes, each on a new
+ * instance, and exits with status 1 if any of them fails.
+ */
+public final class TestRunner {
+  private static final List<Class<?>> TESTS =
+      List.of(
+          BinderTest.class,
+          ConcurrentConfigurationTest.class,
+          ConfigPathTest.class,
+          FileWatcherTest.class,
+          FrozenTreeTest.class,
+          IndexedConfigurationTest.class,
+          JsonLinesTest.class,
+          JsonParserTest.class,
+          JsonPathTest.class,
+          LayeredConfigurationTest.class,
+          ListenerTest.class,
+          ParallelJsonParserTest.class,
+          PatchTest.class,
+          PersistentTreeTest.class,
+          SnapshotDocumentTest.class,
+          TapeDocumentTest.class,
+          TypedGetterTest.class,
+          WalkTest.class,
+          YamlTest.class);
+
+  private TestRunner() {}
+
+  public static void main(String[] args) throws ReflectiveOperationException {
+    int run = 0;
+    int failed = 0;
+    for (Class<?> type : TESTS) {
+      Method[] methods = type.getMethods();
+      Arrays.sort(methods, Comparator.comparing(Method::getName));
+      for (Method m : methods) {
+        if (!m.getName().startsWith("test")
+            || m.getParameterCount() != 0
+            || Modifier.isStatic(m.getModifiers())) {
+          continue;
+        }
+        run++;
+        try {
+          m.invoke(type.getConstructor().newInstance());
+        } catch (InvocationTargetException e) {
+          failed++;
+          System.err.println("FAILED " + type.getSimpleName() + "." + m.getName());
+          e.getCause().printStackTrace();
+        }
+      }
+    }
+    System.out.println(run + " tests, " + failed + " failed");
+    if (failed > 0) {
+      System.exit(1);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package de.chloedev.config.test;
+
+import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.io.JsonConfiguration;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+public class TypedGetterTest {
+  private final JsonConfiguration config =
+      JsonConfiguration.fromString(
+          "{\"int\": 42, \"neg\": -7, \"big\": 3000000000, \"huge\": 123456789012345678901234,"
+              + " \"max\": 9223372036854775807, \"frac\": 2.75, \"exp\": 1e300, \"str\": \"5\","
+              + " \"flag\": true, \"nil\": null}");
+
+  public void testInt() {
+    Check.equal(42, config.getInt("int", -1));
+    Check.equal(-7, config.getInt("neg", -1));
+    Check.equal(2, config.getInt("frac", -1));
+    Check.equal(-1, config.getInt("big", -1));
+    Check.equal(-1, config.getInt("huge", -1));
+    Check.equal(-1, config.getInt("exp", -1));
+    Check.equal(-1, config.getInt("str", -1));
+    Check.equal(-1, config.getInt("missing", -1));
+  }
+
+  public void testLong() {
+    Check.equal(3000000000L, config.getLong("big", -1));
+    Check.equal(Long.MAX_VALUE, config.getLong("max", -1));
+    Check.equal(-1L, config.getLong("huge", -1));
+    Check.equal(-1L, config.getLong("exp", -1));
+    Check.equal(-1L, config.getLong("nil", -1));
+  }
+
+  public void testOtherTypes() {
+    Check.equal(2.75, config.getDouble("frac", 0));
+    Check.equal(true, config.getBoolean("flag", false));
+    Check.equal(false, config.getBoolean("int", false));
+  }
+
+  public void testFitsInLong() {
+    Check.isTrue(JsonPrimitive.of(Long.MIN_VALUE).fitsInLong(), "long");
+    Check.isTrue(JsonPrimitive.of(-0x1p63).fitsInLong(), "-2^63");
+    Check.isTrue(!JsonPrimitive.of(0x1p63).fitsInLong(), "2^63");
+    Check.isTrue(!JsonPrimitive.of(Double.NaN).fitsInLong(), "NaN");
+    Check.isTrue(!new JsonPrimitive(BigInteger.ONE.shiftLeft(63)).fitsInLong(), "BigInteger");
+    Check.isTrue(new JsonPrimitive(new BigDecimal("12.5")).fitsInLong(), "BigDecimal");
+    Check.isTrue(!JsonPrimitive.of("1").fitsInLong(), "string");
+    Check.isTrue(!JsonPrimitive.ofNumberLiteral("9223372036854775808").fitsInLong(), "literal");
+  }
+}
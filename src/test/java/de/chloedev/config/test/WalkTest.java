@@ -0,0 +1,58 @@
+package de.chloedev.config.test;
+
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.io.ConcurrentJsonConfiguration;
+import de.chloedev.config.json.io.ConfigurationBase;
+import de.chloedev.config.json.io.JsonConfiguration;
+import de.chloedev.config.json.io.LayeredConfiguration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class WalkTest {
+  private static final String JSON =
+      "{\"a\": true, \"b\": true, \"c\": false, \"d\": {\"e\": 1, \"f\": [true, true]}}";
+
+  private static List<String> values(ConfigurationBase config, String root, boolean recursive) {
+    return config.getValues(root, recursive).stream()
+        .map(JsonElement::toString)
+        .collect(Collectors.toList());
+  }
+
+  private static void checkKeysAndValues(ConfigurationBase config) {
+    Check.equal(List.of("a", "b", "c", "d"), List.copyOf(config.getKeys("", false)));
+    Check.equal(
+        List.of("true", "true", "false", "{\"e\":1,\"f\":[true,true]}"), values(config, "", false));
+    Check.equal(
+        List.of("d/e", "d/f", "d/f/0", "d/f/1"), List.copyOf(config.getKeys("d", true)));
+    Check.equal(List.of("1", "[true,true]", "true", "true"), values(config, "d", true));
+    Check.equal(Set.of(), config.getKeys("missing", true));
+    Check.equal(List.of(), config.getValues("missing", true));
+  }
+
+  public void testValuesKeepDuplicates() {
+    checkKeysAndValues(JsonConfiguration.fromString(JSON));
+    checkKeysAndValues(ConcurrentJsonConfiguration.fromString(JSON));
+    checkKeysAndValues(LayeredConfiguration.of(JsonConfiguration.fromString(JSON)));
+  }
+
+  public void testParallelWalkKeepsOrder() {
+    StringBuilder sb = new StringBuilder("{");
+    for (int i = 0; i < 500; i++) {
+      sb.append(i > 0 ? ", " : "").append("\"k").append(i).append("\": {\"v\": [").append(i);
+      sb.append(", ").append(i % 2 == 0).append("]}");
+    }
+    JsonConfiguration config = JsonConfiguration.fromString(sb.append('}').toString());
+    List<String> sequential =
+        config.walk("", Integer.MAX_VALUE).map(JsonConfiguration.Entry::pathString).toList();
+    List<String> parallel =
+        config
+            .walk("", Integer.MAX_VALUE)
+            .parallel()
+            .map(JsonConfiguration.Entry::pathString)
+            .toList();
+    Check.equal(2000, sequential.size());
+    Check.equal(sequential, parallel);
+    Check.equal(List.copyOf(config.getKeys("", true)), sequential);
+  }
+}
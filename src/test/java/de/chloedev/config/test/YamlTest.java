@@ -0,0 +1,120 @@
+package de.chloedev.config.test;
+
+import de.chloedev.config.json.JsonParser;
+import de.chloedev.config.json.element.JsonElement;
+import de.chloedev.config.json.element.JsonObject;
+import de.chloedev.config.json.element.JsonPrimitive;
+import de.chloedev.config.json.event.ChangeListener;
+import de.chloedev.config.yaml.YamlParser;
+import de.chloedev.config.yaml.YamlWriter;
+import de.chloedev.config.yaml.io.YamlConfiguration;
+import java.util.ArrayList;
+import java.util.List;
+
+public class YamlTest {
+  public void testBlockAndFlowNodes() {
+    String yaml =
+        String.join(
+            "\n",
+            "# a comment",
+            "server:",
+            "  host: example.org   # trailing comment",
+            "  port: 8080",
+            "  tls: true",
+            "  proxy: ~",
+            "  ratio: 0.5",
+            "  hex: 0x1F",
+            "paths:",
+            "- /a",
+            "- '/b c'",
+            "- \"tab\\there\"",
+            "flow: {a: [1, 2, {b: c}], 'd': \"e\"}",
+            "literal: |",
+            "  line 1",
+            "  line 2",
+            "folded: >",
+            "  one",
+            "  two",
+            "typed: !!str 42",
+            "");
+    Check.json(
+        "{\"server\": {\"host\": \"example.org\", \"port\": 8080, \"tls\": true, \"proxy\": null,"
+            + " \"ratio\": 0.5, \"hex\": 31}, \"paths\": [\"/a\", \"/b c\", \"tab\\there\"],"
+            + " \"flow\": {\"a\": [1, 2, {\"b\": \"c\"}], \"d\": \"e\"},"
+            + " \"literal\": \"line 1\\nline 2\\n\", \"folded\": \"one two\\n\","
+            + " \"typed\": \"42\"}",
+        YamlParser.parse(yaml));
+  }
+
+  public void testDocuments() {
+    List<JsonElement> docs = YamlParser.parseAll("a: 1\n---\n- x\n...\n---\nb: 2\n");
+    Check.equal(3, docs.size());
+    Check.json("{\"a\": 1}", docs.get(0));
+    Check.json("[\"x\"]", docs.get(1));
+    Check.json("{\"b\": 2}", docs.get(2));
+    Check.json("null", YamlParser.parse(""));
+    Check.fails(IllegalArgumentException.class, () -> YamlParser.parse("a: 1\n---\nb: 2\n"));
+  }
+
+  public void testAnchorsAndMergeKeys() {
+    String yaml =
+        "base: &b {k: 1, l: [1]}\nother: *b\nmerged:\n  <<: *b\n  k: 2\nlist: [*b, *b]\n";
+    Check.json(
+        "{\"base\": {\"k\": 1, \"l\": [1]}, \"other\": {\"k\": 1, \"l\": [1]},"
+            + " \"merged\": {\"k\": 2, \"l\": [1]},"
+            + " \"list\": [{\"k\": 1, \"l\": [1]}, {\"k\": 1, \"l\": [1]}]}",
+        YamlParser.parse(yaml));
+    Check.fails(IllegalArgumentException.class, () -> YamlParser.parse("a: *missing\n"));
+    Check.fails(IllegalArgumentException.class, () -> YamlParser.parse("a:\n  <<: 1\n"));
+  }
+
+  public void testAliasesDoNotShareContainers() {
+    YamlConfiguration config =
+        YamlConfiguration.fromString("a: &x {k: 1}\nb: *x\nc:\n  <<: *x\nd: [*x]\n");
+    List<String> heard = new ArrayList<>();
+    config.addListener("a", (ChangeListener) e -> heard.add(e.getPath().toString()));
+    config.set("b/k", JsonPrimitive.of(9));
+    config.set("c/k", JsonPrimitive.of(8));
+    config.set("d/0/k", JsonPrimitive.of(7));
+    Check.json(
+        "{\"a\": {\"k\": 1}, \"b\": {\"k\": 9}, \"c\": {\"k\": 8}, \"d\": [{\"k\": 7}]}",
+        JsonParser.parse(config.asJson().toString()));
+    Check.equal(List.of(), heard);
+  }
+
+  public void testAliasExpansionIsBounded() {
+    StringBuilder yaml = new StringBuilder("l0: &l0 [x, x, x, x, x, x, x, x, x, x]\n");
+    for (int i = 1; i < 10; i++) {
+      yaml.append('l').append(i).append(": &l").append(i).append(" [");
+      for (int j = 0; j < 10; j++) {
+        yaml.append(j > 0 ? ", *l" : "*l").append(i - 1);
+      }
+      yaml.append("]\n");
+    }
+    Check.fails(IllegalArgumentException.class, () -> YamlParser.parse(yaml.toString()));
+  }
+
+  public void testNonFiniteNumbers() {
+    JsonElement tree = YamlParser.parse("inf: .inf\nneg: -.Inf\nnan: .NaN\n");
+    // JSON has no such numbers, so the JSON text holds nulls and stays valid
+    Check.json("{\"inf\": null, \"neg\": null, \"nan\": null}", JsonParser.parse(tree.toString()));
+    String yaml = YamlWriter.toString(tree, 2);
+    Check.isTrue(yaml.contains(".inf") && yaml.contains("-.inf") && yaml.contains(".nan"), yaml);
+    JsonObject back = (JsonObject) YamlParser.parse(yaml);
+    Check.equal(Double.NEGATIVE_INFINITY, ((JsonPrimitive) back.getMember("neg")).getAsDouble());
+  }
+
+  public void testRoundTrip() {
+    String json =
+        "{\"a\": {\"b\": [1, 2.5, \"three\", true, null, {\"c\": \"multi\\nline\"}]},"
+            + " \"quoted\": \"yes\", \"colon\": \"a: b\", \"empty\": {}, \"none\": []}";
+    JsonElement tree = JsonParser.parse(json);
+    Check.json(json, YamlParser.parse(YamlWriter.toString(tree, 2)));
+  }
+
+  public void testSyntaxErrors() {
+    Check.fails(IllegalArgumentException.class, () -> YamlParser.parse("a: 1\n  b: 2\n"));
+    Check.fails(IllegalArgumentException.class, () -> YamlParser.parse("a: [1, 2\n"));
+    Check.fails(IllegalArgumentException.class, () -> YamlParser.parse("a: 'open\n"));
+  }
+}
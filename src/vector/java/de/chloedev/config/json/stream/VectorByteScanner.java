@@ -0,0 +1,67 @@
+package de.chloedev.config.json.stream;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Scans 16 or 32 bytes at a time, depending on the hardware. Only loaded reflectively by {@link
+ * ByteScanner} once the incubator module is known to be present.
+ */
+final class VectorByteScanner extends ByteScanner {
+  // 512-bit vectors measured slower than 256-bit ones on the short strings typical of configs
+  private static final VectorSpecies<Byte> SPECIES =
+      ByteVector.SPECIES_PREFERRED.vectorBitSize() > 256
+          ? ByteVector.SPECIES_256
+          : ByteVector.SPECIES_PREFERRED;
+  private static final int WIDTH = SPECIES.length();
+
+  @Override
+  public String name() {
+    return "vector" + (WIDTH * 8);
+  }
+
+  @Override
+  boolean isUseful() {
+    return WIDTH >= 16;
+  }
+
+  @Override
+  public int skipWhitespace(byte[] b, int from, int to) {
+    int i = from;
+    // most runs are a single separator, which is not worth a vector load
+    if (i < to && !isWhitespace(b[i])) {
+      return i;
+    }
+    for (; i + WIDTH <= to; i += WIDTH) {
+      ByteVector v = ByteVector.fromArray(SPECIES, b, i);
+      VectorMask<Byte> ws =
+          v.eq((byte) ' ').or(v.eq((byte) '\n')).or(v.eq((byte) '\r')).or(v.eq((byte) '\t'));
+      if (!ws.allTrue()) {
+        return i + ws.not().firstTrue();
+      }
+    }
+    while (i < to && isWhitespace(b[i])) {
+      i++;
+    }
+    return i;
+  }
+
+  @Override
+  public int findQuoteOrBackslash(byte[] b, int from, int to) {
+    int i = from;
+    for (; i + WIDTH <= to; i += WIDTH) {
+      ByteVector v = ByteVector.fromArray(SPECIES, b, i);
+      VectorMask<Byte> m = v.eq((byte) '"').or(v.eq((byte) '\\'));
+      if (m.anyTrue()) {
+        return i + m.firstTrue();
+      }
+    }
+    for (; i < to; i++) {
+      if (b[i] == '"' || b[i] == '\\') {
+        return i;
+      }
+    }
+    return to;
+  }
+}